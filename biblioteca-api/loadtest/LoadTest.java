@@ -0,0 +1,225 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga da API: N clientes simultâneos, cada um repetindo
+ * requisições GET (escolhidas ao acaso da lista de rotas) assim que recebe a
+ * resposta anterior, por um tempo fixo. Mede vazão e latência (p50 a p99.9)
+ * apenas após o aquecimento.
+ *
+ * Sem dependências (Java 21): java loadtest/LoadTest.java --help
+ */
+public class LoadTest {
+
+    private static final List<String> DEFAULT_PATHS = List.of(
+            "/api/loans/active/student/2024001",
+            "/api/loans/active/student/2024002",
+            "/api/reservations/book/978-8535914093",
+            "/api/books/page?size=20",
+            "/api/students/page?size=20",
+            "/api/books/978-8535914093");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        if (options.containsKey("help")) {
+            System.out.println("""
+                    Uso: java loadtest/LoadTest.java [opções]
+                      --url=http://localhost:8080   endereço da API
+                      --clients=2000                clientes simultâneos
+                      --warmup=15                   segundos de aquecimento (não medidos)
+                      --duration=60                 segundos medidos
+                      --timeout=30                  tempo máximo de cada requisição (s)
+                      --paths=/a,/b                 rotas GET (padrão: leituras que vão ao banco)
+                      --label=platform              nome da rodada no resultado
+                      --csv=loadtest/results.csv    acrescenta uma linha com o resultado
+                    """);
+            return;
+        }
+
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "2000"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "30")));
+        List<String> paths = options.containsKey("paths")
+                ? Arrays.asList(options.get("paths").split(","))
+                : DEFAULT_PATHS;
+        String label = options.getOrDefault("label", "run");
+
+        List<URI> targets = paths.stream().map(path -> URI.create(baseUrl + path.trim())).toList();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.printf("%s: %d clientes, aquecimento %ds, medição %ds, %d rota(s) em %s%n",
+                label, clients, warmup.toSeconds(), duration.toSeconds(), targets.size(), baseUrl);
+
+        long startNanos = System.nanoTime();
+        long measureFrom = startNanos + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        LongAdder errors = new LongAdder();
+        LongAdder non2xx = new LongAdder();
+        List<long[]> perClient = new ArrayList<>(clients);
+        int[] recordedCounts = new int[clients];
+        CountDownLatch done = new CountDownLatch(clients);
+
+        // Os clientes são threads virtuais: 2.000 conexões bloqueantes sem
+        // 2.000 threads do sistema no gerador de carga
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                long[] latencies = new long[1024];
+                perClient.add(latencies);
+                int index = i;
+                executor.execute(() -> {
+                    long[] samples = latencies;
+                    int count = 0;
+                    try {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        while (true) {
+                            long sent = System.nanoTime();
+                            if (sent >= measureUntil) {
+                                break;
+                            }
+                            HttpRequest request = HttpRequest.newBuilder(targets.get(random.nextInt(targets.size())))
+                                    .timeout(timeout)
+                                    .GET()
+                                    .build();
+                            boolean failed = false;
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() / 100 != 2) {
+                                    failed = true;
+                                    if (sent >= measureFrom) {
+                                        non2xx.increment();
+                                    }
+                                }
+                            } catch (IOException e) {
+                                failed = true;
+                                if (sent >= measureFrom) {
+                                    errors.increment();
+                                }
+                            }
+                            long received = System.nanoTime();
+                            if (!failed && sent >= measureFrom && received <= measureUntil) {
+                                if (count == samples.length) {
+                                    samples = Arrays.copyOf(samples, samples.length * 2);
+                                    perClient.set(index, samples);
+                                }
+                                samples[count++] = received - sent;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        recordedCounts[index] = count;
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+
+        long total = 0;
+        for (int count : recordedCounts) {
+            total += count;
+        }
+        long[] all = new long[(int) total];
+        int offset = 0;
+        for (int i = 0; i < clients; i++) {
+            System.arraycopy(perClient.get(i), 0, all, offset, recordedCounts[i]);
+            offset += recordedCounts[i];
+        }
+        Arrays.sort(all);
+
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        result.put("label", label);
+        result.put("clients", String.valueOf(clients));
+        result.put("durationS", String.valueOf(duration.toSeconds()));
+        result.put("requests", String.valueOf(all.length));
+        result.put("throughputRps", format(all.length / seconds));
+        result.put("errors", String.valueOf(errors.sum()));
+        result.put("non2xx", String.valueOf(non2xx.sum()));
+        result.put("p50Ms", millis(all, 0.50));
+        result.put("p90Ms", millis(all, 0.90));
+        result.put("p99Ms", millis(all, 0.99));
+        result.put("p999Ms", millis(all, 0.999));
+        result.put("maxMs", all.length == 0 ? "-" : format(all[all.length - 1] / 1e6));
+
+        result.forEach((name, value) -> System.out.printf("  %-14s %s%n", name, value));
+
+        if (options.containsKey("csv")) {
+            appendCsv(Path.of(options.get("csv")), result);
+        }
+    }
+
+    private static String millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return "-";
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return format(sorted[Math.max(0, index)] / 1e6);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static void appendCsv(Path file, Map<String, String> result) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            boolean header = !Files.exists(file) || Files.size(file) == 0;
+            StringBuilder lines = new StringBuilder();
+            if (header) {
+                lines.append(String.join(",", result.keySet())).append('\n');
+            }
+            lines.append(String.join(",", result.values())).append('\n');
+            Files.writeString(file, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Opção inválida: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+}
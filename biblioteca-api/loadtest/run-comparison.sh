@@ -0,0 +1,48 @@
+#!/usr/bin/env sh
+# Compara os dois modos de execução das requisições (threads do Tomcat x
+# threads virtuais) com a mesma carga. Requer Java 21, o jar da API
+# (mvn package -DskipTests) e o PostgreSQL configurado por DATABASE_URL,
+# DB_USERNAME e DB_PASSWORD. Os resultados são acrescentados em
+# loadtest/results/comparison.csv.
+#
+# Uso: loadtest/run-comparison.sh [clientes] [segundos]
+set -eu
+
+CLIENTS="${1:-2000}"
+DURATION="${2:-60}"
+PORT="${PORT:-8080}"
+DIR="$(cd "$(dirname "$0")" && pwd)"
+JAR="$(ls "$DIR"/../target/biblioteca-api-*.jar | head -n 1)"
+RESULTS="$DIR/results/comparison.csv"
+
+mkdir -p "$DIR/results"
+
+run() {
+  MODE="$1"
+  VIRTUAL="$2"
+  echo "== $MODE =="
+  VIRTUAL_THREADS="$VIRTUAL" java -jar "$JAR" --server.port="$PORT" \
+    --spring.jpa.show-sql=false --logging.level.org.hibernate.SQL=WARN \
+    --logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN \
+    > "$DIR/results/$MODE.log" 2>&1 &
+  APP_PID=$!
+  trap 'kill "$APP_PID" 2>/dev/null || true' EXIT
+
+  until curl -fs "http://localhost:$PORT/api/health" > /dev/null; do
+    sleep 1
+  done
+
+  java "$DIR/LoadTest.java" --url="http://localhost:$PORT" --clients="$CLIENTS" \
+    --duration="$DURATION" --label="$MODE" --csv="$RESULTS"
+  curl -fs "http://localhost:$PORT/api/metrics" > "$DIR/results/$MODE-metrics.json" || true
+
+  kill "$APP_PID"
+  wait "$APP_PID" 2>/dev/null || true
+  trap - EXIT
+}
+
+run platform false
+run virtual true
+
+echo
+echo "Resultados: $RESULTS"
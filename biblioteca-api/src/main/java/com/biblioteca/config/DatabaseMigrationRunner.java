@@ -1,26 +1,49 @@
 package com.biblioteca.config;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StreamUtils;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Componente que executa migrações SQL automaticamente na inicialização
  * Executa scripts de migração encontrados em src/main/resources/
+ * As migrações rodam antes do EntityManagerFactory, para que o Hibernate
+ * (ddl-auto=validate, perfis prod e cloud) já encontre as tabelas novas
+ * Com ddl-auto=update (padrão) ou create-drop (dev, testes) num banco vazio,
+ * as tabelas só existem depois do EntityManagerFactory: os scripts que
+ * falharam na primeira passada são repetidos logo após ele, antes dos
+ * serviços que dependem deles (ver AFTER_ENTITY_MANAGER_FACTORY)
+ * Migrações em db/migration/postgresql/ usam recursos próprios do PostgreSQL
+ * (tsvector, extensões) e só rodam nesse banco; no H2 dos testes são ignoradas
  */
 @Component
 public class DatabaseMigrationRunner {
 
   private static final Logger logger = LoggerFactory.getLogger(DatabaseMigrationRunner.class);
 
+  private static final String POSTGRESQL_ONLY = "db/migration/postgresql/";
+
+  /**
+   * Nome do bean que repete as migrações que falharam; quem precisa delas na
+   * inicialização declara @DependsOn com este nome
+   */
+  public static final String AFTER_ENTITY_MANAGER_FACTORY = "migrationsAfterEntityManagerFactory";
+
   private final JdbcTemplate jdbcTemplate;
+  // Migrações que falharam antes do EntityManagerFactory
+  private final List<String> failedMigrations = new ArrayList<>();
 
   @Autowired
   public DatabaseMigrationRunner(JdbcTemplate jdbcTemplate) {
@@ -33,21 +56,64 @@ public class DatabaseMigrationRunner {
 
     // Lista de migrações a serem executadas (em ordem)
     String[] migrations = {
-        "migration-add-fine-status.sql"
+        "migration-add-fine-status.sql",
+        "db/migration/001-add-loan-indexes.sql",
+        "db/migration/002-create-email-outbox.sql",
+        "db/migration/003-add-loan-last-overdue-notice.sql",
+        "db/migration/004-create-import-job.sql",
+        // 005 (índice da fila sem prioridade) fica fora da lista: a 006 o
+        // substitui, e rodar as duas a cada subida recriava e removia o índice
+        "db/migration/006-add-reservation-priority-and-capacity.sql",
+        POSTGRESQL_ONLY + "007-add-book-search-vector.sql",
+        "db/migration/008-add-loan-book-index.sql"
     };
 
+    boolean postgresql = isPostgreSql();
+
     for (String migrationFile : migrations) {
-      try {
-        executeMigration(migrationFile);
-      } catch (Exception e) {
-        logger.warn("⚠️  Aviso ao executar migração {}: {}", migrationFile, e.getMessage());
+      if (migrationFile.startsWith(POSTGRESQL_ONLY) && !postgresql) {
+        logger.info("⏭️  Migração {} ignorada (exclusiva do PostgreSQL)", migrationFile);
+        continue;
+      }
+      if (!executeMigration(migrationFile)) {
+        failedMigrations.add(migrationFile);
       }
     }
 
     logger.info("✅ Execução de migrações concluída!");
   }
 
-  private void executeMigration(String migrationFile) {
+  /**
+   * Repete as migrações que falharam na primeira passada (tabelas que o
+   * Hibernate ainda não tinha criado); as que falharem de novo ficam no log
+   */
+  public synchronized void retryFailedMigrations() {
+    if (failedMigrations.isEmpty()) {
+      return;
+    }
+    logger.info("🔄 Repetindo {} migração(ões) após a criação das tabelas...", failedMigrations.size());
+    failedMigrations.removeIf(this::executeMigration);
+    for (String migrationFile : failedMigrations) {
+      logger.warn("⚠️  Migração {} não pôde ser aplicada", migrationFile);
+    }
+  }
+
+  private boolean isPostgreSql() {
+    try {
+      String product = jdbcTemplate.execute(
+          (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+      return "PostgreSQL".equalsIgnoreCase(product);
+    } catch (Exception e) {
+      logger.warn("⚠️  Não foi possível identificar o banco de dados: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Executa um script; retorna false se ele falhou por outro motivo que não
+   * "já existe" (para ser repetido após o EntityManagerFactory)
+   */
+  private boolean executeMigration(String migrationFile) {
     try {
       logger.info("📄 Executando migração: {}", migrationFile);
 
@@ -56,7 +122,7 @@ public class DatabaseMigrationRunner {
 
       if (!resource.exists()) {
         logger.warn("⚠️  Arquivo de migração não encontrado: {}", migrationFile);
-        return;
+        return true;
       }
 
       // Ler conteúdo do arquivo
@@ -68,6 +134,7 @@ public class DatabaseMigrationRunner {
       jdbcTemplate.execute(sql);
 
       logger.info("✅ Migração {} executada com sucesso!", migrationFile);
+      return true;
 
     } catch (Exception e) {
       // Os scripts SQL têm verificações IF NOT EXISTS, então erros de "já existe" são
@@ -79,10 +146,41 @@ public class DatabaseMigrationRunner {
           errorMsg.contains("duplicate") ||
           (errorMsg.contains("relation") && errorMsg.contains("already exists"))) {
         logger.info("ℹ️  Migração {} já foi executada anteriormente (isso é normal)", migrationFile);
-      } else {
-        // Para outros erros, apenas loga como warning
-        logger.warn("⚠️  Aviso ao executar migração {}: {}", migrationFile, e.getMessage());
+        return true;
       }
+      // Para outros erros, apenas loga como warning
+      logger.warn("⚠️  Aviso ao executar migração {}: {}", migrationFile, e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Faz o EntityManagerFactory esperar pelas migrações
+   */
+  @Component
+  static class MigrationsBeforeEntityManagerFactory extends EntityManagerFactoryDependsOnPostProcessor {
+    MigrationsBeforeEntityManagerFactory() {
+      super(DatabaseMigrationRunner.class);
+    }
+  }
+
+  /**
+   * Repete as migrações que falharam, depois que o EntityManagerFactory
+   * (ddl-auto) criou as tabelas
+   */
+  @Component(AFTER_ENTITY_MANAGER_FACTORY)
+  static class MigrationsAfterEntityManagerFactory {
+    private final DatabaseMigrationRunner migrationRunner;
+
+    // O EntityManagerFactory só é recebido para garantir a ordem
+    MigrationsAfterEntityManagerFactory(DatabaseMigrationRunner migrationRunner,
+        EntityManagerFactory entityManagerFactory) {
+      this.migrationRunner = migrationRunner;
+    }
+
+    @PostConstruct
+    void retryFailedMigrations() {
+      migrationRunner.retryFailedMigrations();
     }
   }
 }
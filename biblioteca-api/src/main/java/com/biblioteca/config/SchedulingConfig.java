@@ -0,0 +1,14 @@
+package com.biblioteca.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas da aplicação (@Scheduled).
+ * Cada tarefa pode ser desligada individualmente pela sua propriedade
+ * biblioteca.*.enabled (os testes desligam todas).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,16 +1,26 @@
 package com.biblioteca.controller;
 
 import com.biblioteca.dto.BookAvailabilityDTO;
+import com.biblioteca.dto.BookSearchResultDTO;
+import com.biblioteca.dto.CursorPageDTO;
+import com.biblioteca.dto.SuggestionDTO;
+import com.biblioteca.event.ReportDataChangedEvent;
 import com.biblioteca.model.Book;
 import com.biblioteca.repository.BookRepository;
+import com.biblioteca.service.AutocompleteService;
+import com.biblioteca.service.BatchIngestionService;
+import com.biblioteca.service.BookAvailabilityService;
 import com.biblioteca.service.BookService;
+import com.biblioteca.service.CatalogSearchService;
+import com.biblioteca.service.EntityCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,11 +33,29 @@ public class BookManagementController {
 
     private final BookRepository bookRepository;
     private final BookService bookService;
+    private final BatchIngestionService batchIngestionService;
+    private final CatalogSearchService catalogSearchService;
+    private final AutocompleteService autocompleteService;
+    private final EntityCache entityCache;
+    private final BookAvailabilityService availabilityService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public BookManagementController(BookRepository bookRepository, BookService bookService) {
+    public BookManagementController(BookRepository bookRepository, BookService bookService,
+                                    BatchIngestionService batchIngestionService,
+                                    CatalogSearchService catalogSearchService,
+                                    AutocompleteService autocompleteService,
+                                    EntityCache entityCache,
+                                    BookAvailabilityService availabilityService,
+                                    ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
         this.bookService = bookService;
+        this.batchIngestionService = batchIngestionService;
+        this.catalogSearchService = catalogSearchService;
+        this.autocompleteService = autocompleteService;
+        this.entityCache = entityCache;
+        this.availabilityService = availabilityService;
+        this.eventPublisher = eventPublisher;
     }
 
     @PostMapping
@@ -38,6 +66,9 @@ public class BookManagementController {
                     .body(null); // ou retornar erro apropriado
         }
         Book savedBook = bookRepository.save(book);
+        catalogSearchService.index(savedBook);
+        autocompleteService.indexBook(savedBook);
+        eventPublisher.publishEvent(ReportDataChangedEvent.forBook("book-created", savedBook.getIsbn()));
         return ResponseEntity.status(HttpStatus.CREATED).body(savedBook);
     }
 
@@ -45,33 +76,17 @@ public class BookManagementController {
      * Cadastrar múltiplos livros de uma vez
      * POST /api/books/batch
      * Aceita um array de livros no body
+     * ISBNs duplicados são verificados de uma vez e os livros são gravados em lotes
      */
     @PostMapping("/batch")
     public ResponseEntity<Map<String, Object>> createBooksBatch(@Valid @RequestBody List<Book> books) {
         Map<String, Object> response = new HashMap<>();
-        List<Book> savedBooks = new ArrayList<>();
-        List<Map<String, String>> errors = new ArrayList<>();
-
-        for (Book book : books) {
-            try {
-                // Verificar se já existe livro com esse ISBN
-                if (bookRepository.existsById(book.getIsbn())) {
-                    Map<String, String> error = new HashMap<>();
-                    error.put("isbn", book.getIsbn());
-                    error.put("title", book.getTitle());
-                    error.put("message", "Livro com este ISBN já existe");
-                    errors.add(error);
-                    continue;
-                }
-                Book savedBook = bookRepository.save(book);
-                savedBooks.add(savedBook);
-            } catch (Exception e) {
-                Map<String, String> error = new HashMap<>();
-                error.put("isbn", book.getIsbn());
-                error.put("title", book.getTitle());
-                error.put("message", "Erro ao salvar: " + e.getMessage());
-                errors.add(error);
-            }
+        BatchIngestionService.BatchResult<Book> result = batchIngestionService.ingestBooks(books);
+        List<Book> savedBooks = result.getSaved();
+        List<Map<String, String>> errors = result.getErrors();
+
+        if (!savedBooks.isEmpty()) {
+            eventPublisher.publishEvent(new ReportDataChangedEvent("books-created"));
         }
 
         response.put("success", savedBooks.size());
@@ -96,9 +111,66 @@ public class BookManagementController {
         return ResponseEntity.ok(books);
     }
 
+    /**
+     * Listar livros paginados por cursor (ISBN)
+     * GET /api/books/page?after={isbn}&size={n}
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<Book>> getBooksPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = CursorPageDTO.normalizeSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Book> rows = (after == null || after.isBlank())
+                ? bookRepository.findAllByOrderByIsbnAsc(limit)
+                : bookRepository.findByIsbnGreaterThanOrderByIsbnAsc(after, limit);
+        return ResponseEntity.ok(CursorPageDTO.of(rows, pageSize, Book::getIsbn));
+    }
+
+    /**
+     * Buscar livros por título, autor, palavras-chave e sinopse
+     * GET /api/books/search?q={texto}&limit={n}
+     * Sem diferença de acentos/maiúsculas; o último termo casa por prefixo.
+     * Resultados ordenados por relevância. Esta rota deve vir antes de /{isbn}
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<BookSearchResultDTO>> searchBooks(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(catalogSearchService.search(query, limit));
+    }
+
+    /**
+     * Sugestões de livros enquanto o usuário digita (título ou autor)
+     * GET /api/books/autocomplete?q={texto}&limit={n}
+     * Casa o início do título/autor ou de uma de suas palavras, sem diferença
+     * de acentos/maiúsculas
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SuggestionDTO>> autocompleteBooks(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(autocompleteService.suggestBooks(query, limit));
+    }
+
+    /**
+     * Compara a disponibilidade em memória com o banco e corrige divergências
+     * POST /api/books/availability/consistency-check
+     */
+    @PostMapping("/availability/consistency-check")
+    public ResponseEntity<Map<String, Object>> checkAvailabilityConsistency() {
+        try {
+            return ResponseEntity.ok(availabilityService.checkConsistency());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Verificar disponibilidade detalhada de um livro
      * GET /api/books/{isbn}/availability
+     * Estoque, fila de reservas e previsão de devolução (nextAvailableDate,
+     * quando não há exemplar), lidos da cópia em memória.
      * Esta rota deve vir antes de /{isbn} para evitar conflito
      */
     @GetMapping("/{isbn}/availability")
@@ -113,7 +185,7 @@ public class BookManagementController {
 
     @GetMapping("/{isbn}")
     public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn) {
-        Optional<Book> book = bookRepository.findById(isbn);
+        Optional<Book> book = entityCache.findBook(isbn);
         return book.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -130,8 +202,16 @@ public class BookManagementController {
             book.setKeywords(bookDetails.getKeywords());
             book.setSynopsis(bookDetails.getSynopsis());
             book.setQuantity(bookDetails.getQuantity());
+            // Campo opcional que a tela de edição pode não enviar: ausente,
+            // mantém a capacidade atual
+            if (bookDetails.getReservationCapacity() != null) {
+                book.setReservationCapacity(bookDetails.getReservationCapacity());
+            }
 
             Book updatedBook = bookRepository.save(book);
+            catalogSearchService.index(updatedBook);
+            autocompleteService.indexBook(updatedBook);
+            eventPublisher.publishEvent(ReportDataChangedEvent.forBook("book-updated", isbn));
             return ResponseEntity.ok(updatedBook);
         }
         return ResponseEntity.notFound().build();
@@ -145,6 +225,9 @@ public class BookManagementController {
 
             // Se passou na validação, pode deletar
             bookRepository.deleteById(isbn);
+            catalogSearchService.remove(isbn);
+            autocompleteService.removeBook(isbn);
+            eventPublisher.publishEvent(ReportDataChangedEvent.forBook("book-deleted", isbn));
             return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
             // Retornar mensagem de erro se não puder deletar
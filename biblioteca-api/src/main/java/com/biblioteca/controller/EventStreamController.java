@@ -0,0 +1,49 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.service.BookEventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Controller do canal de eventos (Server-Sent Events)
+ * Envia as mudanças de estoque e de fila de reservas enquanto a conexão
+ * estiver aberta; ver BookEventStreamService para os eventos enviados
+ */
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class EventStreamController {
+
+  private final BookEventStreamService streamService;
+
+  @Autowired
+  public EventStreamController(BookEventStreamService streamService) {
+    this.streamService = streamService;
+  }
+
+  /**
+   * Abrir o canal de eventos
+   * GET /api/events/stream?isbn=...&matricula=...
+   * Sem filtros recebe os eventos de todos os livros; isbn e matricula
+   * aceitam vários valores (separados por vírgula ou repetidos).
+   * 400 com filtros demais, 503 com o limite de conexões atingido
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> stream(
+      @RequestParam(name = "isbn", required = false) List<String> isbns,
+      @RequestParam(name = "matricula", required = false) List<String> matriculas) {
+    try {
+      return ResponseEntity.ok(streamService.subscribe(isbns, matriculas));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Controller de exportação do histórico completo de empréstimos e reservas.
+ * As respostas são transmitidas enquanto são lidas do banco (NDJSON ou CSV).
+ */
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+  private final ExportService exportService;
+
+  @Autowired
+  public ExportController(ExportService exportService) {
+    this.exportService = exportService;
+  }
+
+  /**
+   * Exportar histórico de empréstimos
+   * GET /api/export/loans?format=ndjson|csv
+   */
+  @GetMapping("/loans")
+  public ResponseEntity<?> exportLoans(@RequestParam(defaultValue = "ndjson") String format) {
+    ExportService.Format exportFormat = parseFormat(format);
+    if (exportFormat == null) {
+      return ResponseEntity.badRequest().body("Formato inválido. Use ndjson ou csv");
+    }
+    StreamingResponseBody body = out -> exportService.writeLoans(out, exportFormat);
+    return streaming(body, exportFormat, "emprestimos");
+  }
+
+  /**
+   * Exportar histórico de reservas
+   * GET /api/export/reservations?format=ndjson|csv
+   */
+  @GetMapping("/reservations")
+  public ResponseEntity<?> exportReservations(@RequestParam(defaultValue = "ndjson") String format) {
+    ExportService.Format exportFormat = parseFormat(format);
+    if (exportFormat == null) {
+      return ResponseEntity.badRequest().body("Formato inválido. Use ndjson ou csv");
+    }
+    StreamingResponseBody body = out -> exportService.writeReservations(out, exportFormat);
+    return streaming(body, exportFormat, "reservas");
+  }
+
+  private ExportService.Format parseFormat(String format) {
+    try {
+      return ExportService.Format.valueOf(format.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private ResponseEntity<StreamingResponseBody> streaming(StreamingResponseBody body,
+      ExportService.Format format, String baseName) {
+    boolean csv = format == ExportService.Format.CSV;
+    String fileName = baseName + (csv ? ".csv" : ".ndjson");
+    return ResponseEntity.ok()
+        .contentType(csv ? CSV : NDJSON)
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+        .body(body);
+  }
+}
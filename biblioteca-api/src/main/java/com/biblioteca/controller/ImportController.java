@@ -0,0 +1,97 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.model.ImportJob;
+import com.biblioteca.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller para importação de arquivos CSV/JSON de livros e alunos
+ * O arquivo é processado em segundo plano; as respostas são 202 Accepted
+ * com a situação da importação, acompanhada por GET /api/import/jobs/{id}
+ */
+@RestController
+@RequestMapping("/api/import")
+@CrossOrigin(origins = "*")
+public class ImportController {
+
+  private final ImportService importService;
+
+  @Autowired
+  public ImportController(ImportService importService) {
+    this.importService = importService;
+  }
+
+  /**
+   * Importar livros de um arquivo
+   * POST /api/import/books (multipart, campo "file")
+   */
+  @PostMapping("/books")
+  public ResponseEntity<?> importBooks(@RequestParam("file") MultipartFile file,
+      @RequestParam(required = false) String format) {
+    return start(ImportJob.ImportTarget.BOOKS, file, format);
+  }
+
+  /**
+   * Importar alunos de um arquivo
+   * POST /api/import/students (multipart, campo "file")
+   */
+  @PostMapping("/students")
+  public ResponseEntity<?> importStudents(@RequestParam("file") MultipartFile file,
+      @RequestParam(required = false) String format) {
+    return start(ImportJob.ImportTarget.STUDENTS, file, format);
+  }
+
+  /**
+   * Listar as importações mais recentes
+   * GET /api/import/jobs
+   */
+  @GetMapping("/jobs")
+  public ResponseEntity<List<Map<String, Object>>> getJobs() {
+    return ResponseEntity.ok(importService.listJobs().stream()
+        .map(importService::describe)
+        .toList());
+  }
+
+  /**
+   * Situação de uma importação (progresso, contadores e primeiros erros)
+   * GET /api/import/jobs/{id}
+   */
+  @GetMapping("/jobs/{id}")
+  public ResponseEntity<?> getJob(@PathVariable Long id) {
+    try {
+      return ResponseEntity.ok(importService.describe(importService.findJob(id)));
+    } catch (RuntimeException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+
+  /**
+   * Retomar uma importação interrompida a partir do último bloco gravado
+   * POST /api/import/jobs/{id}/resume
+   */
+  @PostMapping("/jobs/{id}/resume")
+  public ResponseEntity<?> resumeJob(@PathVariable Long id) {
+    try {
+      ImportJob job = importService.resumeJob(id);
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.describe(job));
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+  }
+
+  private ResponseEntity<?> start(ImportJob.ImportTarget target, MultipartFile file, String format) {
+    try {
+      ImportJob job = importService.startImport(target, file, format);
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.describe(job));
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+  }
+}
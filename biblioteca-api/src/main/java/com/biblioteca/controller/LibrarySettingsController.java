@@ -1,5 +1,6 @@
 package com.biblioteca.controller;
 
+import com.biblioteca.dto.LibrarySettingsRequestDTO;
 import com.biblioteca.model.LibrarySettings;
 import com.biblioteca.service.LibrarySettingsService;
 import jakarta.validation.Valid;
@@ -34,7 +35,11 @@ public class LibrarySettingsController {
    * PUT /api/settings
    */
   @PutMapping
-  public ResponseEntity<LibrarySettings> updateSettings(@Valid @RequestBody LibrarySettings settings) {
+  public ResponseEntity<LibrarySettings> updateSettings(@Valid @RequestBody LibrarySettingsRequestDTO request) {
+    LibrarySettings settings = new LibrarySettings(request.getLoanPeriodDays(),
+        request.getMaxLoansPerStudent(), request.getFinePerDay());
+    // Nulo quando o cliente não envia o campo: o serviço mantém o valor atual
+    settings.setMaxReservationsPerBook(request.getMaxReservationsPerBook());
     LibrarySettings updatedSettings = settingsService.updateSettings(settings);
     return ResponseEntity.ok(updatedSettings);
   }
@@ -1,8 +1,10 @@
 package com.biblioteca.controller;
 
+import com.biblioteca.dto.CursorPageDTO;
 import com.biblioteca.dto.LoanRequestDTO;
 import com.biblioteca.dto.LoanResponseDTO;
 import com.biblioteca.dto.LoanReturnDTO;
+import com.biblioteca.model.Loan;
 import com.biblioteca.service.LoanService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -155,6 +157,18 @@ public class LoanController {
     return ResponseEntity.ok(loans);
   }
 
+  /**
+   * Listar empréstimos paginados por cursor
+   * GET /api/loans/page?after={id}&size={n}&status={ACTIVE|OVERDUE|RETURNED}
+   */
+  @GetMapping("/page")
+  public ResponseEntity<CursorPageDTO<LoanResponseDTO>> getLoansPage(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(required = false) Loan.LoanStatus status) {
+    return ResponseEntity.ok(loanService.getLoansPage(after, size, status));
+  }
+
   /**
    * Obter apenas empréstimos com status OVERDUE
    * GET /api/loans/overdue
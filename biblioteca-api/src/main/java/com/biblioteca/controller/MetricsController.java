@@ -0,0 +1,112 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.service.AutocompleteService;
+import com.biblioteca.service.BookAvailabilityService;
+import com.biblioteca.service.BookEventStreamService;
+import com.biblioteca.service.CatalogSearchService;
+import com.biblioteca.service.EmailOutboxService;
+import com.biblioteca.service.EntityCache;
+import com.biblioteca.service.LibrarySettingsService;
+import com.biblioteca.service.StripedLockManager;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Métricas internas da aplicação (caches e afins)
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+  private final LibrarySettingsService settingsService;
+  private final EmailOutboxService outboxService;
+  private final StripedLockManager lockManager;
+  private final CatalogSearchService catalogSearchService;
+  private final AutocompleteService autocompleteService;
+  private final EntityCache entityCache;
+  private final BookAvailabilityService availabilityService;
+  private final BookEventStreamService streamService;
+  private final DataSource dataSource;
+  private final boolean virtualThreads;
+
+  @Autowired
+  public MetricsController(LibrarySettingsService settingsService, EmailOutboxService outboxService,
+      StripedLockManager lockManager, CatalogSearchService catalogSearchService,
+      AutocompleteService autocompleteService, EntityCache entityCache,
+      BookAvailabilityService availabilityService, BookEventStreamService streamService,
+      DataSource dataSource, @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    this.settingsService = settingsService;
+    this.outboxService = outboxService;
+    this.lockManager = lockManager;
+    this.catalogSearchService = catalogSearchService;
+    this.autocompleteService = autocompleteService;
+    this.entityCache = entityCache;
+    this.availabilityService = availabilityService;
+    this.streamService = streamService;
+    this.dataSource = dataSource;
+    this.virtualThreads = virtualThreads;
+  }
+
+  /**
+   * Obter métricas
+   * GET /api/metrics
+   */
+  @GetMapping
+  public ResponseEntity<Map<String, Object>> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("settingsCache", settingsService.getCacheMetrics());
+    metrics.put("entityCache", entityCache.getMetrics());
+    metrics.put("availability", availabilityService.getStats());
+    metrics.put("emailOutbox", outboxService.getMetrics());
+    metrics.put("locks", lockManager.getMetrics());
+    metrics.put("catalogSearch", catalogSearchService.getStats());
+    metrics.put("autocomplete", autocompleteService.getStats());
+    metrics.put("eventStream", streamService.getStats());
+    metrics.put("runtime", getRuntimeMetrics());
+    return ResponseEntity.ok(metrics);
+  }
+
+  /**
+   * Modo de execução das requisições e ocupação do pool de conexões
+   */
+  private Map<String, Object> getRuntimeMetrics() {
+    Map<String, Object> runtime = new LinkedHashMap<>();
+    runtime.put("virtualThreads", virtualThreads);
+    runtime.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+    runtime.put("platformThreads", ManagementFactory.getThreadMXBean().getThreadCount());
+    if (dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+      HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+      Map<String, Object> connectionPool = new LinkedHashMap<>();
+      connectionPool.put("maximumPoolSize", hikari.getMaximumPoolSize());
+      connectionPool.put("activeConnections", pool.getActiveConnections());
+      connectionPool.put("idleConnections", pool.getIdleConnections());
+      connectionPool.put("totalConnections", pool.getTotalConnections());
+      connectionPool.put("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+      runtime.put("connectionPool", connectionPool);
+    }
+    return runtime;
+  }
+
+  /**
+   * Esperas nos bloqueios de livro/aluno, por faixa (maior espera primeiro)
+   * GET /api/metrics/locks
+   */
+  @GetMapping("/locks")
+  public ResponseEntity<Map<String, Object>> getLockMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>(lockManager.getMetrics());
+    List<Map<String, Object>> stripes = lockManager.getStripeMetrics();
+    metrics.put("hotStripes", stripes);
+    return ResponseEntity.ok(metrics);
+  }
+}
@@ -2,21 +2,30 @@ package com.biblioteca.controller;
 
 import com.biblioteca.dto.OverdueNotificationDTO;
 import com.biblioteca.dto.ReservationAvailableNotificationDTO;
+import com.biblioteca.model.EmailOutboxMessage;
 import com.biblioteca.model.Loan;
 import com.biblioteca.model.Reservation;
 import com.biblioteca.repository.LoanRepository;
 import com.biblioteca.repository.ReservationRepository;
+import com.biblioteca.service.EmailOutboxService;
+import com.biblioteca.service.EmailOutboxService.QueuedEmail;
 import com.biblioteca.service.EmailService;
+import com.biblioteca.service.OverdueNoticeCampaignService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Controller para envio de notificações por e-mail
+ * As notificações são enfileiradas e enviadas em segundo plano; as
+ * respostas são 202 Accepted com o id da mensagem na fila
  */
 @RestController
 @RequestMapping("/api/notifications")
@@ -24,15 +33,21 @@ import java.util.Map;
 public class NotificationController {
 
   private final EmailService emailService;
+  private final EmailOutboxService outboxService;
+  private final OverdueNoticeCampaignService campaignService;
   private final LoanRepository loanRepository;
   private final ReservationRepository reservationRepository;
 
   @Autowired
   public NotificationController(
       EmailService emailService,
+      EmailOutboxService outboxService,
+      OverdueNoticeCampaignService campaignService,
       LoanRepository loanRepository,
       ReservationRepository reservationRepository) {
     this.emailService = emailService;
+    this.outboxService = outboxService;
+    this.campaignService = campaignService;
     this.loanRepository = loanRepository;
     this.reservationRepository = reservationRepository;
   }
@@ -44,7 +59,7 @@ public class NotificationController {
   @PostMapping("/overdue")
   public ResponseEntity<?> sendOverdueNotification(@Valid @RequestBody OverdueNotificationDTO request) {
     try {
-      Loan loan = loanRepository.findById(request.getLoanId())
+      Loan loan = loanRepository.findByIdWithStudentAndBook(request.getLoanId())
           .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado"));
 
       if (loan.getReturnDate() != null) {
@@ -67,23 +82,27 @@ public class NotificationController {
             .body("Este empréstimo ainda não está em atraso");
       }
 
-      // Enviar e-mail
-      emailService.sendOverdueLoanNotification(
+      // Enfileirar e-mail
+      QueuedEmail queued = emailService.queueOverdueLoanNotification(
+          loan.getId(),
           loan.getStudent().getEmail(),
           loan.getStudent().getNome(),
           loan.getBook().getTitle(),
           loan.getBook().getIsbn(),
           (int) overdueDays);
-
-      return ResponseEntity.ok(Map.of(
-          "message", "Notificação de atraso enviada com sucesso",
-          "email", loan.getStudent().getEmail(),
-          "studentName", loan.getStudent().getNome(),
-          "bookTitle", loan.getBook().getTitle(),
-          "overdueDays", overdueDays));
+      loanRepository.markOverdueNoticeSent(List.of(loan.getId()), LocalDate.now());
+
+      Map<String, Object> response = queuedResponse(queued, queued.isDuplicate()
+          ? "Notificação de atraso já enfileirada hoje para este empréstimo"
+          : "Notificação de atraso enfileirada para envio");
+      response.put("email", loan.getStudent().getEmail());
+      response.put("studentName", loan.getStudent().getNome());
+      response.put("bookTitle", loan.getBook().getTitle());
+      response.put("overdueDays", overdueDays);
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     } catch (RuntimeException e) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-          .body("Erro ao enviar notificação: " + e.getMessage());
+          .body("Erro ao enfileirar notificação: " + e.getMessage());
     }
   }
 
@@ -114,22 +133,83 @@ public class NotificationController {
             .body("O livro ainda não está disponível");
       }
 
-      // Enviar e-mail
-      emailService.sendReservationAvailableNotification(
+      // Enfileirar e-mail
+      QueuedEmail queued = emailService.queueReservationAvailableNotification(
+          reservation.getId(),
           reservation.getStudent().getEmail(),
           reservation.getStudent().getNome(),
           reservation.getBook().getTitle(),
           reservation.getBook().getIsbn());
 
-      return ResponseEntity.ok(Map.of(
-          "message", "Notificação de reserva disponível enviada com sucesso",
-          "email", reservation.getStudent().getEmail(),
-          "studentName", reservation.getStudent().getNome(),
-          "bookTitle", reservation.getBook().getTitle(),
-          "reservationId", reservation.getId()));
+      Map<String, Object> response = queuedResponse(queued, queued.isDuplicate()
+          ? "Notificação de reserva disponível já enfileirada hoje para esta reserva"
+          : "Notificação de reserva disponível enfileirada para envio");
+      response.put("email", reservation.getStudent().getEmail());
+      response.put("studentName", reservation.getStudent().getNome());
+      response.put("bookTitle", reservation.getBook().getTitle());
+      response.put("reservationId", reservation.getId());
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     } catch (RuntimeException e) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-          .body("Erro ao enviar notificação: " + e.getMessage());
+          .body("Erro ao enfileirar notificação: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Iniciar a campanha de avisos de atraso (todos os empréstimos em atraso
+   * ainda não avisados hoje)
+   * POST /api/notifications/overdue-campaign
+   */
+  @PostMapping("/overdue-campaign")
+  public ResponseEntity<?> startOverdueCampaign() {
+    if (!campaignService.startCampaign()) {
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body("A campanha de avisos de atraso já está em andamento");
     }
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+        "message", "Campanha de avisos de atraso iniciada"));
+  }
+
+  /**
+   * Situação da campanha de avisos de atraso
+   * GET /api/notifications/overdue-campaign
+   */
+  @GetMapping("/overdue-campaign")
+  public ResponseEntity<Map<String, Object>> getOverdueCampaignStatus() {
+    return ResponseEntity.ok(campaignService.getStatus());
+  }
+
+  /**
+   * Consultar a situação de uma notificação enfileirada
+   * GET /api/notifications/outbox/{id}
+   */
+  @GetMapping("/outbox/{id}")
+  public ResponseEntity<?> getOutboxMessage(@PathVariable Long id) {
+    return outboxService.findMessage(id)
+        .<ResponseEntity<?>>map(message -> {
+          Map<String, Object> response = new LinkedHashMap<>();
+          response.put("id", message.getId());
+          response.put("type", message.getType());
+          response.put("toEmail", message.getToEmail());
+          response.put("status", message.getStatus());
+          response.put("attempts", message.getAttempts());
+          response.put("nextAttemptAt", message.getNextAttemptAt());
+          response.put("lastError", message.getLastError());
+          response.put("createdAt", message.getCreatedAt());
+          response.put("sentAt", message.getSentAt());
+          return ResponseEntity.ok(response);
+        })
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body("Notificação não encontrada"));
+  }
+
+  private Map<String, Object> queuedResponse(QueuedEmail queued, String message) {
+    EmailOutboxMessage outboxMessage = queued.getMessage();
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("message", message);
+    response.put("outboxId", outboxMessage.getId());
+    response.put("status", outboxMessage.getStatus());
+    response.put("duplicate", queued.isDuplicate());
+    return response;
   }
 }
@@ -4,26 +4,30 @@ import com.biblioteca.dto.ReportAvailabilityDTO;
 import com.biblioteca.dto.ReportStudentMetricsDTO;
 import com.biblioteca.dto.ReportLoanStatisticsDTO;
 import com.biblioteca.dto.ReportReservationAnalyticsDTO;
-import com.biblioteca.service.ReportService;
+import com.biblioteca.service.ReportSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * Controller para Relatórios
  * Fornece 4 novos endpoints para gerar relatórios úteis do sistema
+ * Os relatórios são servidos da cópia em memória (ReportSnapshotService),
+ * mantida em dia pelos eventos de empréstimos e reservas
  */
 @RestController
 @RequestMapping("/api/reports")
 @CrossOrigin(origins = "*")
 public class ReportController {
 
-    private final ReportService reportService;
+    private final ReportSnapshotService reportSnapshotService;
 
     @Autowired
-    public ReportController(ReportService reportService) {
-        this.reportService = reportService;
+    public ReportController(ReportSnapshotService reportSnapshotService) {
+        this.reportSnapshotService = reportSnapshotService;
     }
 
     /**
@@ -42,7 +46,7 @@ public class ReportController {
     @GetMapping("/availability")
     public ResponseEntity<ReportAvailabilityDTO> getAvailabilityReport() {
         try {
-            ReportAvailabilityDTO report = reportService.generateAvailabilityReport();
+            ReportAvailabilityDTO report = reportSnapshotService.getAvailabilityReport();
             return ResponseEntity.ok(report);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -67,7 +71,7 @@ public class ReportController {
     @GetMapping("/student-metrics")
     public ResponseEntity<ReportStudentMetricsDTO> getStudentMetricsReport() {
         try {
-            ReportStudentMetricsDTO report = reportService.generateStudentMetricsReport();
+            ReportStudentMetricsDTO report = reportSnapshotService.getStudentMetricsReport();
             return ResponseEntity.ok(report);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -92,7 +96,7 @@ public class ReportController {
     @GetMapping("/loan-statistics")
     public ResponseEntity<ReportLoanStatisticsDTO> getLoanStatisticsReport() {
         try {
-            ReportLoanStatisticsDTO report = reportService.generateLoanStatisticsReport();
+            ReportLoanStatisticsDTO report = reportSnapshotService.getLoanStatisticsReport();
             return ResponseEntity.ok(report);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -119,10 +123,36 @@ public class ReportController {
     @GetMapping("/reservation-analytics")
     public ResponseEntity<ReportReservationAnalyticsDTO> getReservationAnalyticsReport() {
         try {
-            ReportReservationAnalyticsDTO report = reportService.generateReservationAnalyticsReport();
+            ReportReservationAnalyticsDTO report = reportSnapshotService.getReservationAnalyticsReport();
             return ResponseEntity.ok(report);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Situação da cópia em memória dos relatórios (reconciliações, eventos
+     * aplicados, alunos com empréstimos em aberto)
+     * 
+     * GET /api/reports/snapshot
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> getSnapshotStatus() {
+        return ResponseEntity.ok(reportSnapshotService.getStatus());
+    }
+
+    /**
+     * Força a reconciliação da cópia em memória com o banco
+     * 
+     * POST /api/reports/snapshot/reconcile
+     */
+    @PostMapping("/snapshot/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcileSnapshot() {
+        try {
+            reportSnapshotService.reconcile();
+            return ResponseEntity.ok(reportSnapshotService.getStatus());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
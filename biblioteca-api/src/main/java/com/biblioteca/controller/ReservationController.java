@@ -1,5 +1,6 @@
 package com.biblioteca.controller;
 
+import com.biblioteca.dto.CursorPageDTO;
 import com.biblioteca.dto.ReservationRequestDTO;
 import com.biblioteca.dto.ReservationResponseDTO;
 import com.biblioteca.service.ReservationService;
@@ -48,6 +49,17 @@ public class ReservationController {
     return ResponseEntity.ok(reservations);
   }
 
+  /**
+   * Listar reservas paginadas por cursor
+   * GET /api/reservations/page?after={id}&size={n}
+   */
+  @GetMapping("/page")
+  public ResponseEntity<CursorPageDTO<ReservationResponseDTO>> getReservationsPage(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer size) {
+    return ResponseEntity.ok(reservationService.getReservationsPage(after, size));
+  }
+
   /**
    * Buscar reserva por ID
    * GET /api/reservations/{id}
@@ -112,4 +124,19 @@ public class ReservationController {
           .body("Erro ao efetivar reserva: " + e.getMessage());
     }
   }
+
+  /**
+   * Efetivar a próxima reserva da fila de um livro (maior prioridade, menor posição)
+   * PUT /api/reservations/book/{isbn}/fulfill-next
+   */
+  @PutMapping("/book/{isbn}/fulfill-next")
+  public ResponseEntity<?> fulfillNextReservation(@PathVariable String isbn) {
+    try {
+      ReservationResponseDTO reservation = reservationService.fulfillNextReservation(isbn);
+      return ResponseEntity.ok(reservation);
+    } catch (RuntimeException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body("Erro ao efetivar reserva: " + e.getMessage());
+    }
+  }
 }
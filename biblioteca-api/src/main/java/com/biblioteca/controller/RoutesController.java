@@ -27,12 +27,27 @@ public class RoutesController {
         bookRoutes.put("GET /api/books", Map.of(
                 "description", "Listar todos os livros",
                 "handler", "BookManagementController.getAllBooks()"));
+        bookRoutes.put("GET /api/books/page", Map.of(
+                "description", "Listar livros paginados por cursor (ISBN)",
+                "handler", "BookManagementController.getBooksPage(String after, Integer size)",
+                "params", "after (ISBN da página anterior, opcional), size (padrão 50, máximo 500)"));
+        bookRoutes.put("GET /api/books/search", Map.of(
+                "description", "Buscar livros por título, autor, palavras-chave e sinopse, por relevância",
+                "handler", "BookManagementController.searchBooks(String q, Integer limit)",
+                "params", "q (texto, sem diferença de acentos; último termo casa por prefixo), limit (padrão 20, máximo 100)"));
+        bookRoutes.put("GET /api/books/autocomplete", Map.of(
+                "description", "Sugestões de livros por início do título ou autor (enquanto digita)",
+                "handler", "BookManagementController.autocompleteBooks(String q, Integer limit)",
+                "params", "q (texto, sem diferença de acentos), limit (padrão 8, máximo 20)"));
         bookRoutes.put("GET /api/books/{isbn}", Map.of(
                 "description", "Buscar livro por ISBN",
                 "handler", "BookManagementController.getBookByIsbn(String isbn)"));
         bookRoutes.put("GET /api/books/{isbn}/availability", Map.of(
-                "description", "Verificar disponibilidade do livro",
+                "description", "Verificar disponibilidade do livro (estoque, fila de reservas, previsão de devolução)",
                 "handler", "BookManagementController.checkBookAvailability(String isbn)"));
+        bookRoutes.put("POST /api/books/availability/consistency-check", Map.of(
+                "description", "Conferir a disponibilidade em memória com o banco e corrigir divergências",
+                "handler", "BookManagementController.checkAvailabilityConsistency()"));
         bookRoutes.put("POST /api/books", Map.of(
                 "description", "Criar novo livro (um por vez)",
                 "handler", "BookManagementController.createBook(@RequestBody Book book)",
@@ -54,6 +69,10 @@ public class RoutesController {
         loanRoutes.put("GET /api/loans", Map.of(
                 "description", "Listar todos os empréstimos",
                 "handler", "LoanController.getAllLoans()"));
+        loanRoutes.put("GET /api/loans/page", Map.of(
+                "description", "Listar empréstimos paginados por cursor (id)",
+                "handler", "LoanController.getLoansPage(Long after, Integer size, LoanStatus status)",
+                "params", "after (id da página anterior, opcional), size (padrão 50, máximo 500), status (ACTIVE, OVERDUE ou RETURNED, opcional)"));
         loanRoutes.put("GET /api/loans/active", Map.of(
                 "description", "Listar empréstimos ativos",
                 "handler", "LoanController.getActiveLoans()"));
@@ -93,6 +112,10 @@ public class RoutesController {
         reservationRoutes.put("GET /api/reservations", Map.of(
                 "description", "Listar todas as reservas",
                 "handler", "ReservationController.getAllReservations()"));
+        reservationRoutes.put("GET /api/reservations/page", Map.of(
+                "description", "Listar reservas paginadas por cursor (id)",
+                "handler", "ReservationController.getReservationsPage(Long after, Integer size)",
+                "params", "after (id da página anterior, opcional), size (padrão 50, máximo 500)"));
         reservationRoutes.put("GET /api/reservations/{id}", Map.of(
                 "description", "Buscar reserva por ID",
                 "handler", "ReservationController.getReservationById(Long id)"));
@@ -103,36 +126,98 @@ public class RoutesController {
                 "description", "Listar reservas ativas de um estudante",
                 "handler", "ReservationController.getReservationsByStudent(String matricula)"));
         reservationRoutes.put("POST /api/reservations", Map.of(
-                "description", "Criar nova reserva (máximo 5 por livro, fila ordenada)",
+                "description", "Criar nova reserva (fila com capacidade configurável, ordenada por prioridade)",
                 "handler", "ReservationController.createReservation(@RequestBody ReservationRequestDTO request)",
-                "body", "ReservationRequestDTO { bookIsbn, studentMatricula, reservationDate (opcional) }"));
+                "body", "ReservationRequestDTO { bookIsbn, studentMatricula, reservationDate (opcional), "
+                        + "priority (COURSE_RESERVE ou STANDARD, opcional) }"));
         reservationRoutes.put("DELETE /api/reservations/{id}", Map.of(
                 "description", "Cancelar reserva (reorganiza fila automaticamente)",
                 "handler", "ReservationController.cancelReservation(Long id)"));
         reservationRoutes.put("PUT /api/reservations/{id}/fulfill", Map.of(
                 "description", "Efetivar reserva (marcar como gerou empréstimo, reorganiza fila)",
                 "handler", "ReservationController.fulfillReservation(Long id)"));
+        reservationRoutes.put("PUT /api/reservations/book/{isbn}/fulfill-next", Map.of(
+                "description", "Efetivar a próxima reserva da fila do livro (maior prioridade, menor posição)",
+                "handler", "ReservationController.fulfillNextReservation(String isbn)"));
         routes.put("reservations", reservationRoutes);
 
         // Rotas de Notificações
         Map<String, Object> notificationRoutes = new HashMap<>();
         notificationRoutes.put("POST /api/notifications/overdue", Map.of(
-                "description", "Enviar notificação de livro em atraso por e-mail",
+                "description", "Enfileirar notificação de livro em atraso por e-mail (202 Accepted)",
                 "handler",
                 "NotificationController.sendOverdueNotification(@RequestBody OverdueNotificationDTO request)",
                 "body", "OverdueNotificationDTO { loanId }"));
         notificationRoutes.put("POST /api/notifications/reservation-available", Map.of(
-                "description", "Enviar notificação de livro reservado disponível por e-mail",
+                "description", "Enfileirar notificação de livro reservado disponível por e-mail (202 Accepted)",
                 "handler",
                 "NotificationController.sendReservationAvailableNotification(@RequestBody ReservationAvailableNotificationDTO request)",
                 "body", "ReservationAvailableNotificationDTO { reservationId }"));
+        notificationRoutes.put("POST /api/notifications/overdue-campaign", Map.of(
+                "description", "Iniciar campanha de avisos de atraso para todos os empréstimos em atraso (202 Accepted)",
+                "handler", "NotificationController.startOverdueCampaign()"));
+        notificationRoutes.put("GET /api/notifications/overdue-campaign", Map.of(
+                "description", "Situação da campanha de avisos de atraso (em andamento, última execução)",
+                "handler", "NotificationController.getOverdueCampaignStatus()"));
+        notificationRoutes.put("GET /api/notifications/outbox/{id}", Map.of(
+                "description", "Situação de uma notificação enfileirada (status, tentativas, último erro)",
+                "handler", "NotificationController.getOutboxMessage(Long id)"));
         routes.put("notifications", notificationRoutes);
 
+        // Rotas de Exportação
+        Map<String, Object> exportRoutes = new HashMap<>();
+        exportRoutes.put("GET /api/export/loans", Map.of(
+                "description", "Exportar histórico de empréstimos (transmitido, NDJSON ou CSV)",
+                "handler", "ExportController.exportLoans(String format)",
+                "params", "format (ndjson ou csv, padrão ndjson)"));
+        exportRoutes.put("GET /api/export/reservations", Map.of(
+                "description", "Exportar histórico de reservas (transmitido, NDJSON ou CSV)",
+                "handler", "ExportController.exportReservations(String format)",
+                "params", "format (ndjson ou csv, padrão ndjson)"));
+        routes.put("export", exportRoutes);
+
+        // Canal de eventos
+        Map<String, Object> eventRoutes = new HashMap<>();
+        eventRoutes.put("GET /api/events/stream", Map.of(
+                "description", "Eventos de estoque e fila de reservas (Server-Sent Events: book, book-deleted, queue, resync)",
+                "handler", "EventStreamController.stream(List<String> isbns, List<String> matriculas)",
+                "params", "isbn, matricula (opcionais, vários valores; sem filtros recebe todos os livros)"));
+        routes.put("events", eventRoutes);
+
+        // Rotas de Importação
+        Map<String, Object> importRoutes = new HashMap<>();
+        importRoutes.put("POST /api/import/books", Map.of(
+                "description", "Importar livros de arquivo CSV/JSON em segundo plano (202 Accepted)",
+                "handler", "ImportController.importBooks(MultipartFile file, String format)",
+                "params", "file (multipart), format (csv ou json, opcional: deduzido da extensão)"));
+        importRoutes.put("POST /api/import/students", Map.of(
+                "description", "Importar alunos de arquivo CSV/JSON em segundo plano (202 Accepted)",
+                "handler", "ImportController.importStudents(MultipartFile file, String format)",
+                "params", "file (multipart), format (csv ou json, opcional: deduzido da extensão)"));
+        importRoutes.put("GET /api/import/jobs", Map.of(
+                "description", "Listar as importações mais recentes",
+                "handler", "ImportController.getJobs()"));
+        importRoutes.put("GET /api/import/jobs/{id}", Map.of(
+                "description", "Situação de uma importação (progresso, contadores, primeiros erros)",
+                "handler", "ImportController.getJob(Long id)"));
+        importRoutes.put("POST /api/import/jobs/{id}/resume", Map.of(
+                "description", "Retomar importação interrompida a partir do último bloco gravado",
+                "handler", "ImportController.resumeJob(Long id)"));
+        routes.put("import", importRoutes);
+
         // Rotas de Alunos
         Map<String, Object> studentRoutes = new HashMap<>();
         studentRoutes.put("GET /api/students", Map.of(
                 "description", "Listar todos os alunos",
                 "handler", "StudentController.getAllStudents()"));
+        studentRoutes.put("GET /api/students/page", Map.of(
+                "description", "Listar alunos paginados por cursor (matrícula)",
+                "handler", "StudentController.getStudentsPage(String after, Integer size)",
+                "params", "after (matrícula da página anterior, opcional), size (padrão 50, máximo 500)"));
+        studentRoutes.put("GET /api/students/autocomplete", Map.of(
+                "description", "Sugestões de alunos por início do nome ou matrícula (enquanto digita)",
+                "handler", "StudentController.autocompleteStudents(String q, Integer limit)",
+                "params", "q (texto, sem diferença de acentos), limit (padrão 8, máximo 20)"));
         studentRoutes.put("GET /api/students/{matricula}", Map.of(
                 "description", "Buscar aluno por matrícula",
                 "handler", "StudentController.getStudentByMatricula(String matricula)"));
@@ -174,6 +259,12 @@ public class RoutesController {
         systemRoutes.put("GET /api/routes", Map.of(
                 "description", "Listar todas as rotas (este endpoint)",
                 "handler", "RoutesController.getAllRoutes()"));
+        systemRoutes.put("GET /api/metrics", Map.of(
+                "description", "Métricas internas (caches de configurações, livros e alunos, fila de e-mails, bloqueios, canal de eventos, modo de threads e pool de conexões)",
+                "handler", "MetricsController.getMetrics()"));
+        systemRoutes.put("GET /api/metrics/locks", Map.of(
+                "description", "Esperas nos bloqueios de livro/aluno por faixa (pontos quentes)",
+                "handler", "MetricsController.getLockMetrics()"));
         routes.put("system", systemRoutes);
 
         Map<String, Object> response = new HashMap<>();
@@ -1,14 +1,21 @@
 package com.biblioteca.controller;
 
+import com.biblioteca.dto.CursorPageDTO;
+import com.biblioteca.dto.SuggestionDTO;
+import com.biblioteca.event.ReportDataChangedEvent;
 import com.biblioteca.model.Student;
 import com.biblioteca.repository.StudentRepository;
+import com.biblioteca.service.AutocompleteService;
+import com.biblioteca.service.BatchIngestionService;
+import com.biblioteca.service.EntityCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,10 +27,19 @@ import java.util.Optional;
 public class StudentController {
 
   private final StudentRepository studentRepository;
+  private final BatchIngestionService batchIngestionService;
+  private final AutocompleteService autocompleteService;
+  private final EntityCache entityCache;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
-  public StudentController(StudentRepository studentRepository) {
+  public StudentController(StudentRepository studentRepository, BatchIngestionService batchIngestionService,
+      AutocompleteService autocompleteService, EntityCache entityCache, ApplicationEventPublisher eventPublisher) {
     this.studentRepository = studentRepository;
+    this.batchIngestionService = batchIngestionService;
+    this.autocompleteService = autocompleteService;
+    this.entityCache = entityCache;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -61,73 +77,26 @@ public class StudentController {
         student.getTelefone(),
         0);
     savedStudent = studentRepository.save(savedStudent);
+    autocompleteService.indexStudent(savedStudent);
+    eventPublisher.publishEvent(new ReportDataChangedEvent("student-created"));
     return ResponseEntity.status(HttpStatus.CREATED).body(savedStudent);
   }
 
   /**
    * Cadastrar múltiplos alunos de uma vez
    * POST /api/students/batch
+   * Matrículas, CPFs e e-mails duplicados são verificados de uma vez e os
+   * alunos são gravados em lotes
    */
   @PostMapping("/batch")
   public ResponseEntity<Map<String, Object>> createStudentsBatch(@Valid @RequestBody List<Student> students) {
     Map<String, Object> response = new HashMap<>();
-    List<Student> savedStudents = new ArrayList<>();
-    List<Map<String, String>> errors = new ArrayList<>();
-
-    for (Student student : students) {
-      try {
-        // Verificar se já existe aluno com essa matrícula
-        if (studentRepository.existsById(student.getMatricula())) {
-          Map<String, String> error = new HashMap<>();
-          error.put("matricula", student.getMatricula());
-          error.put("nome", student.getNome());
-          error.put("message", "Aluno com esta matrícula já existe");
-          errors.add(error);
-          continue;
-        }
-
-        // Verificar se já existe aluno com esse CPF
-        if (studentRepository.findByCpf(student.getCpf()).isPresent()) {
-          Map<String, String> error = new HashMap<>();
-          error.put("matricula", student.getMatricula());
-          error.put("nome", student.getNome());
-          error.put("message", "Aluno com este CPF já existe");
-          errors.add(error);
-          continue;
-        }
+    BatchIngestionService.BatchResult<Student> result = batchIngestionService.ingestStudents(students);
+    List<Student> savedStudents = result.getSaved();
+    List<Map<String, String>> errors = result.getErrors();
 
-        // Normalizar email para lowercase e verificar se já existe aluno com esse
-        // e-mail
-        String email = student.getEmail();
-        if (email != null && !email.trim().isEmpty()) {
-          email = email.trim().toLowerCase();
-          if (studentRepository.findByEmail(email).isPresent()) {
-            Map<String, String> error = new HashMap<>();
-            error.put("matricula", student.getMatricula());
-            error.put("nome", student.getNome());
-            error.put("message", "Aluno com este e-mail já existe");
-            errors.add(error);
-            continue;
-          }
-        }
-
-        Student savedStudent = new Student(
-            student.getMatricula(),
-            student.getNome(),
-            student.getCpf(),
-            student.getDataNascimento(),
-            email,
-            student.getTelefone(),
-            0);
-        savedStudent = studentRepository.save(savedStudent);
-        savedStudents.add(savedStudent);
-      } catch (Exception e) {
-        Map<String, String> error = new HashMap<>();
-        error.put("matricula", student.getMatricula());
-        error.put("nome", student.getNome());
-        error.put("message", "Erro ao salvar: " + e.getMessage());
-        errors.add(error);
-      }
+    if (!savedStudents.isEmpty()) {
+      eventPublisher.publishEvent(new ReportDataChangedEvent("students-created"));
     }
 
     response.put("success", savedStudents.size());
@@ -156,13 +125,40 @@ public class StudentController {
     return ResponseEntity.ok(students);
   }
 
+  /**
+   * Listar alunos paginados por cursor (matrícula)
+   * GET /api/students/page?after={matricula}&size={n}
+   */
+  @GetMapping("/page")
+  public ResponseEntity<CursorPageDTO<Student>> getStudentsPage(
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer size) {
+    int pageSize = CursorPageDTO.normalizeSize(size);
+    PageRequest limit = PageRequest.of(0, pageSize + 1);
+    List<Student> rows = (after == null || after.isBlank())
+        ? studentRepository.findAllByOrderByMatriculaAsc(limit)
+        : studentRepository.findByMatriculaGreaterThanOrderByMatriculaAsc(after, limit);
+    return ResponseEntity.ok(CursorPageDTO.of(rows, pageSize, Student::getMatricula));
+  }
+
+  /**
+   * Sugestões de alunos enquanto o usuário digita (nome ou matrícula)
+   * GET /api/students/autocomplete?q={texto}&limit={n}
+   */
+  @GetMapping("/autocomplete")
+  public ResponseEntity<List<SuggestionDTO>> autocompleteStudents(
+      @RequestParam("q") String query,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(autocompleteService.suggestStudents(query, limit));
+  }
+
   /**
    * Buscar aluno por matrícula
    * GET /api/students/{matricula}
    */
   @GetMapping("/{matricula}")
   public ResponseEntity<Student> getStudentByMatricula(@PathVariable String matricula) {
-    Optional<Student> student = studentRepository.findById(matricula);
+    Optional<Student> student = entityCache.findStudent(matricula);
     return student.map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
@@ -211,6 +207,7 @@ public class StudentController {
 
     try {
       Student updatedStudent = studentRepository.save(student);
+      autocompleteService.indexStudent(updatedStudent);
       return ResponseEntity.ok(updatedStudent);
     } catch (Exception e) {
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -226,6 +223,8 @@ public class StudentController {
   public ResponseEntity<Void> deleteStudent(@PathVariable String matricula) {
     if (studentRepository.existsById(matricula)) {
       studentRepository.deleteById(matricula);
+      autocompleteService.removeStudent(matricula);
+      eventPublisher.publishEvent(new ReportDataChangedEvent("student-deleted"));
       return ResponseEntity.noContent().build();
     }
     return ResponseEntity.notFound().build();
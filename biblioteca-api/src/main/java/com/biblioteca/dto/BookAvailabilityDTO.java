@@ -1,4 +1,7 @@
 package com.biblioteca.dto;
+
+import java.time.LocalDateTime;
+
 /**
  * DTO que representa as informações de disponibilidade de um livro.
  * Contém campos relevantes para exibir se o livro está disponível,
@@ -13,6 +16,9 @@ public class BookAvailabilityDTO {
   private String bookAuthor;
   private Integer quantity;
   private Boolean isAvailable;
+  private Integer activeReservationsCount;
+  // Menor vencimento entre os empréstimos em aberto, quando não há exemplar disponível
+  private LocalDateTime nextAvailableDate;
 
   // Constructors
   public BookAvailabilityDTO() {
@@ -66,4 +72,20 @@ public class BookAvailabilityDTO {
   public void setIsAvailable(Boolean isAvailable) {
     this.isAvailable = isAvailable;
   }
+
+  public Integer getActiveReservationsCount() {
+    return activeReservationsCount;
+  }
+
+  public void setActiveReservationsCount(Integer activeReservationsCount) {
+    this.activeReservationsCount = activeReservationsCount;
+  }
+
+  public LocalDateTime getNextAvailableDate() {
+    return nextAvailableDate;
+  }
+
+  public void setNextAvailableDate(LocalDateTime nextAvailableDate) {
+    this.nextAvailableDate = nextAvailableDate;
+  }
 }
@@ -0,0 +1,96 @@
+package com.biblioteca.dto;
+
+import com.biblioteca.model.Book;
+
+/**
+ * DTO de um livro encontrado na busca textual do acervo.
+ * Traz os dados exibidos na listagem e a pontuação de relevância
+ * (quanto maior, mais relevante para a consulta).
+ */
+
+public class BookSearchResultDTO {
+  private String isbn;
+  private String title;
+  private String author;
+  private String coverImageUrl;
+  private String keywords;
+  private Integer quantity;
+  private Double score;
+
+  // Constructors
+  public BookSearchResultDTO() {
+  }
+
+  public BookSearchResultDTO(String isbn, String title, String author, String coverImageUrl,
+                             String keywords, Integer quantity, Double score) {
+    this.isbn = isbn;
+    this.title = title;
+    this.author = author;
+    this.coverImageUrl = coverImageUrl;
+    this.keywords = keywords;
+    this.quantity = quantity;
+    this.score = score;
+  }
+
+  // Getters and Setters
+  public String getIsbn() {
+    return isbn;
+  }
+
+  public void setIsbn(String isbn) {
+    this.isbn = isbn;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public void setTitle(String title) {
+    this.title = title;
+  }
+
+  public String getAuthor() {
+    return author;
+  }
+
+  public void setAuthor(String author) {
+    this.author = author;
+  }
+
+  public String getCoverImageUrl() {
+    return coverImageUrl;
+  }
+
+  public void setCoverImageUrl(String coverImageUrl) {
+    this.coverImageUrl = coverImageUrl;
+  }
+
+  public String getKeywords() {
+    return keywords;
+  }
+
+  public void setKeywords(String keywords) {
+    this.keywords = keywords;
+  }
+
+  public Integer getQuantity() {
+    return quantity;
+  }
+
+  public void setQuantity(Integer quantity) {
+    this.quantity = quantity;
+  }
+
+  public Double getScore() {
+    return score;
+  }
+
+  public void setScore(Double score) {
+    this.score = score;
+  }
+
+  public static BookSearchResultDTO fromEntity(Book book, double score) {
+    return new BookSearchResultDTO(book.getIsbn(), book.getTitle(), book.getAuthor(),
+        book.getCoverImageUrl(), book.getKeywords(), book.getQuantity(), score);
+  }
+}
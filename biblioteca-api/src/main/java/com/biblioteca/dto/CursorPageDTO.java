@@ -0,0 +1,93 @@
+package com.biblioteca.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO de uma página de listagem paginada por cursor (keyset).
+ *
+ * A página traz no máximo {@code size} itens ordenados pela chave (ISBN,
+ * matrícula ou id). Para buscar a próxima página basta enviar
+ * {@code nextCursor} no parâmetro {@code after}; quando {@code hasNext} é
+ * false, {@code nextCursor} é null.
+ */
+public class CursorPageDTO<T> {
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 500;
+
+  private List<T> items;
+  private String nextCursor;
+  private boolean hasNext;
+  private int size;
+
+  // Constructors
+  public CursorPageDTO() {
+  }
+
+  public CursorPageDTO(List<T> items, String nextCursor, boolean hasNext, int size) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+    this.hasNext = hasNext;
+    this.size = size;
+  }
+
+  /**
+   * Limita o tamanho de página pedido ao intervalo [1, MAX_PAGE_SIZE].
+   * Null usa DEFAULT_PAGE_SIZE.
+   */
+  public static int normalizeSize(Integer size) {
+    if (size == null) {
+      return DEFAULT_PAGE_SIZE;
+    }
+    return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
+
+  /**
+   * Monta a página a partir de até {@code size + 1} linhas lidas do banco:
+   * a linha extra só indica que existe próxima página e é descartada.
+   *
+   * @param rows     linhas lidas (no máximo size + 1), já ordenadas pela chave
+   * @param size     tamanho da página
+   * @param cursorOf extrai a chave (cursor) de uma linha
+   */
+  public static <T> CursorPageDTO<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+    boolean hasNext = rows.size() > size;
+    List<T> items = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+    String nextCursor = hasNext ? cursorOf.apply(items.get(items.size() - 1)) : null;
+    return new CursorPageDTO<>(items, nextCursor, hasNext, items.size());
+  }
+
+  // Getters and Setters
+  public List<T> getItems() {
+    return items;
+  }
+
+  public void setItems(List<T> items) {
+    this.items = items;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
+  public boolean isHasNext() {
+    return hasNext;
+  }
+
+  public void setHasNext(boolean hasNext) {
+    this.hasNext = hasNext;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+}
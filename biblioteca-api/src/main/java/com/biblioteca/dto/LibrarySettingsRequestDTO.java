@@ -0,0 +1,68 @@
+package com.biblioteca.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO utilizado para atualizar as configurações da biblioteca.
+ * Diferente da entidade, não tem valores padrão: um campo opcional
+ * ausente chega nulo e o valor atual é mantido.
+ */
+
+public class LibrarySettingsRequestDTO {
+  @NotNull(message = "Prazo de devolução é obrigatório")
+  @Min(value = 1, message = "Prazo de devolução deve ser pelo menos 1 dia")
+  private Integer loanPeriodDays;
+
+  @NotNull(message = "Limite de empréstimos é obrigatório")
+  @Min(value = 1, message = "Limite de empréstimos deve ser pelo menos 1")
+  private Integer maxLoansPerStudent;
+
+  @NotNull(message = "Multa por dia é obrigatória")
+  @Min(value = 0, message = "Multa por dia não pode ser negativa")
+  private Integer finePerDay;
+
+  /**
+   * Capacidade padrão da fila de reservas de cada livro (opcional)
+   * Se não informada, mantém a capacidade atual
+   */
+  @Min(value = 1, message = "Limite de reservas por livro deve ser pelo menos 1")
+  private Integer maxReservationsPerBook;
+
+  // Constructors
+  public LibrarySettingsRequestDTO() {
+  }
+
+  // Getters and Setters
+  public Integer getLoanPeriodDays() {
+    return loanPeriodDays;
+  }
+
+  public void setLoanPeriodDays(Integer loanPeriodDays) {
+    this.loanPeriodDays = loanPeriodDays;
+  }
+
+  public Integer getMaxLoansPerStudent() {
+    return maxLoansPerStudent;
+  }
+
+  public void setMaxLoansPerStudent(Integer maxLoansPerStudent) {
+    this.maxLoansPerStudent = maxLoansPerStudent;
+  }
+
+  public Integer getFinePerDay() {
+    return finePerDay;
+  }
+
+  public void setFinePerDay(Integer finePerDay) {
+    this.finePerDay = finePerDay;
+  }
+
+  public Integer getMaxReservationsPerBook() {
+    return maxReservationsPerBook;
+  }
+
+  public void setMaxReservationsPerBook(Integer maxReservationsPerBook) {
+    this.maxReservationsPerBook = maxReservationsPerBook;
+  }
+}
@@ -1,6 +1,8 @@
 package com.biblioteca.dto;
 
+import com.biblioteca.model.Book;
 import com.biblioteca.model.Loan;
+import com.biblioteca.model.Student;
 
 import java.time.LocalDateTime;
 /**
@@ -163,13 +165,21 @@ public class LoanResponseDTO {
   }
 
   public static LoanResponseDTO fromEntity(Loan loan) {
+    return fromEntity(loan, loan.getBook(), loan.getStudent());
+  }
+
+  /**
+   * Monta o DTO com livro e aluno informados à parte (por exemplo, cópias do
+   * cache), sem navegar pelas associações do empréstimo
+   */
+  public static LoanResponseDTO fromEntity(Loan loan, Book book, Student student) {
     LoanResponseDTO dto = new LoanResponseDTO();
     dto.setId(loan.getId());
-    dto.setStudentMatricula(loan.getStudent().getMatricula());
-    dto.setStudentName(loan.getStudent().getNome());
-    dto.setBookIsbn(loan.getBook().getIsbn());
-    dto.setBookTitle(loan.getBook().getTitle());
-    dto.setBookAuthor(loan.getBook().getAuthor());
+    dto.setStudentMatricula(student.getMatricula());
+    dto.setStudentName(student.getNome());
+    dto.setBookIsbn(book.getIsbn());
+    dto.setBookTitle(book.getTitle());
+    dto.setBookAuthor(book.getAuthor());
     dto.setLoanDate(loan.getLoanDate());
     dto.setDueDate(loan.getDueDate());
     dto.setReturnDate(loan.getReturnDate());
@@ -177,7 +187,7 @@ public class LoanResponseDTO {
     dto.setOverdueDays(loan.getOverdueDays());
     dto.setFineAmount(loan.getFineAmount());
     dto.setFineStatus(loan.getFineStatus());
-    dto.setQuantity(loan.getBook().getQuantity());
+    dto.setQuantity(book.getQuantity());
     return dto;
   }
-}
\ No newline at end of file
+}
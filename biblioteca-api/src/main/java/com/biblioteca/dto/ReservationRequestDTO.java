@@ -1,5 +1,6 @@
 package com.biblioteca.dto;
 
+import com.biblioteca.model.Reservation;
 import jakarta.validation.constraints.NotBlank;
 
 import java.time.LocalDateTime;
@@ -22,6 +23,12 @@ public class ReservationRequestDTO {
    */
   private LocalDateTime reservationDate;
 
+  /**
+   * Classe de prioridade (opcional)
+   * Se não informada, a reserva entra na fila comum (STANDARD)
+   */
+  private Reservation.ReservationPriority priority;
+
   // Constructors
   public ReservationRequestDTO() {
   }
@@ -56,4 +63,12 @@ public class ReservationRequestDTO {
   public void setReservationDate(LocalDateTime reservationDate) {
     this.reservationDate = reservationDate;
   }
+
+  public Reservation.ReservationPriority getPriority() {
+    return priority;
+  }
+
+  public void setPriority(Reservation.ReservationPriority priority) {
+    this.priority = priority;
+  }
 }
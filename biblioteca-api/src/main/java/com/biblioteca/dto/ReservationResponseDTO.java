@@ -1,6 +1,8 @@
 package com.biblioteca.dto;
 
+import com.biblioteca.model.Book;
 import com.biblioteca.model.Reservation;
+import com.biblioteca.model.Student;
 
 import java.time.LocalDateTime;
 
@@ -19,6 +21,7 @@ public class ReservationResponseDTO {
   private String studentName;
   private LocalDateTime reservationDate;
   private Integer queuePosition;
+  private Reservation.ReservationPriority priority;
   private Reservation.ReservationStatus status;
   private LocalDateTime createdAt;
 
@@ -28,7 +31,8 @@ public class ReservationResponseDTO {
 
   public ReservationResponseDTO(Long id, String bookIsbn, String bookTitle, String bookAuthor,
                                String studentMatricula, String studentName, LocalDateTime reservationDate,
-                               Integer queuePosition, Reservation.ReservationStatus status, LocalDateTime createdAt) {
+                               Integer queuePosition, Reservation.ReservationPriority priority,
+                               Reservation.ReservationStatus status, LocalDateTime createdAt) {
     this.id = id;
     this.bookIsbn = bookIsbn;
     this.bookTitle = bookTitle;
@@ -37,6 +41,7 @@ public class ReservationResponseDTO {
     this.studentName = studentName;
     this.reservationDate = reservationDate;
     this.queuePosition = queuePosition;
+    this.priority = priority;
     this.status = status;
     this.createdAt = createdAt;
   }
@@ -106,6 +111,14 @@ public class ReservationResponseDTO {
     this.queuePosition = queuePosition;
   }
 
+  public Reservation.ReservationPriority getPriority() {
+    return priority;
+  }
+
+  public void setPriority(Reservation.ReservationPriority priority) {
+    this.priority = priority;
+  }
+
   public Reservation.ReservationStatus getStatus() {
     return status;
   }
@@ -123,15 +136,24 @@ public class ReservationResponseDTO {
   }
 
   public static ReservationResponseDTO fromEntity(Reservation reservation) {
+    return fromEntity(reservation, reservation.getBook(), reservation.getStudent());
+  }
+
+  /**
+   * Monta o DTO com livro e aluno informados à parte (por exemplo, cópias do
+   * cache), sem navegar pelas associações da reserva
+   */
+  public static ReservationResponseDTO fromEntity(Reservation reservation, Book book, Student student) {
     ReservationResponseDTO dto = new ReservationResponseDTO();
     dto.setId(reservation.getId());
-    dto.setBookIsbn(reservation.getBook().getIsbn());
-    dto.setBookTitle(reservation.getBook().getTitle());
-    dto.setBookAuthor(reservation.getBook().getAuthor());
-    dto.setStudentMatricula(reservation.getStudent().getMatricula());
-    dto.setStudentName(reservation.getStudent().getNome());
+    dto.setBookIsbn(book.getIsbn());
+    dto.setBookTitle(book.getTitle());
+    dto.setBookAuthor(book.getAuthor());
+    dto.setStudentMatricula(student.getMatricula());
+    dto.setStudentName(student.getNome());
     dto.setReservationDate(reservation.getReservationDate());
     dto.setQueuePosition(reservation.getQueuePosition());
+    dto.setPriority(reservation.getPriority());
     dto.setStatus(reservation.getStatus());
     dto.setCreatedAt(reservation.getCreatedAt());
     return dto;
@@ -0,0 +1,48 @@
+package com.biblioteca.dto;
+
+/**
+ * DTO de uma sugestão do autocompletar (livros e alunos).
+ * Livros: id = ISBN, label = título, detail = autor.
+ * Alunos: id = matrícula, label = nome, detail = e-mail.
+ */
+
+public class SuggestionDTO {
+  private String id;
+  private String label;
+  private String detail;
+
+  // Constructors
+  public SuggestionDTO() {
+  }
+
+  public SuggestionDTO(String id, String label, String detail) {
+    this.id = id;
+    this.label = label;
+    this.detail = detail;
+  }
+
+  // Getters and Setters
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public void setLabel(String label) {
+    this.label = label;
+  }
+
+  public String getDetail() {
+    return detail;
+  }
+
+  public void setDetail(String detail) {
+    this.detail = detail;
+  }
+}
@@ -0,0 +1,51 @@
+package com.biblioteca.event;
+
+/**
+ * Estoque e fila de reservas de um livro antes e depois de uma operação,
+ * com a capacidade da fila em vigor (a do livro ou o limite global).
+ * Permite que os consumidores dos eventos recalculem apenas a contribuição
+ * desse livro nos totais do acervo.
+ */
+public class BookStockChange {
+    private final String isbn;
+    private final int quantityBefore;
+    private final int activeReservationsBefore;
+    private final int quantityAfter;
+    private final int activeReservationsAfter;
+    private final int reservationCapacity;
+
+    public BookStockChange(String isbn, int quantityBefore, int activeReservationsBefore,
+                           int quantityAfter, int activeReservationsAfter, int reservationCapacity) {
+        this.isbn = isbn;
+        this.quantityBefore = quantityBefore;
+        this.activeReservationsBefore = activeReservationsBefore;
+        this.quantityAfter = quantityAfter;
+        this.activeReservationsAfter = activeReservationsAfter;
+        this.reservationCapacity = reservationCapacity;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public int getQuantityBefore() {
+        return quantityBefore;
+    }
+
+    public int getActiveReservationsBefore() {
+        return activeReservationsBefore;
+    }
+
+    public int getQuantityAfter() {
+        return quantityAfter;
+    }
+
+    public int getActiveReservationsAfter() {
+        return activeReservationsAfter;
+    }
+
+    /** Quantidade de reservas ativas a partir da qual a fila está cheia */
+    public int getReservationCapacity() {
+        return reservationCapacity;
+    }
+}
@@ -0,0 +1,30 @@
+package com.biblioteca.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publicado quando um empréstimo é registrado.
+ */
+public class LoanOpenedEvent {
+    private final String studentMatricula;
+    private final LocalDateTime dueDate;
+    private final BookStockChange stock;
+
+    public LoanOpenedEvent(String studentMatricula, LocalDateTime dueDate, BookStockChange stock) {
+        this.studentMatricula = studentMatricula;
+        this.dueDate = dueDate;
+        this.stock = stock;
+    }
+
+    public String getStudentMatricula() {
+        return studentMatricula;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public BookStockChange getStock() {
+        return stock;
+    }
+}
@@ -0,0 +1,57 @@
+package com.biblioteca.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publicado quando um empréstimo é devolvido, com os dias de atraso e a multa
+ * gravados na devolução.
+ */
+public class LoanReturnedEvent {
+    private final String studentMatricula;
+    private final LocalDateTime loanDate;
+    private final LocalDateTime dueDate;
+    private final LocalDateTime returnDate;
+    private final Integer overdueDays;
+    private final Integer fineAmount;
+    private final BookStockChange stock;
+
+    public LoanReturnedEvent(String studentMatricula, LocalDateTime loanDate, LocalDateTime dueDate,
+                             LocalDateTime returnDate, Integer overdueDays, Integer fineAmount,
+                             BookStockChange stock) {
+        this.studentMatricula = studentMatricula;
+        this.loanDate = loanDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.overdueDays = overdueDays;
+        this.fineAmount = fineAmount;
+        this.stock = stock;
+    }
+
+    public String getStudentMatricula() {
+        return studentMatricula;
+    }
+
+    public LocalDateTime getLoanDate() {
+        return loanDate;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public LocalDateTime getReturnDate() {
+        return returnDate;
+    }
+
+    public Integer getOverdueDays() {
+        return overdueDays;
+    }
+
+    public Integer getFineAmount() {
+        return fineAmount;
+    }
+
+    public BookStockChange getStock() {
+        return stock;
+    }
+}
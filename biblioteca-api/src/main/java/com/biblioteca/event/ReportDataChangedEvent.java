@@ -0,0 +1,49 @@
+package com.biblioteca.event;
+
+/**
+ * Publicado por alterações que não têm atualização incremental nos
+ * relatórios (cadastro, edição e exclusão de livros e alunos, exclusão de
+ * empréstimos). Quem mantém totais em memória deve recalculá-los.
+ *
+ * Quando a alteração pode ter mudado dados de livros (estoque, fila de
+ * reservas, título), o evento indica o ISBN afetado ou, se foram vários
+ * livros de uma vez, apenas que houve alteração em livros.
+ */
+public class ReportDataChangedEvent {
+    private final String source;
+    private final boolean booksChanged;
+    private final String bookIsbn;
+
+    public ReportDataChangedEvent(String source) {
+        this(source, false, null);
+    }
+
+    private ReportDataChangedEvent(String source, boolean booksChanged, String bookIsbn) {
+        this.source = source;
+        this.booksChanged = booksChanged;
+        this.bookIsbn = bookIsbn;
+    }
+
+    /** Alteração em um único livro */
+    public static ReportDataChangedEvent forBook(String source, String isbn) {
+        return new ReportDataChangedEvent(source, true, isbn);
+    }
+
+    /** Alteração em vários livros (lote, importação, correção de contadores) */
+    public static ReportDataChangedEvent forBooks(String source) {
+        return new ReportDataChangedEvent(source, true, null);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isBooksChanged() {
+        return booksChanged;
+    }
+
+    /** ISBN do livro alterado; nulo se a alteração não foi em um único livro */
+    public String getBookIsbn() {
+        return bookIsbn;
+    }
+}
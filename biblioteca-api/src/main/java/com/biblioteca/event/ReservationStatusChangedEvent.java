@@ -0,0 +1,61 @@
+package com.biblioteca.event;
+
+import com.biblioteca.model.Reservation;
+
+/**
+ * Publicado quando uma reserva é criada, cancelada ou efetivada.
+ * {@code previousStatus} é null para reservas novas.
+ */
+public class ReservationStatusChangedEvent {
+    private final Long reservationId;
+    private final String studentMatricula;
+    private final Reservation.ReservationStatus previousStatus;
+    private final Reservation.ReservationStatus newStatus;
+    private final boolean firstReservationOfBook;
+    private final boolean firstReservationOfStudent;
+    private final BookStockChange stock;
+
+    public ReservationStatusChangedEvent(Long reservationId,
+                                         String studentMatricula,
+                                         Reservation.ReservationStatus previousStatus,
+                                         Reservation.ReservationStatus newStatus,
+                                         boolean firstReservationOfBook,
+                                         boolean firstReservationOfStudent,
+                                         BookStockChange stock) {
+        this.reservationId = reservationId;
+        this.studentMatricula = studentMatricula;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+        this.firstReservationOfBook = firstReservationOfBook;
+        this.firstReservationOfStudent = firstReservationOfStudent;
+        this.stock = stock;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public String getStudentMatricula() {
+        return studentMatricula;
+    }
+
+    public Reservation.ReservationStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public Reservation.ReservationStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public boolean isFirstReservationOfBook() {
+        return firstReservationOfBook;
+    }
+
+    public boolean isFirstReservationOfStudent() {
+        return firstReservationOfStudent;
+    }
+
+    public BookStockChange getStock() {
+        return stock;
+    }
+}
@@ -1,15 +1,26 @@
 package com.biblioteca.model;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.biblioteca.service.EntityCacheInvalidationListener;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Livro do acervo
+ * O estoque (quantity) e o contador de reservas são alterados por UPDATEs
+ * atômicos no banco; com @DynamicUpdate, salvar a entidade grava apenas as
+ * colunas modificadas e não sobrescreve esses valores com uma cópia antiga
+ */
 @Entity
+@DynamicUpdate
+@EntityListeners(EntityCacheInvalidationListener.class)
 @Table(name = "books")
 public class Book {
   @Id
@@ -52,6 +63,14 @@ public class Book {
   @Column(name = "active_reservations_count", nullable = false)
   private Integer activeReservationsCount = 0;
 
+  /**
+   * Capacidade da fila de reservas deste livro
+   * Quando nula, vale o limite global (LibrarySettings.maxReservationsPerBook)
+   */
+  @Min(value = 1, message = "Capacidade da fila de reservas deve ser pelo menos 1")
+  @Column(name = "reservation_capacity")
+  private Integer reservationCapacity;
+
   // Constructors
   public Book() {
   }
@@ -150,6 +169,14 @@ public class Book {
     this.activeReservationsCount = activeReservationsCount;
   }
 
+  public Integer getReservationCapacity() {
+    return reservationCapacity;
+  }
+
+  public void setReservationCapacity(Integer reservationCapacity) {
+    this.reservationCapacity = reservationCapacity;
+  }
+
   @PrePersist
   protected void onCreate() {
     if (entryDate == null) {
@@ -0,0 +1,199 @@
+package com.biblioteca.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mensagem de e-mail na fila de saída (outbox)
+ * As notificações são gravadas aqui e enviadas em segundo plano pelo
+ * EmailOutboxService, com novas tentativas em caso de falha
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+    @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_email_outbox_dedupe_key", columnNames = "dedupe_key")
+})
+public class EmailOutboxMessage {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 40)
+  private NotificationType type;
+
+  /**
+   * Chave que identifica a notificação (ex.: OVERDUE_LOAN:42:2026-10-18)
+   * Impede que o mesmo aviso seja enfileirado duas vezes
+   */
+  @Column(name = "dedupe_key", nullable = false, length = 120)
+  private String dedupeKey;
+
+  @Column(name = "to_email", nullable = false)
+  private String toEmail;
+
+  @Column(nullable = false)
+  private String subject;
+
+  @Column(nullable = false, length = 4000)
+  private String body;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private OutboxStatus status = OutboxStatus.PENDING;
+
+  /**
+   * Quantidade de tentativas de envio já feitas
+   */
+  @Column(nullable = false)
+  private Integer attempts = 0;
+
+  /**
+   * Momento a partir do qual a mensagem pode ser (re)enviada
+   * Enquanto SENDING, é o prazo após o qual a mensagem volta para a fila
+   */
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(name = "last_error", length = 500)
+  private String lastError;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "sent_at")
+  private LocalDateTime sentAt;
+
+  // Constructors
+  public EmailOutboxMessage() {
+  }
+
+  public EmailOutboxMessage(NotificationType type, String dedupeKey, String toEmail, String subject, String body) {
+    this.type = type;
+    this.dedupeKey = dedupeKey;
+    this.toEmail = toEmail;
+    this.subject = subject;
+    this.body = body;
+  }
+
+  @PrePersist
+  protected void onCreate() {
+    if (createdAt == null) {
+      createdAt = LocalDateTime.now();
+    }
+    if (nextAttemptAt == null) {
+      nextAttemptAt = createdAt;
+    }
+  }
+
+  // Getters and Setters
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public NotificationType getType() {
+    return type;
+  }
+
+  public void setType(NotificationType type) {
+    this.type = type;
+  }
+
+  public String getDedupeKey() {
+    return dedupeKey;
+  }
+
+  public void setDedupeKey(String dedupeKey) {
+    this.dedupeKey = dedupeKey;
+  }
+
+  public String getToEmail() {
+    return toEmail;
+  }
+
+  public void setToEmail(String toEmail) {
+    this.toEmail = toEmail;
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public void setSubject(String subject) {
+    this.subject = subject;
+  }
+
+  public String getBody() {
+    return body;
+  }
+
+  public void setBody(String body) {
+    this.body = body;
+  }
+
+  public OutboxStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(OutboxStatus status) {
+    this.status = status;
+  }
+
+  public Integer getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(Integer attempts) {
+    this.attempts = attempts;
+  }
+
+  public LocalDateTime getNextAttemptAt() {
+    return nextAttemptAt;
+  }
+
+  public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+    this.nextAttemptAt = nextAttemptAt;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  public void setLastError(String lastError) {
+    this.lastError = lastError;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public LocalDateTime getSentAt() {
+    return sentAt;
+  }
+
+  public void setSentAt(LocalDateTime sentAt) {
+    this.sentAt = sentAt;
+  }
+
+  public enum NotificationType {
+    OVERDUE_LOAN,
+    RESERVATION_AVAILABLE
+  }
+
+  public enum OutboxStatus {
+    PENDING,  // Aguardando envio (ou nova tentativa)
+    SENDING,  // Reservada por um envio em andamento
+    SENT,     // Enviada
+    FAILED    // Tentativas esgotadas
+  }
+}
@@ -0,0 +1,254 @@
+package com.biblioteca.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Importação de um arquivo CSV/JSON de livros ou alunos
+ * O arquivo é lido em blocos e, a cada bloco gravado, o progresso
+ * (processedRecords) é salvo como ponto de retomada
+ */
+@Entity
+@Table(name = "import_job")
+public class ImportJob {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private ImportTarget target;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 10)
+  private ImportFormat format;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private ImportStatus status = ImportStatus.PENDING;
+
+  @Column(name = "file_name")
+  private String fileName;
+
+  /**
+   * Cópia do arquivo enviado, mantida até a importação terminar
+   */
+  @Column(name = "stored_file", nullable = false, length = 1000)
+  private String storedFile;
+
+  @Column(name = "file_size", nullable = false)
+  private Long fileSize = 0L;
+
+  /**
+   * Bytes do arquivo já lidos até o último bloco gravado
+   */
+  @Column(name = "bytes_processed", nullable = false)
+  private Long bytesProcessed = 0L;
+
+  /**
+   * Registros já lidos e gravados (ou recusados); a retomada pula esses registros
+   */
+  @Column(name = "processed_records", nullable = false)
+  private Long processedRecords = 0L;
+
+  @Column(name = "saved_records", nullable = false)
+  private Long savedRecords = 0L;
+
+  @Column(name = "failed_records", nullable = false)
+  private Long failedRecords = 0L;
+
+  /**
+   * Primeiros erros por registro, em JSON
+   */
+  @Column(name = "error_sample", columnDefinition = "TEXT")
+  private String errorSample;
+
+  @Column(name = "last_error", length = 500)
+  private String lastError;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "started_at")
+  private LocalDateTime startedAt;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
+  @Column(name = "finished_at")
+  private LocalDateTime finishedAt;
+
+  // Constructors
+  public ImportJob() {
+  }
+
+  public ImportJob(ImportTarget target, ImportFormat format, String fileName, String storedFile, Long fileSize) {
+    this.target = target;
+    this.format = format;
+    this.fileName = fileName;
+    this.storedFile = storedFile;
+    this.fileSize = fileSize;
+  }
+
+  @PrePersist
+  protected void onCreate() {
+    if (createdAt == null) {
+      createdAt = LocalDateTime.now();
+    }
+  }
+
+  // Getters and Setters
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public ImportTarget getTarget() {
+    return target;
+  }
+
+  public void setTarget(ImportTarget target) {
+    this.target = target;
+  }
+
+  public ImportFormat getFormat() {
+    return format;
+  }
+
+  public void setFormat(ImportFormat format) {
+    this.format = format;
+  }
+
+  public ImportStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(ImportStatus status) {
+    this.status = status;
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public void setFileName(String fileName) {
+    this.fileName = fileName;
+  }
+
+  public String getStoredFile() {
+    return storedFile;
+  }
+
+  public void setStoredFile(String storedFile) {
+    this.storedFile = storedFile;
+  }
+
+  public Long getFileSize() {
+    return fileSize;
+  }
+
+  public void setFileSize(Long fileSize) {
+    this.fileSize = fileSize;
+  }
+
+  public Long getBytesProcessed() {
+    return bytesProcessed;
+  }
+
+  public void setBytesProcessed(Long bytesProcessed) {
+    this.bytesProcessed = bytesProcessed;
+  }
+
+  public Long getProcessedRecords() {
+    return processedRecords;
+  }
+
+  public void setProcessedRecords(Long processedRecords) {
+    this.processedRecords = processedRecords;
+  }
+
+  public Long getSavedRecords() {
+    return savedRecords;
+  }
+
+  public void setSavedRecords(Long savedRecords) {
+    this.savedRecords = savedRecords;
+  }
+
+  public Long getFailedRecords() {
+    return failedRecords;
+  }
+
+  public void setFailedRecords(Long failedRecords) {
+    this.failedRecords = failedRecords;
+  }
+
+  public String getErrorSample() {
+    return errorSample;
+  }
+
+  public void setErrorSample(String errorSample) {
+    this.errorSample = errorSample;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  public void setLastError(String lastError) {
+    this.lastError = lastError;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public LocalDateTime getStartedAt() {
+    return startedAt;
+  }
+
+  public void setStartedAt(LocalDateTime startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  public LocalDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(LocalDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public LocalDateTime getFinishedAt() {
+    return finishedAt;
+  }
+
+  public void setFinishedAt(LocalDateTime finishedAt) {
+    this.finishedAt = finishedAt;
+  }
+
+  public enum ImportTarget {
+    BOOKS, // Livros (acervo)
+    STUDENTS // Alunos
+  }
+
+  public enum ImportFormat {
+    CSV, // Primeira linha com os nomes dos campos
+    JSON // Array de objetos ou um objeto por linha (NDJSON)
+  }
+
+  public enum ImportStatus {
+    PENDING, // Aguardando execução
+    RUNNING, // Em andamento
+    COMPLETED, // Arquivo inteiro processado
+    FAILED // Interrompida; pode ser retomada do último bloco gravado
+  }
+}
@@ -40,6 +40,15 @@ public class LibrarySettings {
   @Column(name = "fine_per_day", nullable = false)
   private Integer finePerDay = 100; // Padrão: 100 (centavos ou unidade mínima)
 
+  /**
+   * Capacidade padrão da fila de reservas de cada livro
+   * Livros com capacidade própria (Book.reservationCapacity) usam a sua
+   */
+  @NotNull(message = "Limite de reservas por livro é obrigatório")
+  @Min(value = 1, message = "Limite de reservas por livro deve ser pelo menos 1")
+  @Column(name = "max_reservations_per_book", nullable = false)
+  private Integer maxReservationsPerBook = 5; // Padrão: 5 reservas
+
   // Constructors
   public LibrarySettings() {
   }
@@ -83,6 +92,14 @@ public class LibrarySettings {
     this.finePerDay = finePerDay;
   }
 
+  public Integer getMaxReservationsPerBook() {
+    return maxReservationsPerBook;
+  }
+
+  public void setMaxReservationsPerBook(Integer maxReservationsPerBook) {
+    this.maxReservationsPerBook = maxReservationsPerBook;
+  }
+
   /**
    * Garantir que sempre existe apenas uma instância
    */
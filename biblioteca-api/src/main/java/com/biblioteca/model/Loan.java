@@ -2,10 +2,15 @@ package com.biblioteca.model;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+    @Index(name = "idx_loans_student_status", columnList = "student_matricula, status"),
+    @Index(name = "idx_loans_status_due_date", columnList = "status, due_date"),
+    @Index(name = "idx_loans_book_status", columnList = "book_isbn, status")
+})
 public class Loan {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -58,6 +63,13 @@ public class Loan {
   @Column(name = "fine_status")
   private FineStatus fineStatus;
 
+  /**
+   * Data do último aviso de atraso enfileirado para o aluno
+   * Null se nenhum aviso foi enviado
+   */
+  @Column(name = "last_overdue_notice_date")
+  private LocalDate lastOverdueNoticeDate;
+
   @Column(name = "created_at", nullable = false, updatable = false)
   private LocalDateTime createdAt;
 
@@ -160,6 +172,14 @@ public class Loan {
     this.fineStatus = fineStatus;
   }
 
+  public LocalDate getLastOverdueNoticeDate() {
+    return lastOverdueNoticeDate;
+  }
+
+  public void setLastOverdueNoticeDate(LocalDate lastOverdueNoticeDate) {
+    this.lastOverdueNoticeDate = lastOverdueNoticeDate;
+  }
+
   public LocalDateTime getCreatedAt() {
     return createdAt;
   }
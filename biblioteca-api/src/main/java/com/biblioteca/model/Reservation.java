@@ -6,10 +6,15 @@ import java.time.LocalDateTime;
 
 /**
  * Modelo de Reserva de Livro
- * Implementa uma fila de reservas com máximo de 5 posições por livro
+ * Implementa uma fila de reservas por livro, com capacidade configurável
+ * (LibrarySettings ou o próprio livro) e classes de prioridade: a fila é
+ * atendida por (prioridade, posição)
  */
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+    @Index(name = "idx_reservations_book_status_priority_position",
+        columnList = "book_isbn, status, priority, queue_position")
+})
 public class Reservation {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -30,12 +35,21 @@ public class Reservation {
   private LocalDateTime reservationDate;
 
   /**
-   * Posição na fila de reservas (1 a 5)
-   * Usado para ordenar as reservas do mesmo livro
+   * Posição na fila de reservas, dentro da classe de prioridade
+   * Usado para ordenar as reservas do mesmo livro; as posições das reservas
+   * ativas de uma mesma prioridade são contínuas (1..n) e avançam juntas
+   * quando uma reserva dessa prioridade sai da fila
    */
   @Column(name = "queue_position", nullable = false)
   private Integer queuePosition;
 
+  /**
+   * Classe de prioridade (reservas de disciplina são atendidas antes das comuns)
+   */
+  @Convert(converter = PriorityConverter.class)
+  @Column(nullable = false)
+  private ReservationPriority priority = ReservationPriority.STANDARD;
+
   /**
    * Status da reserva
    */
@@ -101,6 +115,14 @@ public class Reservation {
     this.queuePosition = queuePosition;
   }
 
+  public ReservationPriority getPriority() {
+    return priority;
+  }
+
+  public void setPriority(ReservationPriority priority) {
+    this.priority = priority;
+  }
+
   public ReservationStatus getStatus() {
     return status;
   }
@@ -125,6 +147,9 @@ public class Reservation {
     if (reservationDate == null) {
       reservationDate = LocalDateTime.now();
     }
+    if (priority == null) {
+      priority = ReservationPriority.STANDARD;
+    }
   }
 
   public enum ReservationStatus {
@@ -132,4 +157,49 @@ public class Reservation {
     CANCELLED, // Reserva cancelada
     FULFILLED // Reserva efetivada (gerou empréstimo)
   }
+
+  /**
+   * Classes de prioridade da fila
+   * Gravadas pelo nível (menor = atendida antes), que ordena o índice da fila
+   */
+  public enum ReservationPriority {
+    COURSE_RESERVE(0), // Reserva de disciplina (bibliografia de curso)
+    STANDARD(1); // Reserva comum
+
+    private final int level;
+
+    ReservationPriority(int level) {
+      this.level = level;
+    }
+
+    public int getLevel() {
+      return level;
+    }
+
+    public static ReservationPriority fromLevel(int level) {
+      for (ReservationPriority priority : values()) {
+        if (priority.level == level) {
+          return priority;
+        }
+      }
+      throw new IllegalArgumentException("Prioridade de reserva desconhecida: " + level);
+    }
+  }
+
+  /**
+   * Grava a prioridade pelo nível numérico (e não pelo nome), para que a
+   * ordenação da coluna siga a ordem de atendimento
+   */
+  @Converter
+  public static class PriorityConverter implements AttributeConverter<ReservationPriority, Integer> {
+    @Override
+    public Integer convertToDatabaseColumn(ReservationPriority priority) {
+      return priority != null ? priority.getLevel() : null;
+    }
+
+    @Override
+    public ReservationPriority convertToEntityAttribute(Integer level) {
+      return level != null ? ReservationPriority.fromLevel(level) : null;
+    }
+  }
 }
@@ -1,5 +1,6 @@
 package com.biblioteca.model;
 
+import com.biblioteca.service.EntityCacheInvalidationListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -12,6 +13,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(EntityCacheInvalidationListener.class)
 @Table(name = "students")
 public class Student {
   @Id
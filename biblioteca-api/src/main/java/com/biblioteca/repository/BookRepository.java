@@ -8,11 +8,198 @@
 package com.biblioteca.repository;
 
 import com.biblioteca.model.Book;
+import com.biblioteca.model.Reservation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, String> {
     // ISBN é a chave primária, então findByIsbn não é mais necessário
     // Use findById(isbn) diretamente
+
+    /**
+     * Primeira página da listagem por cursor, ordenada por ISBN.
+     *
+     * @param pageable limite de linhas (página 0)
+     * @return livros com os menores ISBNs
+     */
+    List<Book> findAllByOrderByIsbnAsc(Pageable pageable);
+
+    /**
+     * Próxima página da listagem por cursor: livros com ISBN maior que o cursor.
+     *
+     * @param isbn último ISBN da página anterior
+     * @param pageable limite de linhas (página 0)
+     * @return livros seguintes ordenados por ISBN
+     */
+    List<Book> findByIsbnGreaterThanOrderByIsbnAsc(String isbn, Pageable pageable);
+
+    /**
+     * ISBNs, entre os informados, que já estão cadastrados.
+     * Usado pelo cadastro em lote para checar duplicados com uma única consulta.
+     *
+     * @param isbns ISBNs a verificar
+     * @return ISBNs já existentes
+     */
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Quantidade em estoque e tamanho da fila de reservas de um livro,
+     * lidos direto do banco (sem passar pelo contexto de persistência).
+     */
+    interface StockLevel {
+        Integer getQuantity();
+        Integer getActiveReservationsCount();
+        /** Capacidade própria da fila; nula quando vale o limite global */
+        Integer getReservationCapacity();
+    }
+
+    @Query("SELECT b.quantity AS quantity, b.activeReservationsCount AS activeReservationsCount, " +
+           "b.reservationCapacity AS reservationCapacity " +
+           "FROM Book b WHERE b.isbn = :isbn")
+    Optional<StockLevel> findStockLevel(@Param("isbn") String isbn);
+
+    /**
+     * Dados de um livro usados na consulta de disponibilidade
+     */
+    interface AvailabilityRow {
+        String getIsbn();
+        String getTitle();
+        String getAuthor();
+        Integer getQuantity();
+        Integer getActiveReservationsCount();
+    }
+
+    @Query("SELECT b.isbn AS isbn, b.title AS title, b.author AS author, b.quantity AS quantity, " +
+           "b.activeReservationsCount AS activeReservationsCount FROM Book b WHERE b.isbn = :isbn")
+    Optional<AvailabilityRow> findAvailabilityRow(@Param("isbn") String isbn);
+
+    /**
+     * Página de dados de disponibilidade, ordenada por ISBN (cursor)
+     *
+     * @param after último ISBN da página anterior ("" para a primeira)
+     * @param pageable limite de linhas (página 0)
+     */
+    @Query("SELECT b.isbn AS isbn, b.title AS title, b.author AS author, b.quantity AS quantity, " +
+           "b.activeReservationsCount AS activeReservationsCount FROM Book b " +
+           "WHERE b.isbn > :after ORDER BY b.isbn ASC")
+    List<AvailabilityRow> findAvailabilityPage(@Param("after") String after, Pageable pageable);
+
+    /**
+     * Retira um exemplar do estoque, apenas se ainda houver algum, com um
+     * UPDATE condicional atômico: checkouts simultâneos do mesmo livro nunca
+     * deixam o estoque negativo.
+     *
+     * @param isbn ISBN do livro
+     * @return 1 se o exemplar foi retirado, 0 se o livro não existe ou está sem estoque
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.quantity = b.quantity - 1 WHERE b.isbn = :isbn AND b.quantity > 0")
+    int decrementQuantityIfAvailable(@Param("isbn") String isbn);
+
+    /**
+     * Devolve um exemplar ao estoque com um UPDATE atômico.
+     *
+     * @param isbn ISBN do livro
+     * @return quantidade de livros atualizados (0 ou 1)
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.quantity = b.quantity + 1 WHERE b.isbn = :isbn")
+    int incrementQuantity(@Param("isbn") String isbn);
+
+    /**
+     * Soma {@code delta} ao contador de reservas ativas do livro com um UPDATE
+     * atômico (sem ler e regravar o valor).
+     *
+     * @param isbn ISBN do livro
+     * @param delta +1 ao reservar, -1 quando a reserva sai da fila
+     * @return quantidade de livros atualizados (0 ou 1)
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.activeReservationsCount = b.activeReservationsCount + :delta WHERE b.isbn = :isbn")
+    int adjustActiveReservationsCount(@Param("isbn") String isbn, @Param("delta") int delta);
+
+    /**
+     * Recalcula o contador de reservas ativas a partir das reservas gravadas,
+     * apenas nos livros em que ele diverge.
+     *
+     * @param active status ACTIVE
+     * @return quantidade de livros corrigidos
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.activeReservationsCount = " +
+           "(SELECT CAST(COUNT(r) AS Integer) FROM Reservation r WHERE r.book = b AND r.status = :active) " +
+           "WHERE b.activeReservationsCount <> " +
+           "(SELECT COUNT(r) FROM Reservation r WHERE r.book = b AND r.status = :active)")
+    int reconcileActiveReservationsCounts(@Param("active") Reservation.ReservationStatus active);
+
+    /**
+     * Livro encontrado pela busca textual no PostgreSQL e sua relevância
+     */
+    interface SearchHit {
+        String getIsbn();
+        Number getScore();
+    }
+
+    /**
+     * Busca textual pela coluna gerada {@code search_vector} (índice GIN),
+     * ordenada por relevância. Exclusiva do PostgreSQL: a coluna é criada pela
+     * migração db/migration/postgresql/007-add-book-search-vector.sql.
+     *
+     * @param tsQuery expressão no formato de to_tsquery (ex.: "dom & casm:*")
+     * @param limit quantidade máxima de resultados
+     * @return ISBNs e pontuações, do mais relevante para o menos relevante
+     */
+    @Query(value = "SELECT b.isbn AS isbn, ts_rank_cd(b.search_vector, q) AS score " +
+                   "FROM books b, to_tsquery('portuguese_unaccent', :tsQuery) q " +
+                   "WHERE b.search_vector @@ q " +
+                   "ORDER BY score DESC, b.isbn " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<SearchHit> searchFullText(@Param("tsQuery") String tsQuery, @Param("limit") int limit);
+
+    /**
+     * Totais do acervo calculados pelo banco em uma única leitura.
+     * Somas sobre tabela vazia chegam como null.
+     */
+    interface CatalogTotals {
+        Number getTotalBooks();
+        Number getAvailableBooks();
+        Number getTotalCopiesInStock();
+        Number getTotalCopiesAvailable();
+        Number getBooksWithFullQueue();
+        Number getTotalActiveReservations();
+    }
+
+    /**
+     * Agrega o acervo inteiro em uma única consulta: títulos, títulos com
+     * estoque, cópias em estoque, cópias livres de reserva e filas cheias.
+     *
+     * @param globalCapacity capacidade da fila dos livros sem capacidade própria
+     *                       (a fila está cheia ao atingir a capacidade)
+     * @return totais do acervo
+     */
+    @Query("SELECT COUNT(b) AS totalBooks, " +
+           "SUM(CASE WHEN b.quantity > 0 THEN 1 ELSE 0 END) AS availableBooks, " +
+           "SUM(b.quantity) AS totalCopiesInStock, " +
+           "SUM(CASE WHEN b.quantity > b.activeReservationsCount " +
+           "THEN b.quantity - b.activeReservationsCount ELSE 0 END) AS totalCopiesAvailable, " +
+           "SUM(CASE WHEN b.activeReservationsCount >= COALESCE(b.reservationCapacity, :globalCapacity) " +
+           "THEN 1 ELSE 0 END) AS booksWithFullQueue, " +
+           "SUM(b.activeReservationsCount) AS totalActiveReservations " +
+           "FROM Book b")
+    CatalogTotals aggregateCatalogTotals(@Param("globalCapacity") int globalCapacity);
 }
@@ -0,0 +1,83 @@
+package com.biblioteca.repository;
+
+import com.biblioteca.model.EmailOutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório JPA para a fila de saída de e-mails.
+ *
+ * <p>O envio reserva um lote de mensagens pendentes com um UPDATE condicional
+ * (status PENDING → SENDING), de modo que duas instâncias da API nunca
+ * enviem a mesma mensagem.</p>
+ */
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    Optional<EmailOutboxMessage> findByDedupeKey(String dedupeKey);
+
+    long countByStatus(EmailOutboxMessage.OutboxStatus status);
+
+    /**
+     * Chaves de deduplicação, entre as informadas, que já estão na fila.
+     */
+    @Query("SELECT m.dedupeKey FROM EmailOutboxMessage m WHERE m.dedupeKey IN :keys")
+    List<String> findExistingDedupeKeys(@Param("keys") List<String> keys);
+
+    /**
+     * IDs das mensagens pendentes cujo horário de envio já chegou, das mais
+     * antigas para as mais novas. Use o Pageable para limitar o lote.
+     */
+    @Query("SELECT m.id FROM EmailOutboxMessage m " +
+           "WHERE m.status = :pending AND m.nextAttemptAt <= :now " +
+           "ORDER BY m.nextAttemptAt ASC, m.id ASC")
+    List<Long> findDueMessageIds(@Param("now") LocalDateTime now,
+                                 @Param("pending") EmailOutboxMessage.OutboxStatus pending,
+                                 Pageable pageable);
+
+    /**
+     * Reserva as mensagens informadas que ainda estão pendentes.
+     * O prazo da reserva (leaseUntil) identifica o lote: as mensagens
+     * reservadas são as que ficam com SENDING e esse mesmo prazo.
+     *
+     * @return quantidade de mensagens reservadas
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE EmailOutboxMessage m SET m.status = :sending, m.nextAttemptAt = :leaseUntil " +
+           "WHERE m.id IN :ids AND m.status = :pending")
+    int claimMessages(@Param("ids") List<Long> ids,
+                      @Param("leaseUntil") LocalDateTime leaseUntil,
+                      @Param("pending") EmailOutboxMessage.OutboxStatus pending,
+                      @Param("sending") EmailOutboxMessage.OutboxStatus sending);
+
+    @Query("SELECT m FROM EmailOutboxMessage m " +
+           "WHERE m.id IN :ids AND m.status = :sending AND m.nextAttemptAt = :leaseUntil " +
+           "ORDER BY m.id ASC")
+    List<EmailOutboxMessage> findClaimedMessages(@Param("ids") List<Long> ids,
+                                                 @Param("leaseUntil") LocalDateTime leaseUntil,
+                                                 @Param("sending") EmailOutboxMessage.OutboxStatus sending);
+
+    /**
+     * Devolve à fila as mensagens cuja reserva expirou (envio interrompido
+     * por queda da aplicação, por exemplo).
+     *
+     * @return quantidade de mensagens liberadas
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE EmailOutboxMessage m SET m.status = :pending " +
+           "WHERE m.status = :sending AND m.nextAttemptAt < :now")
+    int releaseExpiredClaims(@Param("now") LocalDateTime now,
+                             @Param("sending") EmailOutboxMessage.OutboxStatus sending,
+                             @Param("pending") EmailOutboxMessage.OutboxStatus pending);
+}
@@ -0,0 +1,19 @@
+package com.biblioteca.repository;
+
+import com.biblioteca.model.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositório JPA para as importações de arquivos (livros e alunos).
+ */
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    /**
+     * Importações mais recentes primeiro.
+     */
+    List<ImportJob> findTop50ByOrderByIdDesc();
+}
@@ -1,22 +1,59 @@
 package com.biblioteca.repository;
 
+import com.biblioteca.dto.LoanResponseDTO;
 import com.biblioteca.model.Loan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositório JPA para a entidade Loan.
  *
  * <p>Contém consultas específicas para listar empréstimos por aluno, status,
  * empréstimos vencidos e contagem de empréstimos por ISBN.</p>
+ *
+ * <p>Também expõe as atualizações em lote usadas pelo motor de status de
+ * empréstimos: cada uma é uma única instrução UPDATE que o banco aplica sobre
+ * todas as linhas afetadas, sem carregar entidades na memória.</p>
+ *
+ * <p>Um empréstimo está em aberto quando o status gravado é ACTIVE ou OVERDUE
+ * (returnLoan grava RETURNED junto com a data de devolução). As consultas
+ * filtram por status para usar os índices compostos declarados em Loan.</p>
  */
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+    /**
+     * Dias completos de atraso entre o vencimento e o instante de referência
+     * (:now), calculados pelo próprio banco. Equivale a
+     * {@code Duration.between(dueDate, now).toDays()}. O parâmetro é tipado
+     * com cast: sem ele a subtração não tem tipo e o H2 recusa a expressão.
+     */
+    String OVERDUE_DAYS_EXPRESSION =
+            "cast(floor(((cast(:now as LocalDateTime) - l.dueDate) by second) / 86400.0) as Integer)";
+
+    /**
+     * Projeção de empréstimo direto em LoanResponseDTO, com aluno e livro no
+     * mesmo SELECT (sem carregar entidades nem disparar os relacionamentos LAZY).
+     */
+    String RESPONSE_SELECT = "SELECT new com.biblioteca.dto.LoanResponseDTO(l.id, s.matricula, s.nome, " +
+            "b.isbn, b.title, b.author, l.loanDate, l.dueDate, l.returnDate, l.status, l.overdueDays, " +
+            "l.fineAmount, l.fineStatus, b.quantity) " +
+            "FROM Loan l JOIN l.student s JOIN l.book b ";
+
     /**
      * Busca empréstimos de um estudante pelo número de matrícula e status.
      *
@@ -35,22 +72,52 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
     List<Loan> findByStatus(Loan.LoanStatus status);
 
     /**
-     * Busca empréstimos ativos cujo prazo de devolução já passou.
+     * Busca empréstimos não devolvidos cujo prazo de devolução já passou.
+     * O atraso é determinado pela data de vencimento, não pela distinção
+     * ACTIVE/OVERDUE gravada (usa o índice idx_loans_status_due_date).
      *
      * @param currentDateTime data/hora atual para comparação com dueDate
      * @return lista de empréstimos em atraso
      */
-    @Query("SELECT l FROM Loan l WHERE l.status = 'ACTIVE' AND l.dueDate < :currentDateTime")
+    @Query("SELECT l FROM Loan l WHERE l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate < :currentDateTime")
     List<Loan> findOverdueLoans(@Param("currentDateTime") LocalDateTime currentDateTime);
 
     /**
-     * Busca empréstimos ativos de um estudante pela matrícula.
+     * Busca empréstimos não devolvidos que ainda estão dentro do prazo.
+     *
+     * @param currentDateTime data/hora atual para comparação com dueDate
+     * @return lista de empréstimos ativos
+     */
+    @Query("SELECT l FROM Loan l WHERE l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate >= :currentDateTime")
+    List<Loan> findActiveLoans(@Param("currentDateTime") LocalDateTime currentDateTime);
+
+    /**
+     * Busca todos os empréstimos ainda não devolvidos (ativos e em atraso).
+     *
+     * @return lista de empréstimos em aberto
+     */
+    @Query("SELECT l FROM Loan l WHERE l.status IN ('ACTIVE', 'OVERDUE')")
+    List<Loan> findOpenLoans();
+
+    /**
+     * Busca empréstimos já devolvidos.
+     *
+     * @return lista de empréstimos com data de devolução
+     */
+    @Query("SELECT l FROM Loan l WHERE l.status = 'RETURNED'")
+    List<Loan> findReturnedLoans();
+
+    /**
+     * Busca empréstimos de um estudante ainda dentro do prazo.
      *
      * @param matricula número de matrícula do estudante
+     * @param currentDateTime data/hora atual para comparação com dueDate
      * @return lista de empréstimos ativos do estudante
      */
-    @Query("SELECT l FROM Loan l WHERE l.student.matricula = :matricula AND l.status = 'ACTIVE'")
-    List<Loan> findActiveLoansByMatricula(@Param("matricula") String matricula);
+    @Query("SELECT l FROM Loan l WHERE l.student.matricula = :matricula " +
+           "AND l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate >= :currentDateTime")
+    List<Loan> findActiveLoansByMatricula(@Param("matricula") String matricula,
+                                          @Param("currentDateTime") LocalDateTime currentDateTime);
 
     /**
      * Conta todos os empréstimos relacionados a um determinado livro,
@@ -61,4 +128,293 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
      */
     @Query("SELECT COUNT(l) FROM Loan l WHERE l.book.isbn = :isbn")
     Long countLoansByBookIsbn(@Param("isbn") String isbn);
+
+    // ======================== LISTAGENS EM DTO ========================
+    // Mesmos filtros das consultas de entidade acima, em uma única ida ao
+    // banco por listagem (status gravado; o serviço recalcula na leitura).
+    // As páginas por cursor trazem os registros com id maior que :after.
+
+    @Query(RESPONSE_SELECT + "WHERE l.id = :id")
+    Optional<LoanResponseDTO> findResponseById(@Param("id") Long id);
+
+    @Query(RESPONSE_SELECT + "ORDER BY l.id ASC")
+    List<LoanResponseDTO> findAllResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate < :currentDateTime " +
+           "ORDER BY l.id ASC")
+    List<LoanResponseDTO> findOverdueResponses(@Param("currentDateTime") LocalDateTime currentDateTime);
+
+    @Query(RESPONSE_SELECT + "WHERE l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate >= :currentDateTime " +
+           "ORDER BY l.id ASC")
+    List<LoanResponseDTO> findActiveResponses(@Param("currentDateTime") LocalDateTime currentDateTime);
+
+    @Query(RESPONSE_SELECT + "WHERE l.status IN ('ACTIVE', 'OVERDUE') ORDER BY l.id ASC")
+    List<LoanResponseDTO> findOpenResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE l.status = 'RETURNED' ORDER BY l.id ASC")
+    List<LoanResponseDTO> findReturnedResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE s.matricula = :matricula " +
+           "AND l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate >= :currentDateTime ORDER BY l.id ASC")
+    List<LoanResponseDTO> findActiveResponsesByMatricula(@Param("matricula") String matricula,
+                                                         @Param("currentDateTime") LocalDateTime currentDateTime);
+
+    @Query(RESPONSE_SELECT + "WHERE l.id > :after ORDER BY l.id ASC")
+    List<LoanResponseDTO> findResponsesPage(@Param("after") Long after, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE l.id > :after AND l.status IN ('ACTIVE', 'OVERDUE') " +
+           "AND l.dueDate >= :currentDateTime ORDER BY l.id ASC")
+    List<LoanResponseDTO> findActiveResponsesPage(@Param("after") Long after,
+                                                  @Param("currentDateTime") LocalDateTime currentDateTime,
+                                                  Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE l.id > :after AND l.status IN ('ACTIVE', 'OVERDUE') " +
+           "AND l.dueDate < :currentDateTime ORDER BY l.id ASC")
+    List<LoanResponseDTO> findOverdueResponsesPage(@Param("after") Long after,
+                                                   @Param("currentDateTime") LocalDateTime currentDateTime,
+                                                   Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE l.id > :after AND l.status = 'RETURNED' ORDER BY l.id ASC")
+    List<LoanResponseDTO> findReturnedResponsesPage(@Param("after") Long after, Pageable pageable);
+
+    // ======================== EXPORTAÇÃO ========================
+
+    /**
+     * Percorre todo o histórico de empréstimos já projetado em DTO, em ordem de
+     * id, lendo do banco em blocos (fetch size) através de um cursor.
+     * Nenhuma entidade é carregada no contexto de persistência, então a memória
+     * usada não cresce com o tamanho do histórico.
+     *
+     * <p>Deve ser consumido dentro de uma transação e fechado ao final
+     * (try-with-resources).</p>
+     *
+     * @return stream de empréstimos com dados gravados (status não recalculado)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE_SELECT + "ORDER BY l.id ASC")
+    Stream<LoanResponseDTO> streamAllForExport();
+
+    // ======================== AGREGAÇÕES (RELATÓRIOS) ========================
+
+    /**
+     * Totais de empréstimos calculados pelo banco em uma única leitura.
+     * Somas sobre tabela vazia chegam como null.
+     */
+    interface LoanTotals {
+        Number getTotalLoans();
+        Number getActiveLoans();
+        Number getOverdueLoans();
+        Number getReturnedLoans();
+        Number getTotalFinesCollected();
+        Number getTotalReturnedOverdueDays();
+        Number getTotalReturnedDurationDays();
+    }
+
+    /**
+     * Agrega todos os empréstimos por status em uma única consulta.
+     * Ativo/atrasado é decidido pelo vencimento em relação a :now (mesma regra
+     * das listagens); a duração de um empréstimo devolvido é a diferença em
+     * dias de calendário entre a data do empréstimo e a da devolução.
+     *
+     * @param now data/hora de referência
+     * @return totais por status, multas, dias de atraso e duração
+     */
+    @Query("SELECT COUNT(l) AS totalLoans, " +
+           "SUM(CASE WHEN l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate >= :now THEN 1 ELSE 0 END) AS activeLoans, " +
+           "SUM(CASE WHEN l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate < :now THEN 1 ELSE 0 END) AS overdueLoans, " +
+           "SUM(CASE WHEN l.status = 'RETURNED' THEN 1 ELSE 0 END) AS returnedLoans, " +
+           "SUM(CASE WHEN l.status = 'RETURNED' AND l.fineAmount IS NOT NULL THEN l.fineAmount ELSE 0 END) " +
+           "AS totalFinesCollected, " +
+           "SUM(CASE WHEN l.status = 'RETURNED' AND l.overdueDays > 0 THEN l.overdueDays ELSE 0 END) " +
+           "AS totalReturnedOverdueDays, " +
+           "SUM(CASE WHEN l.status = 'RETURNED' " +
+           "THEN ((cast(l.returnDate as LocalDate) - cast(l.loanDate as LocalDate)) by day) ELSE 0 END) " +
+           "AS totalReturnedDurationDays " +
+           "FROM Loan l")
+    LoanTotals aggregateLoanTotals(@Param("now") LocalDateTime now);
+
+    /**
+     * Conta alunos distintos com ao menos um empréstimo em aberto no prazo.
+     *
+     * @param now data/hora de referência
+     * @return quantidade de alunos
+     */
+    @Query("SELECT COUNT(DISTINCT l.student.matricula) FROM Loan l " +
+           "WHERE l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate >= :now")
+    Long countStudentsWithActiveLoans(@Param("now") LocalDateTime now);
+
+    /**
+     * Conta alunos distintos com ao menos um empréstimo em aberto vencido.
+     *
+     * @param now data/hora de referência
+     * @return quantidade de alunos
+     */
+    @Query("SELECT COUNT(DISTINCT l.student.matricula) FROM Loan l " +
+           "WHERE l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate < :now")
+    Long countStudentsWithOverdueLoans(@Param("now") LocalDateTime now);
+
+    /** Aluno e vencimento de um empréstimo em aberto. */
+    interface OpenLoanDueDate {
+        String getStudentMatricula();
+        LocalDateTime getDueDate();
+    }
+
+    /**
+     * Lista aluno e vencimento de todos os empréstimos em aberto, sem carregar
+     * as entidades. Usado para montar a cópia em memória dos relatórios.
+     *
+     * @return vencimentos dos empréstimos em aberto
+     */
+    @Query("SELECT l.student.matricula AS studentMatricula, l.dueDate AS dueDate FROM Loan l " +
+           "WHERE l.status IN ('ACTIVE', 'OVERDUE')")
+    List<OpenLoanDueDate> findOpenLoanDueDates();
+
+    /** Livro e vencimento de um empréstimo em aberto. */
+    interface OpenBookLoanDueDate {
+        String getBookIsbn();
+        LocalDateTime getDueDate();
+    }
+
+    /**
+     * Lista livro e vencimento de todos os empréstimos em aberto, sem carregar
+     * as entidades. Usado para montar a disponibilidade em memória.
+     *
+     * @return vencimentos dos empréstimos em aberto
+     */
+    @Query("SELECT l.book.isbn AS bookIsbn, l.dueDate AS dueDate FROM Loan l " +
+           "WHERE l.status IN ('ACTIVE', 'OVERDUE')")
+    List<OpenBookLoanDueDate> findOpenLoanDueDatesByBook();
+
+    /**
+     * Vencimentos dos empréstimos em aberto de um livro
+     */
+    @Query("SELECT l.dueDate FROM Loan l WHERE l.book.isbn = :isbn AND l.status IN ('ACTIVE', 'OVERDUE')")
+    List<LocalDateTime> findOpenLoanDueDatesByBookIsbn(@Param("isbn") String isbn);
+
+    // ======================== ATUALIZAÇÕES EM LOTE ========================
+
+    /**
+     * Garante que todo empréstimo com data de devolução esteja como RETURNED.
+     *
+     * @param returned status RETURNED
+     * @return quantidade de empréstimos corrigidos
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Loan l SET l.status = :returned " +
+           "WHERE l.returnDate IS NOT NULL AND l.status <> :returned")
+    int markReturnedLoans(@Param("returned") Loan.LoanStatus returned);
+
+    /**
+     * Move para OVERDUE todos os empréstimos ACTIVE não devolvidos cujo prazo
+     * já passou.
+     *
+     * @param now data/hora de referência
+     * @param active status ACTIVE
+     * @param overdue status OVERDUE
+     * @return quantidade de empréstimos que passaram a estar em atraso
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Loan l SET l.status = :overdue " +
+           "WHERE l.returnDate IS NULL AND l.status = :active AND l.dueDate < :now")
+    int markOverdueLoans(@Param("now") LocalDateTime now,
+                         @Param("active") Loan.LoanStatus active,
+                         @Param("overdue") Loan.LoanStatus overdue);
+
+    /**
+     * Volta para ACTIVE os empréstimos OVERDUE cujo prazo ainda não venceu
+     * (ex.: prazo estendido), limpando dias de atraso e multa.
+     *
+     * @param now data/hora de referência
+     * @param active status ACTIVE
+     * @param overdue status OVERDUE
+     * @return quantidade de empréstimos reativados
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Loan l SET l.status = :active, l.overdueDays = 0, l.fineAmount = 0, l.fineStatus = NULL " +
+           "WHERE l.returnDate IS NULL AND l.status = :overdue AND l.dueDate >= :now")
+    int reactivateLoansNotYetDue(@Param("now") LocalDateTime now,
+                                 @Param("active") Loan.LoanStatus active,
+                                 @Param("overdue") Loan.LoanStatus overdue);
+
+    /**
+     * Recalcula dias de atraso e multa dos empréstimos em atraso com pelo menos
+     * um dia completo vencido, apenas onde o número de dias mudou. Multas sem
+     * status passam a PENDING; PAID/FORGIVEN são preservados.
+     *
+     * @param now data/hora de referência
+     * @param oneDayBefore {@code now} menos um dia (limite de um dia completo de atraso)
+     * @param finePerDay valor da multa por dia de atraso
+     * @param overdue status OVERDUE
+     * @param pending status de multa PENDING
+     * @return quantidade de empréstimos recalculados
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Loan l SET l.overdueDays = " + OVERDUE_DAYS_EXPRESSION + ", " +
+           "l.fineAmount = " + OVERDUE_DAYS_EXPRESSION + " * :finePerDay, " +
+           "l.fineStatus = COALESCE(l.fineStatus, :pending) " +
+           "WHERE l.returnDate IS NULL AND l.status = :overdue AND l.dueDate <= :oneDayBefore " +
+           "AND (l.overdueDays IS NULL OR l.overdueDays <> " + OVERDUE_DAYS_EXPRESSION + ")")
+    int recalculateOverdueFines(@Param("now") LocalDateTime now,
+                                @Param("oneDayBefore") LocalDateTime oneDayBefore,
+                                @Param("finePerDay") Integer finePerDay,
+                                @Param("overdue") Loan.LoanStatus overdue,
+                                @Param("pending") Loan.FineStatus pending);
+
+    // ======================== AVISOS DE ATRASO ========================
+
+    /**
+     * Página de empréstimos em aberto vencidos antes de {@code dueBefore} que
+     * ainda não receberam aviso na data informada, com aluno e livro já
+     * carregados (sem consultas extras ao montar as mensagens).
+     *
+     * @param after último id da página anterior
+     * @param dueBefore limite para dueDate (ex.: agora menos um dia)
+     * @param today data do aviso
+     * @param pageable limite de linhas (página 0)
+     * @return empréstimos em atraso ordenados por id
+     */
+    @Query("SELECT l FROM Loan l JOIN FETCH l.student JOIN FETCH l.book " +
+           "WHERE l.id > :after AND l.status IN ('ACTIVE', 'OVERDUE') AND l.dueDate < :dueBefore " +
+           "AND (l.lastOverdueNoticeDate IS NULL OR l.lastOverdueNoticeDate < :today) " +
+           "ORDER BY l.id ASC")
+    List<Loan> findOverdueLoansToNotifyPage(@Param("after") Long after,
+                                            @Param("dueBefore") LocalDateTime dueBefore,
+                                            @Param("today") LocalDate today,
+                                            Pageable pageable);
+
+    /**
+     * Busca um empréstimo com aluno e livro já carregados.
+     *
+     * @param id id do empréstimo
+     * @return empréstimo, se existir
+     */
+    @Query("SELECT l FROM Loan l JOIN FETCH l.student JOIN FETCH l.book WHERE l.id = :id")
+    Optional<Loan> findByIdWithStudentAndBook(@Param("id") Long id);
+
+    /**
+     * Registra a data do último aviso de atraso dos empréstimos informados.
+     *
+     * @param ids ids dos empréstimos
+     * @param today data do aviso
+     * @return quantidade de empréstimos atualizados
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Loan l SET l.lastOverdueNoticeDate = :today WHERE l.id IN :ids")
+    int markOverdueNoticeSent(@Param("ids") List<Long> ids, @Param("today") LocalDate today);
+
+    /**
+     * Livro e aluno de um empréstimo (chaves dos bloqueios em memória).
+     */
+    interface LoanKeys {
+        String getBookIsbn();
+        String getStudentMatricula();
+    }
+
+    @Query("SELECT l.book.isbn AS bookIsbn, l.student.matricula AS studentMatricula FROM Loan l WHERE l.id = :id")
+    Optional<LoanKeys> findKeysById(@Param("id") Long id);
 }
@@ -1,12 +1,21 @@
 package com.biblioteca.repository;
 
+import com.biblioteca.dto.ReservationResponseDTO;
 import com.biblioteca.model.Reservation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositório JPA para a entidade Reservation.
@@ -18,12 +27,21 @@ import java.util.List;
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
     /**
-     * Busca todas as reservas ativas de um livro, ordenadas por posição na fila.
+     * Projeção de reserva direto em ReservationResponseDTO, com livro e aluno
+     * no mesmo SELECT (sem disparar os relacionamentos LAZY).
+     */
+    String RESPONSE_SELECT = "SELECT new com.biblioteca.dto.ReservationResponseDTO(r.id, b.isbn, b.title, " +
+            "b.author, s.matricula, s.nome, r.reservationDate, r.queuePosition, r.priority, r.status, r.createdAt) " +
+            "FROM Reservation r JOIN r.book b JOIN r.student s ";
+
+    /**
+     * Busca todas as reservas ativas de um livro, na ordem de atendimento.
      *
      * @param isbn ISBN do livro
-     * @return lista de reservas ativas ordenadas pela posição na fila (asc)
+     * @return lista de reservas ativas ordenadas por prioridade e posição na fila (asc)
      */
-    @Query("SELECT r FROM Reservation r WHERE r.book.isbn = :isbn AND r.status = 'ACTIVE' ORDER BY r.queuePosition ASC")
+    @Query("SELECT r FROM Reservation r WHERE r.book.isbn = :isbn AND r.status = 'ACTIVE' " +
+           "ORDER BY r.priority ASC, r.queuePosition ASC")
     List<Reservation> findActiveReservationsByBookIsbnOrderByPosition(@Param("isbn") String isbn);
 
     /**
@@ -45,13 +63,52 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     List<Reservation> findActiveReservationsByStudentMatricula(@Param("matricula") String matricula);
 
     /**
-     * Encontra a maior posição na fila de reservas para um livro.
+     * Encontra a maior posição na fila de reservas de um livro, dentro de uma
+     * classe de prioridade (última entrada do índice da fila).
+     *
+     * @param isbn ISBN do livro
+     * @param priority classe de prioridade
+     * @return maior posição na fila (0 se não houver reservas ativas nessa prioridade)
+     */
+    @Query("SELECT COALESCE(MAX(r.queuePosition), 0) FROM Reservation r " +
+           "WHERE r.book.isbn = :isbn AND r.status = 'ACTIVE' AND r.priority = :priority")
+    Integer findMaxQueuePositionByBookIsbn(@Param("isbn") String isbn,
+                                           @Param("priority") Reservation.ReservationPriority priority);
+
+    /**
+     * Próxima reserva a ser atendida: a de maior prioridade e menor posição
+     * (primeira entrada do índice da fila).
+     *
+     * @param isbn ISBN do livro
+     * @param status status ACTIVE
+     * @return primeira reserva da fila, se houver
+     */
+    Optional<Reservation> findFirstByBookIsbnAndStatusOrderByPriorityAscQueuePositionAsc(
+            String isbn, Reservation.ReservationStatus status);
+
+    /**
+     * Avança de uma posição, com um único UPDATE, todas as reservas ativas do
+     * livro e da mesma prioridade que estavam atrás da posição liberada
+     * (cancelamento/efetivação).
+     *
+     * <p>Limpa o contexto de persistência ao final: chame depois de terminar
+     * de usar as entidades carregadas na transação.</p>
      *
      * @param isbn ISBN do livro
-     * @return maior posição na fila (0 se não houver reservas ativas)
+     * @param priority classe de prioridade da reserva que saiu
+     * @param position posição que saiu da fila
+     * @param active status ACTIVE
+     * @return quantidade de reservas que avançaram
      */
-    @Query("SELECT COALESCE(MAX(r.queuePosition), 0) FROM Reservation r WHERE r.book.isbn = :isbn AND r.status = 'ACTIVE'")
-    Integer findMaxQueuePositionByBookIsbn(@Param("isbn") String isbn);
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.queuePosition = r.queuePosition - 1 " +
+           "WHERE r.book.isbn = :isbn AND r.status = :active AND r.priority = :priority " +
+           "AND r.queuePosition > :position")
+    int advanceQueueAfter(@Param("isbn") String isbn,
+                          @Param("priority") Reservation.ReservationPriority priority,
+                          @Param("position") Integer position,
+                          @Param("active") Reservation.ReservationStatus active);
 
     /**
      * Verifica se um estudante já possui uma reserva ativa para um livro.
@@ -71,4 +128,97 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
      */
     @Query("SELECT COUNT(r) FROM Reservation r WHERE r.book.isbn = :isbn")
     Long countReservationsByBookIsbn(@Param("isbn") String isbn);
+
+    /**
+     * Percorre todo o histórico de reservas já projetado em DTO, em ordem de id,
+     * lendo do banco em blocos (fetch size) através de um cursor.
+     *
+     * <p>Deve ser consumido dentro de uma transação e fechado ao final
+     * (try-with-resources).</p>
+     *
+     * @return stream de reservas
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE_SELECT + "ORDER BY r.id ASC")
+    Stream<ReservationResponseDTO> streamAllForExport();
+
+    // ======================== LISTAGENS EM DTO ========================
+    // Uma única ida ao banco por listagem
+
+    @Query(RESPONSE_SELECT + "WHERE r.id = :id")
+    Optional<ReservationResponseDTO> findResponseById(@Param("id") Long id);
+
+    @Query(RESPONSE_SELECT + "ORDER BY r.id ASC")
+    List<ReservationResponseDTO> findAllResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE b.isbn = :isbn AND r.status = 'ACTIVE' ORDER BY r.priority ASC, r.queuePosition ASC")
+    List<ReservationResponseDTO> findActiveResponsesByBookIsbn(@Param("isbn") String isbn);
+
+    @Query(RESPONSE_SELECT + "WHERE s.matricula = :matricula AND r.status = 'ACTIVE' ORDER BY r.reservationDate ASC")
+    List<ReservationResponseDTO> findActiveResponsesByStudentMatricula(@Param("matricula") String matricula);
+
+    @Query(RESPONSE_SELECT + "WHERE r.id > :after ORDER BY r.id ASC")
+    List<ReservationResponseDTO> findResponsesPage(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Totais de reservas calculados pelo banco em uma única leitura.
+     * Somas sobre tabela vazia chegam como null.
+     */
+    interface ReservationTotals {
+        Number getTotalReservations();
+        Number getActiveReservations();
+        Number getFulfilledReservations();
+        Number getCancelledReservations();
+        Number getBooksWithReservations();
+        Number getStudentsWithReservations();
+    }
+
+    /**
+     * Agrega todas as reservas por status em uma única consulta, junto com a
+     * quantidade de livros e alunos distintos que já tiveram reserva.
+     *
+     * @return totais de reservas
+     */
+    @Query("SELECT COUNT(r) AS totalReservations, " +
+           "SUM(CASE WHEN r.status = 'ACTIVE' THEN 1 ELSE 0 END) AS activeReservations, " +
+           "SUM(CASE WHEN r.status = 'FULFILLED' THEN 1 ELSE 0 END) AS fulfilledReservations, " +
+           "SUM(CASE WHEN r.status = 'CANCELLED' THEN 1 ELSE 0 END) AS cancelledReservations, " +
+           "COUNT(DISTINCT r.book.isbn) AS booksWithReservations, " +
+           "COUNT(DISTINCT r.student.matricula) AS studentsWithReservations " +
+           "FROM Reservation r")
+    ReservationTotals aggregateReservationTotals();
+
+    /**
+     * Livro e aluno de uma reserva (chaves dos bloqueios em memória).
+     */
+    interface ReservationKeys {
+        String getBookIsbn();
+        String getStudentMatricula();
+    }
+
+    @Query("SELECT r.book.isbn AS bookIsbn, r.student.matricula AS studentMatricula FROM Reservation r WHERE r.id = :id")
+    Optional<ReservationKeys> findKeysById(@Param("id") Long id);
+
+    /**
+     * Posição de uma reserva ativa na fila do livro (canal de eventos).
+     */
+    interface QueueEntry {
+        Long getReservationId();
+        String getStudentMatricula();
+        Reservation.ReservationPriority getPriority();
+        Integer getQueuePosition();
+    }
+
+    /**
+     * Fila de reservas ativas de um livro, na ordem de atendimento, sem
+     * carregar as entidades (usa o índice (book_isbn, status, priority, queue_position)).
+     *
+     * @param isbn ISBN do livro
+     * @return reservas ativas ordenadas por prioridade e posição na fila (asc)
+     */
+    @Query("SELECT r.id AS reservationId, r.student.matricula AS studentMatricula, r.priority AS priority, " +
+           "r.queuePosition AS queuePosition FROM Reservation r " +
+           "WHERE r.book.isbn = :isbn AND r.status = 'ACTIVE' " +
+           "ORDER BY r.priority ASC, r.queuePosition ASC")
+    List<QueueEntry> findActiveQueueByBookIsbn(@Param("isbn") String isbn);
 }
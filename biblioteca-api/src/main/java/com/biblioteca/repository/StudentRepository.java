@@ -1,11 +1,16 @@
 package com.biblioteca.repository;
 
 import com.biblioteca.model.Student;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -41,6 +46,33 @@ public interface StudentRepository extends JpaRepository<Student, String> {
     @Query("SELECT s FROM Student s WHERE LOWER(s.email) = LOWER(:email)")
     Optional<Student> findByEmail(@Param("email") String email);
 
+    /**
+     * Matrículas, entre as informadas, que já estão cadastradas.
+     *
+     * @param matriculas matrículas a verificar
+     * @return matrículas já existentes
+     */
+    @Query("SELECT s.matricula FROM Student s WHERE s.matricula IN :matriculas")
+    List<String> findExistingMatriculas(@Param("matriculas") Collection<String> matriculas);
+
+    /**
+     * CPFs, entre os informados, que já estão cadastrados.
+     *
+     * @param cpfs CPFs a verificar
+     * @return CPFs já existentes
+     */
+    @Query("SELECT s.cpf FROM Student s WHERE s.cpf IN :cpfs")
+    List<String> findExistingCpfs(@Param("cpfs") Collection<String> cpfs);
+
+    /**
+     * E-mails, entre os informados (já em minúsculas), que já estão cadastrados.
+     *
+     * @param emails e-mails em minúsculas
+     * @return e-mails já existentes, em minúsculas
+     */
+    @Query("SELECT LOWER(s.email) FROM Student s WHERE LOWER(s.email) IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     /**
      * Conta empréstimos ativos (ACTIVE ou OVERDUE) de um estudante pela matrícula.
      *
@@ -49,4 +81,54 @@ public interface StudentRepository extends JpaRepository<Student, String> {
      */
     @Query("SELECT COUNT(l) FROM Loan l WHERE l.student.matricula = :matricula AND (l.status = 'ACTIVE' OR l.status = 'OVERDUE')")
     Long countActiveLoansByMatricula(@Param("matricula") String matricula);
+
+    /**
+     * Total de reservas do estudante, lido direto do banco.
+     *
+     * @param matricula matrícula do estudante
+     * @return contador de reservas (todas, em qualquer status)
+     */
+    @Query("SELECT s.reservationsCount FROM Student s WHERE s.matricula = :matricula")
+    Integer findReservationsCount(@Param("matricula") String matricula);
+
+    /**
+     * Soma uma reserva ao contador do estudante com um UPDATE atômico.
+     *
+     * @param matricula matrícula do estudante
+     * @return quantidade de estudantes atualizados (0 ou 1)
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Student s SET s.reservationsCount = s.reservationsCount + 1 WHERE s.matricula = :matricula")
+    int incrementReservationsCount(@Param("matricula") String matricula);
+
+    /**
+     * Recalcula o contador de reservas a partir das reservas gravadas,
+     * apenas nos estudantes em que ele diverge.
+     *
+     * @return quantidade de estudantes corrigidos
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Student s SET s.reservationsCount = " +
+           "(SELECT CAST(COUNT(r) AS Integer) FROM Reservation r WHERE r.student = s) " +
+           "WHERE s.reservationsCount <> (SELECT COUNT(r) FROM Reservation r WHERE r.student = s)")
+    int reconcileReservationsCounts();
+
+    /**
+     * Primeira página da listagem por cursor, ordenada por matrícula.
+     *
+     * @param pageable limite de linhas (página 0)
+     * @return estudantes com as menores matrículas
+     */
+    List<Student> findAllByOrderByMatriculaAsc(Pageable pageable);
+
+    /**
+     * Próxima página da listagem por cursor: estudantes com matrícula maior que o cursor.
+     *
+     * @param matricula última matrícula da página anterior
+     * @param pageable limite de linhas (página 0)
+     * @return estudantes seguintes ordenados por matrícula
+     */
+    List<Student> findByMatriculaGreaterThanOrderByMatriculaAsc(String matricula, Pageable pageable);
 }
@@ -0,0 +1,154 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.SuggestionDTO;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autocompletar de livros (título, autor) e alunos (nome, matrícula) para os
+ * formulários de empréstimo e reserva, sem carregar as listas completas.
+ *
+ * <p>Os índices de prefixos ficam em memória: são montados quando a aplicação
+ * sobe e atualizados a cada cadastro, alteração e exclusão feitos pela API
+ * (inclusive em lote e por importação).</p>
+ */
+@Service
+public class AutocompleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+
+    /** Limite padrão e máximo de sugestões por consulta */
+    public static final int DEFAULT_LIMIT = 8;
+    public static final int MAX_LIMIT = 20;
+
+    private final BookRepository bookRepository;
+    private final StudentRepository studentRepository;
+    private final PrefixIndex books = new PrefixIndex();
+    private final PrefixIndex students = new PrefixIndex();
+
+    @Value("${biblioteca.autocomplete.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    @Value("${biblioteca.autocomplete.build-page-size:1000}")
+    private int buildPageSize;
+
+    @Autowired
+    public AutocompleteService(BookRepository bookRepository, StudentRepository studentRepository) {
+        this.bookRepository = bookRepository;
+        this.studentRepository = studentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (buildOnStartup) {
+            build();
+        }
+    }
+
+    /**
+     * Indexa todos os livros e alunos do banco, lidos em páginas pela chave
+     */
+    public void build() {
+        long start = System.nanoTime();
+        String after = null;
+        while (true) {
+            PageRequest page = PageRequest.of(0, buildPageSize);
+            List<Book> rows = after == null
+                    ? bookRepository.findAllByOrderByIsbnAsc(page)
+                    : bookRepository.findByIsbnGreaterThanOrderByIsbnAsc(after, page);
+            indexBooks(rows);
+            if (rows.size() < buildPageSize) {
+                break;
+            }
+            after = rows.get(rows.size() - 1).getIsbn();
+        }
+
+        after = null;
+        while (true) {
+            PageRequest page = PageRequest.of(0, buildPageSize);
+            List<Student> rows = after == null
+                    ? studentRepository.findAllByOrderByMatriculaAsc(page)
+                    : studentRepository.findByMatriculaGreaterThanOrderByMatriculaAsc(after, page);
+            indexStudents(rows);
+            if (rows.size() < buildPageSize) {
+                break;
+            }
+            after = rows.get(rows.size() - 1).getMatricula();
+        }
+        logger.info("Autocompletar montado: {} livro(s), {} aluno(s) em {} ms",
+                books.size(), students.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void indexBook(Book book) {
+        books.put(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getTitle(), book.getAuthor());
+    }
+
+    public void indexBooks(Collection<Book> saved) {
+        saved.forEach(this::indexBook);
+    }
+
+    public void removeBook(String isbn) {
+        books.remove(isbn);
+    }
+
+    public void indexStudent(Student student) {
+        students.put(student.getMatricula(), student.getNome(), student.getEmail(),
+                student.getNome(), student.getMatricula());
+    }
+
+    public void indexStudents(Collection<Student> saved) {
+        saved.forEach(this::indexStudent);
+    }
+
+    public void removeStudent(String matricula) {
+        students.remove(matricula);
+    }
+
+    /**
+     * Livros cujo título ou autor (ou uma de suas palavras) começa com o texto
+     */
+    public List<SuggestionDTO> suggestBooks(String query, Integer limit) {
+        return suggest(books, query, limit);
+    }
+
+    /**
+     * Alunos cujo nome (ou uma de suas palavras) ou matrícula começa com o texto
+     */
+    public List<SuggestionDTO> suggestStudents(String query, Integer limit) {
+        return suggest(students, query, limit);
+    }
+
+    /**
+     * Tamanho dos índices (itens e chaves)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("books", books.size());
+        stats.put("bookKeys", books.keyCount());
+        stats.put("students", students.size());
+        stats.put("studentKeys", students.keyCount());
+        return stats;
+    }
+
+    private static List<SuggestionDTO> suggest(PrefixIndex index, String query, Integer limit) {
+        int max = (limit == null || limit < 1) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return index.lookup(query, max).stream()
+                .map(entry -> new SuggestionDTO(entry.id(), entry.label(), entry.detail()))
+                .toList();
+    }
+}
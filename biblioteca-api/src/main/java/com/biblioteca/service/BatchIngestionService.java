@@ -0,0 +1,271 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Cadastro em lote de livros e alunos (POST /api/books/batch e /api/students/batch).
+ *
+ * <p>Os itens são processados em blocos: os duplicados de cada bloco são
+ * encontrados com uma consulta IN por chave (ISBN; matrícula, CPF e e-mail)
+ * e os itens aceitos são inseridos em uma única transação, com os INSERTs
+ * agrupados pelo JDBC ({@code hibernate.jdbc.batch_size}). Se o bloco
+ * falhar no banco, ele é refeito item a item para que só os itens com
+ * problema entrem no relatório de erros.</p>
+ */
+@Service
+public class BatchIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchIngestionService.class);
+
+    /**
+     * Resultado de um cadastro em lote: itens gravados e erros por item
+     */
+    public static class BatchResult<T> {
+        private final List<T> saved = new ArrayList<>();
+        private final List<Map<String, String>> errors = new ArrayList<>();
+
+        public List<T> getSaved() {
+            return saved;
+        }
+
+        public List<Map<String, String>> getErrors() {
+            return errors;
+        }
+    }
+
+    private final BookRepository bookRepository;
+    private final StudentRepository studentRepository;
+    private final CatalogSearchService catalogSearchService;
+    private final AutocompleteService autocompleteService;
+    private final TransactionTemplate transaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Itens verificados e gravados por bloco (limita também o tamanho das listas IN) */
+    @Value("${biblioteca.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    /** Quantidade de INSERTs enviados ao banco a cada flush */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    @Autowired
+    public BatchIngestionService(BookRepository bookRepository,
+                                 StudentRepository studentRepository,
+                                 CatalogSearchService catalogSearchService,
+                                 AutocompleteService autocompleteService,
+                                 PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.studentRepository = studentRepository;
+        this.catalogSearchService = catalogSearchService;
+        this.autocompleteService = autocompleteService;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Cadastra os livros que ainda não existem
+     * ISBN repetido (no banco ou no próprio lote) vira erro do item
+     * Os livros gravados entram na busca do acervo e no autocompletar bloco a bloco
+     */
+    public BatchResult<Book> ingestBooks(List<Book> books) {
+        BatchResult<Book> result = new BatchResult<>();
+        Set<String> acceptedIsbns = new HashSet<>();
+
+        for (List<Book> chunk : chunks(books)) {
+            Set<String> isbns = new HashSet<>();
+            for (Book book : chunk) {
+                if (book.getIsbn() != null) {
+                    isbns.add(book.getIsbn());
+                }
+            }
+            Set<String> existingIsbns = existingKeys(isbns, bookRepository::findExistingIsbns);
+
+            List<Book> accepted = new ArrayList<>();
+            for (Book book : chunk) {
+                if (existingIsbns.contains(book.getIsbn()) || acceptedIsbns.contains(book.getIsbn())) {
+                    result.errors.add(bookError(book, "Livro com este ISBN já existe"));
+                    continue;
+                }
+                acceptedIsbns.add(book.getIsbn());
+                accepted.add(book);
+            }
+
+            int savedBefore = result.saved.size();
+            persistChunk(accepted, result, this::bookError);
+            List<Book> saved = result.saved.subList(savedBefore, result.saved.size());
+            catalogSearchService.indexAll(saved);
+            autocompleteService.indexBooks(saved);
+        }
+        return result;
+    }
+
+    /**
+     * Cadastra os alunos que ainda não existem
+     * Matrícula, CPF ou e-mail (sem diferenciar maiúsculas) repetidos, no banco
+     * ou no próprio lote, viram erro do item
+     * Os alunos gravados entram no autocompletar bloco a bloco
+     */
+    public BatchResult<Student> ingestStudents(List<Student> students) {
+        BatchResult<Student> result = new BatchResult<>();
+        Set<String> acceptedMatriculas = new HashSet<>();
+        Set<String> acceptedCpfs = new HashSet<>();
+        Set<String> acceptedEmails = new HashSet<>();
+
+        for (List<Student> chunk : chunks(students)) {
+            Set<String> matriculas = new HashSet<>();
+            Set<String> cpfs = new HashSet<>();
+            Set<String> emails = new HashSet<>();
+            for (Student student : chunk) {
+                addIfPresent(matriculas, student.getMatricula());
+                addIfPresent(cpfs, student.getCpf());
+                addIfPresent(emails, normalizeEmail(student.getEmail()));
+            }
+            Set<String> existingMatriculas = existingKeys(matriculas, studentRepository::findExistingMatriculas);
+            Set<String> existingCpfs = existingKeys(cpfs, studentRepository::findExistingCpfs);
+            Set<String> existingEmails = existingKeys(emails, studentRepository::findExistingEmails);
+
+            List<Student> accepted = new ArrayList<>();
+            for (Student student : chunk) {
+                String email = normalizeEmail(student.getEmail());
+
+                if (existingMatriculas.contains(student.getMatricula())
+                        || acceptedMatriculas.contains(student.getMatricula())) {
+                    result.errors.add(studentError(student, "Aluno com esta matrícula já existe"));
+                    continue;
+                }
+                if (existingCpfs.contains(student.getCpf()) || acceptedCpfs.contains(student.getCpf())) {
+                    result.errors.add(studentError(student, "Aluno com este CPF já existe"));
+                    continue;
+                }
+                if (email != null && (existingEmails.contains(email) || acceptedEmails.contains(email))) {
+                    result.errors.add(studentError(student, "Aluno com este e-mail já existe"));
+                    continue;
+                }
+
+                addIfPresent(acceptedMatriculas, student.getMatricula());
+                addIfPresent(acceptedCpfs, student.getCpf());
+                addIfPresent(acceptedEmails, email);
+                accepted.add(new Student(
+                        student.getMatricula(),
+                        student.getNome(),
+                        student.getCpf(),
+                        student.getDataNascimento(),
+                        email != null ? email : student.getEmail(),
+                        student.getTelefone(),
+                        0));
+            }
+
+            int savedBefore = result.saved.size();
+            persistChunk(accepted, result, this::studentError);
+            autocompleteService.indexStudents(result.saved.subList(savedBefore, result.saved.size()));
+        }
+        return result;
+    }
+
+    /**
+     * Insere o bloco em uma transação, enviando os INSERTs em lotes JDBC
+     * Se o banco recusar algum item, refaz o bloco item a item
+     */
+    private <T> void persistChunk(List<T> entities, BatchResult<T> result,
+                                  ItemErrorFactory<T> errorFactory) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        try {
+            transaction.executeWithoutResult(status -> {
+                for (int i = 0; i < entities.size(); i++) {
+                    entityManager.persist(entities.get(i));
+                    if ((i + 1) % jdbcBatchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            result.saved.addAll(entities);
+        } catch (RuntimeException e) {
+            logger.warn("Bloco de {} item(ns) recusado pelo banco, gravando item a item: {}",
+                    entities.size(), e.getMessage());
+            for (T entity : entities) {
+                try {
+                    transaction.executeWithoutResult(status -> entityManager.persist(entity));
+                    result.saved.add(entity);
+                } catch (RuntimeException itemError) {
+                    result.errors.add(errorFactory.create(entity, "Erro ao salvar: " + itemError.getMessage()));
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ItemErrorFactory<T> {
+        Map<String, String> create(T item, String message);
+    }
+
+    private Map<String, String> bookError(Book book, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("isbn", book.getIsbn());
+        error.put("title", book.getTitle());
+        error.put("message", message);
+        return error;
+    }
+
+    private Map<String, String> studentError(Student student, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("matricula", student.getMatricula());
+        error.put("nome", student.getNome());
+        error.put("message", message);
+        return error;
+    }
+
+    /**
+     * Uma consulta IN para as chaves do bloco (nenhuma se o bloco não tiver chaves)
+     */
+    private static Set<String> existingKeys(Set<String> keys, Function<Collection<String>, List<String>> query) {
+        return keys.isEmpty() ? new HashSet<>() : new HashSet<>(query.apply(keys));
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += chunkSize) {
+            chunks.add(items.subList(start, Math.min(start + chunkSize, items.size())));
+        }
+        return chunks;
+    }
+
+    private static String normalizeEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return null;
+        }
+        return email.trim().toLowerCase();
+    }
+
+    private static void addIfPresent(Set<String> keys, String key) {
+        if (key != null) {
+            keys.add(key);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.biblioteca.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tarefa agendada que compara a disponibilidade em memória dos livros com o
+ * banco e descarta os livros divergentes (recarregados na próxima consulta).
+ *
+ * A cópia é mantida pelos eventos dos serviços; esta tarefa corrige
+ * alterações feitas por fora deles (SQL manual, outra instância da API).
+ */
+@Component
+@ConditionalOnProperty(name = "biblioteca.availability.consistency-check.enabled", havingValue = "true", matchIfMissing = true)
+public class BookAvailabilityScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookAvailabilityScheduler.class);
+
+    private final BookAvailabilityService availabilityService;
+
+    @Autowired
+    public BookAvailabilityScheduler(BookAvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    @Scheduled(cron = "${biblioteca.availability.consistency-check.cron:0 */15 * * * *}")
+    public void checkConsistency() {
+        try {
+            availabilityService.checkConsistency();
+        } catch (Exception e) {
+            logger.warn("Erro ao verificar a disponibilidade em memória: {}", e.getMessage());
+        }
+    }
+}
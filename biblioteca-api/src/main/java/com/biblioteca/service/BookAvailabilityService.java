@@ -0,0 +1,475 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.BookAvailabilityDTO;
+import com.biblioteca.event.BookStockChange;
+import com.biblioteca.event.LoanOpenedEvent;
+import com.biblioteca.event.LoanReturnedEvent;
+import com.biblioteca.event.ReportDataChangedEvent;
+import com.biblioteca.event.ReservationStatusChangedEvent;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.LoanRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Disponibilidade dos livros em memória (estoque, fila de reservas e
+ * previsão de devolução), usada pelas consultas de disponibilidade sem ir ao
+ * banco.
+ *
+ * <p>A cópia é montada quando a aplicação sobe e mantida pelos eventos de
+ * LoanService e ReservationService, aplicados só após o commit. Cada livro é
+ * um valor imutável em um ConcurrentHashMap: a consulta é uma leitura sem
+ * bloqueio. As alterações (eventos, cargas, remontagem) são serializadas em
+ * "this".</p>
+ *
+ * <p>Livros alterados por fora dos eventos incrementais (gravação da
+ * entidade, exclusão de empréstimo) saem da cópia e são recarregados do banco
+ * na próxima consulta; alterações em vários livros de uma vez descartam a cópia
+ * inteira. A verificação de consistência compara a cópia com o banco e
+ * descarta os livros que divergirem.</p>
+ */
+@Service
+public class BookAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookAvailabilityService.class);
+
+    /** Quantidade máxima de divergências detalhadas no resultado da verificação */
+    private static final int MAX_REPORTED_DIVERGENCES = 20;
+
+    /**
+     * Disponibilidade de um livro, com os vencimentos dos empréstimos em
+     * aberto em ordem crescente
+     */
+    record Availability(String isbn, String title, String author, int quantity, int activeReservations,
+                        List<LocalDateTime> openDueDates) {
+
+        BookAvailabilityDTO toDTO() {
+            BookAvailabilityDTO dto = new BookAvailabilityDTO();
+            dto.setBookIsbn(isbn);
+            dto.setBookTitle(title);
+            dto.setBookAuthor(author);
+            dto.setQuantity(quantity);
+            dto.setIsAvailable(quantity > 0);
+            dto.setActiveReservationsCount(activeReservations);
+            if (quantity <= 0 && !openDueDates.isEmpty()) {
+                dto.setNextAvailableDate(openDueDates.get(0));
+            }
+            return dto;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("title", title);
+            map.put("author", author);
+            map.put("quantity", quantity);
+            map.put("activeReservations", activeReservations);
+            map.put("openDueDates", openDueDates);
+            return map;
+        }
+    }
+
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final Object rebuildLock = new Object();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Substituída inteira na remontagem; lida sem bloqueio
+    private volatile ConcurrentHashMap<String, Availability> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Estado protegido por "this"
+    private long version;
+    private Set<String> changedDuringRebuild;
+    private boolean clearedDuringRebuild;
+    private long appliedEvents;
+    private long discardedLoads;
+    private long rebuilds;
+    private LocalDateTime lastRebuiltAt;
+    private long consistencyChecks;
+    private Map<String, Object> lastConsistencyCheck;
+
+    @Value("${biblioteca.availability.warm-on-startup:true}")
+    private boolean warmOnStartup;
+
+    @Value("${biblioteca.availability.page-size:1000}")
+    private int pageSize;
+
+    @Autowired
+    public BookAvailabilityService(BookRepository bookRepository, LoanRepository loanRepository) {
+        this.bookRepository = bookRepository;
+        this.loanRepository = loanRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (warmOnStartup) {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.warn("Erro ao montar a disponibilidade dos livros: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Disponibilidade do livro (carregada do banco se ainda não estiver em memória)
+     *
+     * @return vazio se o livro não existe
+     */
+    public Optional<BookAvailabilityDTO> getAvailability(String isbn) {
+        return find(isbn).map(Availability::toDTO);
+    }
+
+    /**
+     * Se há exemplar disponível para empréstimo
+     */
+    public boolean isAvailable(String isbn) {
+        return find(isbn)
+                .orElseThrow(() -> new RuntimeException("Livro não encontrado"))
+                .quantity() > 0;
+    }
+
+    Optional<Availability> find(String isbn) {
+        if (hasPendingChanges()) {
+            // Alterações da transação atual ainda sem flush: lê do banco sem guardar
+            return Optional.ofNullable(readOne(isbn));
+        }
+        Availability cached = entries.get(isbn);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        return Optional.ofNullable(load(isbn));
+    }
+
+    /**
+     * Recarrega todos os livros do banco, lidos em páginas pela chave, e
+     * substitui a cópia em memória. Livros alterados durante a leitura ficam
+     * de fora e são recarregados na próxima consulta.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.nanoTime();
+            synchronized (this) {
+                changedDuringRebuild = new HashSet<>();
+                clearedDuringRebuild = false;
+            }
+            ConcurrentHashMap<String, Availability> loaded;
+            try {
+                loaded = readAll();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changedDuringRebuild = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                if (clearedDuringRebuild) {
+                    // Vários livros mudaram durante a leitura: fica a cópia já descartada
+                    logger.info("Disponibilidade descartada durante a montagem; livros serão carregados sob demanda");
+                } else {
+                    changedDuringRebuild.forEach(loaded::remove);
+                    entries = loaded;
+                }
+                changedDuringRebuild = null;
+                version++;
+                rebuilds++;
+                lastRebuiltAt = LocalDateTime.now();
+            }
+            logger.info("Disponibilidade montada: {} livro(s) em {} ms",
+                    loaded.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Compara a cópia em memória com o banco. Cada divergência é conferida de
+     * novo (o livro pode ter mudado entre as duas leituras) e, se persistir,
+     * o livro sai da cópia e é recarregado na próxima consulta.
+     *
+     * @return livros conferidos, divergências encontradas e corrigidas
+     */
+    public Map<String, Object> checkConsistency() {
+        long start = System.nanoTime();
+        Map<String, Availability> memory = new HashMap<>(entries);
+        Map<String, Availability> database = readAll();
+
+        List<Map<String, Object>> divergences = new ArrayList<>();
+        int divergent = 0;
+        for (Map.Entry<String, Availability> entry : memory.entrySet()) {
+            if (entry.getValue().equals(database.get(entry.getKey()))) {
+                continue;
+            }
+            String isbn = entry.getKey();
+            Availability current = entries.get(isbn);
+            Availability stored = readOne(isbn);
+            if (current == null || current.equals(stored)) {
+                continue;
+            }
+            synchronized (this) {
+                if (entries.remove(isbn, current)) {
+                    version++;
+                }
+            }
+            divergent++;
+            if (divergences.size() < MAX_REPORTED_DIVERGENCES) {
+                Map<String, Object> divergence = new LinkedHashMap<>();
+                divergence.put("isbn", isbn);
+                divergence.put("memory", current.toMap());
+                divergence.put("database", stored != null ? stored.toMap() : null);
+                divergences.add(divergence);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("checkedAt", LocalDateTime.now());
+        result.put("databaseBooks", database.size());
+        result.put("cachedBooks", memory.size());
+        result.put("divergentBooks", divergent);
+        result.put("divergences", divergences);
+        result.put("durationMs", (System.nanoTime() - start) / 1_000_000);
+        synchronized (this) {
+            consistencyChecks++;
+            lastConsistencyCheck = result;
+        }
+        if (divergent > 0) {
+            logger.warn("Disponibilidade em memória divergia do banco em {} livro(s); corrigido", divergent);
+        }
+        return result;
+    }
+
+    /**
+     * Tamanho da cópia, acertos, eventos aplicados e última verificação
+     */
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("books", entries.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("discardedLoads", discardedLoads);
+        stats.put("appliedEvents", appliedEvents);
+        stats.put("rebuilds", rebuilds);
+        stats.put("lastRebuiltAt", lastRebuiltAt);
+        stats.put("consistencyChecks", consistencyChecks);
+        if (lastConsistencyCheck != null) {
+            stats.put("lastConsistencyCheckAt", lastConsistencyCheck.get("checkedAt"));
+            stats.put("lastDivergentBooks", lastConsistencyCheck.get("divergentBooks"));
+        }
+        return stats;
+    }
+
+    /**
+     * Tira o livro da cópia (gravação da entidade, ver
+     * EntityCacheInvalidationListener); dentro de uma transação, de novo ao
+     * final dela, para não guardar um valor lido antes do commit
+     */
+    public void evict(String isbn) {
+        evictNow(isbn);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(isbn);
+                }
+            });
+        }
+    }
+
+    // ======================== EVENTOS ========================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onLoanOpened(LoanOpenedEvent event) {
+        LocalDateTime dueDate = normalize(event.getDueDate());
+        apply(event.getStock(), dueDates -> dueDates.add(dueDate));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onLoanReturned(LoanReturnedEvent event) {
+        LocalDateTime dueDate = normalize(event.getDueDate());
+        apply(event.getStock(), dueDates -> dueDates.remove(dueDate));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onReservationStatusChanged(ReservationStatusChangedEvent event) {
+        apply(event.getStock(), null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onReportDataChanged(ReportDataChangedEvent event) {
+        if (!event.isBooksChanged()) {
+            return;
+        }
+        appliedEvents++;
+        if (event.getBookIsbn() != null) {
+            evictNow(event.getBookIsbn());
+        } else {
+            version++;
+            entries = new ConcurrentHashMap<>();
+            clearedDuringRebuild = true;
+        }
+    }
+
+    // ======================== ESTADO ========================
+
+    /**
+     * Aplica o estoque e a fila publicados no evento (valores lidos do banco
+     * logo após a alteração) e a mudança nos vencimentos em aberto. Se a
+     * mudança nos vencimentos não puder ser aplicada (empréstimo que a cópia
+     * não conhecia), o livro sai da cópia.
+     */
+    private void apply(BookStockChange stock, Predicate<List<LocalDateTime>> dueDateChange) {
+        appliedEvents++;
+        version++;
+        if (stock == null || stock.getIsbn() == null) {
+            return;
+        }
+        String isbn = stock.getIsbn();
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(isbn);
+        }
+        Availability current = entries.get(isbn);
+        if (current == null) {
+            return;
+        }
+        List<LocalDateTime> dueDates = current.openDueDates();
+        if (dueDateChange != null) {
+            List<LocalDateTime> changed = new ArrayList<>(dueDates);
+            if (!dueDateChange.test(changed)) {
+                entries.remove(isbn);
+                return;
+            }
+            changed.sort(null);
+            dueDates = List.copyOf(changed);
+        }
+        entries.put(isbn, new Availability(isbn, current.title(), current.author(),
+                stock.getQuantityAfter(), stock.getActiveReservationsAfter(), dueDates));
+    }
+
+    /**
+     * Carrega um livro do banco e o guarda, se nenhuma alteração foi aplicada
+     * durante a leitura (senão o valor lido pode ser anterior a ela)
+     */
+    private Availability load(String isbn) {
+        long loadVersion;
+        synchronized (this) {
+            loadVersion = version;
+        }
+        Availability loaded = readOne(isbn);
+        if (loaded != null) {
+            synchronized (this) {
+                if (version == loadVersion) {
+                    entries.putIfAbsent(isbn, loaded);
+                } else {
+                    discardedLoads++;
+                }
+            }
+            // Lido dentro de uma transação que não for confirmada: descarta
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            evictNow(isbn);
+                        }
+                    }
+                });
+            }
+        }
+        return loaded;
+    }
+
+    private synchronized void evictNow(String isbn) {
+        version++;
+        entries.remove(isbn);
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(isbn);
+        }
+    }
+
+    private boolean hasPendingChanges() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && entityManager.unwrap(Session.class).isDirty();
+    }
+
+    private Availability readOne(String isbn) {
+        return bookRepository.findAvailabilityRow(isbn)
+                .map(row -> availability(row, loanRepository.findOpenLoanDueDatesByBookIsbn(isbn)))
+                .orElse(null);
+    }
+
+    private ConcurrentHashMap<String, Availability> readAll() {
+        Map<String, List<LocalDateTime>> dueDatesByBook = new HashMap<>();
+        for (LoanRepository.OpenBookLoanDueDate open : loanRepository.findOpenLoanDueDatesByBook()) {
+            dueDatesByBook.computeIfAbsent(open.getBookIsbn(), isbn -> new ArrayList<>()).add(open.getDueDate());
+        }
+
+        ConcurrentHashMap<String, Availability> loaded = new ConcurrentHashMap<>();
+        String after = "";
+        while (true) {
+            List<BookRepository.AvailabilityRow> rows =
+                    bookRepository.findAvailabilityPage(after, PageRequest.of(0, pageSize));
+            for (BookRepository.AvailabilityRow row : rows) {
+                loaded.put(row.getIsbn(), availability(row, dueDatesByBook.getOrDefault(row.getIsbn(), List.of())));
+            }
+            if (rows.size() < pageSize) {
+                return loaded;
+            }
+            after = rows.get(rows.size() - 1).getIsbn();
+        }
+    }
+
+    private static Availability availability(BookRepository.AvailabilityRow row, List<LocalDateTime> dueDates) {
+        List<LocalDateTime> sorted = new ArrayList<>(dueDates.size());
+        for (LocalDateTime dueDate : dueDates) {
+            sorted.add(normalize(dueDate));
+        }
+        sorted.sort(null);
+        return new Availability(row.getIsbn(), row.getTitle(), row.getAuthor(),
+                Objects.requireNonNullElse(row.getQuantity(), 0),
+                Objects.requireNonNullElse(row.getActiveReservationsCount(), 0),
+                List.copyOf(sorted));
+    }
+
+    /**
+     * Vencimento sem a fração de segundo: o valor publicado no evento tem a
+     * precisão da JVM e o lido do banco a precisão da coluna
+     */
+    private static LocalDateTime normalize(LocalDateTime dueDate) {
+        return dueDate.truncatedTo(ChronoUnit.SECONDS);
+    }
+}
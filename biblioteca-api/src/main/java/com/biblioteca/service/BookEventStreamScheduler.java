@@ -0,0 +1,38 @@
+package com.biblioteca.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tarefa agendada que envia um comentário de manutenção às conexões ociosas
+ * do canal de eventos.
+ *
+ * Mantém a conexão aberta em proxies que encerram respostas sem tráfego e
+ * libera as conexões de clientes que já saíram (o envio falha).
+ */
+@Component
+@ConditionalOnProperty(name = "biblioteca.stream.heartbeat.enabled", havingValue = "true", matchIfMissing = true)
+public class BookEventStreamScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookEventStreamScheduler.class);
+
+    private final BookEventStreamService streamService;
+
+    @Autowired
+    public BookEventStreamScheduler(BookEventStreamService streamService) {
+        this.streamService = streamService;
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.stream.heartbeat.interval:PT25S}")
+    public void heartbeat() {
+        try {
+            streamService.heartbeat();
+        } catch (Exception e) {
+            logger.warn("Erro ao manter as conexões do canal de eventos: {}", e.getMessage());
+        }
+    }
+}
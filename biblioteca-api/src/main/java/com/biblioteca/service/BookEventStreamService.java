@@ -0,0 +1,419 @@
+package com.biblioteca.service;
+
+import com.biblioteca.event.BookStockChange;
+import com.biblioteca.event.LoanOpenedEvent;
+import com.biblioteca.event.LoanReturnedEvent;
+import com.biblioteca.event.ReportDataChangedEvent;
+import com.biblioteca.event.ReservationStatusChangedEvent;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canal de eventos (Server-Sent Events) com as mudanças de estoque, fila de
+ * reservas e posições na fila, para as telas não precisarem consultar a API
+ * de novo a cada poucos segundos.
+ *
+ * <p>Eventos enviados:</p>
+ * <ul>
+ *     <li>{@code book}: estoque e quantidade de reservas ativas de um livro,
+ *     após empréstimo, devolução, reserva ou edição do livro.</li>
+ *     <li>{@code book-deleted}: livro excluído.</li>
+ *     <li>{@code queue}: fila de reservas ativas de um livro (posições), após
+ *     criação, cancelamento ou efetivação de uma reserva.</li>
+ *     <li>{@code resync}: eventos foram descartados (fila da conexão cheia) ou
+ *     vários livros mudaram de uma vez; o cliente deve recarregar os dados.</li>
+ * </ul>
+ *
+ * <p>Cada conexão filtra por ISBN e/ou matrícula (sem filtros recebe todos os
+ * livros). Quem filtra por matrícula recebe apenas as próprias posições na
+ * fila. Os eventos são tratados após o commit e montados em uma única thread
+ * de publicação (as consultas da fila vão ao banco só se houver conexões);
+ * cada conexão tem a sua fila limitada, esvaziada pelo executor de envio, de
+ * modo que um cliente lento não atrasa os demais nem a operação que gerou o
+ * evento. Conexões abertas e ociosas não ocupam threads (requisição
+ * assíncrona do Servlet). Com {@code spring.threads.virtual.enabled} cada
+ * envio roda em uma thread virtual; sem ele, em um pool fixo
+ * ({@code biblioteca.stream.sender-threads}).</p>
+ */
+@Service
+public class BookEventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookEventStreamService.class);
+
+    /** Quantidade máxima de ISBNs ou matrículas em uma conexão */
+    private static final int MAX_FILTER_VALUES = 100;
+
+    private final ReservationRepository reservationRepository;
+    private final BookRepository bookRepository;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int maxSubscribers;
+
+    private final Map<Long, StreamSubscription> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicLong subscriptionIds = new AtomicLong();
+
+    private final ExecutorService publisher;
+    private final ExecutorService senders;
+
+    // Atualizações que não couberam na fila de publicação: os clientes
+    // recebem "resync" na próxima publicação
+    private final AtomicBoolean resyncPending = new AtomicBoolean();
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder queueQueries = new LongAdder();
+    private final LongAdder droppedUpdates = new LongAdder();
+
+    @Autowired
+    public BookEventStreamService(ReservationRepository reservationRepository, BookRepository bookRepository,
+                                  @Value("${biblioteca.stream.timeout:PT30M}") Duration timeout,
+                                  @Value("${biblioteca.stream.buffer-size:64}") int bufferSize,
+                                  @Value("${biblioteca.stream.max-subscribers:10000}") int maxSubscribers,
+                                  @Value("${biblioteca.stream.sender-threads:8}") int senderThreads,
+                                  @Value("${biblioteca.stream.publish-queue-size:10000}") int publishQueueSize,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.reservationRepository = reservationRepository;
+        this.bookRepository = bookRepository;
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.publisher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, publishQueueSize)), namedThreads("book-event-publisher-"),
+                (task, executor) -> {
+                    droppedUpdates.increment();
+                    resyncPending.set(true);
+                });
+        // Com threads virtuais, um envio por thread virtual: um cliente lento
+        // (escrita bloqueada no socket) não segura uma thread do pool
+        this.senders = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("book-event-sender-", 1).factory())
+                : Executors.newFixedThreadPool(Math.max(1, senderThreads), namedThreads("book-event-sender-"));
+    }
+
+    /**
+     * Abre uma conexão do canal de eventos
+     *
+     * @param isbns      livros acompanhados (vazio e sem matrículas = todos)
+     * @param matriculas alunos cujas posições na fila são acompanhadas
+     * @return emissor SSE da conexão
+     */
+    public SseEmitter subscribe(Collection<String> isbns, Collection<String> matriculas) {
+        Set<String> isbnFilter = normalize(isbns);
+        Set<String> matriculaFilter = normalize(matriculas);
+        if (isbnFilter.size() > MAX_FILTER_VALUES || matriculaFilter.size() > MAX_FILTER_VALUES) {
+            throw new IllegalArgumentException("Informe no máximo " + MAX_FILTER_VALUES + " ISBNs e "
+                    + MAX_FILTER_VALUES + " matrículas por conexão");
+        }
+        if (subscriptions.size() >= maxSubscribers) {
+            rejected.increment();
+            throw new RuntimeException("Limite de conexões do canal de eventos atingido");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        StreamSubscription subscription = new StreamSubscription(subscriptionIds.incrementAndGet(), emitter,
+                isbnFilter, matriculaFilter, bufferSize);
+        subscriptions.put(subscription.getId(), subscription);
+        emitter.onCompletion(() -> subscriptions.remove(subscription.getId()));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(error -> remove(subscription));
+        opened.increment();
+
+        Map<String, Object> hello = new LinkedHashMap<>();
+        hello.put("isbns", subscription.getIsbns());
+        hello.put("matriculas", subscription.getMatriculas());
+        subscription.offer("subscribed", hello, senders);
+        return emitter;
+    }
+
+    // ======================== EVENTOS ========================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanOpened(LoanOpenedEvent event) {
+        publishStock(event.getStock());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanReturned(LoanReturnedEvent event) {
+        publishStock(event.getStock());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationStatusChanged(ReservationStatusChangedEvent event) {
+        publishStock(event.getStock());
+        if (event.getStock() != null) {
+            String isbn = event.getStock().getIsbn();
+            publish(() -> publishQueue(isbn, event));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReportDataChanged(ReportDataChangedEvent event) {
+        if (!event.isBooksChanged()) {
+            return;
+        }
+        String isbn = event.getBookIsbn();
+        if (isbn != null) {
+            publish(() -> publishBook(isbn));
+        } else {
+            publish(() -> broadcastResync("books-changed"));
+        }
+    }
+
+    // ======================== CONEXÕES ========================
+
+    /**
+     * Comentário de manutenção em todas as conexões ociosas (ver
+     * BookEventStreamScheduler); encerra as de clientes que já saíram
+     */
+    public void heartbeat() {
+        for (StreamSubscription subscription : subscriptions.values()) {
+            if (subscription.isClosed()) {
+                subscriptions.remove(subscription.getId());
+            } else {
+                subscription.heartbeat(senders);
+            }
+        }
+    }
+
+    /**
+     * Conexões abertas, eventos publicados, enviados e descartados
+     */
+    public Map<String, Object> getStats() {
+        long sent = 0;
+        long dropped = 0;
+        long pending = 0;
+        for (StreamSubscription subscription : subscriptions.values()) {
+            long[] counters = subscription.counters();
+            sent += counters[0];
+            dropped += counters[1];
+            pending += counters[2];
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscriptions.size());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("opened", opened.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("published", published.sum());
+        stats.put("queueQueries", queueQueries.sum());
+        stats.put("droppedUpdates", droppedUpdates.sum());
+        stats.put("sentToOpenSubscribers", sent);
+        stats.put("droppedForOpenSubscribers", dropped);
+        stats.put("pendingEvents", pending);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+        subscriptions.values().forEach(StreamSubscription::close);
+        subscriptions.clear();
+        senders.shutdown();
+        try {
+            senders.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ======================== PUBLICAÇÃO ========================
+
+    /**
+     * Estoque após a operação (valores do evento, lidos com o bloqueio do livro)
+     */
+    private void publishStock(BookStockChange stock) {
+        if (stock == null || stock.getIsbn() == null) {
+            return;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("isbn", stock.getIsbn());
+        data.put("quantity", stock.getQuantityAfter());
+        data.put("activeReservationsCount", stock.getActiveReservationsAfter());
+        data.put("available", stock.getQuantityAfter() > 0);
+        publish(() -> sendToBookFollowers(stock.getIsbn(), "book", data));
+    }
+
+    /**
+     * Livro gravado pela entidade (cadastro, edição, exclusão): lido do banco
+     */
+    private void publishBook(String isbn) {
+        if (!hasBookFollowers(isbn)) {
+            return;
+        }
+        BookRepository.AvailabilityRow row = bookRepository.findAvailabilityRow(isbn).orElse(null);
+        if (row == null) {
+            sendToBookFollowers(isbn, "book-deleted", Map.of("isbn", isbn));
+            return;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("isbn", row.getIsbn());
+        data.put("title", row.getTitle());
+        data.put("author", row.getAuthor());
+        data.put("quantity", row.getQuantity());
+        data.put("activeReservationsCount", row.getActiveReservationsCount());
+        data.put("available", row.getQuantity() != null && row.getQuantity() > 0);
+        sendToBookFollowers(isbn, "book", data);
+    }
+
+    /**
+     * Fila de reservas ativas do livro após a alteração; quem acompanha só
+     * matrículas recebe apenas as próprias reservas
+     */
+    private void publishQueue(String isbn, ReservationStatusChangedEvent change) {
+        List<StreamSubscription> bookFollowers = new ArrayList<>();
+        List<StreamSubscription> studentFollowers = new ArrayList<>();
+        for (StreamSubscription subscription : subscriptions.values()) {
+            if (subscription.followsBook(isbn)) {
+                bookFollowers.add(subscription);
+            } else if (!subscription.getMatriculas().isEmpty()) {
+                studentFollowers.add(subscription);
+            }
+        }
+        if (bookFollowers.isEmpty() && studentFollowers.isEmpty()) {
+            return;
+        }
+
+        queueQueries.increment();
+        List<Map<String, Object>> queue = new ArrayList<>();
+        for (ReservationRepository.QueueEntry entry : reservationRepository.findActiveQueueByBookIsbn(isbn)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("reservationId", entry.getReservationId());
+            item.put("studentMatricula", entry.getStudentMatricula());
+            item.put("priority", entry.getPriority());
+            item.put("queuePosition", entry.getQueuePosition());
+            queue.add(item);
+        }
+
+        if (!bookFollowers.isEmpty()) {
+            Map<String, Object> data = queueEvent(isbn, change, true, queue);
+            bookFollowers.forEach(subscription -> subscription.offer("queue", data, senders));
+            published.increment();
+        }
+        for (StreamSubscription subscription : studentFollowers) {
+            boolean ownChange = subscription.followsStudent(change.getStudentMatricula());
+            List<Map<String, Object>> own = queue.stream()
+                    .filter(item -> subscription.followsStudent((String) item.get("studentMatricula")))
+                    .toList();
+            if (ownChange || !own.isEmpty()) {
+                subscription.offer("queue", queueEvent(isbn, change, ownChange, own), senders);
+                published.increment();
+            }
+        }
+    }
+
+    private static Map<String, Object> queueEvent(String isbn, ReservationStatusChangedEvent change,
+                                                  boolean includeChange, List<Map<String, Object>> queue) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("isbn", isbn);
+        if (includeChange) {
+            data.put("reservationId", change.getReservationId());
+            data.put("studentMatricula", change.getStudentMatricula());
+            data.put("status", change.getNewStatus());
+        }
+        data.put("queue", queue);
+        return data;
+    }
+
+    private void sendToBookFollowers(String isbn, String name, Object data) {
+        boolean delivered = false;
+        for (StreamSubscription subscription : subscriptions.values()) {
+            if (subscription.followsBook(isbn)) {
+                subscription.offer(name, data, senders);
+                delivered = true;
+            }
+        }
+        if (delivered) {
+            published.increment();
+        }
+    }
+
+    private void broadcastResync(String reason) {
+        Map<String, Object> data = Map.of("reason", reason);
+        subscriptions.values().forEach(subscription -> subscription.offer("resync", data, senders));
+        published.increment();
+    }
+
+    private boolean hasBookFollowers(String isbn) {
+        for (StreamSubscription subscription : subscriptions.values()) {
+            if (subscription.followsBook(isbn)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Agenda a publicação na thread de publicação (ordem dos commits); sem
+     * conexões abertas, nada é feito
+     */
+    private void publish(Runnable task) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        publisher.execute(() -> {
+            try {
+                if (resyncPending.getAndSet(false)) {
+                    broadcastResync("updates-dropped");
+                }
+                task.run();
+            } catch (Exception e) {
+                logger.warn("Erro ao publicar evento do canal de eventos: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void remove(StreamSubscription subscription) {
+        subscriptions.remove(subscription.getId());
+        subscription.close();
+    }
+
+    private static Set<String> normalize(Collection<String> values) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (values != null) {
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    normalized.add(value.trim());
+                }
+            }
+        }
+        return normalized;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
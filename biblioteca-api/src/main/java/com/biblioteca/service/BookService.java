@@ -1,7 +1,6 @@
 package com.biblioteca.service;
 
 import com.biblioteca.dto.BookAvailabilityDTO;
-import com.biblioteca.model.Book;
 import com.biblioteca.repository.BookRepository;
 import com.biblioteca.repository.LoanRepository;
 import com.biblioteca.repository.ReservationRepository;
@@ -20,31 +19,26 @@ public class BookService {
     private final BookRepository bookRepository;
     private final LoanRepository loanRepository;
     private final ReservationRepository reservationRepository;
+    private final BookAvailabilityService availabilityService;
 
     @Autowired
     public BookService(BookRepository bookRepository,
             LoanRepository loanRepository,
-            ReservationRepository reservationRepository) {
+            ReservationRepository reservationRepository,
+            BookAvailabilityService availabilityService) {
         this.bookRepository = bookRepository;
         this.loanRepository = loanRepository;
         this.reservationRepository = reservationRepository;
+        this.availabilityService = availabilityService;
     }
 
     /**
-     * Verifica disponibilidade de um livro
+     * Verifica disponibilidade de um livro (estoque, fila de reservas e
+     * previsão de devolução), lida da cópia em memória
      */
     public BookAvailabilityDTO checkBookAvailability(String isbn) {
-        Book book = bookRepository.findById(isbn)
+        return availabilityService.getAvailability(isbn)
                 .orElseThrow(() -> new RuntimeException("Livro não encontrado"));
-
-        BookAvailabilityDTO dto = new BookAvailabilityDTO();
-        dto.setBookIsbn(book.getIsbn());
-        dto.setBookTitle(book.getTitle());
-        dto.setBookAuthor(book.getAuthor());
-        dto.setQuantity(book.getQuantity());
-        dto.setIsAvailable(book.getQuantity() > 0);
-
-        return dto;
     }
 
     /**
@@ -0,0 +1,124 @@
+package com.biblioteca.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache em memória com tamanho máximo e descarte do item usado há mais tempo
+ * (LRU), com leitura através do cache: na falta, o valor é carregado pela
+ * função informada e guardado.
+ *
+ * <p>Toda invalidação avança uma geração. Um valor carregado só é guardado se
+ * nenhuma invalidação aconteceu durante a carga; assim uma leitura lenta não
+ * grava por cima de uma alteração que acabou de invalidar a chave.</p>
+ *
+ * <p>Com tamanho máximo 0 o cache fica desligado: toda leitura vai à função
+ * de carga.</p>
+ */
+final class BoundedCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final LinkedHashMap<K, V> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder discardedLoads = new LongAdder();
+
+    BoundedCache(String name, int maxSize) {
+        this.name = name;
+        this.maxSize = Math.max(0, maxSize);
+        // accessOrder = true: cada leitura move o item para o fim da fila
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Valor da chave, carregado e guardado se ainda não estiver no cache
+     *
+     * @param key    chave
+     * @param loader carga na falta (pode devolver nulo, que não é guardado)
+     * @return valor em cache ou recém-carregado; nulo se a carga não encontrou
+     */
+    V get(K key, Function<K, V> loader) {
+        if (maxSize > 0) {
+            synchronized (entries) {
+                V cached = entries.get(key);
+                if (cached != null) {
+                    hits.increment();
+                    return cached;
+                }
+            }
+        }
+        misses.increment();
+
+        long loadGeneration = generation.get();
+        V loaded = loader.apply(key);
+        if (loaded != null && maxSize > 0) {
+            synchronized (entries) {
+                if (generation.get() == loadGeneration) {
+                    entries.put(key, loaded);
+                } else {
+                    discardedLoads.increment();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    void invalidate(K key) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            if (entries.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Acertos, faltas, descartes por tamanho (evictions) e invalidações
+     */
+    Map<String, Object> getMetrics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        metrics.put("size", size());
+        metrics.put("maxSize", maxSize);
+        metrics.put("hits", hitCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        metrics.put("evictions", evictions.sum());
+        metrics.put("invalidations", invalidations.sum());
+        metrics.put("discardedLoads", discardedLoads.sum());
+        return metrics;
+    }
+}
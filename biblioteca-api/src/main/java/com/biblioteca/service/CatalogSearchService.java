@@ -0,0 +1,621 @@
+package com.biblioteca.service;
+
+import com.biblioteca.config.DatabaseMigrationRunner;
+import com.biblioteca.dto.BookSearchResultDTO;
+import com.biblioteca.model.Book;
+import com.biblioteca.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Busca textual no acervo por título, autor, palavras-chave e sinopse.
+ *
+ * <p>Mantém em memória um índice invertido (termo → livros que o contêm, em
+ * ordem de id interno) e ordena os resultados por BM25, com pesos por campo
+ * (o título vale mais que a sinopse). Todos os termos da consulta precisam
+ * aparecer no livro; o último também casa por prefixo ("dom cas" encontra
+ * "Dom Casmurro"), para a busca enquanto o usuário digita.</p>
+ *
+ * <p>O índice é montado a partir do banco quando a aplicação sobe e
+ * atualizado a cada cadastro, alteração e exclusão de livro. Livros gravados
+ * direto no banco só aparecem depois de {@link #rebuild()}. Livros excluídos
+ * ou alterados deixam entradas mortas nas listas, descartadas nas consultas
+ * e removidas de tempos em tempos (compactação).</p>
+ *
+ * <p>Com {@code biblioteca.search.backend=postgres} a busca é feita pelo
+ * próprio PostgreSQL, na coluna tsvector gerada {@code books.search_vector}
+ * (índice GIN, dicionário português sem acentos), com a mesma semântica de
+ * termos: nenhum índice é mantido na JVM e todas as réplicas da API enxergam
+ * o acervo atualizado. O backend é resolvido depois das migrações (inclusive
+ * as repetidas após a criação das tabelas); se o banco não for PostgreSQL ou
+ * a coluna não existir, a aplicação não sobe, em vez de voltar em silêncio
+ * ao índice em memória.</p>
+ */
+@Service
+@DependsOn(DatabaseMigrationRunner.AFTER_ENTITY_MANAGER_FACTORY)
+public class CatalogSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearchService.class);
+
+    /** Limite padrão e máximo de resultados por consulta */
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // Peso de cada campo na frequência do termo e no tamanho do documento
+    static final float TITLE_WEIGHT = 3.0f;
+    static final float AUTHOR_WEIGHT = 2.0f;
+    static final float KEYWORDS_WEIGHT = 2.0f;
+    static final float SYNOPSIS_WEIGHT = 1.0f;
+
+    // Parâmetros do BM25
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Casamento por prefixo do último termo: tamanho mínimo, quantos termos do
+    // dicionário no máximo e quanto vale um termo que só casou pelo prefixo
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final float PREFIX_WEIGHT = 0.5f;
+
+    /**
+     * Onde a busca é feita: índice em memória ou coluna tsvector do PostgreSQL
+     */
+    public enum SearchBackend {
+        MEMORY, POSTGRES
+    }
+
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SearchBackend configuredBackend;
+    private volatile SearchBackend backend = SearchBackend.MEMORY;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    // ISBNs alterados enquanto um rebuild() lê o banco; reaplicados na troca
+    private Set<String> changedDuringRebuild;
+
+    @Value("${biblioteca.search.rebuild-page-size:1000}")
+    private int rebuildPageSize;
+
+    @Value("${biblioteca.search.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    @Autowired
+    public CatalogSearchService(BookRepository bookRepository, JdbcTemplate jdbcTemplate,
+                                @Value("${biblioteca.search.backend:memory}") String backend) {
+        this.bookRepository = bookRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.configuredBackend = SearchBackend.valueOf(backend.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Usa o backend configurado; com postgres, exige a coluna search_vector
+     */
+    @PostConstruct
+    public void resolveBackend() {
+        if (configuredBackend == SearchBackend.POSTGRES && !searchVectorAvailable()) {
+            throw new IllegalStateException("biblioteca.search.backend=postgres, mas o banco não é PostgreSQL "
+                    + "ou a coluna books.search_vector não existe (migração 007 não aplicada)");
+        }
+        backend = configuredBackend;
+        logger.info("Busca do acervo usando backend {}", backend);
+    }
+
+    public SearchBackend getBackend() {
+        return backend;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (buildOnStartup && backend == SearchBackend.MEMORY) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Monta o índice do zero a partir de todos os livros do banco, lidos em
+     * páginas por ISBN; as consultas continuam usando o índice anterior até a
+     * troca, e os livros alterados nesse meio tempo são relidos antes dela
+     * (no backend PostgreSQL não há índice a montar)
+     *
+     * @return quantidade de livros indexados
+     */
+    public synchronized int rebuild() {
+        if (backend == SearchBackend.POSTGRES) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            String after = null;
+            while (true) {
+                PageRequest page = PageRequest.of(0, rebuildPageSize);
+                List<Book> books = after == null
+                        ? bookRepository.findAllByOrderByIsbnAsc(page)
+                        : bookRepository.findByIsbnGreaterThanOrderByIsbnAsc(after, page);
+                for (Book book : books) {
+                    rebuilt.add(book);
+                }
+                if (books.size() < rebuildPageSize) {
+                    break;
+                }
+                after = books.get(books.size() - 1).getIsbn();
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (String isbn : changedDuringRebuild) {
+                rebuilt.remove(isbn);
+                bookRepository.findById(isbn).ifPresent(rebuilt::add);
+            }
+            rebuilt.compactIfNeeded();
+            index = rebuilt;
+            changedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Índice de busca do acervo montado: {} livro(s), {} termo(s) em {} ms",
+                rebuilt.liveDocs, rebuilt.terms.size(), (System.nanoTime() - start) / 1_000_000);
+        return rebuilt.liveDocs;
+    }
+
+    /**
+     * Indexa (ou reindexa) um livro cadastrado ou alterado
+     */
+    public void index(Book book) {
+        if (backend == SearchBackend.POSTGRES) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index.remove(book.getIsbn());
+            index.add(book);
+            index.compactIfNeeded();
+            recordChange(book.getIsbn());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa vários livros de uma vez (cadastro em lote, importação)
+     */
+    public void indexAll(Collection<Book> books) {
+        if (books.isEmpty() || backend == SearchBackend.POSTGRES) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Book book : books) {
+                index.remove(book.getIsbn());
+                index.add(book);
+                recordChange(book.getIsbn());
+            }
+            index.compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retira um livro excluído do índice
+     */
+    public void remove(String isbn) {
+        if (backend == SearchBackend.POSTGRES) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index.remove(isbn);
+            index.compactIfNeeded();
+            recordChange(isbn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca livros pelo texto, do mais relevante para o menos relevante
+     *
+     * @param query texto digitado (sem diferença de acentos e maiúsculas)
+     * @param limit quantidade máxima de resultados (padrão 20, máximo 100)
+     * @return livros encontrados com a pontuação de cada um
+     */
+    public List<BookSearchResultDTO> search(String query, Integer limit) {
+        List<Hit> hits = searchIsbns(query, normalizeLimit(limit));
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Book> books = new HashMap<>();
+        for (Book book : bookRepository.findAllById(hits.stream().map(Hit::isbn).toList())) {
+            books.put(book.getIsbn(), book);
+        }
+
+        List<BookSearchResultDTO> results = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            Book book = books.get(hit.isbn());
+            if (book != null) {
+                results.add(BookSearchResultDTO.fromEntity(book, hit.score()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Consulta só o índice: ISBNs e pontuações, do mais relevante para o menos
+     */
+    List<Hit> searchIsbns(String query, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        if (backend == SearchBackend.POSTGRES) {
+            return bookRepository.searchFullText(toTsQuery(tokens), limit).stream()
+                    .map(hit -> new Hit(hit.getIsbn(), hit.getScore().doubleValue()))
+                    .toList();
+        }
+
+        lock.readLock().lock();
+        try {
+            return index.search(tokens, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tamanho do índice (livros, termos e entradas mortas aguardando compactação)
+     */
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("backend", backend);
+            stats.put("documents", index.liveDocs);
+            stats.put("terms", index.terms.size());
+            stats.put("deletedDocuments", index.nextDocId - index.liveDocs);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Expressão to_tsquery equivalente à consulta em memória: todos os termos
+     * (AND) e o último também por prefixo. Os termos só têm letras e dígitos,
+     * então não há operadores a escapar.
+     */
+    static String toTsQuery(List<String> tokens) {
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (i > 0) {
+                query.append(" & ");
+            }
+            query.append(token);
+            if (i == tokens.size() - 1 && token.length() >= MIN_PREFIX_LENGTH) {
+                query.append(":*");
+            }
+        }
+        return query.toString();
+    }
+
+    private boolean searchVectorAvailable() {
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                return false;
+            }
+            Integer columns = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns "
+                            + "WHERE table_name = 'books' AND column_name = 'search_vector'",
+                    Integer.class);
+            return columns != null && columns > 0;
+        } catch (RuntimeException e) {
+            logger.warn("Não foi possível verificar a coluna de busca: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void recordChange(String isbn) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(isbn);
+        }
+    }
+
+    private static int normalizeLimit(Integer limit) {
+        if (limit == null || limit < 1) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Resultado de uma consulta ao índice
+     */
+    record Hit(String isbn, double score) {
+    }
+
+    /**
+     * Um termo da consulta já resolvido no dicionário: a lista do próprio
+     * termo e, para o último, as dos termos que começam com ele
+     */
+    private record TermGroup(List<Postings> postings, List<Float> weights, int size) {
+    }
+
+    /**
+     * Estado do índice; acessado apenas com o bloqueio do serviço
+     */
+    private static final class Index {
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        final Map<String, Integer> docIdByIsbn = new HashMap<>();
+        String[] isbns = new String[1024];
+        float[] lengths = new float[1024];
+        int nextDocId;
+        int liveDocs;
+        double totalLength;
+
+        void add(Book book) {
+            Map<String, Float> frequencies = new HashMap<>();
+            float length = addField(frequencies, book.getTitle(), TITLE_WEIGHT)
+                    + addField(frequencies, book.getAuthor(), AUTHOR_WEIGHT)
+                    + addField(frequencies, book.getKeywords(), KEYWORDS_WEIGHT)
+                    + addField(frequencies, book.getSynopsis(), SYNOPSIS_WEIGHT);
+
+            int docId = nextDocId++;
+            if (docId == isbns.length) {
+                isbns = Arrays.copyOf(isbns, docId * 2);
+                lengths = Arrays.copyOf(lengths, docId * 2);
+            }
+            isbns[docId] = book.getIsbn();
+            lengths[docId] = length;
+            docIdByIsbn.put(book.getIsbn(), docId);
+            liveDocs++;
+            totalLength += length;
+
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), term -> new Postings()).add(docId, entry.getValue());
+            }
+        }
+
+        void remove(String isbn) {
+            Integer docId = docIdByIsbn.remove(isbn);
+            if (docId != null) {
+                isbns[docId] = null;
+                liveDocs--;
+                totalLength -= lengths[docId];
+            }
+        }
+
+        /**
+         * Regrava as listas sem as entradas mortas quando elas passam de um
+         * quarto dos documentos; os ids internos são renumerados em ordem
+         */
+        void compactIfNeeded() {
+            int dead = nextDocId - liveDocs;
+            if (dead < 1024 || dead * 4 < nextDocId) {
+                return;
+            }
+            int[] remap = new int[nextDocId];
+            int live = 0;
+            for (int docId = 0; docId < nextDocId; docId++) {
+                if (isbns[docId] != null) {
+                    remap[docId] = live;
+                    isbns[live] = isbns[docId];
+                    lengths[live] = lengths[docId];
+                    docIdByIsbn.put(isbns[live], live);
+                    live++;
+                } else {
+                    remap[docId] = -1;
+                }
+            }
+            Arrays.fill(isbns, live, nextDocId, null);
+            nextDocId = live;
+            terms.values().removeIf(postings -> postings.compact(remap) == 0);
+        }
+
+        List<Hit> search(List<String> tokens, int limit) {
+            if (liveDocs == 0) {
+                return new ArrayList<>();
+            }
+            double averageLength = totalLength / liveDocs;
+
+            // Resolver cada termo; se algum não existir, nenhum livro tem todos
+            List<TermGroup> groups = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                TermGroup group = resolve(tokens.get(i), i == tokens.size() - 1);
+                if (group == null) {
+                    return new ArrayList<>();
+                }
+                groups.add(group);
+            }
+            // Começar pelo termo mais raro: os demais só são conferidos nos candidatos
+            groups.sort(Comparator.comparingInt(TermGroup::size));
+
+            Map<Integer, Double> candidates = new HashMap<>();
+            TermGroup rarest = groups.get(0);
+            for (int p = 0; p < rarest.postings().size(); p++) {
+                Postings postings = rarest.postings().get(p);
+                double idf = idf(postings.size);
+                float weight = rarest.weights().get(p);
+                for (int i = 0; i < postings.size; i++) {
+                    int docId = postings.docs[i];
+                    if (isbns[docId] == null) {
+                        continue;
+                    }
+                    double score = weight * bm25(idf, postings.frequencies[i], lengths[docId], averageLength);
+                    candidates.merge(docId, score, Math::max);
+                }
+            }
+
+            for (int g = 1; g < groups.size() && !candidates.isEmpty(); g++) {
+                TermGroup group = groups.get(g);
+                candidates.entrySet().removeIf(candidate -> {
+                    int docId = candidate.getKey();
+                    double best = -1;
+                    for (int p = 0; p < group.postings().size(); p++) {
+                        Postings postings = group.postings().get(p);
+                        int i = postings.indexOf(docId);
+                        if (i >= 0) {
+                            double score = group.weights().get(p)
+                                    * bm25(idf(postings.size), postings.frequencies[i], lengths[docId], averageLength);
+                            best = Math.max(best, score);
+                        }
+                    }
+                    if (best < 0) {
+                        return true;
+                    }
+                    candidate.setValue(candidate.getValue() + best);
+                    return false;
+                });
+            }
+
+            // Os "limit" melhores, desempate por ISBN
+            Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(Hit::isbn);
+            PriorityQueue<Hit> top = new PriorityQueue<>(ranking.reversed());
+            for (Map.Entry<Integer, Double> candidate : candidates.entrySet()) {
+                top.add(new Hit(isbns[candidate.getKey()], candidate.getValue()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(ranking);
+            return hits;
+        }
+
+        private TermGroup resolve(String token, boolean prefix) {
+            List<Postings> postings = new ArrayList<>();
+            List<Float> weights = new ArrayList<>();
+            int size = 0;
+
+            Postings exact = terms.get(token);
+            if (exact != null) {
+                postings.add(exact);
+                weights.add(1.0f);
+                size += exact.size;
+            }
+            if (prefix && token.length() >= MIN_PREFIX_LENGTH) {
+                NavigableMap<String, Postings> expansions =
+                        terms.subMap(token, false, token + Character.MAX_VALUE, false);
+                int expanded = 0;
+                for (Postings postingsForPrefix : expansions.values()) {
+                    if (++expanded > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    postings.add(postingsForPrefix);
+                    weights.add(PREFIX_WEIGHT);
+                    size += postingsForPrefix.size;
+                }
+            }
+            return postings.isEmpty() ? null : new TermGroup(postings, weights, size);
+        }
+
+        private double idf(int postingsSize) {
+            // As listas ainda podem ter entradas mortas até a próxima compactação
+            int documentFrequency = Math.min(postingsSize, liveDocs);
+            return Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        }
+
+        private static double bm25(double idf, float frequency, float length, double averageLength) {
+            return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+        }
+
+        private static float addField(Map<String, Float> frequencies, String text, float weight) {
+            List<String> tokens = SearchTokenizer.tokenize(text);
+            for (String token : tokens) {
+                frequencies.merge(token, weight, Float::sum);
+            }
+            return tokens.size() * weight;
+        }
+    }
+
+    /**
+     * Lista de livros de um termo, em ordem crescente de id interno, com a
+     * frequência (ponderada pelos campos) do termo em cada um
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] frequencies = new float[4];
+        int size;
+
+        void add(int docId, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = docId;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        int indexOf(int docId) {
+            int i = Arrays.binarySearch(docs, 0, size, docId);
+            return i >= 0 ? i : -1;
+        }
+
+        /**
+         * Descarta as entradas mortas e aplica a nova numeração
+         *
+         * @return quantidade de entradas restantes
+         */
+        int compact(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int docId = remap[docs[i]];
+                if (docId >= 0) {
+                    docs[kept] = docId;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
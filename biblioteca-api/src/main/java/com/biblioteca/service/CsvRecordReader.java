@@ -0,0 +1,132 @@
+package com.biblioteca.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitor de CSV registro a registro, sem carregar o arquivo em memória.
+ * A primeira linha traz os nomes dos campos; aceita campos entre aspas
+ * (com "" para aspas e quebras de linha dentro do campo), linhas CRLF ou LF
+ * e ignora linhas em branco. Campos vazios não entram no registro.
+ */
+class CsvRecordReader implements Closeable {
+
+    private final Reader reader;
+    private List<String> header;
+    private int lookahead = -2;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Próximo registro, por nome de campo
+     *
+     * @return registro, ou null no fim do arquivo
+     */
+    Map<String, String> next() throws IOException {
+        if (header == null) {
+            List<String> names = readRow();
+            if (names == null) {
+                return null;
+            }
+            header = new ArrayList<>();
+            for (String name : names) {
+                header.add(name.trim());
+            }
+        }
+
+        List<String> values = readRow();
+        if (values == null) {
+            return null;
+        }
+        if (values.size() > header.size()) {
+            throw new IOException("Registro com " + values.size() + " campos, cabeçalho tem " + header.size());
+        }
+        Map<String, String> record = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                record.put(header.get(i), value);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Lê a próxima linha não vazia, separando os campos
+     */
+    private List<String> readRow() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Campo entre aspas não fechado no fim do arquivo");
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        lookahead = following;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (lookahead != -2) {
+            int c = lookahead;
+            lookahead = -2;
+            return c;
+        }
+        int c = reader.read();
+        if (c == '\uFEFF' && header == null) {
+            // BOM de arquivos salvos pelo Excel
+            c = reader.read();
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.biblioteca.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tarefa agendada que envia periodicamente os e-mails da fila de saída:
+ * novas tentativas cujo horário chegou, mensagens de reservas expiradas e
+ * mensagens gravadas enquanto a aplicação estava fora do ar.
+ */
+@Component
+@ConditionalOnProperty(name = "biblioteca.mail.outbox.scheduler.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxScheduler.class);
+
+    private final EmailOutboxService outboxService;
+
+    @Autowired
+    public EmailOutboxScheduler(EmailOutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.mail.outbox.poll-interval:PT15S}")
+    public void dispatchPendingEmails() {
+        try {
+            int sent = outboxService.dispatchPending();
+            if (sent > 0) {
+                logger.info("{} e-mail(s) da fila enviados", sent);
+            }
+        } catch (Exception e) {
+            logger.warn("Erro ao enviar e-mails da fila: {}", e.getMessage());
+        }
+    }
+}
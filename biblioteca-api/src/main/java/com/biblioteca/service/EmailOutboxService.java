@@ -0,0 +1,501 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.EmailOutboxMessage;
+import com.biblioteca.model.EmailOutboxMessage.OutboxStatus;
+import com.biblioteca.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fila de saída (outbox) dos e-mails de notificação.
+ *
+ * <p>As notificações são gravadas na tabela email_outbox e enviadas em
+ * segundo plano, sem prender a requisição HTTP ao servidor SMTP:</p>
+ * <ul>
+ *   <li>cada notificação tem uma chave de deduplicação; enfileirar a mesma
+ *   chave de novo devolve a mensagem existente;</li>
+ *   <li>o envio reserva as mensagens pendentes em lotes e envia cada lote
+ *   em uma thread virtual, com uma única conexão SMTP por lote; um semáforo
+ *   limita as conexões simultâneas ao número de workers;</li>
+ *   <li>falhas voltam para a fila com espera exponencial até o limite de
+ *   tentativas, quando a mensagem passa para FAILED.</li>
+ * </ul>
+ *
+ * <p>O envio começa logo após o commit de quem enfileirou e também é feito
+ * periodicamente pelo EmailOutboxScheduler, que recupera as mensagens que
+ * ficaram para depois.</p>
+ */
+@Service
+public class EmailOutboxService {
+
+  private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+  private final EmailOutboxRepository outboxRepository;
+  private final JavaMailSender mailSender;
+
+  @Value("${spring.mail.username}")
+  private String fromEmail;
+
+  @Value("${biblioteca.mail.outbox.batch-size:20}")
+  private int batchSize;
+
+  @Value("${biblioteca.mail.outbox.max-attempts:5}")
+  private int maxAttempts;
+
+  @Value("${biblioteca.mail.outbox.retry-backoff:PT30S}")
+  private Duration retryBackoff;
+
+  @Value("${biblioteca.mail.outbox.max-retry-backoff:PT30M}")
+  private Duration maxRetryBackoff;
+
+  @Value("${biblioteca.mail.outbox.claim-timeout:PT5M}")
+  private Duration claimTimeout;
+
+  @Value("${biblioteca.mail.outbox.dispatch-on-enqueue:true}")
+  private boolean dispatchOnEnqueue;
+
+  /**
+   * Limite de mensagens entregues ao servidor SMTP por segundo (0 = sem limite)
+   */
+  @Value("${biblioteca.mail.outbox.max-per-second:0}")
+  private int maxPerSecond;
+
+  private final int workerCount;
+  private final ExecutorService workers;
+  private final ExecutorService dispatcher;
+  // Conexões SMTP abertas ao mesmo tempo (uma por lote em envio)
+  private final Semaphore smtpConnections;
+
+  // Um envio por vez nesta instância; pedidos feitos durante um envio
+  // fazem o envio atual dar mais uma volta
+  private final ReentrantLock dispatchLock = new ReentrantLock();
+  private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder retried = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder duplicates = new LongAdder();
+  private final LongAdder connections = new LongAdder();
+
+  @Autowired
+  public EmailOutboxService(EmailOutboxRepository outboxRepository, JavaMailSender mailSender,
+      @Value("${biblioteca.mail.outbox.workers:4}") int workerCount) {
+    this.outboxRepository = outboxRepository;
+    this.mailSender = mailSender;
+    this.workerCount = Math.max(1, workerCount);
+    // Os lotes esperam quase só pelo SMTP e pelo banco: uma thread virtual
+    // por lote, com o limite de conexões no semáforo e não no tamanho do pool
+    this.workers = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("email-outbox-worker-", 1).factory());
+    this.smtpConnections = new Semaphore(this.workerCount);
+    this.dispatcher = Executors.newSingleThreadExecutor(
+        Thread.ofVirtual().name("email-outbox-dispatcher-", 1).factory());
+  }
+
+  /**
+   * Resultado de um pedido de notificação
+   */
+  public static final class QueuedEmail {
+    private final EmailOutboxMessage message;
+    private final boolean duplicate;
+
+    QueuedEmail(EmailOutboxMessage message, boolean duplicate) {
+      this.message = message;
+      this.duplicate = duplicate;
+    }
+
+    public EmailOutboxMessage getMessage() {
+      return message;
+    }
+
+    /**
+     * true quando já existia uma mensagem com a mesma chave de deduplicação
+     */
+    public boolean isDuplicate() {
+      return duplicate;
+    }
+  }
+
+  /**
+   * Enfileira um e-mail para envio em segundo plano
+   * Se já existir uma mensagem com a mesma chave, nada é gravado e a
+   * mensagem existente é devolvida
+   */
+  public QueuedEmail enqueue(EmailOutboxMessage message) {
+    Optional<EmailOutboxMessage> existing = outboxRepository.findByDedupeKey(message.getDedupeKey());
+    if (existing.isPresent()) {
+      duplicates.increment();
+      return new QueuedEmail(existing.get(), true);
+    }
+
+    EmailOutboxMessage saved;
+    try {
+      saved = outboxRepository.save(message);
+    } catch (DataIntegrityViolationException e) {
+      // Outra requisição gravou a mesma chave entre a consulta e o insert
+      duplicates.increment();
+      return new QueuedEmail(outboxRepository.findByDedupeKey(message.getDedupeKey()).orElseThrow(() -> e), true);
+    }
+
+    if (dispatchOnEnqueue) {
+      requestDispatchAfterCommit();
+    }
+    return new QueuedEmail(saved, false);
+  }
+
+  /**
+   * Enfileira vários e-mails de uma vez (uma consulta para as chaves já
+   * existentes e um único saveAll para as novas)
+   *
+   * @return quantidade de mensagens novas gravadas
+   */
+  public int enqueueAll(List<EmailOutboxMessage> messages) {
+    if (messages.isEmpty()) {
+      return 0;
+    }
+    List<String> keys = messages.stream().map(EmailOutboxMessage::getDedupeKey).toList();
+    Set<String> existing = new HashSet<>(outboxRepository.findExistingDedupeKeys(keys));
+    Set<String> seen = new HashSet<>();
+    List<EmailOutboxMessage> fresh = new ArrayList<>();
+    for (EmailOutboxMessage message : messages) {
+      if (!existing.contains(message.getDedupeKey()) && seen.add(message.getDedupeKey())) {
+        fresh.add(message);
+      }
+    }
+    duplicates.add(messages.size() - fresh.size());
+
+    int saved;
+    try {
+      saved = outboxRepository.saveAll(fresh).size();
+    } catch (DataIntegrityViolationException e) {
+      // Alguma chave foi gravada em paralelo: grava uma a uma
+      saved = 0;
+      for (EmailOutboxMessage message : fresh) {
+        message.setId(null);
+        saved += enqueue(message).isDuplicate() ? 0 : 1;
+      }
+      return saved;
+    }
+
+    if (saved > 0 && dispatchOnEnqueue) {
+      requestDispatchAfterCommit();
+    }
+    return saved;
+  }
+
+  public Optional<EmailOutboxMessage> findMessage(Long id) {
+    return outboxRepository.findById(id);
+  }
+
+  /**
+   * Pede um envio em segundo plano, sem esperar
+   * Se já houver um envio em andamento, ele dá mais uma volta
+   */
+  public void requestDispatch() {
+    try {
+      dispatcher.execute(() -> {
+        if (dispatchLock.tryLock()) {
+          try {
+            drain();
+          } catch (RuntimeException e) {
+            logger.warn("Erro ao enviar e-mails da fila: {}", e.getMessage());
+          } finally {
+            dispatchLock.unlock();
+          }
+        } else {
+          dispatchRequested.set(true);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Aplicação encerrando: o agendador envia na próxima subida
+      logger.debug("Envio de e-mails não agendado: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Envia agora todas as mensagens pendentes cujo horário já chegou,
+   * esperando o fim de um envio que esteja em andamento
+   *
+   * @return quantidade de mensagens enviadas
+   */
+  public int dispatchPending() {
+    dispatchLock.lock();
+    try {
+      return drain();
+    } finally {
+      dispatchLock.unlock();
+    }
+  }
+
+  /**
+   * Métricas da fila de saída
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("pending", outboxRepository.countByStatus(OutboxStatus.PENDING));
+    metrics.put("sending", outboxRepository.countByStatus(OutboxStatus.SENDING));
+    metrics.put("sentTotal", outboxRepository.countByStatus(OutboxStatus.SENT));
+    metrics.put("failedTotal", outboxRepository.countByStatus(OutboxStatus.FAILED));
+    metrics.put("sent", sent.sum());
+    metrics.put("retried", retried.sum());
+    metrics.put("failed", failed.sum());
+    metrics.put("duplicates", duplicates.sum());
+    metrics.put("smtpConnections", connections.sum());
+    metrics.put("workers", workerCount);
+    metrics.put("batchSize", batchSize);
+    metrics.put("maxPerSecond", maxPerSecond);
+    return metrics;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    dispatcher.shutdown();
+    workers.shutdown();
+    try {
+      dispatcher.awaitTermination(10, TimeUnit.SECONDS);
+      workers.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void requestDispatchAfterCommit() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          requestDispatch();
+        }
+      });
+    } else {
+      requestDispatch();
+    }
+  }
+
+  /**
+   * Reserva e envia lotes até não haver mais mensagens prontas
+   * Deve ser chamado com dispatchLock adquirido
+   */
+  private int drain() {
+    int total = 0;
+    do {
+      dispatchRequested.set(false);
+      outboxRepository.releaseExpiredClaims(LocalDateTime.now(), OutboxStatus.SENDING, OutboxStatus.PENDING);
+
+      int roundSize = maxPerSecond > 0 ? Math.min(batchSize * workerCount, maxPerSecond) : batchSize * workerCount;
+      int claimed;
+      do {
+        long roundStart = System.nanoTime();
+        List<EmailOutboxMessage> messages = claimBatch(roundSize);
+        claimed = messages.size();
+        total += sendClaimed(messages);
+        throttle(claimed, roundStart);
+      } while (claimed == roundSize);
+    } while (dispatchRequested.get());
+    return total;
+  }
+
+  /**
+   * Segura o envio para respeitar max-per-second
+   */
+  private void throttle(int messages, long roundStart) {
+    if (maxPerSecond <= 0 || messages == 0) {
+      return;
+    }
+    long minimumNanos = TimeUnit.SECONDS.toNanos(messages) / maxPerSecond;
+    long remaining = minimumNanos - (System.nanoTime() - roundStart);
+    if (remaining > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private List<EmailOutboxMessage> claimBatch(int limit) {
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> ids = outboxRepository.findDueMessageIds(now, OutboxStatus.PENDING, PageRequest.of(0, limit));
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    // O prazo da reserva identifica o lote
+    LocalDateTime leaseUntil = now.plus(claimTimeout).truncatedTo(ChronoUnit.MILLIS);
+    if (outboxRepository.claimMessages(ids, leaseUntil, OutboxStatus.PENDING, OutboxStatus.SENDING) == 0) {
+      return List.of();
+    }
+    return outboxRepository.findClaimedMessages(ids, leaseUntil, OutboxStatus.SENDING);
+  }
+
+  /**
+   * Divide as mensagens reservadas entre os workers e espera todos terminarem
+   */
+  private int sendClaimed(List<EmailOutboxMessage> messages) {
+    List<Future<Integer>> results = new ArrayList<>();
+    for (int i = 0; i < messages.size(); i += batchSize) {
+      List<EmailOutboxMessage> batch = messages.subList(i, Math.min(i + batchSize, messages.size()));
+      results.add(workers.submit(() -> {
+        smtpConnections.acquire();
+        try {
+          return sendBatch(batch);
+        } finally {
+          smtpConnections.release();
+        }
+      }));
+    }
+
+    int total = 0;
+    for (Future<Integer> result : results) {
+      try {
+        total += result.get();
+      } catch (ExecutionException e) {
+        // As mensagens do lote continuam reservadas e voltam à fila quando a reserva expirar
+        logger.error("❌ Erro inesperado ao enviar lote de e-mails: {}", e.getCause().getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Envia um lote em uma única conexão SMTP e grava o resultado de cada mensagem
+   */
+  private int sendBatch(List<EmailOutboxMessage> batch) {
+    Map<MimeMessage, EmailOutboxMessage> byMime = new IdentityHashMap<>();
+    Map<EmailOutboxMessage, Exception> failures = new IdentityHashMap<>();
+    for (EmailOutboxMessage message : batch) {
+      try {
+        byMime.put(toMimeMessage(message), message);
+      } catch (MessagingException | MailException e) {
+        failures.put(message, e);
+      }
+    }
+
+    if (!byMime.isEmpty()) {
+      connections.increment();
+      try {
+        mailSender.send(byMime.keySet().toArray(new MimeMessage[0]));
+      } catch (MailSendException e) {
+        if (e.getFailedMessages().isEmpty()) {
+          byMime.values().forEach(message -> failures.put(message, e));
+        }
+        e.getFailedMessages().forEach((mime, cause) -> {
+          EmailOutboxMessage message = byMime.get(mime);
+          if (message != null) {
+            failures.put(message, cause);
+          }
+        });
+      } catch (MailException e) {
+        byMime.values().forEach(message -> failures.put(message, e));
+      }
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    int sentCount = 0;
+    for (EmailOutboxMessage message : batch) {
+      Exception failure = failures.get(message);
+      if (failure == null) {
+        markSent(message, now);
+        sentCount++;
+      } else {
+        markFailedAttempt(message, failure, now);
+      }
+    }
+    outboxRepository.saveAll(batch);
+    return sentCount;
+  }
+
+  private MimeMessage toMimeMessage(EmailOutboxMessage message) throws MessagingException {
+    MimeMessage mime = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(mime, StandardCharsets.UTF_8.name());
+    if (fromEmail != null && !fromEmail.isBlank()) {
+      helper.setFrom(fromEmail);
+    }
+    helper.setTo(message.getToEmail());
+    helper.setSubject(message.getSubject());
+    helper.setText(message.getBody());
+    return mime;
+  }
+
+  private void markSent(EmailOutboxMessage message, LocalDateTime now) {
+    message.setStatus(OutboxStatus.SENT);
+    message.setAttempts(message.getAttempts() + 1);
+    message.setSentAt(now);
+    message.setLastError(null);
+    sent.increment();
+    logger.info("✅ E-mail {} enviado para: {}", message.getType(), message.getToEmail());
+  }
+
+  private void markFailedAttempt(EmailOutboxMessage message, Exception failure, LocalDateTime now) {
+    int attempts = message.getAttempts() + 1;
+    message.setAttempts(attempts);
+    message.setLastError(truncate(failure.getMessage()));
+
+    if (attempts >= maxAttempts) {
+      message.setStatus(OutboxStatus.FAILED);
+      failed.increment();
+      logger.error("❌ E-mail {} para {} descartado após {} tentativas: {}",
+          message.getType(), message.getToEmail(), attempts, failure.getMessage());
+    } else {
+      message.setStatus(OutboxStatus.PENDING);
+      message.setNextAttemptAt(now.plus(backoff(attempts)));
+      retried.increment();
+      logger.warn("⚠️  Falha ao enviar e-mail {} para {} (tentativa {}): {}",
+          message.getType(), message.getToEmail(), attempts, failure.getMessage());
+    }
+  }
+
+  /**
+   * Espera antes da próxima tentativa: retryBackoff, 2x, 4x... até maxRetryBackoff
+   */
+  Duration backoff(int attempts) {
+    Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+    return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+  }
+
+  private static String truncate(String error) {
+    if (error == null) {
+      return null;
+    }
+    return error.length() > 500 ? error.substring(0, 500) : error;
+  }
+}
@@ -1,95 +1,111 @@
 package com.biblioteca.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.biblioteca.model.EmailOutboxMessage;
+import com.biblioteca.model.EmailOutboxMessage.NotificationType;
+import com.biblioteca.model.Loan;
+import com.biblioteca.service.EmailOutboxService.QueuedEmail;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Serviço responsável pelo envio de e-mails e notificações do sistema.
  * Centraliza a lógica de comunicação com os usuários,
  * incluindo avisos de atraso, confirmações de reserva e outras mensagens automatizadas.
+ *
+ * <p>Os e-mails não são enviados na hora: são montados aqui e gravados na
+ * fila de saída ({@link EmailOutboxService}), que envia em segundo plano.
+ * Cada aviso é enfileirado no máximo uma vez por dia para o mesmo
+ * empréstimo ou reserva.</p>
  */
 
 @Service
 public class EmailService {
 
-  private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
-
-  private final JavaMailSender mailSender;
-
-  @Value("${spring.mail.username}")
-  private String fromEmail;
-
-  @Value("${spring.mail.properties.mail.from-name:Biblioteca}")
-  private String fromName;
+  private final EmailOutboxService outboxService;
 
   @Autowired
-  public EmailService(JavaMailSender mailSender) {
-    this.mailSender = mailSender;
+  public EmailService(EmailOutboxService outboxService) {
+    this.outboxService = outboxService;
   }
 
   /**
-   * Envia e-mail de notificação de livro em atraso
+   * Enfileira e-mail de notificação de livro em atraso
    */
-  public void sendOverdueLoanNotification(String toEmail, String studentName, String bookTitle, String bookIsbn,
-      Integer overdueDays) {
-    try {
-      SimpleMailMessage message = new SimpleMailMessage();
-      message.setFrom(fromEmail);
-      message.setTo(toEmail);
-      message.setSubject("📚 Aviso: Livro em Atraso - " + bookTitle);
-
-      String body = String.format(
-          "Olá %s,\n\n" +
-              "Este é um aviso automático da Biblioteca.\n\n" +
-              "Você possui o livro \"%s\" (ISBN: %s) em atraso.\n" +
-              "Dias de atraso: %d\n\n" +
-              "Por favor, devolva o livro o quanto antes para evitar multas adicionais.\n\n" +
-              "Atenciosamente,\n" +
-              "Sistema de Biblioteca",
-          studentName, bookTitle, bookIsbn, overdueDays);
+  public QueuedEmail queueOverdueLoanNotification(Long loanId, String toEmail, String studentName, String bookTitle,
+      String bookIsbn, Integer overdueDays) {
+    return outboxService.enqueue(
+        overdueLoanMessage(loanId, toEmail, studentName, bookTitle, bookIsbn, overdueDays, LocalDate.now()));
+  }
 
-      message.setText(body);
-      mailSender.send(message);
-      logger.info("✅ E-mail de atraso enviado para: {}", toEmail);
-    } catch (Exception e) {
-      logger.error("❌ Erro ao enviar e-mail de atraso para {}: {}", toEmail, e.getMessage());
-      throw new RuntimeException("Erro ao enviar e-mail: " + e.getMessage(), e);
+  /**
+   * Enfileira de uma vez os avisos de atraso dos empréstimos informados
+   * Os empréstimos devem vir com aluno e livro carregados
+   *
+   * @return quantidade de avisos novos (os já enfileirados hoje são ignorados)
+   */
+  public int queueOverdueLoanNotifications(List<Loan> loans, LocalDateTime now) {
+    List<EmailOutboxMessage> messages = new ArrayList<>(loans.size());
+    for (Loan loan : loans) {
+      messages.add(overdueLoanMessage(
+          loan.getId(),
+          loan.getStudent().getEmail(),
+          loan.getStudent().getNome(),
+          loan.getBook().getTitle(),
+          loan.getBook().getIsbn(),
+          (int) ChronoUnit.DAYS.between(loan.getDueDate(), now),
+          now.toLocalDate()));
     }
+    return outboxService.enqueueAll(messages);
+  }
+
+  private EmailOutboxMessage overdueLoanMessage(Long loanId, String toEmail, String studentName, String bookTitle,
+      String bookIsbn, Integer overdueDays, LocalDate today) {
+    String subject = "📚 Aviso: Livro em Atraso - " + bookTitle;
+    String body = String.format(
+        "Olá %s,\n\n" +
+            "Este é um aviso automático da Biblioteca.\n\n" +
+            "Você possui o livro \"%s\" (ISBN: %s) em atraso.\n" +
+            "Dias de atraso: %d\n\n" +
+            "Por favor, devolva o livro o quanto antes para evitar multas adicionais.\n\n" +
+            "Atenciosamente,\n" +
+            "Sistema de Biblioteca",
+        studentName, bookTitle, bookIsbn, overdueDays);
+
+    return new EmailOutboxMessage(NotificationType.OVERDUE_LOAN,
+        dedupeKey(NotificationType.OVERDUE_LOAN, loanId, today), toEmail, subject, body);
   }
 
   /**
-   * Envia e-mail de notificação de livro reservado disponível
+   * Enfileira e-mail de notificação de livro reservado disponível
    */
-  public void sendReservationAvailableNotification(String toEmail, String studentName, String bookTitle,
-      String bookIsbn) {
-    try {
-      SimpleMailMessage message = new SimpleMailMessage();
-      message.setFrom(fromEmail);
-      message.setTo(toEmail);
-      message.setSubject("📚 Livro Reservado Disponível - " + bookTitle);
+  public QueuedEmail queueReservationAvailableNotification(Long reservationId, String toEmail, String studentName,
+      String bookTitle, String bookIsbn) {
+    String subject = "📚 Livro Reservado Disponível - " + bookTitle;
+    String body = String.format(
+        "Olá %s,\n\n" +
+            "Boa notícia! O livro que você reservou está disponível.\n\n" +
+            "Livro: \"%s\"\n" +
+            "ISBN: %s\n\n" +
+            "Você tem prioridade para retirar este livro. " +
+            "Entre em contato com a biblioteca ou acesse o sistema para efetivar o empréstimo.\n\n" +
+            "Atenciosamente,\n" +
+            "Sistema de Biblioteca",
+        studentName, bookTitle, bookIsbn);
 
-      String body = String.format(
-          "Olá %s,\n\n" +
-              "Boa notícia! O livro que você reservou está disponível.\n\n" +
-              "Livro: \"%s\"\n" +
-              "ISBN: %s\n\n" +
-              "Você tem prioridade para retirar este livro. " +
-              "Entre em contato com a biblioteca ou acesse o sistema para efetivar o empréstimo.\n\n" +
-              "Atenciosamente,\n" +
-              "Sistema de Biblioteca",
-          studentName, bookTitle, bookIsbn);
+    return outboxService.enqueue(new EmailOutboxMessage(NotificationType.RESERVATION_AVAILABLE,
+        dedupeKey(NotificationType.RESERVATION_AVAILABLE, reservationId, LocalDate.now()), toEmail, subject, body));
+  }
 
-      message.setText(body);
-      mailSender.send(message);
-      logger.info("✅ E-mail de reserva disponível enviado para: {}", toEmail);
-    } catch (Exception e) {
-      logger.error("❌ Erro ao enviar e-mail de reserva disponível para {}: {}", toEmail, e.getMessage());
-      throw new RuntimeException("Erro ao enviar e-mail: " + e.getMessage(), e);
-    }
+  /**
+   * Chave de deduplicação: tipo, empréstimo/reserva e data do aviso
+   */
+  static String dedupeKey(NotificationType type, Long id, LocalDate date) {
+    return type.name() + ":" + id + ":" + date;
   }
 }
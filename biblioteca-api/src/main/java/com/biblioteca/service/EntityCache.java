@@ -0,0 +1,167 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache de leitura de livros (por ISBN) e alunos (por matrícula), consultado
+ * no lugar de {@code findById} nas verificações de disponibilidade, no
+ * cadastro de empréstimos e reservas e nas consultas por chave.
+ *
+ * <p>O cache guarda cópias desacopladas do contexto de persistência e devolve
+ * uma cópia nova a cada leitura: alterar o objeto devolvido não altera o
+ * cache nem o banco. Para gravar, carregue a entidade pelo repositório.</p>
+ *
+ * <p>Toda gravação de livro ou aluno invalida a chave: as feitas pela entidade
+ * (save, delete) via {@link EntityCacheInvalidationListener}, e os UPDATEs em
+ * lote de estoque e contadores de reserva pelos serviços que os executam.
+ * Dentro de uma transação a chave é invalidada na hora e de novo ao final, para
+ * que uma leitura concorrente não guarde o valor anterior ao commit; o que for
+ * lido dentro de uma transação desfeita também é descartado. Com alterações
+ * pendentes na transação atual (ainda sem flush), a leitura não usa o cache.</p>
+ */
+@Service
+public class EntityCache {
+
+    private final BookRepository bookRepository;
+    private final StudentRepository studentRepository;
+    private final BoundedCache<String, Book> books;
+    private final BoundedCache<String, Student> students;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public EntityCache(BookRepository bookRepository, StudentRepository studentRepository,
+                       @Value("${biblioteca.cache.books.max-size:10000}") int maxBooks,
+                       @Value("${biblioteca.cache.students.max-size:10000}") int maxStudents) {
+        this.bookRepository = bookRepository;
+        this.studentRepository = studentRepository;
+        this.books = new BoundedCache<>("books", maxBooks);
+        this.students = new BoundedCache<>("students", maxStudents);
+    }
+
+    /**
+     * Livro pelo ISBN (cópia), carregado do banco na primeira leitura
+     */
+    public Optional<Book> findBook(String isbn) {
+        if (hasPendingChanges()) {
+            return bookRepository.findById(isbn).map(EntityCache::copyOf);
+        }
+        Book cached = books.get(isbn, key -> loadedIn(bookRepository.findById(key).map(EntityCache::copyOf)
+                .orElse(null), () -> books.invalidate(key)));
+        return Optional.ofNullable(cached).map(EntityCache::copyOf);
+    }
+
+    /**
+     * Aluno pela matrícula (cópia), carregado do banco na primeira leitura
+     */
+    public Optional<Student> findStudent(String matricula) {
+        if (hasPendingChanges()) {
+            return studentRepository.findById(matricula).map(EntityCache::copyOf);
+        }
+        Student cached = students.get(matricula, key -> loadedIn(studentRepository.findById(key)
+                .map(EntityCache::copyOf).orElse(null), () -> students.invalidate(key)));
+        return Optional.ofNullable(cached).map(EntityCache::copyOf);
+    }
+
+    public void evictBook(String isbn) {
+        evict(() -> books.invalidate(isbn));
+    }
+
+    public void evictStudent(String matricula) {
+        evict(() -> students.invalidate(matricula));
+    }
+
+    /**
+     * Descarta todos os livros (UPDATEs que atingem vários livros de uma vez)
+     */
+    public void evictAllBooks() {
+        evict(books::invalidateAll);
+    }
+
+    /**
+     * Descarta todos os alunos (UPDATEs que atingem vários alunos de uma vez)
+     */
+    public void evictAllStudents() {
+        evict(students::invalidateAll);
+    }
+
+    /**
+     * Acertos, faltas, taxa de acerto, descartes por tamanho e invalidações
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("books", books.getMetrics());
+        metrics.put("students", students.getMetrics());
+        return metrics;
+    }
+
+    private static void evict(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Se a transação atual tem alterações ainda não enviadas ao banco: o
+     * listener só invalida no flush, então a leitura vai direto ao contexto
+     * de persistência (sem guardar no cache)
+     */
+    private boolean hasPendingChanges() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && entityManager.unwrap(Session.class).isDirty();
+    }
+
+    /**
+     * Um valor lido dentro de uma transação pode incluir alterações ainda não
+     * gravadas; se a transação não for confirmada, ele é descartado
+     */
+    private static <T> T loadedIn(T value, Runnable invalidation) {
+        if (value != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        invalidation.run();
+                    }
+                }
+            });
+        }
+        return value;
+    }
+
+    private static Book copyOf(Book book) {
+        Book copy = new Book(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getCoverImageUrl(),
+                book.getKeywords(), book.getSynopsis(), book.getEntryDate(), book.getQuantity(),
+                book.getActiveReservationsCount());
+        copy.setReservationCapacity(book.getReservationCapacity());
+        return copy;
+    }
+
+    private static Student copyOf(Student student) {
+        return new Student(student.getMatricula(), student.getNome(), student.getCpf(),
+                student.getDataNascimento(), student.getEmail(), student.getTelefone(),
+                student.getReservationsCount());
+    }
+}
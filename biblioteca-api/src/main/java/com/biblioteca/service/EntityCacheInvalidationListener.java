@@ -0,0 +1,44 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Invalida o {@link EntityCache} (e, para livros, a disponibilidade em
+ * memória) quando um livro ou aluno é gravado ou excluído pela entidade
+ * (save, delete, cascata).
+ *
+ * <p>Os UPDATEs em lote (estoque, contadores de reserva) não passam por aqui;
+ * quem os executa invalida o cache diretamente. O cache é obtido sob demanda
+ * porque o listener é criado junto com o EntityManagerFactory, antes dos
+ * repositórios dos quais o cache depende.</p>
+ */
+public class EntityCacheInvalidationListener {
+
+    private final ObjectProvider<EntityCache> entityCache;
+    private final ObjectProvider<BookAvailabilityService> availabilityService;
+
+    @Autowired
+    public EntityCacheInvalidationListener(ObjectProvider<EntityCache> entityCache,
+                                           ObjectProvider<BookAvailabilityService> availabilityService) {
+        this.entityCache = entityCache;
+        this.availabilityService = availabilityService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(Object entity) {
+        if (entity instanceof Book book) {
+            entityCache.ifAvailable(cache -> cache.evictBook(book.getIsbn()));
+            availabilityService.ifAvailable(availability -> availability.evict(book.getIsbn()));
+        } else if (entity instanceof Student student) {
+            entityCache.ifAvailable(cache -> cache.evictStudent(student.getMatricula()));
+        }
+    }
+}
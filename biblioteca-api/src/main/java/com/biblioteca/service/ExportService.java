@@ -0,0 +1,176 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.LoanResponseDTO;
+import com.biblioteca.dto.ReservationResponseDTO;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.ReservationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Serviço de exportação do histórico de empréstimos e reservas.
+ *
+ * Os registros são lidos do banco por cursor (Stream do repositório) e
+ * escritos direto na saída, linha a linha, em NDJSON (um objeto JSON por
+ * linha) ou CSV. Nada é acumulado em memória, então históricos com milhões de
+ * linhas são exportados com uso de heap constante.
+ */
+@Service
+public class ExportService {
+
+    /** Formatos de exportação suportados */
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    /** A cada quantas linhas o buffer é enviado ao cliente */
+    private static final int FLUSH_EVERY = 500;
+
+    private static final String LOAN_CSV_HEADER = "id,studentMatricula,studentName,bookIsbn,bookTitle,bookAuthor,"
+            + "loanDate,dueDate,returnDate,status,overdueDays,fineAmount,fineStatus";
+
+    private static final String RESERVATION_CSV_HEADER = "id,bookIsbn,bookTitle,bookAuthor,studentMatricula,"
+            + "studentName,reservationDate,queuePosition,priority,status,createdAt";
+
+    private final LoanRepository loanRepository;
+    private final ReservationRepository reservationRepository;
+    private final LoanService loanService;
+    private final LibrarySettingsService settingsService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ExportService(LoanRepository loanRepository,
+                         ReservationRepository reservationRepository,
+                         LoanService loanService,
+                         LibrarySettingsService settingsService,
+                         ObjectMapper objectMapper) {
+        this.loanRepository = loanRepository;
+        this.reservationRepository = reservationRepository;
+        this.loanService = loanService;
+        this.settingsService = settingsService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escreve todos os empréstimos na saída, em ordem de id.
+     * O status, os dias de atraso e a multa são calculados no momento da
+     * exportação, como nos endpoints de listagem.
+     *
+     * @param out    saída (não é fechada)
+     * @param format formato da exportação
+     * @return quantidade de empréstimos exportados
+     */
+    @Transactional(readOnly = true)
+    public long writeLoans(OutputStream out, Format format) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        Integer finePerDay = settingsService.getFinePerDay();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        if (format == Format.CSV) {
+            writer.write(LOAN_CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<LoanResponseDTO> loans = loanRepository.streamAllForExport()) {
+            for (LoanResponseDTO loan : (Iterable<LoanResponseDTO>) loans::iterator) {
+                loanService.applyEffectiveStatus(loan, now, finePerDay);
+                if (format == Format.CSV) {
+                    writeCsvLine(writer, loan.getId(), loan.getStudentMatricula(), loan.getStudentName(),
+                            loan.getBookIsbn(), loan.getBookTitle(), loan.getBookAuthor(), loan.getLoanDate(),
+                            loan.getDueDate(), loan.getReturnDate(), loan.getStatus(), loan.getOverdueDays(),
+                            loan.getFineAmount(), loan.getFineStatus());
+                } else {
+                    writeJsonLine(writer, loan);
+                }
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Escreve todas as reservas na saída, em ordem de id.
+     *
+     * @param out    saída (não é fechada)
+     * @param format formato da exportação
+     * @return quantidade de reservas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long writeReservations(OutputStream out, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        if (format == Format.CSV) {
+            writer.write(RESERVATION_CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<ReservationResponseDTO> reservations = reservationRepository.streamAllForExport()) {
+            for (ReservationResponseDTO reservation : (Iterable<ReservationResponseDTO>) reservations::iterator) {
+                if (format == Format.CSV) {
+                    writeCsvLine(writer, reservation.getId(), reservation.getBookIsbn(),
+                            reservation.getBookTitle(), reservation.getBookAuthor(),
+                            reservation.getStudentMatricula(), reservation.getStudentName(),
+                            reservation.getReservationDate(), reservation.getQueuePosition(),
+                            reservation.getPriority(), reservation.getStatus(), reservation.getCreatedAt());
+                } else {
+                    writeJsonLine(writer, reservation);
+                }
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private void writeJsonLine(Writer writer, Object value) throws IOException {
+        writer.write(objectMapper.writeValueAsString(value));
+        writer.write('\n');
+    }
+
+    private void writeCsvLine(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Formata um valor para CSV (RFC 4180): null vira campo vazio e textos com
+     * vírgula, aspas ou quebra de linha ficam entre aspas, com aspas duplicadas.
+     */
+    static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,483 @@
+package com.biblioteca.service;
+
+import com.biblioteca.event.ReportDataChangedEvent;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.ImportJob;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.ImportJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de arquivos CSV/JSON de livros e alunos (carga de início de período).
+ *
+ * <p>O arquivo enviado é guardado em disco e lido registro a registro
+ * (CSV linha a linha; JSON com o parser de streaming do Jackson), sem
+ * montar a lista inteira em memória. Cada registro é validado com as
+ * anotações de {@link Book}/{@link Student}; os válidos são gravados em
+ * blocos de tamanho fixo pelo {@link BatchIngestionService}.</p>
+ *
+ * <p>Depois de cada bloco, o progresso é salvo no {@link ImportJob}. Uma
+ * importação interrompida (erro de leitura ou queda da aplicação) pode ser
+ * retomada: o arquivo é relido pulando os registros já processados. Se a
+ * queda ocorrer entre a gravação de um bloco e o registro do progresso, esse
+ * bloco é relido e seus itens aparecem como duplicados.</p>
+ */
+@Service
+public class ImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+
+    private final ImportJobRepository importJobRepository;
+    private final BatchIngestionService batchIngestionService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${biblioteca.import.directory:${java.io.tmpdir}/biblioteca-imports}")
+    private String directory;
+
+    /** Registros lidos por bloco gravado (e por ponto de retomada) */
+    @Value("${biblioteca.import.chunk-size:1000}")
+    private int chunkSize;
+
+    /** Quantidade de erros por registro guardados na importação */
+    @Value("${biblioteca.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    /** Importações ativas nesta instância */
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "file-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ImportService(ImportJobRepository importJobRepository,
+                         BatchIngestionService batchIngestionService,
+                         Validator validator,
+                         ObjectMapper objectMapper,
+                         ApplicationEventPublisher eventPublisher) {
+        this.importJobRepository = importJobRepository;
+        this.batchIngestionService = batchIngestionService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Guarda o arquivo e inicia a importação em segundo plano
+     *
+     * @param format csv ou json; se nulo, deduzido da extensão do arquivo
+     */
+    public ImportJob startImport(ImportJob.ImportTarget target, MultipartFile file, String format) {
+        ImportJob job = createJob(target, file, format);
+        submit(job.getId());
+        return job;
+    }
+
+    /**
+     * Guarda o arquivo e registra a importação, sem executá-la
+     */
+    public ImportJob createJob(ImportJob.ImportTarget target, MultipartFile file, String format) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("Arquivo vazio");
+        }
+        ImportJob.ImportFormat importFormat = resolveFormat(format, file.getOriginalFilename());
+
+        try {
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            Path stored = dir.resolve(target.name().toLowerCase() + "-" + UUID.randomUUID()
+                    + "." + importFormat.name().toLowerCase());
+            // Em uploads grandes o arquivo já está em disco; transferTo apenas o move
+            file.transferTo(stored);
+
+            ImportJob job = new ImportJob(target, importFormat, file.getOriginalFilename(),
+                    stored.toString(), Files.size(stored));
+            return importJobRepository.save(job);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao receber o arquivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retoma uma importação interrompida a partir do último bloco gravado
+     */
+    public ImportJob resumeJob(Long id) {
+        ImportJob job = findJob(id);
+        if (job.getStatus() == ImportJob.ImportStatus.COMPLETED) {
+            throw new RuntimeException("Importação já concluída");
+        }
+        if (running.contains(id)) {
+            throw new RuntimeException("Importação já está em andamento");
+        }
+        if (!Files.exists(Paths.get(job.getStoredFile()))) {
+            throw new RuntimeException("Arquivo da importação não está mais disponível");
+        }
+
+        job.setStatus(ImportJob.ImportStatus.PENDING);
+        job.setLastError(null);
+        job = importJobRepository.save(job);
+        submit(id);
+        return job;
+    }
+
+    public ImportJob findJob(Long id) {
+        return importJobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Importação não encontrada"));
+    }
+
+    public List<ImportJob> listJobs() {
+        return importJobRepository.findTop50ByOrderByIdDesc();
+    }
+
+    /**
+     * Situação de uma importação, com o progresso e os primeiros erros
+     */
+    public Map<String, Object> describe(ImportJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", job.getId());
+        status.put("target", job.getTarget());
+        status.put("format", job.getFormat());
+        status.put("fileName", job.getFileName());
+        status.put("status", job.getStatus());
+        status.put("running", running.contains(job.getId()));
+        status.put("processedRecords", job.getProcessedRecords());
+        status.put("savedRecords", job.getSavedRecords());
+        status.put("failedRecords", job.getFailedRecords());
+        status.put("fileSize", job.getFileSize());
+        status.put("bytesProcessed", job.getBytesProcessed());
+        status.put("progressPercent", job.getFileSize() > 0
+                ? Math.min(100.0, Math.round(job.getBytesProcessed() * 1000.0 / job.getFileSize()) / 10.0)
+                : 0.0);
+        status.put("resumable", job.getStatus() != ImportJob.ImportStatus.COMPLETED
+                && !running.contains(job.getId()));
+        status.put("lastError", job.getLastError());
+        status.put("errors", readErrors(job));
+        status.put("createdAt", job.getCreatedAt());
+        status.put("startedAt", job.getStartedAt());
+        status.put("updatedAt", job.getUpdatedAt());
+        status.put("finishedAt", job.getFinishedAt());
+        return status;
+    }
+
+    /**
+     * Executa (ou retoma) a importação na thread atual
+     */
+    public ImportJob runJob(Long id) {
+        if (!running.add(id)) {
+            throw new RuntimeException("Importação já está em andamento");
+        }
+        try {
+            return doRunJob(id);
+        } finally {
+            running.remove(id);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
+    }
+
+    private void submit(Long id) {
+        importExecutor.execute(() -> {
+            try {
+                runJob(id);
+            } catch (RuntimeException e) {
+                logger.warn("Importação {} não executada: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    private ImportJob doRunJob(Long id) {
+        ImportJob job = findJob(id);
+        job.setStatus(ImportJob.ImportStatus.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(LocalDateTime.now());
+        }
+        job.setFinishedAt(null);
+        job.setUpdatedAt(LocalDateTime.now());
+        job = importJobRepository.save(job);
+
+        long savedBefore = job.getSavedRecords();
+        Path file = Paths.get(job.getStoredFile());
+        try (CountingInputStream in = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            RecordSource source = openSource(job.getFormat(), in);
+            if (job.getTarget() == ImportJob.ImportTarget.BOOKS) {
+                job = importRecords(job, source, in, Book.class, batchIngestionService::ingestBooks);
+            } else {
+                job = importRecords(job, source, in, Student.class, batchIngestionService::ingestStudents);
+            }
+
+            job.setStatus(ImportJob.ImportStatus.COMPLETED);
+            job.setBytesProcessed(job.getFileSize());
+            job.setFinishedAt(LocalDateTime.now());
+            job.setUpdatedAt(job.getFinishedAt());
+            job = importJobRepository.save(job);
+            Files.deleteIfExists(file);
+
+            logger.info("Importação {} concluída: {} registro(s), {} gravado(s), {} com erro",
+                    id, job.getProcessedRecords(), job.getSavedRecords(), job.getFailedRecords());
+        } catch (IOException | RuntimeException e) {
+            // Recarrega o progresso salvo no último bloco gravado
+            job = findJob(id);
+            logger.warn("Importação {} interrompida após {} registro(s): {}",
+                    id, job.getProcessedRecords(), e.getMessage());
+            job.setStatus(ImportJob.ImportStatus.FAILED);
+            job.setLastError(truncate(e.getMessage()));
+            job.setUpdatedAt(LocalDateTime.now());
+            job = importJobRepository.save(job);
+        }
+
+        if (job.getSavedRecords() > savedBefore) {
+            eventPublisher.publishEvent(new ReportDataChangedEvent(
+                    job.getTarget() == ImportJob.ImportTarget.BOOKS ? "books-imported" : "students-imported"));
+        }
+        return job;
+    }
+
+    /**
+     * Lê os registros, pulando os já processados, e grava em blocos
+     * O progresso é salvo depois de cada bloco
+     */
+    private <T> ImportJob importRecords(ImportJob job, RecordSource source, CountingInputStream in, Class<T> type,
+                                        Function<List<T>, BatchIngestionService.BatchResult<T>> ingest)
+            throws IOException {
+        List<Map<String, Object>> errors = readErrors(job);
+        long skip = job.getProcessedRecords();
+        long recordNumber = 0;
+
+        List<T> valid = new ArrayList<>();
+        List<Map<String, Object>> chunkErrors = new ArrayList<>();
+        int chunkRecords = 0;
+
+        Object raw;
+        while ((raw = source.next()) != null) {
+            recordNumber++;
+            if (recordNumber <= skip) {
+                continue;
+            }
+            chunkRecords++;
+
+            T item = toItem(raw, type, recordNumber, chunkErrors);
+            if (item != null) {
+                valid.add(item);
+            }
+
+            if (chunkRecords == chunkSize) {
+                job = commitChunk(job, valid, chunkRecords, chunkErrors, errors, in, ingest);
+                valid.clear();
+                chunkErrors.clear();
+                chunkRecords = 0;
+            }
+        }
+        if (chunkRecords > 0) {
+            job = commitChunk(job, valid, chunkRecords, chunkErrors, errors, in, ingest);
+        }
+        return job;
+    }
+
+    /**
+     * Converte e valida um registro; em caso de erro, registra e devolve null
+     */
+    private <T> T toItem(Object raw, Class<T> type, long recordNumber, List<Map<String, Object>> chunkErrors) {
+        T item;
+        try {
+            item = objectMapper.convertValue(raw, type);
+        } catch (IllegalArgumentException e) {
+            chunkErrors.add(recordError(recordNumber, "Registro inválido: " + e.getMessage()));
+            return null;
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            chunkErrors.add(recordError(recordNumber, message));
+            return null;
+        }
+        return item;
+    }
+
+    private <T> ImportJob commitChunk(ImportJob job, List<T> valid, int chunkRecords,
+                                      List<Map<String, Object>> chunkErrors, List<Map<String, Object>> errors,
+                                      CountingInputStream in,
+                                      Function<List<T>, BatchIngestionService.BatchResult<T>> ingest) {
+        long saved = 0;
+        List<Map<String, Object>> newErrors = new ArrayList<>(chunkErrors);
+        if (!valid.isEmpty()) {
+            BatchIngestionService.BatchResult<T> result = ingest.apply(new ArrayList<>(valid));
+            saved = result.getSaved().size();
+            newErrors.addAll(result.getErrors().stream()
+                    .map(error -> new LinkedHashMap<String, Object>(error))
+                    .toList());
+        }
+
+        for (Map<String, Object> error : newErrors) {
+            if (errors.size() >= maxReportedErrors) {
+                break;
+            }
+            errors.add(error);
+        }
+
+        job.setProcessedRecords(job.getProcessedRecords() + chunkRecords);
+        job.setSavedRecords(job.getSavedRecords() + saved);
+        job.setFailedRecords(job.getFailedRecords() + newErrors.size());
+        job.setBytesProcessed(Math.min(in.getCount(), job.getFileSize()));
+        job.setErrorSample(writeErrors(errors));
+        job.setUpdatedAt(LocalDateTime.now());
+        return importJobRepository.save(job);
+    }
+
+    /**
+     * Fonte de registros brutos (JsonNode ou mapa de campos do CSV)
+     */
+    private interface RecordSource {
+        /** @return próximo registro, ou null no fim do arquivo */
+        Object next() throws IOException;
+    }
+
+    private RecordSource openSource(ImportJob.ImportFormat format, InputStream in) throws IOException {
+        if (format == ImportJob.ImportFormat.CSV) {
+            CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return reader::next;
+        }
+        // Array de objetos na raiz ou um objeto por linha (NDJSON)
+        MappingIterator<JsonNode> iterator = objectMapper.readerFor(JsonNode.class).readValues(in);
+        return () -> iterator.hasNextValue() ? iterator.nextValue() : null;
+    }
+
+    private ImportJob.ImportFormat resolveFormat(String format, String fileName) {
+        String value = format;
+        if ((value == null || value.isBlank()) && fileName != null) {
+            String name = fileName.toLowerCase();
+            if (name.endsWith(".csv")) {
+                value = "csv";
+            } else if (name.endsWith(".json") || name.endsWith(".ndjson")) {
+                value = "json";
+            }
+        }
+        if (value == null || value.isBlank()) {
+            throw new RuntimeException("Formato não identificado. Informe format=csv ou format=json");
+        }
+        try {
+            return ImportJob.ImportFormat.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Formato inválido. Use csv ou json");
+        }
+    }
+
+    private Map<String, Object> recordError(long recordNumber, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("record", recordNumber);
+        error.put("message", message);
+        return error;
+    }
+
+    private List<Map<String, Object>> readErrors(ImportJob job) {
+        if (job.getErrorSample() == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(job.getErrorSample(), new TypeReference<List<Map<String, Object>>>() {
+            });
+        } catch (JsonProcessingException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private String writeErrors(List<Map<String, Object>> errors) {
+        try {
+            return objectMapper.writeValueAsString(errors);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return "Erro desconhecido";
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    /**
+     * Conta os bytes lidos do arquivo (progresso da importação)
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
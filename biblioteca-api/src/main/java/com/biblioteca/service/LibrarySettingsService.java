@@ -1,26 +1,58 @@
 package com.biblioteca.service;
 
+import com.biblioteca.event.ReportDataChangedEvent;
 import com.biblioteca.model.LibrarySettings;
 import com.biblioteca.repository.LibrarySettingsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Serviço responsável pela gestão das configurações gerais da biblioteca.
  * Define e atualiza políticas como prazos de empréstimo,
  * limites de livros por usuário e demais parâmetros administrativos.
+ *
+ * <p>As configurações ficam em cache como uma cópia imutável
+ * ({@link SettingsSnapshot}): as leituras não vão ao banco, e
+ * {@link #updateSettings} grava e troca a cópia atomicamente. Alterações
+ * feitas direto na tabela só aparecem depois de {@link #invalidate()}.</p>
+ *
+ * <p>Dentro de uma transação de escrita, a cópia gravada ou lida do banco
+ * fica presa à transação e só passa para o cache após o commit: as demais
+ * threads continuam vendo o valor confirmado, e um rollback não deixa
+ * nada no cache.</p>
  */
 
 @Service
 public class LibrarySettingsService {
 
   private final LibrarySettingsRepository settingsRepository;
+  private final ApplicationEventPublisher eventPublisher;
   private static final Long SETTINGS_ID = 1L;
 
+  private final AtomicReference<SettingsSnapshot> cache = new AtomicReference<>();
+  private final AtomicLong versions = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+  // Chave da cópia presa à transação corrente (ver bindToTransaction)
+  private final Object transactionKey = new Object();
+
   @Autowired
-  public LibrarySettingsService(LibrarySettingsRepository settingsRepository) {
+  public LibrarySettingsService(LibrarySettingsRepository settingsRepository,
+      ApplicationEventPublisher eventPublisher) {
     this.settingsRepository = settingsRepository;
+    this.eventPublisher = eventPublisher;
     // Garantir que as configurações padrão existam
     initializeDefaultSettings();
   }
@@ -40,52 +72,222 @@ public class LibrarySettingsService {
     }
   }
 
+  /**
+   * Obtém a cópia atual das configurações, carregando do banco apenas na
+   * primeira chamada ou após uma invalidação
+   */
+  public SettingsSnapshot getSnapshot() {
+    SettingsSnapshot current = transactionSnapshot();
+    if (current == null) {
+      current = cache.get();
+    }
+    if (current != null) {
+      hits.increment();
+      return current;
+    }
+    misses.increment();
+    SettingsSnapshot loaded = new SettingsSnapshot(versions.incrementAndGet(), loadSettings());
+    if (inWriteTransaction()) {
+      // A leitura pode enxergar alterações ainda não confirmadas
+      bindToTransaction(loaded, false);
+      return loaded;
+    }
+    // Se outra thread carregou ao mesmo tempo, fica a cópia dela
+    return cache.compareAndSet(null, loaded) ? loaded : getSnapshot();
+  }
+
   /**
    * Obtém as configurações atuais
+   * Retorna uma entidade nova a cada chamada; alterá-la não afeta o cache
    */
   public LibrarySettings getSettings() {
-    return settingsRepository.findById(SETTINGS_ID)
-        .orElseGet(() -> {
-          // Se não existir, criar com valores padrão
-          LibrarySettings defaultSettings = new LibrarySettings();
-          defaultSettings.setId(SETTINGS_ID);
-          defaultSettings.setLoanPeriodDays(14);
-          defaultSettings.setMaxLoansPerStudent(3);
-          defaultSettings.setFinePerDay(100);
-          return settingsRepository.save(defaultSettings);
-        });
+    return getSnapshot().toEntity();
   }
 
   /**
    * Atualiza as configurações
+   * A nova cópia vale de imediato na própria transação e passa para o cache
+   * após o commit; se a transação for desfeita, o cache não muda.
+   * Mudar o limite de reservas por livro muda quais filas contam como
+   * cheias nos relatórios, que são avisados para recalcular
    */
   @Transactional
   public LibrarySettings updateSettings(LibrarySettings newSettings) {
-    LibrarySettings currentSettings = getSettings();
+    LibrarySettings currentSettings = loadSettings();
+    Integer reservationsBefore = currentSettings.getMaxReservationsPerBook();
     currentSettings.setLoanPeriodDays(newSettings.getLoanPeriodDays());
     currentSettings.setMaxLoansPerStudent(newSettings.getMaxLoansPerStudent());
     currentSettings.setFinePerDay(newSettings.getFinePerDay());
-    return settingsRepository.save(currentSettings);
+    // Campo mais novo, que nem todo cliente envia: ausente, mantém o atual
+    if (newSettings.getMaxReservationsPerBook() != null) {
+      currentSettings.setMaxReservationsPerBook(newSettings.getMaxReservationsPerBook());
+    }
+    LibrarySettings saved = settingsRepository.save(currentSettings);
+
+    SettingsSnapshot updated = new SettingsSnapshot(versions.incrementAndGet(), saved);
+    if (inWriteTransaction()) {
+      bindToTransaction(updated, true);
+    } else {
+      cache.set(updated);
+    }
+    if (!Objects.equals(reservationsBefore, saved.getMaxReservationsPerBook())) {
+      eventPublisher.publishEvent(new ReportDataChangedEvent("settings-updated"));
+    }
+    return saved;
+  }
+
+  /**
+   * Descarta a cópia em cache (e a da transação corrente); a próxima
+   * leitura recarrega do banco
+   */
+  public void invalidate() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      PendingSnapshot pending = (PendingSnapshot) TransactionSynchronizationManager.getResource(transactionKey);
+      if (pending != null) {
+        pending.snapshot = null;
+      }
+    }
+    if (cache.getAndSet(null) != null) {
+      invalidations.increment();
+    }
   }
 
   /**
    * Obtém o prazo de devolução em dias
    */
   public Integer getLoanPeriodDays() {
-    return getSettings().getLoanPeriodDays();
+    return getSnapshot().getLoanPeriodDays();
   }
 
   /**
    * Obtém o limite máximo de empréstimos por aluno
    */
   public Integer getMaxLoansPerStudent() {
-    return getSettings().getMaxLoansPerStudent();
+    return getSnapshot().getMaxLoansPerStudent();
   }
 
   /**
    * Obtém a multa por dia de atraso
    */
   public Integer getFinePerDay() {
-    return getSettings().getFinePerDay();
+    return getSnapshot().getFinePerDay();
+  }
+
+  /**
+   * Obtém a capacidade padrão da fila de reservas de cada livro
+   */
+  public Integer getMaxReservationsPerBook() {
+    return getSnapshot().getMaxReservationsPerBook();
+  }
+
+  /**
+   * Obtém a capacidade efetiva da fila de um livro: a própria, se definida,
+   * ou o limite padrão da biblioteca
+   */
+  public int getReservationCapacity(Integer bookCapacity) {
+    return bookCapacity != null ? bookCapacity : getMaxReservationsPerBook();
+  }
+
+  /**
+   * Métricas do cache de configurações (acertos, faltas, versão atual)
+   */
+  public Map<String, Object> getCacheMetrics() {
+    long hitCount = hits.sum();
+    long missCount = misses.sum();
+    SettingsSnapshot current = cache.get();
+
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("hits", hitCount);
+    metrics.put("misses", missCount);
+    metrics.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+    metrics.put("invalidations", invalidations.sum());
+    metrics.put("cached", current != null);
+    metrics.put("version", current != null ? current.getVersion() : null);
+    metrics.put("loadedAt", current != null ? current.getLoadedAt() : null);
+    return metrics;
+  }
+
+  /**
+   * Transação de escrita em andamento: o que ela lê ou grava só vale para
+   * as demais threads depois do commit
+   */
+  private boolean inWriteTransaction() {
+    return TransactionSynchronizationManager.isSynchronizationActive()
+        && TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  /**
+   * Cópia presa à transação corrente, se houver
+   */
+  private SettingsSnapshot transactionSnapshot() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return null;
+    }
+    PendingSnapshot pending = (PendingSnapshot) TransactionSynchronizationManager.getResource(transactionKey);
+    return pending != null ? pending.snapshot : null;
+  }
+
+  /**
+   * Prende a cópia à transação corrente e a publica no cache após o commit.
+   * Uma atualização substitui o cache; uma leitura só o preenche se estiver
+   * vazio (não sobrescreve uma atualização confirmada nesse meio-tempo).
+   */
+  private void bindToTransaction(SettingsSnapshot snapshot, boolean update) {
+    PendingSnapshot pending = (PendingSnapshot) TransactionSynchronizationManager.getResource(transactionKey);
+    if (pending != null) {
+      pending.snapshot = snapshot;
+      pending.update |= update;
+      return;
+    }
+    PendingSnapshot bound = new PendingSnapshot(snapshot, update);
+    TransactionSynchronizationManager.bindResource(transactionKey, bound);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        if (bound.snapshot == null) {
+          return;
+        }
+        if (bound.update) {
+          cache.set(bound.snapshot);
+        } else {
+          cache.compareAndSet(null, bound.snapshot);
+        }
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+      }
+    });
+  }
+
+  /**
+   * Cópia ainda não confirmada de uma transação (usada só pela própria thread)
+   */
+  private static final class PendingSnapshot {
+    private SettingsSnapshot snapshot;
+    private boolean update;
+
+    private PendingSnapshot(SettingsSnapshot snapshot, boolean update) {
+      this.snapshot = snapshot;
+      this.update = update;
+    }
+  }
+
+  /**
+   * Lê as configurações do banco, criando a linha padrão se não existir
+   */
+  private LibrarySettings loadSettings() {
+    return settingsRepository.findById(SETTINGS_ID)
+        .orElseGet(() -> {
+          // Se não existir, criar com valores padrão
+          LibrarySettings defaultSettings = new LibrarySettings();
+          defaultSettings.setId(SETTINGS_ID);
+          defaultSettings.setLoanPeriodDays(14);
+          defaultSettings.setMaxLoansPerStudent(3);
+          defaultSettings.setFinePerDay(100);
+          return settingsRepository.save(defaultSettings);
+        });
   }
 }
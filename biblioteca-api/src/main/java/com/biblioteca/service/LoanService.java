@@ -1,8 +1,13 @@
 package com.biblioteca.service;
 
+import com.biblioteca.dto.CursorPageDTO;
 import com.biblioteca.dto.LoanRequestDTO;
 import com.biblioteca.dto.LoanResponseDTO;
 import com.biblioteca.dto.LoanReturnDTO;
+import com.biblioteca.event.BookStockChange;
+import com.biblioteca.event.LoanOpenedEvent;
+import com.biblioteca.event.LoanReturnedEvent;
+import com.biblioteca.event.ReportDataChangedEvent;
 import com.biblioteca.model.Book;
 import com.biblioteca.model.Loan;
 import com.biblioteca.model.Student;
@@ -10,17 +15,25 @@ import com.biblioteca.repository.BookRepository;
 import com.biblioteca.repository.LoanRepository;
 import com.biblioteca.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Serviço responsável pela lógica de empréstimos de livros.
  * Realiza operações como criação de empréstimos, validação de regras,
  * renovação, devolução e emissão de notificações de atraso.
+ *
+ * Empréstimo e devolução rodam com os bloqueios em memória do livro e do
+ * aluno (StripedLockManager) adquiridos antes de abrir a transação e
+ * liberados depois do commit.
  */
 
 @Service
@@ -30,16 +43,31 @@ public class LoanService {
         private final BookRepository bookRepository;
         private final StudentRepository studentRepository;
         private final LibrarySettingsService settingsService;
+        private final ApplicationEventPublisher eventPublisher;
+        private final StripedLockManager lockManager;
+        private final EntityCache entityCache;
+        private final BookAvailabilityService availabilityService;
+        private final TransactionTemplate transaction;
 
         @Autowired
         public LoanService(LoanRepository loanRepository,
                         BookRepository bookRepository,
                         StudentRepository studentRepository,
-                        LibrarySettingsService settingsService) {
+                        LibrarySettingsService settingsService,
+                        ApplicationEventPublisher eventPublisher,
+                        StripedLockManager lockManager,
+                        EntityCache entityCache,
+                        BookAvailabilityService availabilityService,
+                        PlatformTransactionManager transactionManager) {
                 this.loanRepository = loanRepository;
                 this.bookRepository = bookRepository;
                 this.studentRepository = studentRepository;
                 this.settingsService = settingsService;
+                this.eventPublisher = eventPublisher;
+                this.lockManager = lockManager;
+                this.entityCache = entityCache;
+                this.availabilityService = availabilityService;
+                this.transaction = new TransactionTemplate(transactionManager);
         }
 
         /**
@@ -58,7 +86,19 @@ public class LoanService {
          */
         @Transactional
         public boolean updateLoanStatus(Loan loan) {
-                LocalDateTime now = LocalDateTime.now();
+                return updateLoanStatus(loan, LocalDateTime.now(), null);
+        }
+
+        /**
+         * Aplica as regras de status a um único empréstimo.
+         * 
+         * @param loan       Empréstimo a ser atualizado
+         * @param now        Data/hora de referência
+         * @param finePerDay Multa por dia já lida das configurações, ou null para
+         *                   ler apenas se necessário
+         * @return true se o status foi alterado, false caso contrário
+         */
+        private boolean updateLoanStatus(Loan loan, LocalDateTime now, Integer finePerDay) {
                 Loan.LoanStatus currentStatus = loan.getStatus();
                 Loan.LoanStatus newStatus;
 
@@ -77,7 +117,9 @@ public class LoanService {
                                 loan.setOverdueDays((int) daysDifference);
 
                                 // Calcular valor da multa: dias de atraso * multa por dia (das configurações)
-                                Integer finePerDay = settingsService.getFinePerDay();
+                                if (finePerDay == null) {
+                                        finePerDay = settingsService.getFinePerDay();
+                                }
                                 loan.setFineAmount((int) daysDifference * finePerDay);
 
                                 // Se ainda não tem status de multa definido, definir como pendente
@@ -110,7 +152,9 @@ public class LoanService {
                         if (daysDifference > 0
                                         && (loan.getOverdueDays() == null || loan.getOverdueDays() != daysDifference)) {
                                 loan.setOverdueDays((int) daysDifference);
-                                Integer finePerDay = settingsService.getFinePerDay();
+                                if (finePerDay == null) {
+                                        finePerDay = settingsService.getFinePerDay();
+                                }
                                 loan.setFineAmount((int) daysDifference * finePerDay);
 
                                 // Se ainda não tem status de multa definido, definir como pendente
@@ -125,23 +169,106 @@ public class LoanService {
         }
 
         /**
-         * Atualiza o status de uma lista de empréstimos
+         * Atualiza o status de uma lista de empréstimos já carregados, um a um.
+         * As configurações de multa são lidas uma única vez para toda a lista.
+         * 
+         * Para atualizar a tabela inteira, prefira {@link #refreshOverdueStatuses()},
+         * que faz o mesmo trabalho direto no banco sem carregar entidades.
          */
         @Transactional
         public void updateLoansStatus(List<Loan> loans) {
+                if (loans.isEmpty()) {
+                        return;
+                }
+                LocalDateTime now = LocalDateTime.now();
+                Integer finePerDay = settingsService.getFinePerDay();
                 for (Loan loan : loans) {
-                        updateLoanStatus(loan);
+                        updateLoanStatus(loan, now, finePerDay);
                 }
         }
 
+        /**
+         * Motor de status em lote: aplica as mesmas regras de
+         * {@link #updateLoanStatus(Loan)} a todos os empréstimos com algumas poucas
+         * instruções UPDATE, sem carregar entidades. Dias de atraso e multa são
+         * calculados pelo próprio banco.
+         * 
+         * Entidades de Loan já carregadas no contexto de persistência ficam
+         * desatualizadas e são descartadas (o contexto é limpo após cada UPDATE).
+         * 
+         * @return quantidade de empréstimos que passaram para OVERDUE
+         */
+        @Transactional
+        public int refreshOverdueStatuses() {
+                LocalDateTime now = LocalDateTime.now();
+                Integer finePerDay = settingsService.getFinePerDay();
+
+                loanRepository.markReturnedLoans(Loan.LoanStatus.RETURNED);
+                int newlyOverdue = loanRepository.markOverdueLoans(now,
+                                Loan.LoanStatus.ACTIVE, Loan.LoanStatus.OVERDUE);
+                loanRepository.reactivateLoansNotYetDue(now,
+                                Loan.LoanStatus.ACTIVE, Loan.LoanStatus.OVERDUE);
+                loanRepository.recalculateOverdueFines(now, now.minusDays(1), finePerDay,
+                                Loan.LoanStatus.OVERDUE, Loan.FineStatus.PENDING);
+                return newlyOverdue;
+        }
+
+        /**
+         * Aplica ao DTO o status calculado a partir das datas no momento da leitura,
+         * com dias de atraso e multa, sem gravar nada no banco.
+         * Segue as mesmas regras de {@link #updateLoanStatus(Loan)}.
+         * 
+         * @param dto        DTO montado a partir dos dados gravados
+         * @param now        Data/hora de referência
+         * @param finePerDay Multa por dia (das configurações)
+         * @return o próprio DTO
+         */
+        public LoanResponseDTO applyEffectiveStatus(LoanResponseDTO dto, LocalDateTime now, Integer finePerDay) {
+                if (dto.getReturnDate() != null) {
+                        dto.setStatus(Loan.LoanStatus.RETURNED);
+                } else if (dto.getDueDate().isBefore(now)) {
+                        dto.setStatus(Loan.LoanStatus.OVERDUE);
+                        long daysDifference = java.time.Duration.between(dto.getDueDate(), now).toDays();
+                        if (daysDifference > 0) {
+                                dto.setOverdueDays((int) daysDifference);
+                                dto.setFineAmount((int) daysDifference * finePerDay);
+                                if (dto.getFineStatus() == null) {
+                                        dto.setFineStatus(Loan.FineStatus.PENDING);
+                                }
+                        }
+                } else {
+                        if (dto.getStatus() == Loan.LoanStatus.OVERDUE) {
+                                dto.setOverdueDays(0);
+                                dto.setFineAmount(0);
+                                dto.setFineStatus(null);
+                        }
+                        dto.setStatus(Loan.LoanStatus.ACTIVE);
+                }
+                return dto;
+        }
+
+        /**
+         * Aplica o status calculado na leitura aos DTOs projetados pelo banco.
+         * As configurações de multa são lidas uma única vez.
+         */
+        private List<LoanResponseDTO> withEffectiveStatus(List<LoanResponseDTO> rows, LocalDateTime now) {
+                if (rows.isEmpty()) {
+                        return rows;
+                }
+                Integer finePerDay = settingsService.getFinePerDay();
+                for (LoanResponseDTO row : rows) {
+                        applyEffectiveStatus(row, now, finePerDay);
+                }
+                return rows;
+        }
+
         /** Busca um empréstimo por id */
         @Transactional(readOnly = true)
         public LoanResponseDTO getLoanById(Long loanId) {
-                Loan loan = loanRepository.findById(loanId)
+                LoanResponseDTO loan = loanRepository.findResponseById(loanId)
                                 .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado"));
-                // garantir status atualizado na leitura
-                updateLoanStatus(loan);
-                return LoanResponseDTO.fromEntity(loan);
+                // status calculado na leitura, sem gravar
+                return applyEffectiveStatus(loan, LocalDateTime.now(), settingsService.getFinePerDay());
         }
 
         /**
@@ -152,41 +279,36 @@ public class LoanService {
         public void deleteLoan(Long loanId) {
                 Loan loan = loanRepository.findById(loanId)
                                 .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado"));
-                if (loan.getReturnDate() == null) {
-                        // devolução implícita do exemplar ao estoque
-                        Book book = loan.getBook();
-                        book.setQuantity(book.getQuantity() + 1);
-                        bookRepository.save(book);
-                }
+                String bookIsbn = loan.getBook().getIsbn();
+                boolean returnsCopy = loan.getReturnDate() == null;
                 loanRepository.delete(loan);
+                if (returnsCopy) {
+                        // devolução implícita do exemplar ao estoque (UPDATE atômico)
+                        bookRepository.incrementQuantity(bookIsbn);
+                        entityCache.evictBook(bookIsbn);
+                }
+                eventPublisher.publishEvent(ReportDataChangedEvent.forBook("loan-deleted", bookIsbn));
         }
 
         /**
-         * Verifica disponibilidade de livro antes de emprestar
+         * Verifica disponibilidade de livro antes de emprestar (cópia em memória)
          */
         public boolean isBookAvailable(String isbn) {
-                Book book = bookRepository.findById(isbn)
-                                .orElseThrow(() -> new RuntimeException("Livro não encontrado"));
-                return book.getQuantity() > 0;
+                return availabilityService.isAvailable(isbn);
         }
 
         /**
          * Verifica se o aluno pode fazer mais empréstimos
-         * Atualiza status automaticamente antes de verificar
+         * Conta apenas os empréstimos em aberto do aluno (consulta indexada por
+         * matrícula e status)
          */
+        @Transactional(readOnly = true)
         public boolean canStudentBorrow(String matricula) {
                 // Verificar se o aluno existe
-                if (!studentRepository.existsById(matricula)) {
+                if (entityCache.findStudent(matricula).isEmpty()) {
                         throw new RuntimeException("Aluno não encontrado");
                 }
 
-                // Atualizar status dos empréstimos do aluno antes de contar
-                List<Loan> studentLoans = loanRepository.findAll().stream()
-                                .filter(loan -> loan.getStudent().getMatricula().equals(matricula)
-                                                && loan.getReturnDate() == null)
-                                .collect(Collectors.toList());
-                updateLoansStatus(studentLoans);
-
                 Integer maxLoans = settingsService.getMaxLoansPerStudent();
                 Long activeLoansCount = studentRepository.countActiveLoansByMatricula(matricula);
                 return activeLoansCount < maxLoans;
@@ -195,10 +317,16 @@ public class LoanService {
         /**
          * Registra novo empréstimo de livro
          */
-        @Transactional
         public LoanResponseDTO createLoan(LoanRequestDTO request) {
-                // Verificar disponibilidade do livro
-                Book book = bookRepository.findById(request.getBookIsbn())
+                return lockManager.withLocks(() -> transaction.execute(status -> doCreateLoan(request)),
+                                StripedLockManager.bookKey(request.getBookIsbn()),
+                                StripedLockManager.studentKey(request.getStudentMatricula()));
+        }
+
+        private LoanResponseDTO doCreateLoan(LoanRequestDTO request) {
+                // Verificar disponibilidade do livro (cópia do cache; o estoque é
+                // conferido de novo pelo UPDATE condicional abaixo)
+                Book book = entityCache.findBook(request.getBookIsbn())
                                 .orElseThrow(() -> new RuntimeException("Livro não encontrado"));
 
                 if (book.getQuantity() <= 0) {
@@ -206,17 +334,14 @@ public class LoanService {
                 }
 
                 // Verificar limite de empréstimos do aluno
-                Student student = studentRepository.findById(request.getStudentMatricula())
+                Student student = entityCache.findStudent(request.getStudentMatricula())
                                 .orElseThrow(() -> new RuntimeException("Aluno não encontrado"));
 
-                // Atualizar status dos empréstimos do aluno antes de verificar limite
-                List<Loan> studentLoans = loanRepository.findAll().stream()
-                                .filter(loan -> loan.getStudent().getMatricula().equals(request.getStudentMatricula())
-                                                && loan.getReturnDate() == null)
-                                .collect(Collectors.toList());
-                updateLoansStatus(studentLoans);
-
-                Integer maxLoans = settingsService.getMaxLoansPerStudent();
+                // Uma única cópia das configurações para todo o cadastro
+                SettingsSnapshot settings = settingsService.getSnapshot();
+                int maxLoans = settings.getMaxLoansPerStudent();
+                // ACTIVE e OVERDUE contam igual: não é preciso atualizar o status
+                // dos empréstimos do aluno antes (isso fica com o agendador)
                 Long activeLoansCount = studentRepository.countActiveLoansByMatricula(request.getStudentMatricula());
                 if (activeLoansCount >= maxLoans) {
                         throw new RuntimeException(
@@ -224,7 +349,7 @@ public class LoanService {
                 }
 
                 // Obter prazo de devolução das configurações
-                Integer loanPeriodDays = settingsService.getLoanPeriodDays();
+                int loanPeriodDays = settings.getLoanPeriodDays();
 
                 // Definir data de empréstimo (usa a fornecida ou a atual)
                 LocalDateTime loanDateTime = request.getLoanDate() != null
@@ -236,19 +361,29 @@ public class LoanService {
 
                 // Criar empréstimo
                 Loan loan = new Loan();
-                loan.setStudent(student);
-                loan.setBook(book);
+                // Associações por referência: livro e aluno já foram lidos do cache
+                loan.setStudent(studentRepository.getReferenceById(student.getMatricula()));
+                loan.setBook(bookRepository.getReferenceById(book.getIsbn()));
                 loan.setLoanDate(loanDateTime);
                 loan.setDueDate(dueDateTime);
                 loan.setStatus(Loan.LoanStatus.ACTIVE);
 
                 Loan savedLoan = loanRepository.save(loan);
+                LoanResponseDTO response = LoanResponseDTO.fromEntity(savedLoan, book, student);
 
-                // Atualizar estoque do livro
-                book.setQuantity(book.getQuantity() - 1);
-                bookRepository.save(book);
+                // Retirar o exemplar do estoque com um UPDATE condicional: se um
+                // checkout simultâneo levou o último exemplar, nada é alterado e o
+                // empréstimo é desfeito junto com a transação
+                if (bookRepository.decrementQuantityIfAvailable(request.getBookIsbn()) == 0) {
+                        throw new RuntimeException("Livro não disponível para empréstimo");
+                }
+                entityCache.evictBook(request.getBookIsbn());
+                BookStockChange stock = stockChange(request.getBookIsbn(), -1);
+                response.setQuantity(stock.getQuantityAfter());
 
-                return LoanResponseDTO.fromEntity(savedLoan);
+                eventPublisher.publishEvent(new LoanOpenedEvent(request.getStudentMatricula(), dueDateTime, stock));
+
+                return response;
         }
 
         /**
@@ -260,8 +395,14 @@ public class LoanService {
          *                  returnDate, usa data atual
          * @return DTO com os dados do empréstimo atualizado
          */
-        @Transactional
         public LoanResponseDTO returnLoan(Long loanId, LoanReturnDTO returnDTO) {
+                LoanRepository.LoanKeys keys = loanRepository.findKeysById(loanId).orElse(null);
+                return lockManager.withLocks(() -> transaction.execute(status -> doReturnLoan(loanId, returnDTO)),
+                                keys != null ? StripedLockManager.bookKey(keys.getBookIsbn()) : null,
+                                keys != null ? StripedLockManager.studentKey(keys.getStudentMatricula()) : null);
+        }
+
+        private LoanResponseDTO doReturnLoan(Long loanId, LoanReturnDTO returnDTO) {
                 Loan loan = loanRepository.findById(loanId)
                                 .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado"));
 
@@ -302,147 +443,137 @@ public class LoanService {
                         loan.setFineStatus(null);
                 }
 
-                // Atualizar estoque do livro
-                Book book = loan.getBook();
-                book.setQuantity(book.getQuantity() + 1);
-                bookRepository.save(book);
-
                 Loan savedLoan = loanRepository.save(loan);
 
                 // Garantir que o status está correto após salvar
                 updateLoanStatus(savedLoan);
+                LoanResponseDTO response = LoanResponseDTO.fromEntity(savedLoan);
 
-                return LoanResponseDTO.fromEntity(savedLoan);
+                // Devolver o exemplar ao estoque (UPDATE atômico; por último, pois
+                // limpa o contexto de persistência)
+                String bookIsbn = savedLoan.getBook().getIsbn();
+                bookRepository.incrementQuantity(bookIsbn);
+                entityCache.evictBook(bookIsbn);
+                BookStockChange stock = stockChange(bookIsbn, 1);
+                response.setQuantity(stock.getQuantityAfter());
+
+                eventPublisher.publishEvent(new LoanReturnedEvent(response.getStudentMatricula(),
+                                response.getLoanDate(), response.getDueDate(), response.getReturnDate(),
+                                response.getOverdueDays(), response.getFineAmount(), stock));
+
+                return response;
+        }
+
+        /**
+         * Estoque e fila de reservas do livro lidos do banco logo após o UPDATE
+         * atômico, com a quantidade anterior derivada da variação aplicada
+         * (sem depender de uma cópia da entidade lida antes da alteração)
+         */
+        private BookStockChange stockChange(String isbn, int quantityDelta) {
+                BookRepository.StockLevel level = bookRepository.findStockLevel(isbn)
+                                .orElseThrow(() -> new RuntimeException("Livro não encontrado"));
+                return new BookStockChange(isbn, level.getQuantity() - quantityDelta,
+                                level.getActiveReservationsCount(),
+                                level.getQuantity(), level.getActiveReservationsCount(),
+                                settingsService.getReservationCapacity(level.getReservationCapacity()));
         }
 
         /**
          * Gera relatório de empréstimos ativos
-         * Atualiza status automaticamente antes de retornar
+         * Status calculado a partir das datas, sem gravar no banco
          */
+        @Transactional(readOnly = true)
         public List<LoanResponseDTO> getActiveLoans() {
-                // Buscar todos os empréstimos que não foram devolvidos
-                List<Loan> allLoans = loanRepository.findAll();
-                updateLoansStatus(allLoans);
-
-                // Filtrar apenas os que estão ativos após atualização
-                List<Loan> activeLoans = allLoans.stream()
-                                .filter(loan -> loan.getStatus() == Loan.LoanStatus.ACTIVE)
-                                .collect(Collectors.toList());
-
-                return activeLoans.stream()
-                                .map(LoanResponseDTO::fromEntity)
-                                .collect(Collectors.toList());
+                LocalDateTime now = LocalDateTime.now();
+                return withEffectiveStatus(loanRepository.findActiveResponses(now), now);
         }
 
         /**
          * Obtém empréstimos ativos de um aluno
-         * Atualiza status automaticamente antes de retornar
+         * Status calculado a partir das datas, sem gravar no banco
          */
+        @Transactional(readOnly = true)
         public List<LoanResponseDTO> getActiveLoansByStudent(String matricula) {
-                // Buscar todos os empréstimos do aluno que não foram devolvidos
-                List<Loan> studentLoans = loanRepository.findAll().stream()
-                                .filter(loan -> loan.getStudent().getMatricula().equals(matricula)
-                                                && loan.getReturnDate() == null)
-                                .collect(Collectors.toList());
-
-                updateLoansStatus(studentLoans);
-
-                // Filtrar apenas os que estão ativos após atualização
-                List<Loan> activeLoans = studentLoans.stream()
-                                .filter(loan -> loan.getStatus() == Loan.LoanStatus.ACTIVE)
-                                .collect(Collectors.toList());
-
-                return activeLoans.stream()
-                                .map(LoanResponseDTO::fromEntity)
-                                .collect(Collectors.toList());
+                LocalDateTime now = LocalDateTime.now();
+                return withEffectiveStatus(loanRepository.findActiveResponsesByMatricula(matricula, now), now);
         }
 
         /**
          * Verifica e atualiza empréstimos em atraso
-         * Atualiza status automaticamente de todos os empréstimos
+         * Grava os status de todos os empréstimos direto no banco e retorna os
+         * que estão em atraso
          */
         @Transactional
         public List<LoanResponseDTO> checkAndUpdateOverdueLoans() {
-                // Buscar todos os empréstimos não devolvidos
-                List<Loan> allLoans = loanRepository.findAll().stream()
-                                .filter(loan -> loan.getReturnDate() == null)
-                                .collect(Collectors.toList());
-
-                // Atualizar status de todos
-                updateLoansStatus(allLoans);
-
-                // Filtrar apenas os que estão em atraso
-                List<Loan> overdueLoans = allLoans.stream()
-                                .filter(loan -> loan.getStatus() == Loan.LoanStatus.OVERDUE)
-                                .collect(Collectors.toList());
-
-                return overdueLoans.stream()
-                                .map(LoanResponseDTO::fromEntity)
-                                .collect(Collectors.toList());
+                refreshOverdueStatuses();
+
+                LocalDateTime now = LocalDateTime.now();
+                return withEffectiveStatus(loanRepository.findOverdueResponses(now), now);
         }
 
         /**
          * Obtém todos os empréstimos
-         * Atualiza status automaticamente antes de retornar
+         * Status calculado a partir das datas, sem gravar no banco
          */
+        @Transactional(readOnly = true)
         public List<LoanResponseDTO> getAllLoans() {
-                List<Loan> loans = loanRepository.findAll();
-                updateLoansStatus(loans);
-                return loans.stream()
-                                .map(LoanResponseDTO::fromEntity)
-                                .collect(Collectors.toList());
+                return withEffectiveStatus(loanRepository.findAllResponses(), LocalDateTime.now());
         }
 
         /**
-         * Obtém apenas empréstimos com status OVERDUE
-         * Atualiza status automaticamente antes de retornar
+         * Lista empréstimos paginados por cursor (id), em ordem de id
+         * Status calculado a partir das datas, sem gravar no banco
+         * 
+         * @param after  último id da página anterior (null para a primeira página)
+         * @param size   tamanho da página (limitado a CursorPageDTO.MAX_PAGE_SIZE)
+         * @param status filtro opcional por status (ACTIVE, OVERDUE ou RETURNED)
          */
-        public List<LoanResponseDTO> getOverdueLoans() {
-                List<Loan> allLoans = loanRepository.findAll();
-                updateLoansStatus(allLoans);
+        @Transactional(readOnly = true)
+        public CursorPageDTO<LoanResponseDTO> getLoansPage(Long after, Integer size, Loan.LoanStatus status) {
+                int pageSize = CursorPageDTO.normalizeSize(size);
+                long cursor = after != null ? after : 0L;
+                Pageable limit = PageRequest.of(0, pageSize + 1);
+                LocalDateTime now = LocalDateTime.now();
 
-                List<Loan> overdueLoans = allLoans.stream()
-                                .filter(loan -> loan.getStatus() == Loan.LoanStatus.OVERDUE)
-                                .collect(Collectors.toList());
+                List<LoanResponseDTO> loans;
+                if (status == null) {
+                        loans = loanRepository.findResponsesPage(cursor, limit);
+                } else if (status == Loan.LoanStatus.ACTIVE) {
+                        loans = loanRepository.findActiveResponsesPage(cursor, now, limit);
+                } else if (status == Loan.LoanStatus.OVERDUE) {
+                        loans = loanRepository.findOverdueResponsesPage(cursor, now, limit);
+                } else {
+                        loans = loanRepository.findReturnedResponsesPage(cursor, limit);
+                }
 
-                return overdueLoans.stream()
-                                .map(LoanResponseDTO::fromEntity)
-                                .collect(Collectors.toList());
+                return CursorPageDTO.of(withEffectiveStatus(loans, now), pageSize, l -> String.valueOf(l.getId()));
         }
 
         /**
-         * Obtém apenas empréstimos com status RETURNED
-         * Atualiza status automaticamente antes de retornar
+         * Obtém apenas empréstimos em atraso (não devolvidos e com prazo vencido)
+         * Status calculado a partir das datas, sem gravar no banco
          */
-        public List<LoanResponseDTO> getReturnedLoans() {
-                List<Loan> allLoans = loanRepository.findAll();
-                updateLoansStatus(allLoans);
-
-                List<Loan> returnedLoans = allLoans.stream()
-                                .filter(loan -> loan.getStatus() == Loan.LoanStatus.RETURNED)
-                                .collect(Collectors.toList());
+        @Transactional(readOnly = true)
+        public List<LoanResponseDTO> getOverdueLoans() {
+                LocalDateTime now = LocalDateTime.now();
+                return withEffectiveStatus(loanRepository.findOverdueResponses(now), now);
+        }
 
-                return returnedLoans.stream()
-                                .map(LoanResponseDTO::fromEntity)
-                                .collect(Collectors.toList());
+        /**
+         * Obtém apenas empréstimos devolvidos
+         */
+        @Transactional(readOnly = true)
+        public List<LoanResponseDTO> getReturnedLoans() {
+                return withEffectiveStatus(loanRepository.findReturnedResponses(), LocalDateTime.now());
         }
 
         /**
-         * Obtém empréstimos com status ACTIVE e OVERDUE juntos
-         * Atualiza status automaticamente antes de retornar
+         * Obtém empréstimos ativos e em atraso juntos (todos os não devolvidos)
+         * Status calculado a partir das datas, sem gravar no banco
          */
+        @Transactional(readOnly = true)
         public List<LoanResponseDTO> getActiveAndOverdueLoans() {
-                List<Loan> allLoans = loanRepository.findAll();
-                updateLoansStatus(allLoans);
-
-                List<Loan> activeAndOverdueLoans = allLoans.stream()
-                                .filter(loan -> loan.getStatus() == Loan.LoanStatus.ACTIVE
-                                                || loan.getStatus() == Loan.LoanStatus.OVERDUE)
-                                .collect(Collectors.toList());
-
-                return activeAndOverdueLoans.stream()
-                                .map(LoanResponseDTO::fromEntity)
-                                .collect(Collectors.toList());
+                return withEffectiveStatus(loanRepository.findOpenResponses(), LocalDateTime.now());
         }
 
         /**
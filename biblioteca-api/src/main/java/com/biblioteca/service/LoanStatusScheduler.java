@@ -0,0 +1,42 @@
+package com.biblioteca.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tarefa agendada que grava periodicamente os status dos empréstimos
+ * (ACTIVE → OVERDUE, dias de atraso e multa).
+ *
+ * As leituras calculam o status a partir das datas e não gravam nada; esta
+ * tarefa mantém os valores persistidos em dia para relatórios e consultas
+ * que usam a coluna status.
+ */
+@Component
+@ConditionalOnProperty(name = "biblioteca.loans.status-refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class LoanStatusScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanStatusScheduler.class);
+
+    private final LoanService loanService;
+
+    @Autowired
+    public LoanStatusScheduler(LoanService loanService) {
+        this.loanService = loanService;
+    }
+
+    @Scheduled(cron = "${biblioteca.loans.status-refresh.cron:0 5 * * * *}")
+    public void refreshLoanStatuses() {
+        try {
+            int newlyOverdue = loanService.refreshOverdueStatuses();
+            if (newlyOverdue > 0) {
+                logger.info("{} empréstimo(s) passaram para OVERDUE", newlyOverdue);
+            }
+        } catch (Exception e) {
+            logger.warn("Erro ao atualizar status dos empréstimos: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.biblioteca.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tarefa agendada que dispara diariamente a campanha de avisos de atraso.
+ */
+@Component
+@ConditionalOnProperty(name = "biblioteca.notifications.overdue-campaign.enabled", havingValue = "true", matchIfMissing = true)
+public class OverdueNoticeCampaignScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueNoticeCampaignScheduler.class);
+
+    private final OverdueNoticeCampaignService campaignService;
+
+    @Autowired
+    public OverdueNoticeCampaignScheduler(OverdueNoticeCampaignService campaignService) {
+        this.campaignService = campaignService;
+    }
+
+    @Scheduled(cron = "${biblioteca.notifications.overdue-campaign.cron:0 0 9 * * *}")
+    public void runOverdueNoticeCampaign() {
+        try {
+            campaignService.runCampaign();
+        } catch (Exception e) {
+            logger.warn("Erro na campanha de avisos de atraso: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Loan;
+import com.biblioteca.repository.LoanRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Campanha de avisos de atraso: enfileira de uma vez o aviso de todos os
+ * empréstimos com pelo menos um dia de atraso que ainda não foram avisados
+ * hoje.
+ *
+ * <p>Os empréstimos são lidos em páginas por cursor (id), já com aluno e
+ * livro carregados; cada página vira um lote de mensagens na fila de saída
+ * ({@link EmailOutboxService}) e a data do aviso é gravada com um único
+ * UPDATE. O envio em si fica com a fila, que respeita o limite de
+ * mensagens por segundo configurado, sem ocupar as threads da API.</p>
+ */
+@Service
+public class OverdueNoticeCampaignService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueNoticeCampaignService.class);
+
+    private final LoanRepository loanRepository;
+    private final EmailService emailService;
+
+    @Value("${biblioteca.notifications.overdue-campaign.page-size:500}")
+    private int pageSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService campaignExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "overdue-notice-campaign");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Map<String, Object> lastRun;
+
+    @Autowired
+    public OverdueNoticeCampaignService(LoanRepository loanRepository, EmailService emailService) {
+        this.loanRepository = loanRepository;
+        this.emailService = emailService;
+    }
+
+    /**
+     * Executa a campanha na thread atual
+     *
+     * @return resumo da execução (páginas, empréstimos, avisos enfileirados)
+     */
+    public Map<String, Object> runCampaign() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("A campanha de avisos de atraso já está em andamento");
+        }
+        try {
+            return doRunCampaign();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Inicia a campanha em segundo plano
+     *
+     * @return false se já houver uma campanha em andamento
+     */
+    public boolean startCampaign() {
+        if (running.get()) {
+            return false;
+        }
+        campaignExecutor.execute(() -> {
+            try {
+                runCampaign();
+            } catch (RuntimeException e) {
+                logger.warn("Campanha de avisos de atraso não executada: {}", e.getMessage());
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("pageSize", pageSize);
+        status.put("lastRun", lastRun);
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        campaignExecutor.shutdownNow();
+    }
+
+    private Map<String, Object> doRunCampaign() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDate today = startedAt.toLocalDate();
+        LocalDateTime dueBefore = startedAt.minusDays(1);
+
+        long after = 0L;
+        int pages = 0;
+        int loansFound = 0;
+        int queued = 0;
+
+        while (true) {
+            List<Loan> page = loanRepository.findOverdueLoansToNotifyPage(after, dueBefore, today,
+                    PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            pages++;
+            loansFound += page.size();
+
+            queued += emailService.queueOverdueLoanNotifications(page, startedAt);
+
+            List<Long> ids = new ArrayList<>(page.size());
+            for (Loan loan : page) {
+                ids.add(loan.getId());
+            }
+            loanRepository.markOverdueNoticeSent(ids, today);
+
+            after = ids.get(ids.size() - 1);
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", startedAt);
+        result.put("finishedAt", LocalDateTime.now());
+        result.put("pages", pages);
+        result.put("overdueLoans", loansFound);
+        result.put("queuedNotices", queued);
+        lastRun = result;
+
+        if (loansFound > 0) {
+            logger.info("Campanha de avisos de atraso: {} empréstimo(s), {} aviso(s) enfileirados em {} página(s)",
+                    loansFound, queued, pages);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,169 @@
+package com.biblioteca.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefixos para autocompletar (busca enquanto o usuário digita).
+ *
+ * <p>Cada item (livro, aluno) é registrado com alguns textos (título, autor,
+ * nome, matrícula). Para cada texto são gravadas chaves a partir do início e
+ * do início de cada palavra, sem acentos e em minúsculas, em um dicionário
+ * ordenado: um prefixo digitado corresponde a um intervalo contínuo de chaves,
+ * encontrado em tempo logarítmico. Itens cujo texto começa com o prefixo vêm
+ * antes dos que só têm uma palavra interna começando com ele.</p>
+ *
+ * <p>A memória é limitada por item: no máximo {@value #MAX_WORDS_PER_TEXT}
+ * chaves por texto, cada uma com até {@value #MAX_KEY_LENGTH} caracteres.</p>
+ */
+final class PrefixIndex {
+
+    static final int MAX_KEY_LENGTH = 32;
+    static final int MAX_WORDS_PER_TEXT = 6;
+
+    // Separa o ISBN/matrícula do texto na chave; ordena antes de qualquer letra
+    private static final char ID_SEPARATOR = '\u0000';
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    /**
+     * Item encontrado: identificador e textos exibidos na sugestão
+     */
+    record Entry(String id, String label, String detail) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Chaves a partir do início do texto e a partir de palavras internas
+    private final TreeMap<String, String> leadingKeys = new TreeMap<>();
+    private final TreeMap<String, String> innerKeys = new TreeMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, List<String>> keysById = new HashMap<>();
+
+    /**
+     * Registra (ou substitui) um item
+     *
+     * @param id     identificador (ISBN, matrícula)
+     * @param label  texto principal da sugestão
+     * @param detail texto secundário da sugestão (pode ser nulo)
+     * @param texts  textos pelos quais o item pode ser encontrado
+     */
+    void put(String id, String label, String detail, String... texts) {
+        lock.writeLock().lock();
+        try {
+            removeKeys(id);
+            List<String> keys = new ArrayList<>();
+            for (String text : texts) {
+                String normalized = normalize(text);
+                if (normalized.isEmpty()) {
+                    continue;
+                }
+                int words = 0;
+                for (int start = 0; start < normalized.length() && words < MAX_WORDS_PER_TEXT; start++) {
+                    if (start > 0 && normalized.charAt(start - 1) != ' ') {
+                        continue;
+                    }
+                    String key = truncate(normalized.substring(start)) + ID_SEPARATOR + id;
+                    (start == 0 ? leadingKeys : innerKeys).put(key, id);
+                    keys.add(key);
+                    words++;
+                }
+            }
+            entries.put(id, new Entry(id, label, detail));
+            keysById.put(id, keys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeKeys(id);
+            entries.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Itens com algum texto (ou palavra de um texto) começando com o prefixo
+     *
+     * @param prefix texto digitado (sem diferença de acentos e maiúsculas)
+     * @param limit  quantidade máxima de itens
+     * @return itens sem repetição, primeiro os que começam com o prefixo
+     */
+    List<Entry> lookup(String prefix, int limit) {
+        String normalized = truncate(normalize(prefix));
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, Entry> found = new LinkedHashMap<>();
+            collect(leadingKeys, normalized, limit, found);
+            collect(innerKeys, normalized, limit, found);
+            return new ArrayList<>(found.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int keyCount() {
+        lock.readLock().lock();
+        try {
+            return leadingKeys.size() + innerKeys.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(TreeMap<String, String> keys, String prefix, int limit, Map<String, Entry> found) {
+        SortedMap<String, String> range = keys.subMap(prefix, prefix + Character.MAX_VALUE);
+        for (String id : range.values()) {
+            if (found.size() >= limit) {
+                return;
+            }
+            found.putIfAbsent(id, entries.get(id));
+        }
+    }
+
+    private void removeKeys(String id) {
+        List<String> keys = keysById.remove(id);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            leadingKeys.remove(key);
+            innerKeys.remove(key);
+        }
+    }
+
+    /**
+     * Sem acentos, em minúsculas, palavras separadas por um espaço
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return SEPARATORS.matcher(SearchTokenizer.normalize(text)).replaceAll(" ").trim();
+    }
+
+    private static String truncate(String text) {
+        return text.length() > MAX_KEY_LENGTH ? text.substring(0, MAX_KEY_LENGTH) : text;
+    }
+}
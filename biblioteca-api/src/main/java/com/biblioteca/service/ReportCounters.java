@@ -0,0 +1,178 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.ReportAvailabilityDTO;
+import com.biblioteca.dto.ReportLoanStatisticsDTO;
+import com.biblioteca.dto.ReportReservationAnalyticsDTO;
+import com.biblioteca.dto.ReportStudentMetricsDTO;
+
+/**
+ * Totais brutos dos quatro relatórios.
+ *
+ * Os totais são preenchidos pelas consultas agregadas (ReportService) ou
+ * mantidos incrementalmente em memória (ReportSnapshotService); os métodos
+ * to*Report derivam percentuais e médias da mesma forma nos dois casos.
+ * Não é thread-safe: quem compartilha uma instância faz a sincronização.
+ */
+public class ReportCounters {
+
+    // Acervo
+    long totalBooks;
+    long availableBooks;
+    long totalCopiesInStock;
+    long totalCopiesAvailable;
+    long booksWithFullQueue;
+    long totalActiveReservations;
+
+    // Alunos
+    long totalStudents;
+    long studentsWithActiveLoans;
+    long studentsWithOverdueLoans;
+
+    // Empréstimos
+    long totalLoans;
+    long activeLoans;
+    long overdueLoans;
+    long returnedLoans;
+    long totalFinesCollected;
+    long totalReturnedOverdueDays;
+    long totalReturnedDurationDays;
+
+    // Reservas
+    long totalReservations;
+    long activeReservations;
+    long fulfilledReservations;
+    long cancelledReservations;
+    long booksWithReservations;
+    long studentsWithReservations;
+
+    public ReportCounters copy() {
+        ReportCounters copy = new ReportCounters();
+        copy.totalBooks = totalBooks;
+        copy.availableBooks = availableBooks;
+        copy.totalCopiesInStock = totalCopiesInStock;
+        copy.totalCopiesAvailable = totalCopiesAvailable;
+        copy.booksWithFullQueue = booksWithFullQueue;
+        copy.totalActiveReservations = totalActiveReservations;
+        copy.totalStudents = totalStudents;
+        copy.studentsWithActiveLoans = studentsWithActiveLoans;
+        copy.studentsWithOverdueLoans = studentsWithOverdueLoans;
+        copy.totalLoans = totalLoans;
+        copy.activeLoans = activeLoans;
+        copy.overdueLoans = overdueLoans;
+        copy.returnedLoans = returnedLoans;
+        copy.totalFinesCollected = totalFinesCollected;
+        copy.totalReturnedOverdueDays = totalReturnedOverdueDays;
+        copy.totalReturnedDurationDays = totalReturnedDurationDays;
+        copy.totalReservations = totalReservations;
+        copy.activeReservations = activeReservations;
+        copy.fulfilledReservations = fulfilledReservations;
+        copy.cancelledReservations = cancelledReservations;
+        copy.booksWithReservations = booksWithReservations;
+        copy.studentsWithReservations = studentsWithReservations;
+        return copy;
+    }
+
+    /**
+     * Soma (sign = 1) ou retira (sign = -1) a contribuição de um livro com o
+     * estoque e a fila informados nos totais do acervo. A fila está cheia ao
+     * atingir a capacidade do livro (a própria ou o limite global).
+     */
+    void applyBook(int quantity, int activeReservations, int reservationCapacity, int sign) {
+        availableBooks += sign * (quantity > 0 ? 1 : 0);
+        totalCopiesInStock += sign * quantity;
+        totalCopiesAvailable += sign * Math.max(0, quantity - activeReservations);
+        booksWithFullQueue += sign * (activeReservations >= reservationCapacity ? 1 : 0);
+        totalActiveReservations += sign * activeReservations;
+    }
+
+    public ReportAvailabilityDTO toAvailabilityReport() {
+        if (totalBooks == 0) {
+            return new ReportAvailabilityDTO(0L, 0L, 0L, 0.0, 0L, 0L);
+        }
+
+        long unavailableBooks = totalBooks - availableBooks;
+        double availabilityPercentage = (double) availableBooks / totalBooks * 100;
+
+        return new ReportAvailabilityDTO(
+            totalBooks,
+            availableBooks,
+            unavailableBooks,
+            availabilityPercentage,
+            totalCopiesInStock,
+            totalCopiesAvailable
+        );
+    }
+
+    public ReportStudentMetricsDTO toStudentMetricsReport() {
+        if (totalStudents == 0) {
+            return new ReportStudentMetricsDTO(0L, 0L, 0L, 0L, 0.0, 0.0, 0L, 0L);
+        }
+
+        long studentsWithoutLoans = totalStudents - studentsWithActiveLoans - studentsWithOverdueLoans;
+        double averageLoansPerStudent = (double) totalLoans / totalStudents;
+        double averageOverdueDaysPerStudent = (double) totalReturnedOverdueDays / totalStudents;
+
+        return new ReportStudentMetricsDTO(
+            totalStudents,
+            studentsWithActiveLoans,
+            studentsWithOverdueLoans,
+            studentsWithoutLoans,
+            averageLoansPerStudent,
+            averageOverdueDaysPerStudent,
+            activeLoans,
+            overdueLoans
+        );
+    }
+
+    public ReportLoanStatisticsDTO toLoanStatisticsReport() {
+        if (totalLoans == 0) {
+            return new ReportLoanStatisticsDTO(0L, 0L, 0L, 0L, 0.0, 0.0, 0.0, 0.0, 0L, 0.0);
+        }
+
+        double activePercentage = (double) activeLoans / totalLoans * 100;
+        double returnedPercentage = (double) returnedLoans / totalLoans * 100;
+        double overduePercentage = (double) overdueLoans / totalLoans * 100;
+        double averageFineAmount = totalFinesCollected > 0 && returnedLoans > 0 ?
+            (double) totalFinesCollected / returnedLoans : 0.0;
+        double averageLoanDuration = returnedLoans > 0 ?
+            (double) totalReturnedDurationDays / returnedLoans : 0.0;
+
+        return new ReportLoanStatisticsDTO(
+            totalLoans,
+            activeLoans,
+            returnedLoans,
+            overdueLoans,
+            activePercentage,
+            returnedPercentage,
+            overduePercentage,
+            averageFineAmount,
+            totalFinesCollected,
+            averageLoanDuration
+        );
+    }
+
+    public ReportReservationAnalyticsDTO toReservationAnalyticsReport() {
+        if (totalReservations == 0) {
+            return new ReportReservationAnalyticsDTO(0L, 0L, 0L, 0L, 0.0, 0.0, 0L, 0L, 0.0, 0L);
+        }
+
+        double averageQueuePosition = totalBooks == 0 ? 0.0 :
+            (double) totalActiveReservations / totalBooks;
+        double fulfillmentRate = (double) fulfilledReservations / totalReservations * 100;
+        // O tempo de espera ainda não é registrado nas reservas
+        double averageWaitTime = 0.0;
+
+        return new ReportReservationAnalyticsDTO(
+            totalReservations,
+            activeReservations,
+            fulfilledReservations,
+            cancelledReservations,
+            fulfillmentRate,
+            averageQueuePosition,
+            booksWithReservations,
+            booksWithFullQueue,
+            averageWaitTime,
+            studentsWithReservations
+        );
+    }
+}
@@ -4,10 +4,9 @@ import com.biblioteca.dto.ReportAvailabilityDTO;
 import com.biblioteca.dto.ReportStudentMetricsDTO;
 import com.biblioteca.dto.ReportLoanStatisticsDTO;
 import com.biblioteca.dto.ReportReservationAnalyticsDTO;
-import com.biblioteca.model.Book;
-import com.biblioteca.model.Loan;
-import com.biblioteca.model.Reservation;
-import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository.CatalogTotals;
+import com.biblioteca.repository.LoanRepository.LoanTotals;
+import com.biblioteca.repository.ReservationRepository.ReservationTotals;
 import com.biblioteca.repository.BookRepository;
 import com.biblioteca.repository.LoanRepository;
 import com.biblioteca.repository.ReservationRepository;
@@ -16,10 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.temporal.ChronoUnit;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.time.LocalDateTime;
 
 /**
  * Serviço de Relatórios
@@ -28,6 +24,15 @@ import java.util.Set;
  * 2. Relatório de Métricas de Alunos
  * 3. Relatório de Estatísticas de Empréstimos
  * 4. Relatório de Análise de Reservas
+ *
+ * Todos os totais são calculados pelo banco (COUNT/SUM agrupados por status e
+ * COUNT DISTINCT de alunos e livros); o serviço só monta os percentuais e
+ * médias (ReportCounters). Nenhuma tabela é carregada na memória e nada é
+ * gravado: o status de empréstimo ativo/atrasado vem do vencimento, como nas
+ * listagens.
+ *
+ * Os endpoints de relatório servem a cópia em memória mantida por
+ * ReportSnapshotService, que usa loadCounters para se reconciliar.
  */
 @Service
 public class ReportService {
@@ -36,19 +41,19 @@ public class ReportService {
     private final StudentRepository studentRepository;
     private final LoanRepository loanRepository;
     private final ReservationRepository reservationRepository;
-    private final LoanService loanService;
+    private final LibrarySettingsService settingsService;
 
     @Autowired
     public ReportService(BookRepository bookRepository,
                          StudentRepository studentRepository,
                          LoanRepository loanRepository,
                          ReservationRepository reservationRepository,
-                         LoanService loanService) {
+                         LibrarySettingsService settingsService) {
         this.bookRepository = bookRepository;
         this.studentRepository = studentRepository;
         this.loanRepository = loanRepository;
         this.reservationRepository = reservationRepository;
-        this.loanService = loanService;
+        this.settingsService = settingsService;
     }
 
     /**
@@ -64,38 +69,9 @@ public class ReportService {
      */
     @Transactional(readOnly = true)
     public ReportAvailabilityDTO generateAvailabilityReport() {
-        List<Book> allBooks = bookRepository.findAll();
-
-        if (allBooks.isEmpty()) {
-            return new ReportAvailabilityDTO(0L, 0L, 0L, 0.0, 0L, 0L);
-        }
-
-        long totalBooks = allBooks.size();
-        long availableBooks = 0;
-        long totalCopiesInStock = 0;
-        long totalCopiesAvailable = 0;
-
-        for (Book book : allBooks) {
-            totalCopiesInStock += book.getQuantity();
-            totalCopiesAvailable += Math.max(0, book.getQuantity() - book.getActiveReservationsCount());
-
-            if (book.getQuantity() > 0) {
-                availableBooks++;
-            }
-        }
-
-        long unavailableBooks = totalBooks - availableBooks;
-        double availabilityPercentage = totalBooks > 0 ? 
-            (double) availableBooks / totalBooks * 100 : 0.0;
-
-        return new ReportAvailabilityDTO(
-            totalBooks,
-            availableBooks,
-            unavailableBooks,
-            availabilityPercentage,
-            totalCopiesInStock,
-            totalCopiesAvailable
-        );
+        ReportCounters counters = new ReportCounters();
+        loadCatalog(counters);
+        return counters.toAvailabilityReport();
     }
 
     /**
@@ -113,55 +89,14 @@ public class ReportService {
      */
     @Transactional(readOnly = true)
     public ReportStudentMetricsDTO generateStudentMetricsReport() {
-        List<Student> allStudents = studentRepository.findAll();
-        List<Loan> allLoans = loanRepository.findAll();
-
-        // Atualizar status dos empréstimos
-        loanService.updateLoansStatus(allLoans);
-        allLoans = loanRepository.findAll(); // Recarregar após atualização
-
-        long totalStudents = allStudents.size();
-        if (totalStudents == 0) {
-            return new ReportStudentMetricsDTO(0L, 0L, 0L, 0L, 0.0, 0.0, 0L, 0L);
+        ReportCounters counters = new ReportCounters();
+        counters.totalStudents = studentRepository.count();
+        if (counters.totalStudents > 0) {
+            LocalDateTime now = LocalDateTime.now();
+            loadStudents(counters, now);
+            loadLoans(counters, now);
         }
-
-        Set<String> studentsWithActiveLoans = new HashSet<>();
-        Set<String> studentsWithOverdueLoans = new HashSet<>();
-        long totalActiveLoans = 0;
-        long totalOverdueLoans = 0;
-        long totalOverdueAggregated = 0;
-
-        for (Loan loan : allLoans) {
-            String studentMatricula = loan.getStudent().getMatricula();
-
-            if (loan.getStatus() == Loan.LoanStatus.ACTIVE) {
-                studentsWithActiveLoans.add(studentMatricula);
-                totalActiveLoans++;
-            } else if (loan.getStatus() == Loan.LoanStatus.OVERDUE) {
-                studentsWithOverdueLoans.add(studentMatricula);
-                totalOverdueLoans++;
-            } else if (loan.getStatus() == Loan.LoanStatus.RETURNED && 
-                       loan.getOverdueDays() != null && loan.getOverdueDays() > 0) {
-                totalOverdueAggregated += loan.getOverdueDays();
-            }
-        }
-
-        long studentsWithoutLoans = totalStudents - studentsWithActiveLoans.size() - studentsWithOverdueLoans.size();
-        double averageLoansPerStudent = allLoans.isEmpty() ? 0.0 : 
-            (double) allLoans.size() / totalStudents;
-        double averageOverdueDaysPerStudent = totalStudents > 0 ? 
-            (double) totalOverdueAggregated / totalStudents : 0.0;
-
-        return new ReportStudentMetricsDTO(
-            totalStudents,
-            (long) studentsWithActiveLoans.size(),
-            (long) studentsWithOverdueLoans.size(),
-            studentsWithoutLoans,
-            averageLoansPerStudent,
-            averageOverdueDaysPerStudent,
-            totalActiveLoans,
-            totalOverdueLoans
-        );
+        return counters.toStudentMetricsReport();
     }
 
     /**
@@ -179,64 +114,9 @@ public class ReportService {
      */
     @Transactional(readOnly = true)
     public ReportLoanStatisticsDTO generateLoanStatisticsReport() {
-        List<Loan> allLoans = loanRepository.findAll();
-
-        // Atualizar status dos empréstimos
-        loanService.updateLoansStatus(allLoans);
-        allLoans = loanRepository.findAll(); // Recarregar após atualização
-
-        if (allLoans.isEmpty()) {
-            return new ReportLoanStatisticsDTO(0L, 0L, 0L, 0L, 0.0, 0.0, 0.0, 0.0, 0L, 0.0);
-        }
-
-        long totalLoans = allLoans.size();
-        long activeLoans = 0;
-        long returnedLoans = 0;
-        long overdueLoans = 0;
-        long totalFinesCollected = 0;
-        long totalDurationDays = 0;
-        int countReturnedLoans = 0;
-
-        for (Loan loan : allLoans) {
-            if (loan.getStatus() == Loan.LoanStatus.ACTIVE) {
-                activeLoans++;
-            } else if (loan.getStatus() == Loan.LoanStatus.RETURNED) {
-                returnedLoans++;
-                if (loan.getFineAmount() != null) {
-                    totalFinesCollected += loan.getFineAmount();
-                }
-                // Calcular duração do empréstimo
-                long durationDays = ChronoUnit.DAYS.between(
-                    loan.getLoanDate().toLocalDate(),
-                    loan.getReturnDate().toLocalDate()
-                );
-                totalDurationDays += durationDays;
-                countReturnedLoans++;
-            } else if (loan.getStatus() == Loan.LoanStatus.OVERDUE) {
-                overdueLoans++;
-            }
-        }
-
-        double activePercentage = (double) activeLoans / totalLoans * 100;
-        double returnedPercentage = (double) returnedLoans / totalLoans * 100;
-        double overduePercentage = (double) overdueLoans / totalLoans * 100;
-        double averageFineAmount = totalFinesCollected > 0 && returnedLoans > 0 ? 
-            (double) totalFinesCollected / returnedLoans : 0.0;
-        double averageLoanDuration = countReturnedLoans > 0 ? 
-            (double) totalDurationDays / countReturnedLoans : 0.0;
-
-        return new ReportLoanStatisticsDTO(
-            totalLoans,
-            activeLoans,
-            returnedLoans,
-            overdueLoans,
-            activePercentage,
-            returnedPercentage,
-            overduePercentage,
-            averageFineAmount,
-            totalFinesCollected,
-            averageLoanDuration
-        );
+        ReportCounters counters = new ReportCounters();
+        loadLoans(counters, LocalDateTime.now());
+        return counters.toLoanStatisticsReport();
     }
 
     /**
@@ -256,64 +136,69 @@ public class ReportService {
      */
     @Transactional(readOnly = true)
     public ReportReservationAnalyticsDTO generateReservationAnalyticsReport() {
-        List<Reservation> allReservations = reservationRepository.findAll();
-        List<Book> allBooks = bookRepository.findAll();
-
-        if (allReservations.isEmpty()) {
-            return new ReportReservationAnalyticsDTO(0L, 0L, 0L, 0L, 0.0, 0.0, 0L, 0L, 0.0, 0L);
+        ReportCounters counters = new ReportCounters();
+        loadReservations(counters);
+        if (counters.totalReservations > 0) {
+            loadCatalog(counters);
         }
+        return counters.toReservationAnalyticsReport();
+    }
 
-        long totalReservations = allReservations.size();
-        long activeReservations = 0;
-        long fulfilledReservations = 0;
-        long cancelledReservations = 0;
-        long totalWaitTimeInDays = 0;
-        int countFulfilledReservations = 0;
-        Set<String> booksWithReservations = new HashSet<>();
-        Set<String> studentsWithReservations = new HashSet<>();
-
-        for (Reservation reservation : allReservations) {
-            booksWithReservations.add(reservation.getBook().getIsbn());
-            studentsWithReservations.add(reservation.getStudent().getMatricula());
+    /**
+     * Carrega todos os totais dos quatro relatórios de uma vez.
+     *
+     * @param now data/hora de referência para separar empréstimos ativos e atrasados
+     */
+    @Transactional(readOnly = true)
+    public ReportCounters loadCounters(LocalDateTime now) {
+        ReportCounters counters = new ReportCounters();
+        loadCatalog(counters);
+        counters.totalStudents = studentRepository.count();
+        loadStudents(counters, now);
+        loadLoans(counters, now);
+        loadReservations(counters);
+        return counters;
+    }
 
-            if (reservation.getStatus() == Reservation.ReservationStatus.ACTIVE) {
-                activeReservations++;
-            } else if (reservation.getStatus() == Reservation.ReservationStatus.FULFILLED) {
-                fulfilledReservations++;
-                countFulfilledReservations++;
-            } else if (reservation.getStatus() == Reservation.ReservationStatus.CANCELLED) {
-                cancelledReservations++;
-            }
-        }
+    private void loadCatalog(ReportCounters counters) {
+        CatalogTotals totals = bookRepository.aggregateCatalogTotals(
+                settingsService.getMaxReservationsPerBook());
+        counters.totalBooks = toLong(totals.getTotalBooks());
+        counters.availableBooks = toLong(totals.getAvailableBooks());
+        counters.totalCopiesInStock = toLong(totals.getTotalCopiesInStock());
+        counters.totalCopiesAvailable = toLong(totals.getTotalCopiesAvailable());
+        counters.booksWithFullQueue = toLong(totals.getBooksWithFullQueue());
+        counters.totalActiveReservations = toLong(totals.getTotalActiveReservations());
+    }
 
-        long booksWithFullQueue = 0;
-        double averageQueuePosition = 0.0;
-        long totalQueuePositions = 0;
+    private void loadStudents(ReportCounters counters, LocalDateTime now) {
+        counters.studentsWithActiveLoans = loanRepository.countStudentsWithActiveLoans(now);
+        counters.studentsWithOverdueLoans = loanRepository.countStudentsWithOverdueLoans(now);
+    }
 
-        for (Book book : allBooks) {
-            if (book.getActiveReservationsCount() >= 5) {
-                booksWithFullQueue++;
-            }
-            totalQueuePositions += book.getActiveReservationsCount();
-        }
+    private void loadLoans(ReportCounters counters, LocalDateTime now) {
+        LoanTotals totals = loanRepository.aggregateLoanTotals(now);
+        counters.totalLoans = toLong(totals.getTotalLoans());
+        counters.activeLoans = toLong(totals.getActiveLoans());
+        counters.overdueLoans = toLong(totals.getOverdueLoans());
+        counters.returnedLoans = toLong(totals.getReturnedLoans());
+        counters.totalFinesCollected = toLong(totals.getTotalFinesCollected());
+        counters.totalReturnedOverdueDays = toLong(totals.getTotalReturnedOverdueDays());
+        counters.totalReturnedDurationDays = toLong(totals.getTotalReturnedDurationDays());
+    }
 
-        averageQueuePosition = allBooks.isEmpty() ? 0.0 : 
-            (double) totalQueuePositions / allBooks.size();
-        double fulfillmentRate = (double) fulfilledReservations / totalReservations * 100;
-        double averageWaitTime = countFulfilledReservations > 0 ? 
-            (double) totalWaitTimeInDays / countFulfilledReservations : 0.0;
+    private void loadReservations(ReportCounters counters) {
+        ReservationTotals totals = reservationRepository.aggregateReservationTotals();
+        counters.totalReservations = toLong(totals.getTotalReservations());
+        counters.activeReservations = toLong(totals.getActiveReservations());
+        counters.fulfilledReservations = toLong(totals.getFulfilledReservations());
+        counters.cancelledReservations = toLong(totals.getCancelledReservations());
+        counters.booksWithReservations = toLong(totals.getBooksWithReservations());
+        counters.studentsWithReservations = toLong(totals.getStudentsWithReservations());
+    }
 
-        return new ReportReservationAnalyticsDTO(
-            totalReservations,
-            activeReservations,
-            fulfilledReservations,
-            cancelledReservations,
-            fulfillmentRate,
-            averageQueuePosition,
-            (long) booksWithReservations.size(),
-            booksWithFullQueue,
-            averageWaitTime,
-            (long) studentsWithReservations.size()
-        );
+    /** Converte um total agregado em long; SUM sobre nenhuma linha vem como null. */
+    private static long toLong(Number value) {
+        return value == null ? 0L : value.longValue();
     }
 }
@@ -0,0 +1,43 @@
+package com.biblioteca.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carrega a cópia em memória dos relatórios na subida da aplicação e a
+ * reconcilia periodicamente com o banco, corrigindo gravações feitas por
+ * fora dos serviços (scripts, outra instância da API).
+ */
+@Component
+@ConditionalOnProperty(name = "biblioteca.reports.snapshot-reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class ReportSnapshotScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportSnapshotScheduler.class);
+
+    private final ReportSnapshotService snapshotService;
+
+    @Autowired
+    public ReportSnapshotScheduler(ReportSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcileReports();
+    }
+
+    @Scheduled(cron = "${biblioteca.reports.snapshot-reconcile.cron:0 */10 * * * *}")
+    public void reconcileReports() {
+        try {
+            snapshotService.reconcile();
+        } catch (Exception e) {
+            logger.warn("Erro ao reconciliar relatórios: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.ReportAvailabilityDTO;
+import com.biblioteca.dto.ReportLoanStatisticsDTO;
+import com.biblioteca.dto.ReportReservationAnalyticsDTO;
+import com.biblioteca.dto.ReportStudentMetricsDTO;
+import com.biblioteca.event.BookStockChange;
+import com.biblioteca.event.LoanOpenedEvent;
+import com.biblioteca.event.LoanReturnedEvent;
+import com.biblioteca.event.ReportDataChangedEvent;
+import com.biblioteca.event.ReservationStatusChangedEvent;
+import com.biblioteca.model.Reservation;
+import com.biblioteca.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cópia materializada em memória dos totais dos relatórios.
+ *
+ * Os totais são carregados uma vez pelas consultas agregadas de ReportService
+ * e depois mantidos incrementalmente pelos eventos publicados por LoanService
+ * e ReservationService, aplicados só após o commit da transação. Os endpoints
+ * de relatório leem daqui sem ir ao banco.
+ *
+ * A passagem de empréstimos de ativo para atrasado acontece com o tempo, sem
+ * evento: para cada aluno com empréstimos em aberto são guardados os
+ * vencimentos, e uma fila de prazos reclassifica o aluno quando o próximo
+ * vencimento passa. Cada prazo é processado uma única vez, na primeira
+ * leitura depois dele.
+ *
+ * Alterações sem atualização incremental (ReportDataChangedEvent) e gravações
+ * feitas por fora dos serviços são corrigidas por uma reconciliação completa:
+ * sob demanda quando a cópia está marcada como desatualizada e periodicamente
+ * pelo ReportSnapshotScheduler. Só uma reconciliação roda por vez: enquanto
+ * ela carrega, as demais leituras recebem a última cópia publicada (ou
+ * esperam, se ainda não houver nenhuma).
+ */
+@Service
+public class ReportSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportSnapshotService.class);
+
+    /**
+     * Espera antes de reconciliar de novo uma cópia que recebeu eventos
+     * durante a própria carga. Com escritas contínuas isso acontece quase
+     * sempre; sem a espera, cada leitura dispararia uma reconciliação.
+     */
+    private static final Duration RACED_RECONCILE_DELAY = Duration.ofSeconds(5);
+
+    /** Vencimentos em aberto de um aluno e a contribuição dele nos totais */
+    private static final class StudentOpenLoans {
+        private final List<LocalDateTime> dueDates = new ArrayList<>();
+        private int activeCount;
+        private int overdueCount;
+    }
+
+    /** Momento em que um empréstimo do aluno vence */
+    private static final class DueDeadline {
+        private final LocalDateTime dueDate;
+        private final String studentMatricula;
+
+        private DueDeadline(LocalDateTime dueDate, String studentMatricula) {
+            this.dueDate = dueDate;
+            this.studentMatricula = studentMatricula;
+        }
+    }
+
+    private final ReportService reportService;
+    private final LoanRepository loanRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    // Uma reconciliação por vez (leituras, agendador e endpoint)
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    // Estado protegido por "this"
+    private ReportCounters counters = new ReportCounters();
+    private final Map<String, StudentOpenLoans> openLoansByStudent = new HashMap<>();
+    private final PriorityQueue<DueDeadline> deadlines =
+            new PriorityQueue<>(Comparator.comparing((DueDeadline d) -> d.dueDate));
+    private boolean stale = true;
+    // Reconciliação sob demanda adiada até este momento; nulo = imediata
+    private LocalDateTime reconcileNotBefore;
+    // Marcações explícitas de desatualização (não adiadas)
+    private long staleMarks;
+    private long appliedEvents;
+    private long reconciliations;
+    private LocalDateTime lastReconciledAt;
+
+    @Autowired
+    public ReportSnapshotService(ReportService reportService,
+                                 LoanRepository loanRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.reportService = reportService;
+        this.loanRepository = loanRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public ReportAvailabilityDTO getAvailabilityReport() {
+        return current().toAvailabilityReport();
+    }
+
+    public ReportStudentMetricsDTO getStudentMetricsReport() {
+        return current().toStudentMetricsReport();
+    }
+
+    public ReportLoanStatisticsDTO getLoanStatisticsReport() {
+        return current().toLoanStatisticsReport();
+    }
+
+    public ReportReservationAnalyticsDTO getReservationAnalyticsReport() {
+        return current().toReservationAnalyticsReport();
+    }
+
+    /**
+     * Marca a cópia como desatualizada; a próxima leitura reconcilia.
+     */
+    public synchronized void invalidate() {
+        appliedEvents++;
+        markStale();
+    }
+
+    /**
+     * Recarrega todos os totais do banco e substitui a cópia em memória.
+     * A leitura acontece fora do lock; se algum evento for aplicado nesse
+     * meio-tempo, a cópia nova é publicada mas continua marcada como
+     * desatualizada. Se foi só atualização incremental, a nova reconciliação
+     * fica para depois de RACED_RECONCILE_DELAY; uma marcação explícita
+     * (ReportDataChangedEvent) reconcilia na próxima leitura.
+     */
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            load();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    /** Reconciliação propriamente dita; chamada com reconcileLock */
+    private void load() {
+        long eventsBefore;
+        long marksBefore;
+        synchronized (this) {
+            eventsBefore = appliedEvents;
+            marksBefore = staleMarks;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, StudentOpenLoans> loadedOpenLoans = new HashMap<>();
+        ReportCounters loaded = readOnlyTransaction.execute(status -> {
+            for (LoanRepository.OpenLoanDueDate open : loanRepository.findOpenLoanDueDates()) {
+                loadedOpenLoans.computeIfAbsent(open.getStudentMatricula(), m -> new StudentOpenLoans())
+                        .dueDates.add(normalize(open.getDueDate()));
+            }
+            return reportService.loadCounters(now);
+        });
+
+        synchronized (this) {
+            counters = loaded;
+            openLoansByStudent.clear();
+            deadlines.clear();
+            // Os totais por status já vieram do banco; só registra a contribuição
+            // de cada aluno e agenda o próximo vencimento
+            for (Map.Entry<String, StudentOpenLoans> entry : loadedOpenLoans.entrySet()) {
+                StudentOpenLoans student = entry.getValue();
+                openLoansByStudent.put(entry.getKey(), student);
+                classify(entry.getKey(), student, now);
+            }
+            stale = appliedEvents != eventsBefore;
+            reconcileNotBefore = stale && staleMarks == marksBefore
+                    ? LocalDateTime.now().plus(RACED_RECONCILE_DELAY)
+                    : null;
+            reconciliations++;
+            lastReconciledAt = now;
+        }
+    }
+
+    /**
+     * Situação da cópia em memória, para acompanhamento.
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("stale", stale);
+        status.put("reconcileNotBefore", reconcileNotBefore);
+        status.put("appliedEvents", appliedEvents);
+        status.put("reconciliations", reconciliations);
+        status.put("lastReconciledAt", lastReconciledAt);
+        status.put("studentsWithOpenLoans", openLoansByStudent.size());
+        status.put("pendingDeadlines", deadlines.size());
+        return status;
+    }
+
+    // ======================== EVENTOS ========================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onLoanOpened(LoanOpenedEvent event) {
+        appliedEvents++;
+        if (awaitingReconcile()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        advance(now);
+
+        counters.totalLoans++;
+        StudentOpenLoans student = openLoansByStudent.computeIfAbsent(
+                event.getStudentMatricula(), m -> new StudentOpenLoans());
+        withdraw(student);
+        student.dueDates.add(normalize(event.getDueDate()));
+        contribute(event.getStudentMatricula(), student, now);
+        applyStock(event.getStock());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onLoanReturned(LoanReturnedEvent event) {
+        appliedEvents++;
+        if (awaitingReconcile()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        advance(now);
+
+        LocalDateTime dueDate = normalize(event.getDueDate());
+        StudentOpenLoans student = openLoansByStudent.get(event.getStudentMatricula());
+        if (student == null || !student.dueDates.contains(dueDate)) {
+            // Empréstimo aberto que a cópia não conhecia: reconciliar
+            markStale();
+            return;
+        }
+        withdraw(student);
+        student.dueDates.remove(dueDate);
+        if (student.dueDates.isEmpty()) {
+            openLoansByStudent.remove(event.getStudentMatricula());
+        } else {
+            contribute(event.getStudentMatricula(), student, now);
+        }
+
+        counters.returnedLoans++;
+        if (event.getFineAmount() != null) {
+            counters.totalFinesCollected += event.getFineAmount();
+        }
+        if (event.getOverdueDays() != null && event.getOverdueDays() > 0) {
+            counters.totalReturnedOverdueDays += event.getOverdueDays();
+        }
+        counters.totalReturnedDurationDays += ChronoUnit.DAYS.between(
+                event.getLoanDate().toLocalDate(), event.getReturnDate().toLocalDate());
+        applyStock(event.getStock());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onReservationStatusChanged(ReservationStatusChangedEvent event) {
+        appliedEvents++;
+        if (awaitingReconcile()) {
+            return;
+        }
+        if (event.getPreviousStatus() == null) {
+            counters.totalReservations++;
+            if (event.isFirstReservationOfBook()) {
+                counters.booksWithReservations++;
+            }
+            if (event.isFirstReservationOfStudent()) {
+                counters.studentsWithReservations++;
+            }
+        } else {
+            addReservationStatus(event.getPreviousStatus(), -1);
+        }
+        addReservationStatus(event.getNewStatus(), 1);
+        applyStock(event.getStock());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onReportDataChanged(ReportDataChangedEvent event) {
+        appliedEvents++;
+        markStale();
+    }
+
+    // ======================== ESTADO ========================
+
+    private ReportCounters current() {
+        boolean published;
+        synchronized (this) {
+            published = lastReconciledAt != null;
+        }
+        if (reconcileDue()) {
+            // Com uma cópia publicada, quem não consegue o lock não espera
+            boolean locked = true;
+            if (published) {
+                locked = reconcileLock.tryLock();
+            } else {
+                reconcileLock.lock();
+            }
+            if (locked) {
+                try {
+                    // Outra thread pode ter reconciliado enquanto esta esperava
+                    if (reconcileDue()) {
+                        load();
+                    }
+                } catch (Exception e) {
+                    logger.warn("Erro ao reconciliar relatórios: {}", e.getMessage());
+                } finally {
+                    reconcileLock.unlock();
+                }
+            }
+        }
+        synchronized (this) {
+            advance(LocalDateTime.now());
+            return counters.copy();
+        }
+    }
+
+    /** Cópia desatualizada e fora do adiamento da última reconciliação. */
+    private synchronized boolean reconcileDue() {
+        return stale && (reconcileNotBefore == null || !LocalDateTime.now().isBefore(reconcileNotBefore));
+    }
+
+    /**
+     * A cópia será substituída na próxima leitura e não recebe eventos.
+     * Numa reconciliação adiada, os eventos seguem sendo aplicados: só os
+     * que correram junto com a carga podem estar faltando ou em dobro.
+     */
+    private boolean awaitingReconcile() {
+        return stale && reconcileNotBefore == null;
+    }
+
+    /** Marca a cópia para reconciliar já na próxima leitura. */
+    private void markStale() {
+        stale = true;
+        staleMarks++;
+        reconcileNotBefore = null;
+    }
+
+    /** Reclassifica os alunos cujo próximo vencimento já passou. */
+    private void advance(LocalDateTime now) {
+        while (!deadlines.isEmpty() && deadlines.peek().dueDate.isBefore(now)) {
+            String matricula = deadlines.poll().studentMatricula;
+            StudentOpenLoans student = openLoansByStudent.get(matricula);
+            // Prazos de alunos que já devolveram tudo são descartados
+            if (student != null) {
+                withdraw(student);
+                contribute(matricula, student, now);
+            }
+        }
+    }
+
+    /** Retira dos totais a contribuição atual do aluno. */
+    private void withdraw(StudentOpenLoans student) {
+        counters.activeLoans -= student.activeCount;
+        counters.overdueLoans -= student.overdueCount;
+        if (student.activeCount > 0) {
+            counters.studentsWithActiveLoans--;
+        }
+        if (student.overdueCount > 0) {
+            counters.studentsWithOverdueLoans--;
+        }
+    }
+
+    /** Reclassifica os vencimentos do aluno em {@code now} e soma nos totais. */
+    private void contribute(String matricula, StudentOpenLoans student, LocalDateTime now) {
+        classify(matricula, student, now);
+        counters.activeLoans += student.activeCount;
+        counters.overdueLoans += student.overdueCount;
+        if (student.activeCount > 0) {
+            counters.studentsWithActiveLoans++;
+        }
+        if (student.overdueCount > 0) {
+            counters.studentsWithOverdueLoans++;
+        }
+    }
+
+    /**
+     * Separa os vencimentos do aluno em ativos e atrasados (vencimento antes
+     * de {@code now}, mesma regra das consultas) e agenda o próximo vencimento.
+     */
+    private void classify(String matricula, StudentOpenLoans student, LocalDateTime now) {
+        LocalDateTime nextDue = null;
+        int overdue = 0;
+        for (LocalDateTime dueDate : student.dueDates) {
+            if (dueDate.isBefore(now)) {
+                overdue++;
+            } else if (nextDue == null || dueDate.isBefore(nextDue)) {
+                nextDue = dueDate;
+            }
+        }
+        student.overdueCount = overdue;
+        student.activeCount = student.dueDates.size() - overdue;
+        if (nextDue != null) {
+            deadlines.add(new DueDeadline(nextDue, matricula));
+        }
+    }
+
+    /**
+     * Vencimento sem a fração de segundo: o valor publicado no evento tem a
+     * precisão da JVM e o lido do banco a precisão da coluna, e os dois
+     * precisam se encontrar na devolução.
+     */
+    private static LocalDateTime normalize(LocalDateTime dueDate) {
+        return dueDate.truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private void applyStock(BookStockChange stock) {
+        if (stock == null) {
+            return;
+        }
+        counters.applyBook(stock.getQuantityBefore(), stock.getActiveReservationsBefore(),
+                stock.getReservationCapacity(), -1);
+        counters.applyBook(stock.getQuantityAfter(), stock.getActiveReservationsAfter(),
+                stock.getReservationCapacity(), 1);
+    }
+
+    private void addReservationStatus(Reservation.ReservationStatus status, int delta) {
+        switch (status) {
+            case ACTIVE -> counters.activeReservations += delta;
+            case FULFILLED -> counters.fulfilledReservations += delta;
+            case CANCELLED -> counters.cancelledReservations += delta;
+        }
+    }
+}
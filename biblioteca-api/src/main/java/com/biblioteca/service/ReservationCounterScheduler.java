@@ -0,0 +1,45 @@
+package com.biblioteca.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Tarefa agendada que recalcula os contadores de reservas (reservas ativas
+ * do livro e total de reservas do aluno) a partir das reservas gravadas.
+ *
+ * Os contadores são mantidos por incrementos atômicos a cada operação; esta
+ * tarefa corrige divergências causadas por alterações feitas fora do serviço
+ * (SQL manual, importações antigas, falhas parciais).
+ */
+@Component
+@ConditionalOnProperty(name = "biblioteca.reservations.counter-reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class ReservationCounterScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationCounterScheduler.class);
+
+    private final ReservationService reservationService;
+
+    @Autowired
+    public ReservationCounterScheduler(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @Scheduled(cron = "${biblioteca.reservations.counter-reconcile.cron:0 20 * * * *}")
+    public void reconcileCounters() {
+        try {
+            Map<String, Integer> repaired = reservationService.reconcileReservationCounters();
+            if (repaired.get("books") > 0 || repaired.get("students") > 0) {
+                logger.info("Contadores de reservas corrigidos: {} livro(s), {} aluno(s)",
+                        repaired.get("books"), repaired.get("students"));
+            }
+        } catch (Exception e) {
+            logger.warn("Erro ao reconciliar contadores de reservas: {}", e.getMessage());
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.biblioteca.service;
 
+import com.biblioteca.dto.CursorPageDTO;
 import com.biblioteca.dto.ReservationRequestDTO;
 import com.biblioteca.dto.ReservationResponseDTO;
+import com.biblioteca.event.BookStockChange;
+import com.biblioteca.event.ReportDataChangedEvent;
+import com.biblioteca.event.ReservationStatusChangedEvent;
 import com.biblioteca.model.Book;
 import com.biblioteca.model.Reservation;
 import com.biblioteca.model.Student;
@@ -9,12 +13,18 @@ import com.biblioteca.repository.BookRepository;
 import com.biblioteca.repository.ReservationRepository;
 import com.biblioteca.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Supplier;
 
 
 /**
@@ -27,11 +37,14 @@ import java.util.stream.Collectors;
  *
  * <p>Principais responsabilidades:</p>
  * <ul>
- *     <li>Validar se o livro pode receber novas reservas 
- *     (máximo definido de {@code MAX_RESERVATIONS_PER_BOOK}).</li>
+ *     <li>Validar se o livro pode receber novas reservas (capacidade da
+ *     fila definida no livro ou, na falta dela, em {@code LibrarySettings}).</li>
  *
  *     <li>Registrar novas reservas, sempre atribuindo a próxima posição
- *     disponível na fila.</li>
+ *     disponível na fila da sua classe de prioridade.</li>
+ *
+ *     <li>Atender a fila por (prioridade, posição): reservas de disciplina
+ *     antes das comuns e, dentro de cada classe, por ordem de chegada.</li>
  *
  *     <li>Consultar reservas existentes por aluno, livro ou listagem geral.</li>
  *
@@ -40,7 +53,9 @@ import java.util.stream.Collectors;
  * </ul>
  *
  * <p>Este serviço também utiliza operações transacionais para garantir
- * a consistência das reservas durante o processo de criação e validação.</p>
+ * a consistência das reservas durante o processo de criação e validação.
+ * Criação, cancelamento e efetivação rodam com os bloqueios em memória do
+ * livro e do aluno (StripedLockManager), adquiridos antes da transação.</p>
  */
 @Service
 public class ReservationService {
@@ -48,30 +63,49 @@ public class ReservationService {
   private final ReservationRepository reservationRepository;
   private final BookRepository bookRepository;
   private final StudentRepository studentRepository;
-  private static final int MAX_RESERVATIONS_PER_BOOK = 5;
+  private final ApplicationEventPublisher eventPublisher;
+  private final LibrarySettingsService settingsService;
+  private final StripedLockManager lockManager;
+  private final EntityCache entityCache;
+  private final TransactionTemplate transaction;
 
   @Autowired
   public ReservationService(ReservationRepository reservationRepository,
       BookRepository bookRepository,
-      StudentRepository studentRepository) {
+      StudentRepository studentRepository,
+      ApplicationEventPublisher eventPublisher,
+      LibrarySettingsService settingsService,
+      StripedLockManager lockManager,
+      EntityCache entityCache,
+      PlatformTransactionManager transactionManager) {
     this.reservationRepository = reservationRepository;
     this.bookRepository = bookRepository;
     this.studentRepository = studentRepository;
+    this.eventPublisher = eventPublisher;
+    this.settingsService = settingsService;
+    this.lockManager = lockManager;
+    this.entityCache = entityCache;
+    this.transaction = new TransactionTemplate(transactionManager);
   }
 
   /**
    * Cria uma nova reserva
-   * Verifica se o livro pode ter mais reservas (máximo 5)
-   * Adiciona na próxima posição disponível na fila
+   * Verifica se a fila do livro ainda tem vaga (capacidade do livro ou global)
+   * Adiciona na próxima posição disponível da sua classe de prioridade
    */
-  @Transactional
   public ReservationResponseDTO createReservation(ReservationRequestDTO request) {
-    // Verificar se livro existe
-    Book book = bookRepository.findById(request.getBookIsbn())
+    return lockManager.withLocks(() -> transaction.execute(status -> doCreateReservation(request)),
+        StripedLockManager.bookKey(request.getBookIsbn()),
+        StripedLockManager.studentKey(request.getStudentMatricula()));
+  }
+
+  private ReservationResponseDTO doCreateReservation(ReservationRequestDTO request) {
+    // Verificar se livro existe (cópia do cache)
+    Book book = entityCache.findBook(request.getBookIsbn())
         .orElseThrow(() -> new RuntimeException("Livro não encontrado"));
 
     // Verificar se estudante existe
-    Student student = studentRepository.findById(request.getStudentMatricula())
+    Student student = entityCache.findStudent(request.getStudentMatricula())
         .orElseThrow(() -> new RuntimeException("Estudante não encontrado"));
 
     // Verificar se já tem reserva ativa para este livro
@@ -80,40 +114,58 @@ public class ReservationService {
       throw new RuntimeException("Estudante já possui uma reserva ativa para este livro");
     }
 
-    // Verificar se o livro já tem 5 reservas ativas (máximo)
+    // Verificar se a fila do livro já está cheia
+    int capacity = getReservationCapacity(book);
     Long activeReservationsCount = reservationRepository.countActiveReservationsByBookIsbn(request.getBookIsbn());
-    if (activeReservationsCount >= MAX_RESERVATIONS_PER_BOOK) {
-      throw new RuntimeException("Livro já possui o número máximo de reservas (" + MAX_RESERVATIONS_PER_BOOK + ")");
+    if (activeReservationsCount >= capacity) {
+      throw new RuntimeException("Livro já possui o número máximo de reservas (" + capacity + ")");
     }
 
-    // Calcular próxima posição na fila
-    Integer maxPosition = reservationRepository.findMaxQueuePositionByBookIsbn(request.getBookIsbn());
+    // Calcular próxima posição na fila da prioridade
+    Reservation.ReservationPriority priority = request.getPriority() != null
+        ? request.getPriority()
+        : Reservation.ReservationPriority.STANDARD;
+    Integer maxPosition = reservationRepository.findMaxQueuePositionByBookIsbn(request.getBookIsbn(), priority);
     Integer nextPosition = maxPosition + 1;
 
     // Criar reserva
     Reservation reservation = new Reservation();
-    reservation.setBook(book);
-    reservation.setStudent(student);
+    reservation.setBook(bookRepository.getReferenceById(book.getIsbn()));
+    reservation.setStudent(studentRepository.getReferenceById(student.getMatricula()));
     reservation.setReservationDate(request.getReservationDate() != null
         ? request.getReservationDate()
         : LocalDateTime.now());
     reservation.setQueuePosition(nextPosition);
+    reservation.setPriority(priority);
     reservation.setStatus(Reservation.ReservationStatus.ACTIVE);
 
     Reservation savedReservation = reservationRepository.save(reservation);
+    ReservationResponseDTO response = ReservationResponseDTO.fromEntity(savedReservation, book, student);
+
+    // Atualizar contadores (incremento atômico no banco)
+    BookStockChange stock = adjustReservationCounters(request.getBookIsbn(), request.getStudentMatricula(), 1, true);
 
-    // Atualizar contadores
-    updateReservationCounters(book, student);
+    boolean firstReservationOfBook = reservationRepository.countReservationsByBookIsbn(request.getBookIsbn()) == 1;
+    boolean firstReservationOfStudent = studentRepository.findReservationsCount(request.getStudentMatricula()) == 1;
+    eventPublisher.publishEvent(new ReservationStatusChangedEvent(savedReservation.getId(),
+        request.getStudentMatricula(), null, Reservation.ReservationStatus.ACTIVE,
+        firstReservationOfBook, firstReservationOfStudent, stock));
 
-    return ReservationResponseDTO.fromEntity(savedReservation);
+    return response;
   }
 
   /**
    * Cancela uma reserva
    * Reorganiza as posições da fila (as reservas posteriores avançam)
    */
-  @Transactional
   public void cancelReservation(Long reservationId) {
+    withReservationLocks(reservationId, () -> {
+      doCancelReservation(reservationId);
+      return null;
+    });
+  }
+
+  private void doCancelReservation(Long reservationId) {
     Reservation reservation = reservationRepository.findById(reservationId)
         .orElseThrow(() -> new RuntimeException("Reservação não encontrada"));
 
@@ -122,36 +174,36 @@ public class ReservationService {
     }
 
     String bookIsbn = reservation.getBook().getIsbn();
+    Reservation.ReservationPriority priority = reservation.getPriority();
     Integer cancelledPosition = reservation.getQueuePosition();
+    String studentMatricula = reservation.getStudent().getMatricula();
 
     // Marcar como cancelada
     reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
     reservationRepository.save(reservation);
 
-    // Reorganizar fila: todas as reservas com posição maior que a cancelada avançam
-    List<Reservation> reservationsToUpdate = reservationRepository
-        .findActiveReservationsByBookIsbnOrderByPosition(bookIsbn)
-        .stream()
-        .filter(r -> r.getQueuePosition() > cancelledPosition)
-        .collect(Collectors.toList());
+    // Atualizar contadores (decremento atômico no banco)
+    BookStockChange stock = adjustReservationCounters(bookIsbn, studentMatricula, -1, false);
 
-    for (Reservation r : reservationsToUpdate) {
-      r.setQueuePosition(r.getQueuePosition() - 1);
-      reservationRepository.save(r);
-    }
+    // Reorganizar fila: as reservas da mesma prioridade com posição maior que a
+    // cancelada avançam (um único UPDATE, independente do tamanho da fila; por
+    // último, pois limpa o contexto de persistência)
+    reservationRepository.advanceQueueAfter(bookIsbn, priority, cancelledPosition,
+        Reservation.ReservationStatus.ACTIVE);
 
-    // Atualizar contadores
-    Book book = reservation.getBook();
-    Student student = reservation.getStudent();
-    updateReservationCounters(book, student);
+    eventPublisher.publishEvent(new ReservationStatusChangedEvent(reservationId, studentMatricula,
+        Reservation.ReservationStatus.ACTIVE, Reservation.ReservationStatus.CANCELLED, false, false, stock));
   }
 
   /**
    * Marca uma reserva como efetivada (gerou empréstimo)
    * Remove da fila e reorganiza as posições
    */
-  @Transactional
   public ReservationResponseDTO fulfillReservation(Long reservationId) {
+    return withReservationLocks(reservationId, () -> doFulfillReservation(reservationId));
+  }
+
+  private ReservationResponseDTO doFulfillReservation(Long reservationId) {
     Reservation reservation = reservationRepository.findById(reservationId)
         .orElseThrow(() -> new RuntimeException("Reservação não encontrada"));
 
@@ -160,91 +212,159 @@ public class ReservationService {
     }
 
     String bookIsbn = reservation.getBook().getIsbn();
+    Reservation.ReservationPriority priority = reservation.getPriority();
     Integer fulfilledPosition = reservation.getQueuePosition();
+    String studentMatricula = reservation.getStudent().getMatricula();
 
     // Marcar como efetivada
     reservation.setStatus(Reservation.ReservationStatus.FULFILLED);
     reservationRepository.save(reservation);
 
-    // Reorganizar fila: todas as reservas com posição maior que a efetivada avançam
-    List<Reservation> reservationsToUpdate = reservationRepository
-        .findActiveReservationsByBookIsbnOrderByPosition(bookIsbn)
-        .stream()
-        .filter(r -> r.getQueuePosition() > fulfilledPosition)
-        .collect(Collectors.toList());
+    ReservationResponseDTO response = ReservationResponseDTO.fromEntity(reservation);
 
-    for (Reservation r : reservationsToUpdate) {
-      r.setQueuePosition(r.getQueuePosition() - 1);
-      reservationRepository.save(r);
-    }
+    // Atualizar contadores (decremento atômico no banco)
+    BookStockChange stock = adjustReservationCounters(bookIsbn, studentMatricula, -1, false);
+
+    // Reorganizar fila: as reservas da mesma prioridade com posição maior que a
+    // efetivada avançam (um único UPDATE, independente do tamanho da fila; por
+    // último, pois limpa o contexto de persistência)
+    reservationRepository.advanceQueueAfter(bookIsbn, priority, fulfilledPosition,
+        Reservation.ReservationStatus.ACTIVE);
 
-    // Atualizar contadores
-    Book book = reservation.getBook();
-    Student student = reservation.getStudent();
-    updateReservationCounters(book, student);
+    eventPublisher.publishEvent(new ReservationStatusChangedEvent(reservationId, studentMatricula,
+        Reservation.ReservationStatus.ACTIVE, Reservation.ReservationStatus.FULFILLED, false, false, stock));
 
-    return ReservationResponseDTO.fromEntity(reservation);
+    return response;
+  }
+
+  /**
+   * Efetiva a próxima reserva da fila do livro (maior prioridade, menor posição)
+   */
+  public ReservationResponseDTO fulfillNextReservation(String isbn) {
+    // Apenas o bloqueio do livro: a cabeça da fila é lida já com ele adquirido
+    // (efetivar não altera contadores do aluno)
+    return lockManager.withLocks(() -> transaction.execute(status -> {
+      Reservation head = reservationRepository
+          .findFirstByBookIsbnAndStatusOrderByPriorityAscQueuePositionAsc(isbn, Reservation.ReservationStatus.ACTIVE)
+          .orElseThrow(() -> new RuntimeException("Livro não possui reservas ativas"));
+      return doFulfillReservation(head.getId());
+    }), StripedLockManager.bookKey(isbn));
+  }
+
+  /**
+   * Executa a operação em uma transação, com os bloqueios do livro e do aluno
+   * da reserva (sem bloqueio se a reserva não existir; a operação reporta o erro)
+   */
+  private <T> T withReservationLocks(Long reservationId, Supplier<T> operation) {
+    ReservationRepository.ReservationKeys keys = reservationRepository.findKeysById(reservationId).orElse(null);
+    return lockManager.withLocks(() -> transaction.execute(status -> operation.get()),
+        keys != null ? StripedLockManager.bookKey(keys.getBookIsbn()) : null,
+        keys != null ? StripedLockManager.studentKey(keys.getStudentMatricula()) : null);
+  }
+
+  /**
+   * Capacidade da fila de reservas do livro: a do próprio livro ou, se não
+   * definida, o limite global das configurações
+   */
+  public int getReservationCapacity(Book book) {
+    return settingsService.getReservationCapacity(book.getReservationCapacity());
   }
 
   /**
    * Lista todas as reservas ativas de um livro (ordem da fila)
    */
   public List<ReservationResponseDTO> getActiveReservationsByBook(String isbn) {
-    List<Reservation> reservations = reservationRepository
-        .findActiveReservationsByBookIsbnOrderByPosition(isbn);
-    return reservations.stream()
-        .map(ReservationResponseDTO::fromEntity)
-        .collect(Collectors.toList());
+    return reservationRepository.findActiveResponsesByBookIsbn(isbn);
   }
 
   /**
    * Lista todas as reservas ativas de um estudante
    */
   public List<ReservationResponseDTO> getActiveReservationsByStudent(String matricula) {
-    List<Reservation> reservations = reservationRepository
-        .findActiveReservationsByStudentMatricula(matricula);
-    return reservations.stream()
-        .map(ReservationResponseDTO::fromEntity)
-        .collect(Collectors.toList());
+    return reservationRepository.findActiveResponsesByStudentMatricula(matricula);
   }
 
   /**
    * Lista todas as reservas
    */
   public List<ReservationResponseDTO> getAllReservations() {
-    List<Reservation> reservations = reservationRepository.findAll();
-    return reservations.stream()
-        .map(ReservationResponseDTO::fromEntity)
-        .collect(Collectors.toList());
+    return reservationRepository.findAllResponses();
+  }
+
+  /**
+   * Lista reservas paginadas por cursor (id), em ordem de id
+   *
+   * @param after último id da página anterior (null para a primeira página)
+   * @param size  tamanho da página (limitado a CursorPageDTO.MAX_PAGE_SIZE)
+   */
+  @Transactional(readOnly = true)
+  public CursorPageDTO<ReservationResponseDTO> getReservationsPage(Long after, Integer size) {
+    int pageSize = CursorPageDTO.normalizeSize(size);
+    List<ReservationResponseDTO> rows = reservationRepository
+        .findResponsesPage(after != null ? after : 0L, PageRequest.of(0, pageSize + 1));
+    return CursorPageDTO.of(rows, pageSize, r -> String.valueOf(r.getId()));
   }
 
   /**
    * Busca uma reserva por ID
    */
   public ReservationResponseDTO getReservationById(Long id) {
-    Reservation reservation = reservationRepository.findById(id)
+    return reservationRepository.findResponseById(id)
         .orElseThrow(() -> new RuntimeException("Reservação não encontrada"));
-    return ReservationResponseDTO.fromEntity(reservation);
   }
 
   /**
-   * Atualiza os contadores de reservas em Book e Student
+   * Atualiza os contadores de reservas em Book e Student com UPDATEs atômicos
+   * (valor = valor + delta), sem reler as reservas, na mesma transação da
+   * operação. Limpa o contexto de persistência.
+   *
+   * @param activeDelta variação das reservas ativas do livro (+1 ou -1)
+   * @param newReservation se a reserva é nova (conta no total do estudante,
+   *                       que inclui canceladas/efetivadas)
+   * @return estoque do livro com a fila antes e depois da atualização
+   *         (reservas não alteram a quantidade em estoque)
+   */
+  private BookStockChange adjustReservationCounters(String isbn, String matricula,
+      int activeDelta, boolean newReservation) {
+    bookRepository.adjustActiveReservationsCount(isbn, activeDelta);
+    entityCache.evictBook(isbn);
+    if (newReservation) {
+      studentRepository.incrementReservationsCount(matricula);
+      entityCache.evictStudent(matricula);
+    }
+
+    BookRepository.StockLevel level = bookRepository.findStockLevel(isbn)
+        .orElseThrow(() -> new RuntimeException("Livro não encontrado"));
+    return new BookStockChange(isbn, level.getQuantity(), level.getActiveReservationsCount() - activeDelta,
+        level.getQuantity(), level.getActiveReservationsCount(),
+        settingsService.getReservationCapacity(level.getReservationCapacity()));
+  }
+
+  /**
+   * Corrige divergências dos contadores de reservas (livros e estudantes)
+   * recalculando-os a partir das reservas gravadas.
+   *
+   * @return quantidade de livros e de estudantes corrigidos
    */
   @Transactional
-  private void updateReservationCounters(Book book, Student student) {
-    // Atualizar contador do livro (apenas reservas ativas)
-    Long activeCount = reservationRepository.countActiveReservationsByBookIsbn(book.getIsbn());
-    book.setActiveReservationsCount(activeCount.intValue());
-    bookRepository.save(book);
+  public Map<String, Integer> reconcileReservationCounters() {
+    int books = bookRepository.reconcileActiveReservationsCounts(Reservation.ReservationStatus.ACTIVE);
+    int students = studentRepository.reconcileReservationsCounts();
+    if (books > 0) {
+      entityCache.evictAllBooks();
+    }
+    if (students > 0) {
+      entityCache.evictAllStudents();
+    }
+
+    if (books > 0 || students > 0) {
+      eventPublisher.publishEvent(ReportDataChangedEvent.forBooks("reservation-counters-reconciled"));
+    }
 
-    // Atualizar contador do estudante (total de reservas registradas, todas
-    // incluindo canceladas/efetivadas)
-    // Buscar todas as reservas do estudante no banco
-    Long studentReservationsCount = reservationRepository.findAll().stream()
-        .filter(r -> r.getStudent().getMatricula().equals(student.getMatricula()))
-        .count();
-    student.setReservationsCount(studentReservationsCount.intValue());
-    studentRepository.save(student);
+    Map<String, Integer> repaired = new LinkedHashMap<>();
+    repaired.put("books", books);
+    repaired.put("students", students);
+    return repaired;
   }
 
   /**
@@ -257,5 +377,6 @@ public class ReservationService {
     Long activeCount = reservationRepository.countActiveReservationsByBookIsbn(isbn);
     book.setActiveReservationsCount(activeCount.intValue());
     bookRepository.save(book);
+    eventPublisher.publishEvent(ReportDataChangedEvent.forBook("reservation-counter-updated", isbn));
   }
 }
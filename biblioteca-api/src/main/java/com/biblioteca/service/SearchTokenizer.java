@@ -0,0 +1,56 @@
+package com.biblioteca.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Quebra textos em termos de busca para o índice do acervo.
+ * Remove acentos e cedilha (Memórias → memorias, ação → acao), converte para
+ * minúsculas, separa em letras/dígitos e descarta palavras vazias do
+ * português (de, da, o, um...), que apareceriam em quase todos os livros.
+ */
+final class SearchTokenizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "um", "uma", "uns", "umas",
+            "de", "da", "do", "das", "dos", "e", "em", "no", "na", "nos", "nas",
+            "ao", "aos", "por", "para", "pela", "pelo", "pelas", "pelos",
+            "com", "sem", "que", "se", "ou", "sua", "seu", "suas", "seus");
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Texto sem acentos e em minúsculas
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Termos do texto, na ordem em que aparecem (com repetições)
+     *
+     * @param text texto livre (pode ser nulo)
+     * @return termos normalizados, sem palavras vazias
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,66 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.LibrarySettings;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cópia imutável das configurações da biblioteca em um determinado momento.
+ *
+ * <p>Cada cópia carrega um número de versão que aumenta a cada carga ou
+ * alteração. Processos longos (atualização de status em lote, exportações)
+ * devem obter uma única cópia no início e usá-la até o fim, para aplicar a
+ * mesma política a todos os registros mesmo que as configurações mudem no
+ * meio do processamento.</p>
+ */
+public final class SettingsSnapshot {
+  private final long version;
+  private final int loanPeriodDays;
+  private final int maxLoansPerStudent;
+  private final int finePerDay;
+  private final int maxReservationsPerBook;
+  private final LocalDateTime loadedAt;
+
+  SettingsSnapshot(long version, LibrarySettings settings) {
+    this.version = version;
+    this.loanPeriodDays = settings.getLoanPeriodDays();
+    this.maxLoansPerStudent = settings.getMaxLoansPerStudent();
+    this.finePerDay = settings.getFinePerDay();
+    this.maxReservationsPerBook = settings.getMaxReservationsPerBook();
+    this.loadedAt = LocalDateTime.now();
+  }
+
+  /**
+   * Nova entidade (não gerenciada) com os valores desta cópia
+   */
+  public LibrarySettings toEntity() {
+    LibrarySettings settings = new LibrarySettings(loanPeriodDays, maxLoansPerStudent, finePerDay);
+    settings.setId(1L);
+    settings.setMaxReservationsPerBook(maxReservationsPerBook);
+    return settings;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public int getLoanPeriodDays() {
+    return loanPeriodDays;
+  }
+
+  public int getMaxLoansPerStudent() {
+    return maxLoansPerStudent;
+  }
+
+  public int getFinePerDay() {
+    return finePerDay;
+  }
+
+  public int getMaxReservationsPerBook() {
+    return maxReservationsPerBook;
+  }
+
+  public LocalDateTime getLoadedAt() {
+    return loadedAt;
+  }
+}
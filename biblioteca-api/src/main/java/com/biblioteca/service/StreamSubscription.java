@@ -0,0 +1,181 @@
+package com.biblioteca.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Uma conexão do canal de eventos (SSE), com os filtros do cliente e uma fila
+ * limitada de eventos ainda não enviados.
+ *
+ * Os eventos são enfileirados por quem publica e enviados por uma tarefa no
+ * executor de envio, uma por conexão de cada vez (a ordem é preservada). Com a
+ * fila cheia, o evento mais antigo é descartado: o cliente recebe um evento
+ * "resync" antes do próximo envio e deve recarregar os dados pela API.
+ */
+final class StreamSubscription {
+
+    /** Evento pendente: nome (campo "event" do SSE) e conteúdo em JSON */
+    record StreamEvent(String name, Object data) {
+    }
+
+    private static final StreamEvent HEARTBEAT = new StreamEvent(null, null);
+
+    private final long id;
+    private final SseEmitter emitter;
+    private final Set<String> isbns;
+    private final Set<String> matriculas;
+    private final int capacity;
+
+    // Estado protegido por "buffer"
+    private final ArrayDeque<StreamEvent> buffer;
+    private boolean sending;
+    private int droppedSinceLastSend;
+    private long sent;
+    private long dropped;
+
+    private volatile boolean closed;
+
+    StreamSubscription(long id, SseEmitter emitter, Set<String> isbns, Set<String> matriculas, int capacity) {
+        this.id = id;
+        this.emitter = emitter;
+        this.isbns = Set.copyOf(isbns);
+        this.matriculas = Set.copyOf(matriculas);
+        this.capacity = Math.max(1, capacity);
+        this.buffer = new ArrayDeque<>(Math.min(this.capacity, 64));
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Set<String> getIsbns() {
+        return isbns;
+    }
+
+    Set<String> getMatriculas() {
+        return matriculas;
+    }
+
+    /** Sem filtros: recebe os eventos de todos os livros */
+    boolean followsAll() {
+        return isbns.isEmpty() && matriculas.isEmpty();
+    }
+
+    boolean followsBook(String isbn) {
+        return followsAll() || isbns.contains(isbn);
+    }
+
+    boolean followsStudent(String matricula) {
+        return matricula != null && matriculas.contains(matricula);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Enfileira um evento (descartando o mais antigo se a fila estiver cheia)
+     * e agenda o envio se não houver um em andamento
+     */
+    void offer(String name, Object data, Executor senders) {
+        enqueue(new StreamEvent(name, data), senders, false);
+    }
+
+    /**
+     * Comentário de manutenção da conexão; só entra com a fila vazia (não
+     * descarta eventos) e detecta clientes que já desconectaram
+     */
+    void heartbeat(Executor senders) {
+        enqueue(HEARTBEAT, senders, true);
+    }
+
+    /** Envia os eventos pendentes até esvaziar a fila (roda no executor de envio) */
+    private void drain() {
+        while (true) {
+            StreamEvent event;
+            int drops;
+            synchronized (buffer) {
+                event = buffer.poll();
+                if (event == null || closed) {
+                    sending = false;
+                    return;
+                }
+                drops = droppedSinceLastSend;
+                droppedSinceLastSend = 0;
+            }
+            try {
+                if (drops > 0) {
+                    emitter.send(SseEmitter.event().name("resync")
+                            .data(Map.of("droppedEvents", drops), MediaType.APPLICATION_JSON));
+                }
+                if (event == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } else {
+                    emitter.send(SseEmitter.event().name(event.name()).data(event.data(), MediaType.APPLICATION_JSON));
+                    synchronized (buffer) {
+                        sent++;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado ou conexão já encerrada
+                close();
+            }
+        }
+    }
+
+    /** Encerra a conexão; eventos pendentes são descartados */
+    void close() {
+        closed = true;
+        synchronized (buffer) {
+            buffer.clear();
+        }
+        try {
+            emitter.complete();
+        } catch (IllegalStateException ignored) {
+            // Já encerrada pelo contêiner
+        }
+    }
+
+    /** Eventos enviados, descartados por fila cheia e pendentes */
+    long[] counters() {
+        synchronized (buffer) {
+            return new long[] {sent, dropped, buffer.size()};
+        }
+    }
+
+    private void enqueue(StreamEvent event, Executor senders, boolean onlyIfEmpty) {
+        if (closed) {
+            return;
+        }
+        synchronized (buffer) {
+            if (onlyIfEmpty && (!buffer.isEmpty() || sending)) {
+                return;
+            }
+            if (buffer.size() >= capacity) {
+                buffer.poll();
+                droppedSinceLastSend++;
+                dropped++;
+            }
+            buffer.add(event);
+            if (sending) {
+                return;
+            }
+            sending = true;
+        }
+        try {
+            senders.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Aplicação encerrando
+            synchronized (buffer) {
+                sending = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.biblioteca.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bloqueios em memória por livro (ISBN) e por aluno (matrícula), distribuídos
+ * em um número fixo de faixas (stripes).
+ *
+ * <p>Empréstimos e reservas do mesmo livro ou do mesmo aluno passam a ser
+ * executados um de cada vez dentro da JVM, antes de abrir a transação: os
+ * pedidos concorrentes esperam aqui, em vez de se acumularem nos bloqueios de
+ * linha do banco (livro + aluno). O banco continua garantindo a consistência
+ * entre instâncias; este componente só reduz a disputa dentro de cada uma.</p>
+ *
+ * <p>As faixas de uma operação são sempre adquiridas em ordem crescente de
+ * índice, o que impede deadlocks entre operações que bloqueiam as mesmas
+ * chaves em ordens diferentes. Cada faixa registra quantas vezes foi
+ * adquirida, quantas vezes precisou esperar e por quanto tempo.</p>
+ */
+@Component
+public class StripedLockManager {
+
+    private final Stripe[] stripes;
+    private final Duration timeout;
+
+    @Autowired
+    public StripedLockManager(@Value("${biblioteca.locks.stripes:64}") int stripeCount,
+                              @Value("${biblioteca.locks.timeout:PT10S}") Duration timeout) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Quantidade de faixas de bloqueio deve ser pelo menos 1");
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.timeout = timeout;
+    }
+
+    /** Chave de bloqueio de um livro */
+    public static String bookKey(String isbn) {
+        return isbn != null ? "book:" + isbn : null;
+    }
+
+    /** Chave de bloqueio de um aluno */
+    public static String studentKey(String matricula) {
+        return matricula != null ? "student:" + matricula : null;
+    }
+
+    /**
+     * Executa a ação segurando as faixas de todas as chaves informadas
+     * (chaves nulas são ignoradas). Se alguma faixa não for liberada dentro do
+     * tempo limite, a ação não é executada.
+     *
+     * @param action ação a executar (normalmente uma transação inteira)
+     * @param keys   chaves de livro/aluno envolvidas na operação
+     * @return resultado da ação
+     */
+    public <T> T withLocks(Supplier<T> action, String... keys) {
+        int[] indexes = Arrays.stream(keys)
+                .filter(key -> key != null)
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int acquired = 0;
+        try {
+            for (int i = 0; i < indexes.length; i++) {
+                acquire(indexes[i], keys);
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Totais de todas as faixas
+     */
+    public Map<String, Object> getMetrics() {
+        long acquisitions = 0;
+        long contended = 0;
+        long waitNanos = 0;
+        long timeouts = 0;
+        int waiting = 0;
+        int held = 0;
+        for (Stripe stripe : stripes) {
+            acquisitions += stripe.acquisitions.sum();
+            contended += stripe.contended.sum();
+            waitNanos += stripe.waitNanos.sum();
+            timeouts += stripe.timeouts.sum();
+            waiting += stripe.lock.getQueueLength();
+            held += stripe.lock.isLocked() ? 1 : 0;
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("stripes", stripes.length);
+        metrics.put("timeoutMillis", timeout.toMillis());
+        metrics.put("acquisitions", acquisitions);
+        metrics.put("contended", contended);
+        metrics.put("contentionRate", acquisitions == 0 ? 0.0 : (double) contended / acquisitions);
+        metrics.put("totalWaitMillis", toMillis(waitNanos));
+        metrics.put("timeouts", timeouts);
+        metrics.put("heldStripes", held);
+        metrics.put("waitingThreads", waiting);
+        return metrics;
+    }
+
+    /**
+     * Métricas por faixa (apenas as já utilizadas), da maior espera total para
+     * a menor: as primeiras são os pontos quentes
+     */
+    public List<Map<String, Object>> getStripeMetrics() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            long acquisitions = stripe.acquisitions.sum();
+            if (acquisitions == 0 && stripe.timeouts.sum() == 0) {
+                continue;
+            }
+            long contended = stripe.contended.sum();
+            long waitNanos = stripe.waitNanos.sum();
+
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("stripe", i);
+            metrics.put("acquisitions", acquisitions);
+            metrics.put("contended", contended);
+            metrics.put("queueDepth", stripe.lock.getQueueLength());
+            metrics.put("held", stripe.lock.isLocked());
+            metrics.put("totalWaitMillis", toMillis(waitNanos));
+            metrics.put("averageWaitMillis", contended == 0 ? 0.0 : toMillis(waitNanos) / contended);
+            metrics.put("maxWaitMillis", toMillis(stripe.maxWaitNanos.get()));
+            metrics.put("timeouts", stripe.timeouts.sum());
+            metrics.put("lastKey", stripe.lastKey);
+            result.add(metrics);
+        }
+        result.sort(Comparator.comparingDouble((Map<String, Object> m) -> (Double) m.get("totalWaitMillis"))
+                .reversed());
+        return result;
+    }
+
+    private void acquire(int index, String[] keys) {
+        Stripe stripe = stripes[index];
+        if (!stripe.lock.tryLock()) {
+            stripe.contended.increment();
+            long start = System.nanoTime();
+            boolean locked;
+            try {
+                locked = stripe.lock.tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Espera por operação concorrente interrompida");
+            }
+            long waited = System.nanoTime() - start;
+            stripe.waitNanos.add(waited);
+            stripe.maxWaitNanos.accumulate(waited);
+            if (!locked) {
+                stripe.timeouts.increment();
+                throw new RuntimeException("Outra operação com o mesmo livro ou aluno está em andamento; tente novamente");
+            }
+        }
+        stripe.acquisitions.increment();
+        stripe.lastKey = keyFor(index, keys);
+    }
+
+    private String keyFor(int index, String[] keys) {
+        for (String key : keys) {
+            if (key != null && stripeIndex(key) == index) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private int stripeIndex(String key) {
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), stripes.length);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LongAdder acquisitions = new LongAdder();
+        final LongAdder contended = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder timeouts = new LongAdder();
+        volatile String lastKey;
+    }
+}
@@ -50,7 +50,8 @@ INSERT INTO
     keywords,
     synopsis,
     entry_date,
-    quantity
+    quantity,
+    active_reservations_count
   )
 VALUES
   (
@@ -61,7 +62,8 @@ VALUES
     'literatura brasileira, romance, século XIX',
     'Romance clássico da literatura brasileira que narra a história de Bentinho e Capitu.',
     NOW(),
-    5
+    5,
+    0
   ),
   (
     '978-8572326978',
@@ -71,7 +73,8 @@ VALUES
     'naturalismo, literatura brasileira, romance social',
     'Romance naturalista que retrata a vida em um cortiço no Rio de Janeiro do século XIX.',
     NOW(),
-    3
+    3,
+    0
   ),
   (
     '978-8535914094',
@@ -81,7 +84,8 @@ VALUES
     'literatura brasileira, romance, realismo',
     'Romance narrado por um defunto que conta sua própria história de forma irônica.',
     NOW(),
-    4
+    4,
+    0
   ),
   (
     '978-8572326979',
@@ -91,7 +95,8 @@ VALUES
     'romantismo, literatura brasileira, romance indianista',
     'Romance indianista que narra a história de amor entre Iracema e Martim.',
     NOW(),
-    2
+    2,
+    0
   ),
   (
     '978-8572326980',
@@ -101,7 +106,8 @@ VALUES
     'romantismo, literatura brasileira, romance histórico',
     'Romance histórico que narra a história de amor entre Peri e Ceci.',
     NOW(),
-    3
+    3,
+    0
   );
 
 -- Atualizar quantidade de livros (diminuir para criar empréstimo e reserva)
@@ -153,6 +159,7 @@ INSERT INTO
     student_matricula,
     reservation_date,
     queue_position,
+    priority,
     status,
     created_at
   )
@@ -162,6 +169,7 @@ VALUES
     '2024002',
     NOW() - INTERVAL '5 days',
     1,
+    1,
     'ACTIVE',
     NOW() - INTERVAL '5 days'
   );
\ No newline at end of file
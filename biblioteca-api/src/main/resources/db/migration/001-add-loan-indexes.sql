@@ -0,0 +1,8 @@
+-- Índices compostos da tabela loans (também declarados em Loan via @Table(indexes))
+-- Necessários em ambientes com ddl-auto=validate, onde o Hibernate não cria índices
+
+-- Empréstimos em aberto de um aluno (createLoan / canStudentBorrow)
+CREATE INDEX IF NOT EXISTS idx_loans_student_status ON loans (student_matricula, status);
+
+-- Empréstimos por status e vencimento (listagens e atualização de atrasos)
+CREATE INDEX IF NOT EXISTS idx_loans_status_due_date ON loans (status, due_date);
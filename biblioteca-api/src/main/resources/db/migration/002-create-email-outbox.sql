@@ -0,0 +1,21 @@
+-- Fila de saída de e-mails (entidade EmailOutboxMessage)
+-- Necessária em ambientes com ddl-auto=validate, onde o Hibernate não cria tabelas
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type VARCHAR(40) NOT NULL,
+    dedupe_key VARCHAR(120) NOT NULL,
+    to_email VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body VARCHAR(4000) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP,
+    CONSTRAINT uk_email_outbox_dedupe_key UNIQUE (dedupe_key)
+);
+
+-- Mensagens prontas para envio (status PENDING e horário já alcançado)
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
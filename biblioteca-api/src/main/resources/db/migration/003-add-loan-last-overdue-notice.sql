@@ -0,0 +1,4 @@
+-- Data do último aviso de atraso de cada empréstimo (campanha de avisos)
+-- Necessária em ambientes com ddl-auto=validate, onde o Hibernate não cria colunas
+
+ALTER TABLE loans ADD COLUMN IF NOT EXISTS last_overdue_notice_date DATE;
@@ -0,0 +1,22 @@
+-- Importações de arquivos CSV/JSON de livros e alunos (entidade ImportJob)
+-- Necessária em ambientes com ddl-auto=validate, onde o Hibernate não cria tabelas
+
+CREATE TABLE IF NOT EXISTS import_job (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    target VARCHAR(20) NOT NULL,
+    format VARCHAR(10) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    file_name VARCHAR(255),
+    stored_file VARCHAR(1000) NOT NULL,
+    file_size BIGINT NOT NULL DEFAULT 0,
+    bytes_processed BIGINT NOT NULL DEFAULT 0,
+    processed_records BIGINT NOT NULL DEFAULT 0,
+    saved_records BIGINT NOT NULL DEFAULT 0,
+    failed_records BIGINT NOT NULL DEFAULT 0,
+    error_sample TEXT,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL,
+    started_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
@@ -0,0 +1,7 @@
+-- Índice da fila de reservas (também declarado em Reservation via @Table(indexes))
+-- Necessário em ambientes com ddl-auto=validate, onde o Hibernate não cria índices
+
+-- Fila ativa de um livro por posição (listagem da fila e avanço em bloco ao
+-- cancelar/efetivar uma reserva)
+CREATE INDEX IF NOT EXISTS idx_reservations_book_status_position
+    ON reservations (book_isbn, status, queue_position);
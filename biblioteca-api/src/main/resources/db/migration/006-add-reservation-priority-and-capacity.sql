@@ -0,0 +1,16 @@
+-- Capacidade configurável da fila de reservas e classes de prioridade
+-- Necessárias em ambientes com ddl-auto=validate, onde o Hibernate não cria colunas
+
+-- Capacidade padrão (global) e por livro (nula = usa a global)
+ALTER TABLE library_settings ADD COLUMN IF NOT EXISTS max_reservations_per_book INTEGER NOT NULL DEFAULT 5;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS reservation_capacity INTEGER;
+
+-- Prioridade da reserva pelo nível (0 = disciplina, 1 = comum); as reservas
+-- existentes entram na fila comum
+ALTER TABLE reservations ADD COLUMN IF NOT EXISTS priority INTEGER NOT NULL DEFAULT 1;
+
+-- Fila ativa de um livro na ordem de atendimento (prioridade, posição):
+-- substitui o índice por (book_isbn, status, queue_position)
+DROP INDEX IF EXISTS idx_reservations_book_status_position;
+CREATE INDEX IF NOT EXISTS idx_reservations_book_status_priority_position
+    ON reservations (book_isbn, status, priority, queue_position);
@@ -0,0 +1,4 @@
+-- Índice de loans por livro e status (também declarado em Loan via @Table(indexes))
+
+-- Vencimentos dos empréstimos em aberto de um livro (disponibilidade)
+CREATE INDEX IF NOT EXISTS idx_loans_book_status ON loans (book_isbn, status);
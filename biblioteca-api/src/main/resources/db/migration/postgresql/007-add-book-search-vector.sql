@@ -0,0 +1,27 @@
+-- Busca textual do acervo no próprio PostgreSQL (biblioteca.search.backend=postgres)
+-- Coluna tsvector gerada a partir de título, autor, palavras-chave e sinopse,
+-- com dicionário português sem acentos, e índice GIN para as consultas @@
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- Configuração "português sem acentos": remove acentos antes do radical (stem)
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'portuguese_unaccent') THEN
+        CREATE TEXT SEARCH CONFIGURATION portuguese_unaccent (COPY = portuguese);
+        ALTER TEXT SEARCH CONFIGURATION portuguese_unaccent
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+    END IF;
+END
+$$;
+
+-- Pesos por campo: título (A) > autor e palavras-chave (B) > sinopse (C)
+ALTER TABLE books ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('portuguese_unaccent', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('portuguese_unaccent', coalesce(author, '')), 'B') ||
+        setweight(to_tsvector('portuguese_unaccent', coalesce(keywords, '')), 'B') ||
+        setweight(to_tsvector('portuguese_unaccent', coalesce(synopsis, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_books_search_vector ON books USING GIN (search_vector);
@@ -0,0 +1,214 @@
+package com.biblioteca.service;
+
+import com.biblioteca.controller.BookManagementController;
+import com.biblioteca.controller.StudentController;
+import com.biblioteca.dto.SuggestionDTO;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o autocompletar de livros e alunos
+ *
+ * O teste de desempenho (@Tag("benchmark"), fora do mvn test; rode com
+ * mvn test -Pbenchmark) simula a digitação letra a letra sobre um índice
+ * sintético (só em memória); o tamanho pode ser ajustado com
+ * -Dbenchmark.autocompleteEntries=N (padrão: 50000).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class AutocompleteServiceTest {
+
+    private static final int BENCHMARK_ENTRIES = Integer.getInteger("benchmark.autocompleteEntries", 50000);
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private BookManagementController bookController;
+
+    @Autowired
+    private StudentController studentController;
+
+    @Autowired
+    private BatchIngestionService batchIngestionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+        autocompleteService.indexBook(bookRepository.save(book("978-0000000001", "Dom Casmurro", "Machado de Assis")));
+        autocompleteService.indexBook(bookRepository.save(book("978-0000000002", "Memórias Póstumas de Brás Cubas",
+                "Machado de Assis")));
+        autocompleteService.indexBook(bookRepository.save(book("978-0000000003", "Macunaíma", "Mário de Andrade")));
+        autocompleteService.indexStudent(studentRepository.save(student("2024001", "Ana Souza", "11111111111")));
+        autocompleteService.indexStudent(studentRepository.save(student("2024002", "João Álvares", "22222222222")));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        bookRepository.findAll().forEach(book -> autocompleteService.removeBook(book.getIsbn()));
+        studentRepository.findAll().forEach(student -> autocompleteService.removeStudent(student.getMatricula()));
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void testBooksMatchTitleAndAuthorWordPrefixes() {
+        assertEquals(List.of("978-0000000001"), ids(autocompleteService.suggestBooks("dom c", null)));
+        assertEquals(List.of("978-0000000001"), ids(autocompleteService.suggestBooks("casm", null)));
+        assertEquals(List.of("978-0000000002"), ids(autocompleteService.suggestBooks("BRAS", null)));
+        assertEquals(2, autocompleteService.suggestBooks("assis", null).size());
+        assertTrue(autocompleteService.suggestBooks("murro", null).isEmpty());
+        assertTrue(autocompleteService.suggestBooks("  ", null).isEmpty());
+    }
+
+    @Test
+    public void testLeadingMatchesComeFirstWithoutDuplicates() {
+        List<SuggestionDTO> suggestions = autocompleteService.suggestBooks("d", null);
+
+        // "Dom Casmurro" começa com "d"; os demais só têm palavras internas ("de ...")
+        assertEquals(List.of("978-0000000001", "978-0000000003", "978-0000000002"), ids(suggestions));
+
+        SuggestionDTO macunaima = autocompleteService.suggestBooks("macun", null).get(0);
+        assertEquals("Macunaíma", macunaima.getLabel());
+        assertEquals("Mário de Andrade", macunaima.getDetail());
+    }
+
+    @Test
+    public void testStudentsMatchNameAndMatricula() {
+        assertEquals(List.of("2024002"), ids(autocompleteService.suggestStudents("alv", null)));
+        assertEquals(List.of("2024001"), ids(autocompleteService.suggestStudents("souza", null)));
+        assertEquals(2, autocompleteService.suggestStudents("2024", null).size());
+
+        SuggestionDTO ana = autocompleteService.suggestStudents("ana", null).get(0);
+        assertEquals("Ana Souza", ana.getLabel());
+        assertEquals("2024001@test.com", ana.getDetail());
+    }
+
+    @Test
+    public void testLimitIsApplied() {
+        assertEquals(1, autocompleteService.suggestBooks("ma", 1).size());
+        assertEquals(2, autocompleteService.suggestStudents("2024", 500).size());
+    }
+
+    @Test
+    public void testIndexFollowsControllerWrites() {
+        bookController.createBook(book("978-0000000004", "Iracema", "José de Alencar"));
+        assertEquals(List.of("978-0000000004"), ids(autocompleteService.suggestBooks("irac", null)));
+
+        bookController.updateBook("978-0000000004", book("978-0000000004", "O Guarani", "José de Alencar"));
+        assertTrue(autocompleteService.suggestBooks("irac", null).isEmpty());
+        assertEquals(List.of("978-0000000004"), ids(autocompleteService.suggestBooks("guar", null)));
+
+        bookController.deleteBook("978-0000000004");
+        assertTrue(autocompleteService.suggestBooks("alencar", null).isEmpty());
+
+        studentController.createStudent(student("2024003", "Carla Dias", "33333333333"));
+        assertEquals(List.of("2024003"), ids(autocompleteService.suggestStudents("carla", null)));
+
+        Student renamed = student("2024003", "Carla Mendes", "33333333333");
+        studentController.updateStudent("2024003", renamed);
+        assertTrue(autocompleteService.suggestStudents("dias", null).isEmpty());
+        assertEquals(List.of("2024003"), ids(autocompleteService.suggestStudents("mend", null)));
+
+        studentController.deleteStudent("2024003");
+        assertTrue(autocompleteService.suggestStudents("carla", null).isEmpty());
+    }
+
+    @Test
+    public void testBatchIngestionIndexesSavedItems() {
+        batchIngestionService.ingestBooks(List.of(book("978-0000000005", "Senhora", "José de Alencar")));
+        batchIngestionService.ingestStudents(List.of(
+                student("2024004", "Pedro Lima", "44444444444"),
+                student("2024001", "Matrícula Repetida", "55555555555")));
+
+        assertEquals(List.of("978-0000000005"), ids(autocompleteService.suggestBooks("senh", null)));
+        assertEquals(List.of("2024004"), ids(autocompleteService.suggestStudents("pedro", null)));
+        assertTrue(autocompleteService.suggestStudents("repetida", null).isEmpty());
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testKeystrokeLatencyOnSyntheticIndex() {
+        String[] names = {"ana", "bruno", "carla", "daniel", "eduarda", "felipe", "gabriela", "henrique",
+                "isabela", "joao", "karina", "lucas", "mariana", "nicolas", "olivia", "pedro"};
+        String[] surnames = {"silva", "souza", "oliveira", "santos", "pereira", "lima", "carvalho", "ferreira",
+                "rodrigues", "almeida", "costa", "gomes", "martins", "araujo", "barbosa", "ribeiro"};
+        Random random = new Random(7);
+        PrefixIndex index = new PrefixIndex();
+        for (int i = 0; i < BENCHMARK_ENTRIES; i++) {
+            String name = names[random.nextInt(names.length)] + " " + surnames[random.nextInt(surnames.length)]
+                    + " " + surnames[random.nextInt(surnames.length)];
+            index.put("M" + i, name, null, name, "M" + i);
+        }
+
+        String[] typed = {"mariana oliveira", "santos", "m1234", "joao costa gomes"};
+        int rounds = 100;
+        long[] latencies = new long[rounds * Arrays.stream(typed).mapToInt(String::length).sum()];
+        int n = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String text : typed) {
+                for (int length = 1; length <= text.length(); length++) {
+                    long keystroke = System.nanoTime();
+                    index.lookup(text.substring(0, length), AutocompleteService.DEFAULT_LIMIT);
+                    latencies[n++] = System.nanoTime() - keystroke;
+                }
+            }
+        }
+        Arrays.sort(latencies);
+        assertFalse(index.lookup("mariana oliveira", AutocompleteService.DEFAULT_LIMIT).isEmpty());
+
+        double medianMillis = latencies[latencies.length / 2] / 1_000_000.0;
+        double p99Millis = latencies[latencies.length * 99 / 100] / 1_000_000.0;
+        assertTrue(medianMillis < 0.5, "tecla mediana = " + medianMillis + " ms");
+        assertTrue(p99Millis < 5, "tecla p99 = " + p99Millis + " ms");
+    }
+
+    private List<String> ids(List<SuggestionDTO> suggestions) {
+        return suggestions.stream().map(SuggestionDTO::getId).toList();
+    }
+
+    private Book book(String isbn, String title, String author) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setQuantity(3);
+        book.setActiveReservationsCount(0);
+        return book;
+    }
+
+    private Student student(String matricula, String nome, String cpf) {
+        Student student = new Student();
+        student.setMatricula(matricula);
+        student.setNome(nome);
+        student.setCpf(cpf);
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail(matricula + "@test.com");
+        student.setReservationsCount(0);
+        return student;
+    }
+}
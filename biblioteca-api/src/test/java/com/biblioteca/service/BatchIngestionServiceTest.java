@@ -0,0 +1,173 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.StudentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o cadastro em lote de livros e alunos
+ * Usa blocos de 3 itens para exercitar vários blocos por lote. Sem
+ * @Transactional: cada bloco é gravado na sua própria transação.
+ */
+@SpringBootTest(properties = "biblioteca.batch.chunk-size=3")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class BatchIngestionServiceTest {
+
+    @Autowired
+    private BatchIngestionService batchIngestionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+        bookRepository.save(book("978-0000000001", "Dom Casmurro"));
+        studentRepository.save(student("MAT001", "12345678901", "existente@test.com"));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void testIngestBooksReportsDuplicatesAndSavesTheRest() {
+        List<Book> books = List.of(
+                book("978-0000000002", "Livro 2"),
+                book("978-0000000001", "Já cadastrado"),
+                book("978-0000000003", "Livro 3"),
+                book("978-0000000004", "Livro 4"),
+                book("978-0000000002", "Repetido no lote"),
+                book("978-0000000005", "Livro 5"),
+                book("978-0000000006", "Livro 6"));
+
+        BatchIngestionService.BatchResult<Book> result = batchIngestionService.ingestBooks(books);
+
+        assertEquals(5, result.getSaved().size());
+        assertEquals(2, result.getErrors().size());
+        assertTrue(result.getErrors().stream()
+                .allMatch(e -> e.get("message").equals("Livro com este ISBN já existe")));
+        assertTrue(result.getErrors().stream().anyMatch(e -> e.get("title").equals("Repetido no lote")));
+
+        assertEquals(6, bookRepository.count());
+        assertEquals("Livro 2", bookRepository.findById("978-0000000002").orElseThrow().getTitle());
+        assertNotNull(bookRepository.findById("978-0000000006").orElseThrow().getEntryDate());
+    }
+
+    @Test
+    public void testIngestBooksRunsOneDuplicateLookupPerChunk() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Book> books = List.of(
+                book("978-0000000011", "Livro 11"),
+                book("978-0000000012", "Livro 12"),
+                book("978-0000000013", "Livro 13"),
+                book("978-0000000014", "Livro 14"),
+                book("978-0000000015", "Livro 15"),
+                book("978-0000000016", "Livro 16"),
+                book("978-0000000017", "Livro 17"));
+
+        batchIngestionService.ingestBooks(books);
+
+        // 7 livros em blocos de 3: uma consulta IN por bloco, nenhuma por livro
+        assertEquals(3, statistics.getQueryExecutionCount());
+        assertEquals(7, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    public void testIngestBooksFallsBackToSingleInsertsWhenChunkFails() {
+        Book invalid = book("978-0000000022", "Sem autor");
+        invalid.setAuthor(null);
+
+        List<Book> books = List.of(
+                book("978-0000000021", "Livro 21"),
+                invalid,
+                book("978-0000000023", "Livro 23"));
+
+        BatchIngestionService.BatchResult<Book> result = batchIngestionService.ingestBooks(books);
+
+        assertEquals(2, result.getSaved().size());
+        assertEquals(1, result.getErrors().size());
+        Map<String, String> error = result.getErrors().get(0);
+        assertEquals("978-0000000022", error.get("isbn"));
+        assertTrue(error.get("message").startsWith("Erro ao salvar"));
+
+        assertTrue(bookRepository.existsById("978-0000000021"));
+        assertTrue(bookRepository.existsById("978-0000000023"));
+        assertFalse(bookRepository.existsById("978-0000000022"));
+    }
+
+    @Test
+    public void testIngestStudentsChecksMatriculaCpfAndEmail() {
+        List<Student> students = List.of(
+                student("MAT002", "12345678902", "Novo@Test.com"),
+                student("MAT001", "12345678903", "outro@test.com"),
+                student("MAT003", "12345678901", "terceiro@test.com"),
+                student("MAT004", "12345678904", "EXISTENTE@test.com"),
+                student("MAT005", "12345678905", "novo@test.com"),
+                student("MAT006", "12345678906", "sexto@test.com"));
+
+        BatchIngestionService.BatchResult<Student> result = batchIngestionService.ingestStudents(students);
+
+        assertEquals(2, result.getSaved().size());
+        List<String> messages = result.getErrors().stream().map(e -> e.get("message")).toList();
+        assertEquals(List.of(
+                "Aluno com esta matrícula já existe",
+                "Aluno com este CPF já existe",
+                "Aluno com este e-mail já existe",
+                "Aluno com este e-mail já existe"), messages);
+
+        Student saved = studentRepository.findById("MAT002").orElseThrow();
+        assertEquals("novo@test.com", saved.getEmail());
+        assertEquals(0, saved.getReservationsCount());
+        assertTrue(studentRepository.existsById("MAT006"));
+    }
+
+    private Book book(String isbn, String title) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor("Autor");
+        book.setQuantity(3);
+        book.setActiveReservationsCount(0);
+        return book;
+    }
+
+    private Student student(String matricula, String cpf, String email) {
+        Student student = new Student();
+        student.setMatricula(matricula);
+        student.setNome("Aluno " + matricula);
+        student.setCpf(cpf);
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail(email);
+        student.setReservationsCount(0);
+        return student;
+    }
+}
@@ -49,7 +49,6 @@ public class BibliotecaIntegrationTest {
     @Autowired
     private BookService bookService;
 
-    @SuppressWarnings("unused")
     @Autowired
     private LibrarySettingsService settingsService;
 
@@ -295,7 +294,7 @@ public class BibliotecaIntegrationTest {
     public void testConfigurationChangesAffectNewLoans() {
         // 1. Mudar prazo de devolução para 21 dias
         settings.setLoanPeriodDays(21);
-        settingsRepository.save(settings);
+        settingsService.updateSettings(settings);
 
         // 2. Criar novo empréstimo
         LoanRequestDTO loanRequest = new LoanRequestDTO();
@@ -314,7 +313,7 @@ public class BibliotecaIntegrationTest {
 
         // 4. Mudar multa por dia para 150
         settings.setFinePerDay(150);
-        settingsRepository.save(settings);
+        settingsService.updateSettings(settings);
 
         // 5. Devolver com atraso
         LocalDateTime returnDate = loan.getDueDate().plusDays(5);
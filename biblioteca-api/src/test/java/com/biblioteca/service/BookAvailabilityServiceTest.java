@@ -0,0 +1,193 @@
+package com.biblioteca.service;
+
+import com.biblioteca.controller.BookManagementController;
+import com.biblioteca.dto.BookAvailabilityDTO;
+import com.biblioteca.dto.LoanRequestDTO;
+import com.biblioteca.dto.LoanResponseDTO;
+import com.biblioteca.dto.ReservationRequestDTO;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.ReservationRepository;
+import com.biblioteca.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para a disponibilidade dos livros em memória
+ * Atualização pelos eventos de empréstimo e reserva (sem ir ao banco),
+ * descarte nas gravações do livro e verificação de consistência
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class BookAvailabilityServiceTest {
+
+    private static final String ISBN = "978-0000000001";
+
+    @Autowired
+    private BookAvailabilityService availabilityService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookManagementController bookController;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+        bookRepository.save(book(ISBN, "Dom Casmurro", 1));
+        studentRepository.save(student("2024001", "Ana Souza", "11111111111"));
+        availabilityService.rebuild();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        loanRepository.deleteAll();
+        reservationRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void testWarmedBookIsServedFromMemory() {
+        long misses = stat("misses");
+
+        BookAvailabilityDTO availability = bookService.checkBookAvailability(ISBN);
+
+        assertEquals("Dom Casmurro", availability.getBookTitle());
+        assertEquals(1, availability.getQuantity());
+        assertTrue(availability.getIsAvailable());
+        assertEquals(0, availability.getActiveReservationsCount());
+        assertNull(availability.getNextAvailableDate());
+        assertEquals(misses, stat("misses"));
+        assertThrows(RuntimeException.class, () -> bookService.checkBookAvailability("978-9999999999"));
+    }
+
+    @Test
+    public void testLoanAndReturnUpdateAvailabilityAfterCommit() {
+        LoanResponseDTO loan = loanService.createLoan(loanRequest());
+        long misses = stat("misses");
+
+        BookAvailabilityDTO lent = bookService.checkBookAvailability(ISBN);
+        assertEquals(0, lent.getQuantity());
+        assertFalse(lent.getIsAvailable());
+        assertFalse(loanService.isBookAvailable(ISBN));
+        assertEquals(loan.getDueDate().truncatedTo(ChronoUnit.SECONDS), lent.getNextAvailableDate());
+        assertEquals(misses, stat("misses"));
+
+        loanService.returnLoan(loan.getId(), null);
+        BookAvailabilityDTO returned = bookService.checkBookAvailability(ISBN);
+        assertEquals(1, returned.getQuantity());
+        assertNull(returned.getNextAvailableDate());
+        assertEquals(misses, stat("misses"));
+    }
+
+    @Test
+    public void testReservationUpdatesQueueSize() {
+        ReservationRequestDTO request = new ReservationRequestDTO();
+        request.setBookIsbn(ISBN);
+        request.setStudentMatricula("2024001");
+        Long reservationId = reservationService.createReservation(request).getId();
+
+        assertEquals(1, bookService.checkBookAvailability(ISBN).getActiveReservationsCount());
+
+        reservationService.cancelReservation(reservationId);
+        assertEquals(0, bookService.checkBookAvailability(ISBN).getActiveReservationsCount());
+    }
+
+    @Test
+    public void testBookWritesReloadFromDatabase() {
+        assertEquals(1, bookService.checkBookAvailability(ISBN).getQuantity());
+
+        bookController.updateBook(ISBN, book(ISBN, "Dom Casmurro (edição anotada)", 4));
+        BookAvailabilityDTO updated = bookService.checkBookAvailability(ISBN);
+        assertEquals(4, updated.getQuantity());
+        assertEquals("Dom Casmurro (edição anotada)", updated.getBookTitle());
+
+        LoanResponseDTO loan = loanService.createLoan(loanRequest());
+        loanService.deleteLoan(loan.getId());
+        assertEquals(4, bookService.checkBookAvailability(ISBN).getQuantity());
+
+        bookController.deleteBook(ISBN);
+        assertTrue(availabilityService.getAvailability(ISBN).isEmpty());
+    }
+
+    @Test
+    public void testConsistencyCheckRepairsOutOfBandChanges() {
+        assertEquals(1, bookService.checkBookAvailability(ISBN).getQuantity());
+
+        // Alteração direta no banco, sem passar pelos serviços
+        bookRepository.incrementQuantity(ISBN);
+        assertEquals(1, bookService.checkBookAvailability(ISBN).getQuantity());
+
+        Map<String, Object> result = availabilityService.checkConsistency();
+        assertEquals(1, result.get("divergentBooks"));
+        assertEquals(2, bookService.checkBookAvailability(ISBN).getQuantity());
+
+        assertEquals(0, availabilityService.checkConsistency().get("divergentBooks"));
+    }
+
+    private long stat(String name) {
+        return ((Number) availabilityService.getStats().get(name)).longValue();
+    }
+
+    private LoanRequestDTO loanRequest() {
+        LoanRequestDTO request = new LoanRequestDTO();
+        request.setBookIsbn(ISBN);
+        request.setStudentMatricula("2024001");
+        return request;
+    }
+
+    private Book book(String isbn, String title, int quantity) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor("Machado de Assis");
+        book.setQuantity(quantity);
+        book.setActiveReservationsCount(0);
+        return book;
+    }
+
+    private Student student(String matricula, String nome, String cpf) {
+        Student student = new Student();
+        student.setMatricula(matricula);
+        student.setNome(nome);
+        student.setCpf(cpf);
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail(matricula + "@test.com");
+        student.setReservationsCount(0);
+        return student;
+    }
+}
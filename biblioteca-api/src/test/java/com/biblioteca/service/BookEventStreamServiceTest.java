@@ -0,0 +1,237 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.LoanRequestDTO;
+import com.biblioteca.dto.ReservationRequestDTO;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.ReservationRepository;
+import com.biblioteca.repository.StudentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o canal de eventos (SSE)
+ * Eventos de estoque e fila enviados após o commit, filtro por matrícula e
+ * descarte dos eventos mais antigos com a fila da conexão cheia
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class BookEventStreamServiceTest {
+
+    private static final String ISBN = "978-0000000001";
+    private static final ExecutorService clientExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "event-stream-test-client");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+        bookRepository.save(book(ISBN, "Dom Casmurro", 1));
+        studentRepository.save(student("2024001", "Ana Souza", "11111111111"));
+        studentRepository.save(student("2024002", "Bruno Lima", "22222222222"));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        loanRepository.deleteAll();
+        reservationRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @AfterAll
+    public static void stopClients() {
+        clientExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testStockAndQueueChangesArePushed() throws Exception {
+        BlockingQueue<String> stream = open("?isbn=" + ISBN);
+
+        Long reservationId = reservationService.createReservation(reservationRequest("2024001")).getId();
+        Map<String, Object> book = next(stream, "book");
+        assertEquals(ISBN, book.get("isbn"));
+        assertEquals(1, book.get("activeReservationsCount"));
+        Map<String, Object> queue = next(stream, "queue");
+        assertEquals(reservationId.intValue(), ((Number) queue.get("reservationId")).intValue());
+        assertEquals("ACTIVE", queue.get("status"));
+        assertEquals(1, ((List<?>) queue.get("queue")).size());
+
+        LoanRequestDTO loan = new LoanRequestDTO();
+        loan.setBookIsbn(ISBN);
+        loan.setStudentMatricula("2024002");
+        loanService.createLoan(loan);
+        Map<String, Object> lent = next(stream, "book");
+        assertEquals(0, lent.get("quantity"));
+        assertEquals(false, lent.get("available"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStudentFilterReceivesOnlyOwnPositions() throws Exception {
+        Long first = reservationService.createReservation(reservationRequest("2024001")).getId();
+        Long second = reservationService.createReservation(reservationRequest("2024002")).getId();
+        BlockingQueue<String> stream = open("?matricula=2024002");
+
+        reservationService.cancelReservation(first);
+        Map<String, Object> queue = next(stream, "queue");
+        assertNull(queue.get("reservationId"));
+        List<Map<String, Object>> own = (List<Map<String, Object>>) queue.get("queue");
+        assertEquals(1, own.size());
+        assertEquals(second.intValue(), ((Number) own.get(0).get("reservationId")).intValue());
+        assertEquals(1, own.get(0).get("queuePosition"));
+
+        reservationService.cancelReservation(second);
+        Map<String, Object> cancelled = next(stream, "queue");
+        assertEquals("CANCELLED", cancelled.get("status"));
+        assertTrue(((List<?>) cancelled.get("queue")).isEmpty());
+    }
+
+    @Test
+    public void testFullBufferDropsOldestAndAsksForResync() {
+        CapturingEmitter emitter = new CapturingEmitter();
+        List<Runnable> scheduled = new ArrayList<>();
+        StreamSubscription subscription = new StreamSubscription(1, emitter, Set.of(ISBN), Set.of(), 2);
+
+        for (int i = 1; i <= 5; i++) {
+            subscription.offer("book", Map.of("quantity", i), scheduled::add);
+        }
+        assertEquals(1, scheduled.size());
+        scheduled.get(0).run();
+
+        assertEquals(3, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("event:resync"));
+        assertTrue(emitter.events.get(0).contains("droppedEvents=3"));
+        assertTrue(emitter.events.get(1).contains("quantity=4"));
+        assertTrue(emitter.events.get(2).contains("quantity=5"));
+        assertEquals(3, subscription.counters()[1]);
+    }
+
+    /**
+     * Abre uma conexão e devolve as linhas recebidas, após o evento "subscribed"
+     */
+    private BlockingQueue<String> open(String query) throws Exception {
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events/stream" + query))
+                .header("Accept", "text/event-stream")
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenAcceptAsync(response -> response.body().forEach(lines::add), clientExecutor);
+        next(lines, "subscribed");
+        return lines;
+    }
+
+    /**
+     * Próximo evento com o nome informado (os demais são ignorados)
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> next(BlockingQueue<String> lines, String name) throws Exception {
+        boolean found = false;
+        while (true) {
+            String line = lines.poll(5, TimeUnit.SECONDS);
+            assertNotNull(line, "Evento \"" + name + "\" não recebido");
+            if (line.equals("event:" + name)) {
+                found = true;
+            } else if (found && line.startsWith("data:")) {
+                return objectMapper.readValue(line.substring("data:".length()), Map.class);
+            }
+        }
+    }
+
+    private ReservationRequestDTO reservationRequest(String matricula) {
+        ReservationRequestDTO request = new ReservationRequestDTO();
+        request.setBookIsbn(ISBN);
+        request.setStudentMatricula(matricula);
+        return request;
+    }
+
+    private Book book(String isbn, String title, int quantity) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor("Machado de Assis");
+        book.setQuantity(quantity);
+        book.setActiveReservationsCount(0);
+        return book;
+    }
+
+    private Student student(String matricula, String nome, String cpf) {
+        Student student = new Student();
+        student.setMatricula(matricula);
+        student.setNome(nome);
+        student.setCpf(cpf);
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail(matricula + "@test.com");
+        student.setReservationsCount(0);
+        return student;
+    }
+
+    /**
+     * Emissor que guarda o texto de cada evento enviado
+     */
+    private static class CapturingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            events.add(text.toString());
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.biblioteca.service;
+
+import com.biblioteca.controller.BookManagementController;
+import com.biblioteca.dto.BookSearchResultDTO;
+import com.biblioteca.model.Book;
+import com.biblioteca.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para a busca textual do acervo (/api/books/search)
+ * O índice é remontado a partir do banco antes de cada teste.
+ *
+ * O teste de desempenho (@Tag("benchmark"), fora do mvn test; rode com
+ * mvn test -Pbenchmark) usa um acervo sintético só em memória; o tamanho pode
+ * ser ajustado com -Dbenchmark.searchBooks=N (padrão: 20000).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class CatalogSearchServiceTest {
+
+    private static final int BENCHMARK_BOOKS = Integer.getInteger("benchmark.searchBooks", 20000);
+
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+
+    @Autowired
+    private BookManagementController bookController;
+
+    @Autowired
+    private BatchIngestionService batchIngestionService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        bookRepository.deleteAll();
+        bookRepository.save(book("978-0000000001", "Memórias Póstumas de Brás Cubas", "Machado de Assis",
+                "romance, realismo", "Narrado por um defunto autor."));
+        bookRepository.save(book("978-0000000002", "Dom Casmurro", "Machado de Assis",
+                "romance, ciúme", "Bentinho e Capitu."));
+        bookRepository.save(book("978-0000000003", "Vidas Secas", "Graciliano Ramos",
+                "sertão, seca", "Uma família de retirantes; lembra as memórias do autor."));
+        bookRepository.save(book("978-0000000004", "Ação e Reação", "Autor Exemplo",
+                "física", null));
+        catalogSearchService.rebuild();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    public void testSearchIgnoresAccentsAndCase() {
+        assertEquals(List.of("978-0000000001"), isbns(catalogSearchService.search("MEMORIAS postumas", null)));
+        assertEquals(List.of("978-0000000004"), isbns(catalogSearchService.search("acao", null)));
+        assertEquals(List.of("978-0000000003"), isbns(catalogSearchService.search("sertao", null)));
+    }
+
+    @Test
+    public void testLastTermMatchesByPrefix() {
+        assertEquals(List.of("978-0000000002"), isbns(catalogSearchService.search("dom cas", null)));
+        assertEquals(List.of("978-0000000003"), isbns(catalogSearchService.search("gracil", null)));
+        // Apenas o último termo casa por prefixo
+        assertTrue(catalogSearchService.search("cas dom", null).isEmpty());
+    }
+
+    @Test
+    public void testAllTermsMustMatch() {
+        assertEquals(2, catalogSearchService.search("machado", null).size());
+        assertEquals(List.of("978-0000000002"), isbns(catalogSearchService.search("machado capitu", null)));
+        assertTrue(catalogSearchService.search("machado sertao", null).isEmpty());
+        // Apenas palavras vazias: nada a buscar
+        assertTrue(catalogSearchService.search("de um", null).isEmpty());
+    }
+
+    @Test
+    public void testTitleMatchOutranksSynopsisMatch() {
+        List<BookSearchResultDTO> results = catalogSearchService.search("memórias", null);
+
+        assertEquals(List.of("978-0000000001", "978-0000000003"), isbns(results));
+        assertTrue(results.get(0).getScore() > results.get(1).getScore());
+        assertEquals("Memórias Póstumas de Brás Cubas", results.get(0).getTitle());
+        assertEquals(3, results.get(0).getQuantity());
+    }
+
+    @Test
+    public void testLimitKeepsBestResults() {
+        List<BookSearchResultDTO> results = catalogSearchService.search("machado", 1);
+
+        assertEquals(1, results.size());
+        assertEquals(catalogSearchService.search("machado", null).get(0).getIsbn(), results.get(0).getIsbn());
+    }
+
+    @Test
+    public void testIndexFollowsCreateUpdateAndDelete() {
+        bookController.createBook(book("978-0000000005", "O Cortiço", "Aluísio Azevedo", "naturalismo", null));
+        assertEquals(List.of("978-0000000005"), isbns(catalogSearchService.search("cortico", null)));
+
+        Book changed = book("978-0000000005", "Casa de Pensão", "Aluísio Azevedo", "naturalismo", null);
+        bookController.updateBook("978-0000000005", changed);
+        assertTrue(catalogSearchService.search("cortico", null).isEmpty());
+        assertEquals(List.of("978-0000000005"), isbns(catalogSearchService.search("pensao", null)));
+
+        bookController.deleteBook("978-0000000005");
+        assertTrue(catalogSearchService.search("pensao", null).isEmpty());
+        assertTrue(catalogSearchService.search("azevedo", null).isEmpty());
+    }
+
+    @Test
+    public void testBatchIngestionIndexesSavedBooks() {
+        batchIngestionService.ingestBooks(List.of(
+                book("978-0000000006", "Iracema", "José de Alencar", "indianismo", null),
+                book("978-0000000001", "Duplicado", "Ninguém", null, null)));
+
+        assertEquals(List.of("978-0000000006"), isbns(catalogSearchService.search("iracema", null)));
+        assertTrue(catalogSearchService.search("duplicado", null).isEmpty());
+    }
+
+    @Test
+    public void testRebuildPicksUpBooksWrittenDirectly() {
+        bookRepository.save(book("978-0000000007", "O Guarani", "José de Alencar", null, null));
+        assertTrue(catalogSearchService.search("guarani", null).isEmpty());
+
+        assertEquals(5, catalogSearchService.rebuild());
+        assertEquals(List.of("978-0000000007"), isbns(catalogSearchService.search("guarani", null)));
+    }
+
+    @Test
+    public void testRemovedBooksAreCompactedAway() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            books.add(book("TMP-" + i, "Volume " + i, "Autor Temporario", null, null));
+        }
+        catalogSearchService.indexAll(books);
+        for (int i = 0; i < 1500; i++) {
+            catalogSearchService.remove("TMP-" + i);
+        }
+
+        Map<String, Object> stats = catalogSearchService.getStats();
+        assertEquals(504, stats.get("documents"));
+        assertTrue((Integer) stats.get("deletedDocuments") < 1024);
+
+        List<CatalogSearchService.Hit> hits = catalogSearchService.searchIsbns("temporario", 1000);
+        assertEquals(500, hits.size());
+        assertTrue(hits.stream().allMatch(hit -> Integer.parseInt(hit.isbn().substring(4)) >= 1500));
+        assertEquals(List.of("TMP-1999"), catalogSearchService.searchIsbns("volume 1999", 10)
+                .stream().map(CatalogSearchService.Hit::isbn).toList());
+    }
+
+    @Test
+    public void testPostgresBackendWithoutSearchVectorFailsStartup() {
+        assertEquals(CatalogSearchService.SearchBackend.MEMORY, catalogSearchService.getBackend());
+
+        // No H2 não há coluna search_vector: configurado como postgres, não sobe
+        CatalogSearchService postgresConfigured = new CatalogSearchService(bookRepository, jdbcTemplate, "postgres");
+
+        assertThrows(IllegalStateException.class, postgresConfigured::resolveBackend);
+    }
+
+    @Test
+    public void testTsQueryMatchesInMemorySemantics() {
+        assertEquals("memorias & postumas:*",
+                CatalogSearchService.toTsQuery(SearchTokenizer.tokenize("Memórias de Póstumas")));
+        assertEquals("dom & c", CatalogSearchService.toTsQuery(SearchTokenizer.tokenize("dom c")));
+        assertEquals("acao:*", CatalogSearchService.toTsQuery(SearchTokenizer.tokenize("Ação!")));
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testSearchLatencyOnSyntheticCatalog() {
+        String[] words = {"historia", "brasil", "romance", "poesia", "ciencia", "fisica", "quimica",
+                "biologia", "matematica", "filosofia", "arte", "musica", "guerra", "paz", "amor",
+                "viagem", "mar", "sertao", "cidade", "memorias", "contos", "cronicas", "teatro",
+                "direito", "economia", "politica", "sociologia", "geografia", "literatura", "infantil"};
+        Random random = new Random(42);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BENCHMARK_BOOKS; i++) {
+            books.add(book("BENCH-" + i,
+                    words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i,
+                    "Autor " + random.nextInt(5000),
+                    words[random.nextInt(words.length)] + ", " + words[random.nextInt(words.length)],
+                    words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                            + " " + words[random.nextInt(words.length)]));
+        }
+        catalogSearchService.indexAll(books);
+
+        String[] queries = {"historia", "brasil rom", "memorias mar", "fis", "amor guerra paz", "autor 12"};
+        int rounds = 200;
+        long[] latencies = new long[queries.length * rounds];
+        int n = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String query : queries) {
+                long queryStart = System.nanoTime();
+                List<CatalogSearchService.Hit> hits = catalogSearchService.searchIsbns(query, 20);
+                latencies[n++] = System.nanoTime() - queryStart;
+                assertFalse(hits.isEmpty(), query);
+            }
+        }
+        Arrays.sort(latencies);
+
+        double medianMillis = latencies[latencies.length / 2] / 1_000_000.0;
+        double p99Millis = latencies[latencies.length * 99 / 100] / 1_000_000.0;
+        assertTrue(medianMillis < 5, "consulta mediana = " + medianMillis + " ms");
+        assertTrue(p99Millis < 50, "consulta p99 = " + p99Millis + " ms");
+    }
+
+    private List<String> isbns(List<BookSearchResultDTO> results) {
+        return results.stream().map(BookSearchResultDTO::getIsbn).toList();
+    }
+
+    private Book book(String isbn, String title, String author, String keywords, String synopsis) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setKeywords(keywords);
+        book.setSynopsis(synopsis);
+        book.setQuantity(3);
+        book.setActiveReservationsCount(0);
+        return book;
+    }
+}
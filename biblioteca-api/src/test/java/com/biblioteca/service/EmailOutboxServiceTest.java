@@ -0,0 +1,203 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.EmailOutboxMessage;
+import com.biblioteca.model.EmailOutboxMessage.NotificationType;
+import com.biblioteca.model.EmailOutboxMessage.OutboxStatus;
+import com.biblioteca.repository.EmailOutboxRepository;
+import com.biblioteca.service.EmailOutboxService.QueuedEmail;
+import jakarta.mail.Message;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para a fila de saída de e-mails
+ * Envia para um servidor SMTP em memória (FakeSmtpServer)
+ *
+ * Sem @Transactional: o envio lê e grava a fila em transações próprias.
+ * O envio logo após enfileirar fica desligado para que cada teste controle
+ * quando os lotes são enviados.
+ */
+@SpringBootTest(properties = {
+        "spring.mail.host=127.0.0.1",
+        "spring.mail.username=biblioteca@test.com",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "spring.mail.properties.mail.smtp.starttls.required=false",
+        "biblioteca.mail.outbox.dispatch-on-enqueue=false",
+        "biblioteca.mail.outbox.max-attempts=2",
+        "biblioteca.mail.outbox.retry-backoff=PT1M"
+})
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class EmailOutboxServiceTest {
+
+    private static final FakeSmtpServer smtp = FakeSmtpServer.start();
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.port", smtp::getPort);
+    }
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxService outboxService;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @BeforeEach
+    public void setUp() {
+        outboxRepository.deleteAll();
+        smtp.reset();
+    }
+
+    // ======================== TESTES DE ENFILEIRAMENTO ========================
+
+    @Test
+    public void testOverdueNoticeIsQueuedAndSentInBackground() throws Exception {
+        QueuedEmail queued = emailService.queueOverdueLoanNotification(
+                1L, "mat001@test.com", "João Silva", "Dom Casmurro", "978-1234567890", 3);
+
+        assertFalse(queued.isDuplicate());
+        assertEquals(OutboxStatus.PENDING, queued.getMessage().getStatus());
+        assertTrue(smtp.getMessages().isEmpty());
+
+        assertEquals(1, outboxService.dispatchPending());
+
+        List<MimeMessage> received = smtp.getMessages();
+        assertEquals(1, received.size());
+        assertEquals("📚 Aviso: Livro em Atraso - Dom Casmurro", received.get(0).getSubject());
+        assertEquals("mat001@test.com", received.get(0).getRecipients(Message.RecipientType.TO)[0].toString());
+
+        EmailOutboxMessage sent = outboxRepository.findById(queued.getMessage().getId()).orElseThrow();
+        assertEquals(OutboxStatus.SENT, sent.getStatus());
+        assertEquals(1, sent.getAttempts());
+        assertNotNull(sent.getSentAt());
+    }
+
+    @Test
+    public void testSameNoticeIsQueuedOncePerDay() {
+        QueuedEmail first = emailService.queueOverdueLoanNotification(
+                1L, "mat001@test.com", "João Silva", "Dom Casmurro", "978-1234567890", 3);
+        QueuedEmail repeated = emailService.queueOverdueLoanNotification(
+                1L, "mat001@test.com", "João Silva", "Dom Casmurro", "978-1234567890", 3);
+        QueuedEmail otherLoan = emailService.queueOverdueLoanNotification(
+                2L, "mat001@test.com", "João Silva", "Memórias Póstumas", "978-0987654321", 1);
+
+        assertTrue(repeated.isDuplicate());
+        assertEquals(first.getMessage().getId(), repeated.getMessage().getId());
+        assertFalse(otherLoan.isDuplicate());
+        assertEquals(2, outboxRepository.count());
+
+        outboxService.dispatchPending();
+        emailService.queueOverdueLoanNotification(
+                1L, "mat001@test.com", "João Silva", "Dom Casmurro", "978-1234567890", 3);
+        outboxService.dispatchPending();
+
+        // Já enviado hoje: não envia de novo
+        assertEquals(2, smtp.getMessages().size());
+    }
+
+    // ======================== TESTES DE ENVIO ========================
+
+    @Test
+    public void testPendingMessagesShareOneSmtpConnection() {
+        for (long reservationId = 1; reservationId <= 5; reservationId++) {
+            emailService.queueReservationAvailableNotification(
+                    reservationId, "mat00" + reservationId + "@test.com", "Aluno", "Dom Casmurro", "978-1234567890");
+        }
+
+        assertEquals(5, outboxService.dispatchPending());
+
+        assertEquals(5, smtp.getMessages().size());
+        assertEquals(1, smtp.getConnections());
+        assertEquals(5, outboxRepository.countByStatus(OutboxStatus.SENT));
+    }
+
+    @Test
+    public void testFailedMessageIsRetriedLaterWithoutBlockingTheBatch() {
+        smtp.rejectRecipient("mat002@test.com");
+        QueuedEmail accepted = emailService.queueOverdueLoanNotification(
+                1L, "mat001@test.com", "João Silva", "Dom Casmurro", "978-1234567890", 3);
+        QueuedEmail rejected = emailService.queueOverdueLoanNotification(
+                2L, "mat002@test.com", "Maria Santos", "Dom Casmurro", "978-1234567890", 3);
+
+        assertEquals(1, outboxService.dispatchPending());
+
+        assertEquals(OutboxStatus.SENT, reload(accepted).getStatus());
+        EmailOutboxMessage failed = reload(rejected);
+        assertEquals(OutboxStatus.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertNotNull(failed.getLastError());
+        assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(30)));
+
+        // Ainda dentro da espera: não tenta de novo
+        assertEquals(0, outboxService.dispatchPending());
+
+        smtp.reset();
+        makeDue(failed);
+        assertEquals(1, outboxService.dispatchPending());
+        assertEquals(OutboxStatus.SENT, reload(rejected).getStatus());
+        assertEquals(2, reload(rejected).getAttempts());
+    }
+
+    @Test
+    public void testMessageFailsAfterMaxAttempts() {
+        smtp.rejectRecipient("mat002@test.com");
+        QueuedEmail rejected = emailService.queueOverdueLoanNotification(
+                2L, "mat002@test.com", "Maria Santos", "Dom Casmurro", "978-1234567890", 3);
+
+        outboxService.dispatchPending();
+        makeDue(reload(rejected));
+        outboxService.dispatchPending();
+
+        EmailOutboxMessage failed = reload(rejected);
+        assertEquals(OutboxStatus.FAILED, failed.getStatus());
+        assertEquals(2, failed.getAttempts());
+
+        makeDue(failed);
+        assertEquals(0, outboxService.dispatchPending());
+        assertEquals(OutboxStatus.FAILED, reload(rejected).getStatus());
+    }
+
+    @Test
+    public void testExpiredClaimReturnsToQueue() {
+        // Mensagem reservada por um envio que não terminou
+        EmailOutboxMessage stuck = new EmailOutboxMessage(NotificationType.OVERDUE_LOAN, "OVERDUE_LOAN:9:test",
+                "mat001@test.com", "Aviso", "Texto");
+        stuck.setStatus(OutboxStatus.SENDING);
+        stuck.setNextAttemptAt(LocalDateTime.now().minusMinutes(1));
+        stuck = outboxRepository.save(stuck);
+
+        assertEquals(1, outboxService.dispatchPending());
+        assertEquals(OutboxStatus.SENT, outboxRepository.findById(stuck.getId()).orElseThrow().getStatus());
+    }
+
+    private EmailOutboxMessage reload(QueuedEmail queued) {
+        return outboxRepository.findById(queued.getMessage().getId()).orElseThrow();
+    }
+
+    private EmailOutboxMessage reload(EmailOutboxMessage message) {
+        return outboxRepository.findById(message.getId()).orElseThrow();
+    }
+
+    private void makeDue(EmailOutboxMessage message) {
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(message);
+    }
+}
@@ -0,0 +1,210 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.LoanRequestDTO;
+import com.biblioteca.dto.LoanResponseDTO;
+import com.biblioteca.dto.ReservationRequestDTO;
+import com.biblioteca.dto.ReservationResponseDTO;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.ReservationRepository;
+import com.biblioteca.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o cache de leitura de livros e alunos
+ * Leitura através do cache, invalidação nas gravações (inclusive os UPDATEs
+ * atômicos de estoque e contadores de reserva) e descarte LRU por tamanho
+ */
+@SpringBootTest(properties = {"biblioteca.cache.books.max-size=3", "biblioteca.cache.students.max-size=3"})
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class EntityCacheTest {
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+        bookRepository.save(book("978-0000000001", "Dom Casmurro", 3));
+        studentRepository.save(student("2024001", "Ana Souza", "11111111111"));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        loanRepository.deleteAll();
+        reservationRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void testReadThroughReturnsIndependentCopies() {
+        long misses = bookMetric("misses");
+        long hits = bookMetric("hits");
+
+        Book first = entityCache.findBook("978-0000000001").orElseThrow();
+        first.setQuantity(99);
+        Book second = entityCache.findBook("978-0000000001").orElseThrow();
+
+        assertEquals(3, second.getQuantity());
+        assertEquals("Dom Casmurro", second.getTitle());
+        assertEquals(misses + 1, bookMetric("misses"));
+        assertEquals(hits + 1, bookMetric("hits"));
+        assertTrue(entityCache.findBook("978-9999999999").isEmpty());
+        assertTrue(entityCache.findStudent("2024001").isPresent());
+    }
+
+    @Test
+    public void testLoanAndReturnInvalidateQuantity() {
+        assertEquals(3, entityCache.findBook("978-0000000001").orElseThrow().getQuantity());
+
+        LoanRequestDTO request = new LoanRequestDTO();
+        request.setBookIsbn("978-0000000001");
+        request.setStudentMatricula("2024001");
+        LoanResponseDTO loan = loanService.createLoan(request);
+
+        assertEquals("Dom Casmurro", loan.getBookTitle());
+        assertEquals("Ana Souza", loan.getStudentName());
+        assertEquals(2, entityCache.findBook("978-0000000001").orElseThrow().getQuantity());
+        assertTrue(loanService.isBookAvailable("978-0000000001"));
+
+        loanService.returnLoan(loan.getId(), null);
+        assertEquals(3, entityCache.findBook("978-0000000001").orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void testReservationInvalidatesCounters() {
+        assertEquals(0, entityCache.findBook("978-0000000001").orElseThrow().getActiveReservationsCount());
+        assertEquals(0, entityCache.findStudent("2024001").orElseThrow().getReservationsCount());
+
+        ReservationRequestDTO request = new ReservationRequestDTO();
+        request.setBookIsbn("978-0000000001");
+        request.setStudentMatricula("2024001");
+        ReservationResponseDTO reservation = reservationService.createReservation(request);
+
+        assertEquals("Ana Souza", reservation.getStudentName());
+        assertEquals(1, entityCache.findBook("978-0000000001").orElseThrow().getActiveReservationsCount());
+        assertEquals(1, entityCache.findStudent("2024001").orElseThrow().getReservationsCount());
+
+        reservationService.cancelReservation(reservation.getId());
+        assertEquals(0, entityCache.findBook("978-0000000001").orElseThrow().getActiveReservationsCount());
+    }
+
+    @Test
+    public void testEntityWritesInvalidate() {
+        assertEquals("Dom Casmurro", entityCache.findBook("978-0000000001").orElseThrow().getTitle());
+        assertEquals("Ana Souza", entityCache.findStudent("2024001").orElseThrow().getNome());
+
+        Book book = bookRepository.findById("978-0000000001").orElseThrow();
+        book.setTitle("Quincas Borba");
+        bookRepository.save(book);
+        Student student = studentRepository.findById("2024001").orElseThrow();
+        student.setNome("Ana Lima");
+        studentRepository.save(student);
+
+        assertEquals("Quincas Borba", entityCache.findBook("978-0000000001").orElseThrow().getTitle());
+        assertEquals("Ana Lima", entityCache.findStudent("2024001").orElseThrow().getNome());
+
+        bookRepository.deleteById("978-0000000001");
+        assertTrue(entityCache.findBook("978-0000000001").isEmpty());
+    }
+
+    @Test
+    public void testRolledBackReadIsDiscarded() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            bookRepository.save(book("978-0000000002", "Iracema", 1));
+            assertTrue(entityCache.findBook("978-0000000002").isPresent());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(entityCache.findBook("978-0000000002").isEmpty());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        for (int i = 2; i <= 4; i++) {
+            bookRepository.save(book("978-000000000" + i, "Livro " + i, 1));
+        }
+        long evictions = bookMetric("evictions");
+
+        entityCache.findBook("978-0000000001");
+        entityCache.findBook("978-0000000002");
+        entityCache.findBook("978-0000000003");
+        entityCache.findBook("978-0000000001"); // 002 passa a ser o menos usado
+        entityCache.findBook("978-0000000004");
+
+        assertEquals(evictions + 1, bookMetric("evictions"));
+        assertEquals(3, bookMetric("size"));
+
+        long misses = bookMetric("misses");
+        entityCache.findBook("978-0000000001");
+        assertEquals(misses, bookMetric("misses"));
+        entityCache.findBook("978-0000000002");
+        assertEquals(misses + 1, bookMetric("misses"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private long bookMetric(String name) {
+        Map<String, Object> books = (Map<String, Object>) entityCache.getMetrics().get("books");
+        return ((Number) books.get(name)).longValue();
+    }
+
+    private Book book(String isbn, String title, int quantity) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor("Machado de Assis");
+        book.setQuantity(quantity);
+        book.setActiveReservationsCount(0);
+        return book;
+    }
+
+    private Student student(String matricula, String nome, String cpf) {
+        Student student = new Student();
+        student.setMatricula(matricula);
+        student.setNome(nome);
+        student.setCpf(cpf);
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail(matricula + "@test.com");
+        student.setReservationsCount(0);
+        return student;
+    }
+}
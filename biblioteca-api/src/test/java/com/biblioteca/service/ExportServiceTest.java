@@ -0,0 +1,185 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.LibrarySettings;
+import com.biblioteca.model.Loan;
+import com.biblioteca.model.Reservation;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.LibrarySettingsRepository;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.ReservationRepository;
+import com.biblioteca.repository.StudentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para o serviço de exportação
+ * Testa os formatos NDJSON e CSV e o status calculado na exportação
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LibrarySettingsRepository settingsRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Loan activeLoan;
+    private Loan overdueLoan;
+
+    @BeforeEach
+    public void setUp() {
+        loanRepository.deleteAll();
+        reservationRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+
+        LibrarySettings settings = new LibrarySettings();
+        settings.setId(1L);
+        settings.setLoanPeriodDays(14);
+        settings.setMaxLoansPerStudent(3);
+        settings.setFinePerDay(100);
+        settingsRepository.save(settings);
+
+        Student student = new Student();
+        student.setMatricula("MAT001");
+        student.setNome("João Silva");
+        student.setCpf("12345678901");
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail("joao@test.com");
+        student.setReservationsCount(0);
+        studentRepository.save(student);
+
+        Book book = new Book();
+        book.setIsbn("978-1234567890");
+        book.setTitle("Memórias, Póstumas");
+        book.setAuthor("Machado de Assis");
+        book.setQuantity(5);
+        book.setActiveReservationsCount(0);
+        bookRepository.save(book);
+
+        activeLoan = new Loan();
+        activeLoan.setStudent(student);
+        activeLoan.setBook(book);
+        activeLoan.setLoanDate(LocalDateTime.now().minusDays(2));
+        activeLoan.setDueDate(LocalDateTime.now().plusDays(12));
+        activeLoan.setStatus(Loan.LoanStatus.ACTIVE);
+        loanRepository.save(activeLoan);
+
+        overdueLoan = new Loan();
+        overdueLoan.setStudent(student);
+        overdueLoan.setBook(book);
+        overdueLoan.setLoanDate(LocalDateTime.now().minusDays(20));
+        overdueLoan.setDueDate(LocalDateTime.now().minusDays(6));
+        overdueLoan.setStatus(Loan.LoanStatus.ACTIVE);
+        loanRepository.save(overdueLoan);
+
+        Reservation reservation = new Reservation();
+        reservation.setStudent(student);
+        reservation.setBook(book);
+        reservation.setReservationDate(LocalDateTime.now());
+        reservation.setQueuePosition(1);
+        reservation.setStatus(Reservation.ReservationStatus.ACTIVE);
+        reservationRepository.save(reservation);
+    }
+
+    @Test
+    public void testExportLoansAsNdjsonWritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.writeLoans(out, ExportService.Format.NDJSON);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(activeLoan.getId().longValue(), first.get("id").asLong());
+        assertEquals("ACTIVE", first.get("status").asText());
+        // Status e multa calculados na exportação (6 dias * 100 centavos)
+        assertEquals(overdueLoan.getId().longValue(), second.get("id").asLong());
+        assertEquals("OVERDUE", second.get("status").asText());
+        assertEquals(600, second.get("fineAmount").asInt());
+    }
+
+    @Test
+    public void testExportLoansAsCsvEscapesValues() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.writeLoans(out, ExportService.Format.CSV);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,studentMatricula,"));
+        assertTrue(lines[1].contains("\"Memórias, Póstumas\""));
+    }
+
+    @Test
+    public void testExportReservationsAsNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.writeReservations(out, ExportService.Format.NDJSON);
+
+        JsonNode reservation = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).trim());
+        assertEquals(1, count);
+        assertEquals("MAT001", reservation.get("studentMatricula").asText());
+        assertEquals(1, reservation.get("queuePosition").asInt());
+    }
+
+    @Test
+    public void testExportReservationsAsCsvIncludesPriority() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.writeReservations(out, ExportService.Format.CSV);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("id,bookIsbn,bookTitle,bookAuthor,studentMatricula,studentName,"
+                + "reservationDate,queuePosition,priority,status,createdAt", lines[0]);
+        // Posição, prioridade e status, nessa ordem
+        assertTrue(lines[1].contains(",1,STANDARD,ACTIVE,"));
+    }
+
+    @Test
+    public void testCsvValueQuotesSpecialCharacters() {
+        assertEquals("", ExportService.csvValue(null));
+        assertEquals("simples", ExportService.csvValue("simples"));
+        assertEquals("\"a,b\"", ExportService.csvValue("a,b"));
+        assertEquals("\"diz \"\"oi\"\"\"", ExportService.csvValue("diz \"oi\""));
+    }
+}
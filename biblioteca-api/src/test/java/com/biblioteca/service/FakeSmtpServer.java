@@ -0,0 +1,145 @@
+package com.biblioteca.service;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor SMTP mínimo, em memória, para os testes de envio de e-mail.
+ * Aceita qualquer mensagem, exceto para os destinatários marcados como
+ * rejeitados, e conta as conexões abertas.
+ */
+public class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<MimeMessage> messages = new CopyOnWriteArrayList<>();
+    private final Set<String> rejectedRecipients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private FakeSmtpServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public static FakeSmtpServer start() {
+        try {
+            return new FakeSmtpServer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível iniciar o servidor SMTP de teste", e);
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public List<MimeMessage> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public void rejectRecipient(String email) {
+        rejectedRecipients.add(email.toLowerCase());
+    }
+
+    public void reset() {
+        messages.clear();
+        rejectedRecipients.clear();
+        connections.set(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread session = new Thread(() -> handle(socket), "fake-smtp-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 fake-smtp");
+            boolean hasRecipient = false;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                    reply(out, "250 fake-smtp");
+                } else if (command.startsWith("MAIL FROM")) {
+                    hasRecipient = false;
+                    reply(out, "250 OK");
+                } else if (command.startsWith("RCPT TO")) {
+                    String address = line.substring(line.indexOf('<') + 1, line.indexOf('>')).toLowerCase();
+                    if (rejectedRecipients.contains(address)) {
+                        reply(out, "550 Mailbox unavailable");
+                    } else {
+                        hasRecipient = true;
+                        reply(out, "250 OK");
+                    }
+                } else if (command.equals("DATA")) {
+                    if (!hasRecipient) {
+                        reply(out, "554 No valid recipients");
+                        continue;
+                    }
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+                    }
+                    messages.add(new MimeMessage(Session.getInstance(new Properties()),
+                            new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.ISO_8859_1))));
+                    hasRecipient = false;
+                    reply(out, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    // RSET, NOOP e demais comandos
+                    hasRecipient = command.startsWith("RSET") ? false : hasRecipient;
+                    reply(out, "250 OK");
+                }
+            }
+        } catch (Exception e) {
+            // Conexão encerrada pelo cliente
+        }
+    }
+
+    private static void reply(OutputStream out, String response) throws IOException {
+        out.write((response + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+}
@@ -0,0 +1,173 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.ImportJob;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.ImportJobRepository;
+import com.biblioteca.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para a importação de arquivos CSV/JSON
+ * Usa blocos de 2 registros para exercitar os pontos de retomada.
+ * Sem @Transactional: cada bloco é gravado na sua própria transação.
+ */
+@SpringBootTest(properties = "biblioteca.import.chunk-size=2")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class ImportServiceTest {
+
+    private static final String BOOKS_CSV = "isbn,title,author,quantity,keywords\n"
+            + "978-0000000001,Dom Casmurro,Machado de Assis,3,\n"
+            + "978-0000000002,\"Vidas Secas, edição comentada\",Graciliano Ramos,2,\"seca, \"\"sertão\"\"\"\r\n"
+            + "978-0000000003,,Autor sem título,1,\n"
+            + "\n"
+            + "978-0000000099,Já cadastrado,Autor,1,\n"
+            + "978-0000000004,Iracema,José de Alencar,4,\n";
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+        Book existing = new Book();
+        existing.setIsbn("978-0000000099");
+        existing.setTitle("Livro existente");
+        existing.setAuthor("Autor");
+        existing.setQuantity(1);
+        existing.setActiveReservationsCount(0);
+        bookRepository.save(existing);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        importJobRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void testImportBooksFromCsv() throws Exception {
+        ImportJob job = importService.createJob(ImportJob.ImportTarget.BOOKS, file("livros.csv", BOOKS_CSV), null);
+        assertEquals(ImportJob.ImportFormat.CSV, job.getFormat());
+
+        ImportJob finished = importService.runJob(job.getId());
+
+        assertEquals(ImportJob.ImportStatus.COMPLETED, finished.getStatus());
+        assertEquals(5L, finished.getProcessedRecords());
+        assertEquals(3L, finished.getSavedRecords());
+        assertEquals(2L, finished.getFailedRecords());
+        assertFalse(Files.exists(Paths.get(finished.getStoredFile())));
+
+        Book quoted = bookRepository.findById("978-0000000002").orElseThrow();
+        assertEquals("Vidas Secas, edição comentada", quoted.getTitle());
+        assertEquals("seca, \"sertão\"", quoted.getKeywords());
+        assertEquals("Livro existente", bookRepository.findById("978-0000000099").orElseThrow().getTitle());
+        assertFalse(bookRepository.existsById("978-0000000003"));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) importService.describe(finished).get("errors");
+        assertEquals(2, errors.size());
+        assertEquals(3, ((Number) errors.get(0).get("record")).intValue());
+        assertEquals("Título é obrigatório", errors.get(0).get("message"));
+        assertEquals("Livro com este ISBN já existe", errors.get(1).get("message"));
+        assertEquals(100.0, importService.describe(finished).get("progressPercent"));
+    }
+
+    @Test
+    public void testImportStudentsFromNdjson() {
+        String ndjson = "{\"matricula\":\"MAT001\",\"nome\":\"Ana\",\"cpf\":\"12345678901\","
+                + "\"dataNascimento\":\"2001-02-03\",\"email\":\"Ana@Test.com\"}\n"
+                + "{\"matricula\":\"MAT002\",\"nome\":\"Bruno\",\"cpf\":\"123\","
+                + "\"dataNascimento\":\"2001-02-03\",\"email\":\"bruno@test.com\"}\n"
+                + "{\"matricula\":\"MAT003\",\"nome\":\"Carla\",\"cpf\":\"12345678903\","
+                + "\"dataNascimento\":\"2001-02-03\",\"email\":\"carla@test.com\"}\n";
+
+        ImportJob job = importService.createJob(ImportJob.ImportTarget.STUDENTS, file("alunos.ndjson", ndjson), null);
+        ImportJob finished = importService.runJob(job.getId());
+
+        assertEquals(ImportJob.ImportStatus.COMPLETED, finished.getStatus());
+        assertEquals(3L, finished.getProcessedRecords());
+        assertEquals(2L, finished.getSavedRecords());
+        assertEquals(1L, finished.getFailedRecords());
+        assertEquals("ana@test.com", studentRepository.findById("MAT001").orElseThrow().getEmail());
+        assertFalse(studentRepository.existsById("MAT002"));
+    }
+
+    @Test
+    public void testMalformedJsonStopsAtLastCommittedChunk() {
+        String json = "[{\"isbn\":\"978-0000000011\",\"title\":\"A\",\"author\":\"X\",\"quantity\":1},"
+                + "{\"isbn\":\"978-0000000012\",\"title\":\"B\",\"author\":\"X\",\"quantity\":1},"
+                + "{\"isbn\":\"978-0000000013\",\"title\":\"C\",\"author\":\"X\",\"quantity\":1},"
+                + "{\"isbn\": oops";
+
+        ImportJob job = importService.createJob(ImportJob.ImportTarget.BOOKS, file("livros.json", json), null);
+        ImportJob failed = importService.runJob(job.getId());
+
+        assertEquals(ImportJob.ImportStatus.FAILED, failed.getStatus());
+        assertNotNull(failed.getLastError());
+        assertEquals(2L, failed.getProcessedRecords());
+        assertEquals(2L, failed.getSavedRecords());
+        assertTrue(bookRepository.existsById("978-0000000012"));
+        assertFalse(bookRepository.existsById("978-0000000013"));
+        assertTrue(Files.exists(Paths.get(failed.getStoredFile())));
+        assertEquals(true, importService.describe(failed).get("resumable"));
+    }
+
+    @Test
+    public void testResumeSkipsRecordsBeforeCheckpoint() {
+        ImportJob job = importService.createJob(ImportJob.ImportTarget.BOOKS, file("livros.csv", BOOKS_CSV), "csv");
+
+        // Importação interrompida depois do primeiro bloco (2 registros) gravado
+        job.setStatus(ImportJob.ImportStatus.FAILED);
+        job.setProcessedRecords(2L);
+        job.setSavedRecords(2L);
+        importJobRepository.save(job);
+
+        ImportJob finished = importService.runJob(job.getId());
+
+        assertEquals(ImportJob.ImportStatus.COMPLETED, finished.getStatus());
+        assertEquals(5L, finished.getProcessedRecords());
+        assertEquals(3L, finished.getSavedRecords());
+        assertEquals(2L, finished.getFailedRecords());
+        assertFalse(bookRepository.existsById("978-0000000001"));
+        assertFalse(bookRepository.existsById("978-0000000002"));
+        assertTrue(bookRepository.existsById("978-0000000004"));
+    }
+
+    @Test
+    public void testRejectsUnknownFormat() {
+        RuntimeException e = assertThrows(RuntimeException.class, () ->
+                importService.createJob(ImportJob.ImportTarget.BOOKS, file("livros.xlsx", "x"), null));
+        assertTrue(e.getMessage().contains("Formato"));
+    }
+
+    private MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("file", name, null, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -31,6 +33,8 @@ public class LibrarySettingsServiceTest {
     @BeforeEach
     public void setUp() {
         settingsRepository.deleteAll();
+        // O cache é do bean, compartilhado entre os testes
+        settingsService.invalidate();
     }
 
     // ======================== TESTES DE CONFIGURAÇÕES PADRÃO ========================
@@ -141,6 +145,22 @@ public class LibrarySettingsServiceTest {
         assertEquals(150, updated.getFinePerDay());
     }
 
+    @Test
+    public void testUpdateWithoutMaxReservationsKeepsCurrentValue() {
+        LibrarySettings withCapacity = new LibrarySettings(14, 3, 100);
+        withCapacity.setMaxReservationsPerBook(8);
+        settingsService.updateSettings(withCapacity);
+
+        // Cliente que não envia o campo (ex.: tela de configurações)
+        LibrarySettings withoutCapacity = new LibrarySettings(21, 3, 100);
+        withoutCapacity.setMaxReservationsPerBook(null);
+        LibrarySettings updated = settingsService.updateSettings(withoutCapacity);
+
+        assertEquals(21, updated.getLoanPeriodDays());
+        assertEquals(8, updated.getMaxReservationsPerBook());
+        assertEquals(8, settingsService.getMaxReservationsPerBook());
+    }
+
     @Test
     public void testSettingsIdAlwaysOne() {
         // Act
@@ -169,4 +189,74 @@ public class LibrarySettingsServiceTest {
         assertEquals(first.getMaxLoansPerStudent(), second.getMaxLoansPerStudent());
         assertEquals(first.getFinePerDay(), second.getFinePerDay());
     }
+
+    // ======================== TESTES DE CACHE ========================
+
+    @Test
+    public void testRepeatedReadsAreServedFromCache() {
+        settingsService.getFinePerDay();
+        long misses = (Long) settingsService.getCacheMetrics().get("misses");
+        long hits = (Long) settingsService.getCacheMetrics().get("hits");
+
+        settingsService.getFinePerDay();
+        settingsService.getLoanPeriodDays();
+        settingsService.getMaxLoansPerStudent();
+
+        assertEquals(misses, settingsService.getCacheMetrics().get("misses"));
+        assertEquals(hits + 3, settingsService.getCacheMetrics().get("hits"));
+    }
+
+    @Test
+    public void testUpdateSettingsSwapsSnapshotWithNewVersion() {
+        SettingsSnapshot before = settingsService.getSnapshot();
+
+        LibrarySettings newSettings = new LibrarySettings();
+        newSettings.setLoanPeriodDays(7);
+        newSettings.setMaxLoansPerStudent(2);
+        newSettings.setFinePerDay(50);
+        settingsService.updateSettings(newSettings);
+
+        SettingsSnapshot after = settingsService.getSnapshot();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(7, after.getLoanPeriodDays());
+        // A cópia antiga não muda
+        assertEquals(14, before.getLoanPeriodDays());
+    }
+
+    @Test
+    public void testUncommittedUpdateIsNotVisibleToOtherThreads() throws Exception {
+        LibrarySettings newSettings = new LibrarySettings();
+        newSettings.setLoanPeriodDays(7);
+        newSettings.setMaxLoansPerStudent(2);
+        newSettings.setFinePerDay(50);
+        settingsService.updateSettings(newSettings);
+
+        // A transação do teste (desfeita ao final) já vê o novo valor
+        assertEquals(7, settingsService.getLoanPeriodDays());
+        // Outra thread, fora dela, continua com o valor confirmado
+        assertEquals(14, CompletableFuture.supplyAsync(settingsService::getLoanPeriodDays).get());
+    }
+
+    @Test
+    public void testDirectTableChangesAppearAfterInvalidate() {
+        settingsService.getSettings();
+
+        LibrarySettings settings = new LibrarySettings(30, 4, 250);
+        settings.setId(1L);
+        settingsRepository.save(settings);
+        assertEquals(100, settingsService.getFinePerDay());
+
+        settingsService.invalidate();
+
+        assertEquals(250, settingsService.getFinePerDay());
+        assertEquals(30, settingsService.getLoanPeriodDays());
+    }
+
+    @Test
+    public void testReturnedSettingsDoNotChangeCache() {
+        LibrarySettings settings = settingsService.getSettings();
+        settings.setFinePerDay(999);
+
+        assertEquals(100, settingsService.getFinePerDay());
+    }
 }
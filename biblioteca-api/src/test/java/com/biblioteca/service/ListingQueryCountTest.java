@@ -0,0 +1,186 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Loan;
+import com.biblioteca.model.Reservation;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.ReservationRepository;
+import com.biblioteca.repository.StudentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de regressão da quantidade de instruções SQL das listagens
+ * Cada listagem de empréstimos e reservas deve ser uma única ida ao banco,
+ * independente da quantidade de linhas (sem N+1 nos relacionamentos LAZY).
+ *
+ * Sem @Transactional: com uma transação aberta no teste, as entidades
+ * gravadas ficariam no contexto de persistência e esconderiam o N+1.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class ListingQueryCountTest {
+
+    private static final String HEAVY_READER = "MAT999";
+    private static final String POPULAR_BOOK = "978-9999999999";
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private int seeded;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertTrue(statistics.isStatisticsEnabled(), "hibernate.generate_statistics deve estar ligado nos testes");
+
+        studentRepository.save(student(HEAVY_READER, 999));
+        bookRepository.save(book(POPULAR_BOOK, 999));
+        seeded = 0;
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        reservationRepository.deleteAll();
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void testListingStatementCountDoesNotGrowWithRows() {
+        seed(3);
+        Map<String, Long> few = measureListings();
+
+        seed(9);
+        Map<String, Long> many = measureListings();
+
+        for (Map.Entry<String, Long> entry : few.entrySet()) {
+            assertEquals(entry.getValue(), many.get(entry.getKey()),
+                    "Quantidade de instruções SQL cresceu com o número de linhas em " + entry.getKey());
+            assertEquals(1L, entry.getValue(),
+                    "Listagem deveria ser uma única consulta: " + entry.getKey());
+        }
+    }
+
+    /**
+     * Executa cada listagem e conta as instruções preparadas
+     * Cada uma roda uma vez antes da medição para carregar os caches
+     * (configurações da biblioteca)
+     */
+    private Map<String, Long> measureListings() {
+        Map<String, Runnable> listings = new LinkedHashMap<>();
+        listings.put("getAllLoans", loanService::getAllLoans);
+        listings.put("getActiveLoans", loanService::getActiveLoans);
+        listings.put("getOverdueLoans", loanService::getOverdueLoans);
+        listings.put("getReturnedLoans", loanService::getReturnedLoans);
+        listings.put("getActiveAndOverdueLoans", loanService::getActiveAndOverdueLoans);
+        listings.put("getActiveLoansByStudent", () -> loanService.getActiveLoansByStudent(HEAVY_READER));
+        listings.put("getLoansPage", () -> loanService.getLoansPage(null, 100, null));
+        listings.put("getLoansPage(OVERDUE)", () -> loanService.getLoansPage(null, 100, Loan.LoanStatus.OVERDUE));
+        listings.put("getAllReservations", reservationService::getAllReservations);
+        listings.put("getReservationsPage", () -> reservationService.getReservationsPage(null, 100));
+        listings.put("getActiveReservationsByBook", () -> reservationService.getActiveReservationsByBook(POPULAR_BOOK));
+        listings.put("getActiveReservationsByStudent",
+                () -> reservationService.getActiveReservationsByStudent(HEAVY_READER));
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Runnable> listing : listings.entrySet()) {
+            listing.getValue().run();
+            statistics.clear();
+            listing.getValue().run();
+            counts.put(listing.getKey(), statistics.getPrepareStatementCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Acrescenta alunos e livros distintos (para que cada linha dependesse de
+     * um carregamento LAZY diferente), com empréstimos em todos os status e
+     * reservas no livro e no aluno compartilhados
+     */
+    private void seed(int total) {
+        Student heavyReader = studentRepository.findById(HEAVY_READER).orElseThrow();
+        Book popularBook = bookRepository.findById(POPULAR_BOOK).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = seeded + 1; i <= total; i++) {
+            Student student = studentRepository.save(student("MAT" + String.format("%03d", i), i));
+            Book book = bookRepository.save(book("978-00000000" + String.format("%02d", i), i));
+
+            LocalDateTime loanDate = i % 3 == 1 ? now.minusDays(20) : now.minusDays(2);
+            LocalDateTime returnDate = i % 3 == 0 ? now.minusDays(1) : null;
+            Loan.LoanStatus status = i % 3 == 0 ? Loan.LoanStatus.RETURNED
+                    : i % 3 == 1 ? Loan.LoanStatus.OVERDUE : Loan.LoanStatus.ACTIVE;
+            loanRepository.save(new Loan(student, book, loanDate, loanDate.plusDays(14), returnDate, status,
+                    null, null, now));
+            loanRepository.save(new Loan(heavyReader, book, now.minusDays(1), now.plusDays(13), null,
+                    Loan.LoanStatus.ACTIVE, null, null, now));
+
+            reservationRepository.save(new Reservation(popularBook, student, now, i,
+                    Reservation.ReservationStatus.ACTIVE, now));
+            reservationRepository.save(new Reservation(book, heavyReader, now.plusSeconds(i), 1,
+                    Reservation.ReservationStatus.ACTIVE, now));
+        }
+        seeded = total;
+    }
+
+    private Student student(String matricula, int number) {
+        Student student = new Student();
+        student.setMatricula(matricula);
+        student.setNome("Aluno " + matricula);
+        student.setCpf(String.format("%011d", number));
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail(matricula.toLowerCase() + "@test.com");
+        student.setReservationsCount(0);
+        return student;
+    }
+
+    private Book book(String isbn, int number) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle("Livro " + number);
+        book.setAuthor("Autor " + number);
+        book.setQuantity(5);
+        book.setActiveReservationsCount(0);
+        return book;
+    }
+}
@@ -0,0 +1,138 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.LoanRequestDTO;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de concorrência do checkout de empréstimos.
+ * Dispara 500 empréstimos simultâneos do mesmo livro (cada um de um aluno
+ * diferente) e verifica que o estoque nunca é vendido a mais: exatamente
+ * {@code STOCK} empréstimos são criados e o estoque termina em zero.
+ *
+ * Sem @Transactional: cada empréstimo roda na sua própria transação, em um
+ * banco separado com tempo de espera por bloqueio maior.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:checkoutdb;LOCK_TIMEOUT=10000")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class LoanCheckoutConcurrencyTest {
+
+    private static final int REQUESTS = 500;
+    private static final int STOCK = 50;
+    private static final int THREADS = 32;
+    private static final String ISBN = "978-5000000001";
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+
+        Book book = new Book();
+        book.setIsbn(ISBN);
+        book.setTitle("Livro Concorrido");
+        book.setAuthor("Autor");
+        book.setQuantity(STOCK);
+        book.setActiveReservationsCount(0);
+        bookRepository.save(book);
+
+        List<Student> students = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            Student student = new Student();
+            student.setMatricula(matricula(i));
+            student.setNome("Aluno " + i);
+            student.setCpf(String.format("%011d", i));
+            student.setDataNascimento(LocalDate.of(2000, 1, 1));
+            student.setEmail("aluno" + i + "@test.com");
+            student.setReservationsCount(0);
+            students.add(student);
+        }
+        studentRepository.saveAll(students);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentCheckoutsNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger unavailable = new AtomicInteger();
+        Map<String, String> unexpected = new ConcurrentHashMap<>();
+
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            String matricula = matricula(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    loanService.createLoan(new LoanRequestDTO(matricula, ISBN, null));
+                    created.incrementAndGet();
+                } catch (RuntimeException e) {
+                    if ("Livro não disponível para empréstimo".equals(e.getMessage())) {
+                        unavailable.incrementAndGet();
+                    } else {
+                        unexpected.put(matricula, String.valueOf(e));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertTrue(unexpected.isEmpty(), () -> "Falhas inesperadas: " + unexpected);
+        assertEquals(STOCK, created.get());
+        assertEquals(REQUESTS - STOCK, unavailable.get());
+        assertEquals(0, bookRepository.findById(ISBN).orElseThrow().getQuantity());
+        assertEquals(STOCK, loanRepository.countLoansByBookIsbn(ISBN).intValue());
+    }
+
+    private static String matricula(int i) {
+        return String.format("CONC%04d", i);
+    }
+}
@@ -1,5 +1,6 @@
 package com.biblioteca.service;
 
+import com.biblioteca.dto.CursorPageDTO;
 import com.biblioteca.dto.LoanRequestDTO;
 import com.biblioteca.dto.LoanResponseDTO;
 import com.biblioteca.dto.LoanReturnDTO;
@@ -49,6 +50,9 @@ public class LoanServiceTest {
     @Autowired
     private LibrarySettingsRepository settingsRepository;
 
+    @Autowired
+    private LibrarySettingsService settingsService;
+
     private Student testStudent;
     private Book testBook;
     private LibrarySettings settings;
@@ -260,7 +264,7 @@ public class LoanServiceTest {
         // Arrange
         // Mudar a multa por dia para 200 centavos
         settings.setFinePerDay(200);
-        settingsRepository.save(settings);
+        settingsService.updateSettings(settings);
 
         LocalDateTime loanDate = LocalDateTime.of(2024, 1, 1, 10, 0, 0);
         LocalDateTime customReturnDate = LocalDateTime.of(2024, 1, 20, 10, 0, 0);
@@ -357,6 +361,34 @@ public class LoanServiceTest {
         assertTrue(overdueLoans.stream().anyMatch(l -> l.getId().equals(overdueLoan.getId())));
     }
 
+    @Test
+    public void testReadingOverdueLoansDoesNotPersistStatus() {
+        // Arrange
+        LoanRequestDTO overdueRequest = new LoanRequestDTO();
+        overdueRequest.setBookIsbn(testBook.getIsbn());
+        overdueRequest.setStudentMatricula(testStudent.getMatricula());
+        overdueRequest.setLoanDate(LocalDateTime.now().minusDays(20));
+        LoanResponseDTO overdueLoan = loanService.createLoan(overdueRequest);
+
+        // Act
+        LoanResponseDTO read = loanService.getOverdueLoans().stream()
+                .filter(l -> l.getId().equals(overdueLoan.getId()))
+                .findFirst()
+                .orElse(null);
+
+        // Assert - status e multa calculados na leitura (6 dias * 100 centavos)
+        assertNotNull(read);
+        assertEquals(Loan.LoanStatus.OVERDUE, read.getStatus());
+        assertEquals(6, read.getOverdueDays());
+        assertEquals(600, read.getFineAmount());
+
+        // ...mas nada foi gravado
+        Loan stored = loanRepository.findById(overdueLoan.getId()).orElse(null);
+        assertNotNull(stored);
+        assertEquals(Loan.LoanStatus.ACTIVE, stored.getStatus());
+        assertNull(stored.getFineAmount());
+    }
+
     @Test
     public void testGetReturnedLoansReturnsOnlyReturned() {
         // Arrange
@@ -408,6 +440,59 @@ public class LoanServiceTest {
         assertTrue(activeAndOverdue.stream().anyMatch(l -> l.getId().equals(overdueLoan.getId())));
     }
 
+    // ======================== TESTES DE PAGINAÇÃO ========================
+
+    @Test
+    public void testGetLoansPageFollowsCursor() {
+        // Arrange - 3 empréstimos
+        for (int i = 0; i < 3; i++) {
+            LoanRequestDTO request = new LoanRequestDTO();
+            request.setBookIsbn(testBook.getIsbn());
+            request.setStudentMatricula(testStudent.getMatricula());
+            loanService.createLoan(request);
+        }
+
+        // Act
+        CursorPageDTO<LoanResponseDTO> firstPage = loanService.getLoansPage(null, 2, null);
+        CursorPageDTO<LoanResponseDTO> secondPage = loanService.getLoansPage(
+                Long.valueOf(firstPage.getNextCursor()), 2, null);
+
+        // Assert
+        assertEquals(2, firstPage.getItems().size());
+        assertTrue(firstPage.isHasNext());
+        assertEquals(String.valueOf(firstPage.getItems().get(1).getId()), firstPage.getNextCursor());
+        assertEquals(1, secondPage.getItems().size());
+        assertFalse(secondPage.isHasNext());
+        assertNull(secondPage.getNextCursor());
+        assertTrue(secondPage.getItems().get(0).getId() > firstPage.getItems().get(1).getId());
+    }
+
+    @Test
+    public void testGetLoansPageFiltersByComputedStatus() {
+        // Arrange - um ativo e um vencido
+        LoanRequestDTO activeRequest = new LoanRequestDTO();
+        activeRequest.setBookIsbn(testBook.getIsbn());
+        activeRequest.setStudentMatricula(testStudent.getMatricula());
+        LoanResponseDTO activeLoan = loanService.createLoan(activeRequest);
+
+        LoanRequestDTO overdueRequest = new LoanRequestDTO();
+        overdueRequest.setBookIsbn(testBook.getIsbn());
+        overdueRequest.setStudentMatricula(testStudent.getMatricula());
+        overdueRequest.setLoanDate(LocalDateTime.now().minusDays(20));
+        LoanResponseDTO overdueLoan = loanService.createLoan(overdueRequest);
+
+        // Act
+        CursorPageDTO<LoanResponseDTO> overduePage = loanService.getLoansPage(null, null, Loan.LoanStatus.OVERDUE);
+        CursorPageDTO<LoanResponseDTO> activePage = loanService.getLoansPage(null, null, Loan.LoanStatus.ACTIVE);
+
+        // Assert
+        assertEquals(1, overduePage.getItems().size());
+        assertEquals(overdueLoan.getId(), overduePage.getItems().get(0).getId());
+        assertEquals(Loan.LoanStatus.OVERDUE, overduePage.getItems().get(0).getStatus());
+        assertEquals(1, activePage.getItems().size());
+        assertEquals(activeLoan.getId(), activePage.getItems().get(0).getId());
+    }
+
     // ======================== TESTES DE DISPONIBILIDADE ========================
 
     @Test
@@ -452,7 +537,7 @@ public class LoanServiceTest {
     public void testCanStudentBorrowReturnsFalseWhenAtLimit() {
         // Arrange
         settings.setMaxLoansPerStudent(1);
-        settingsRepository.save(settings);
+        settingsService.updateSettings(settings);
 
         LoanRequestDTO request = new LoanRequestDTO();
         request.setBookIsbn(testBook.getIsbn());
@@ -466,6 +551,35 @@ public class LoanServiceTest {
         assertFalse(canBorrow);
     }
 
+    @Test
+    public void testCreateLoanCountsOverdueLoansWithoutRewritingThem() {
+        // Arrange - empréstimo vencido do aluno de teste
+        LoanRequestDTO overdueRequest = new LoanRequestDTO();
+        overdueRequest.setBookIsbn(testBook.getIsbn());
+        overdueRequest.setStudentMatricula(testStudent.getMatricula());
+        overdueRequest.setLoanDate(LocalDateTime.now().minusDays(20));
+        LoanResponseDTO overdueLoan = loanService.createLoan(overdueRequest);
+
+        // Act - novo empréstimo do mesmo aluno
+        LoanRequestDTO request = new LoanRequestDTO();
+        request.setBookIsbn(testBook.getIsbn());
+        request.setStudentMatricula(testStudent.getMatricula());
+        loanService.createLoan(request);
+
+        // Assert - o empréstimo vencido entra no limite, mas o cadastro não grava
+        // nada nele; o status gravado fica para o agendador
+        assertEquals(2L, studentRepository.countActiveLoansByMatricula(testStudent.getMatricula()));
+        Loan stored = loanRepository.findById(overdueLoan.getId()).orElse(null);
+        assertNotNull(stored);
+        assertEquals(Loan.LoanStatus.ACTIVE, stored.getStatus());
+
+        // A leitura já mostra o atraso e a multa calculados
+        LoanResponseDTO read = loanService.getLoanById(overdueLoan.getId());
+        assertEquals(Loan.LoanStatus.OVERDUE, read.getStatus());
+        assertEquals(6, read.getOverdueDays());
+        assertEquals(600, read.getFineAmount());
+    }
+
     @Test
     public void testGetActiveLoansByStudent() {
         // Arrange
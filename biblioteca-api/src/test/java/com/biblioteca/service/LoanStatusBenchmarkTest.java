@@ -0,0 +1,182 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.LibrarySettings;
+import com.biblioteca.model.Loan;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.LibrarySettingsRepository;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark do motor de status de empréstimos.
+ * Compara o laço por entidade (updateLoansStatus) com as atualizações em lote
+ * (refreshOverdueStatuses) sobre a mesma massa de dados e verifica que ambos
+ * produzem exatamente o mesmo resultado e que o lote é mais rápido.
+ *
+ * A quantidade de empréstimos pode ser ajustada com -Dbenchmark.loans=N
+ * (padrão: 2000).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class LoanStatusBenchmarkTest {
+
+    private static final int LOAN_COUNT = Integer.getInteger("benchmark.loans", 2000);
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LibrarySettingsRepository settingsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int expectedOverdue;
+
+    @BeforeEach
+    public void setUp() {
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+
+        LibrarySettings settings = new LibrarySettings();
+        settings.setId(1L);
+        settings.setLoanPeriodDays(14);
+        settings.setMaxLoansPerStudent(3);
+        settings.setFinePerDay(100);
+        settingsRepository.save(settings);
+
+        Student student = new Student();
+        student.setMatricula("BENCH001");
+        student.setNome("Aluno Benchmark");
+        student.setCpf("99988877766");
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail("benchmark@test.com");
+        student.setReservationsCount(0);
+        studentRepository.save(student);
+
+        Book book = new Book();
+        book.setIsbn("978-0000000001");
+        book.setTitle("Livro Benchmark");
+        book.setAuthor("Autor");
+        book.setQuantity(LOAN_COUNT);
+        book.setActiveReservationsCount(0);
+        bookRepository.save(book);
+
+        // Mistura de empréstimos: ativos no prazo, vencidos há N dias, vencidos há
+        // menos de um dia e devolvidos. Horários longe da virada do dia para que
+        // as duas execuções calculem os mesmos dias de atraso.
+        LocalDateTime now = LocalDateTime.now();
+        List<Loan> loans = new ArrayList<>(LOAN_COUNT);
+        expectedOverdue = 0;
+        for (int i = 0; i < LOAN_COUNT; i++) {
+            Loan loan = new Loan();
+            loan.setStudent(student);
+            loan.setBook(book);
+            switch (i % 4) {
+                case 0 -> loan.setDueDate(now.plusDays(1 + i % 10).plusHours(1));
+                case 1 -> {
+                    loan.setDueDate(now.minusDays(1 + i % 60).minusHours(1));
+                    expectedOverdue++;
+                }
+                case 2 -> {
+                    loan.setDueDate(now.minusHours(2));
+                    expectedOverdue++;
+                }
+                default -> {
+                    loan.setDueDate(now.minusDays(3));
+                    loan.setReturnDate(now.minusDays(1));
+                }
+            }
+            loan.setLoanDate(loan.getDueDate().minusDays(14));
+            loan.setStatus(Loan.LoanStatus.ACTIVE);
+            loans.add(loan);
+        }
+        loanRepository.saveAll(loans);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testBulkRefreshMatchesPerEntityLoop() {
+        // Laço por entidade (um UPDATE por linha alterada)
+        long start = System.nanoTime();
+        loanService.updateLoansStatus(loanRepository.findAll());
+        entityManager.flush();
+        long perEntityMillis = (System.nanoTime() - start) / 1_000_000;
+        entityManager.clear();
+        Map<Long, String> perEntityResult = snapshot();
+
+        resetStatuses();
+
+        // Motor em lote (poucas instruções UPDATE)
+        start = System.nanoTime();
+        int newlyOverdue = loanService.refreshOverdueStatuses();
+        long bulkMillis = (System.nanoTime() - start) / 1_000_000;
+        Map<Long, String> bulkResult = snapshot();
+
+        assertEquals(expectedOverdue, newlyOverdue);
+        assertEquals(perEntityResult, bulkResult);
+        assertTrue(bulkMillis < perEntityMillis,
+                "em lote = " + bulkMillis + " ms, por entidade = " + perEntityMillis + " ms");
+    }
+
+    @Test
+    public void testBulkRefreshIsIdempotent() {
+        loanService.refreshOverdueStatuses();
+        Map<Long, String> first = snapshot();
+
+        assertEquals(0, loanService.refreshOverdueStatuses());
+        assertEquals(first, snapshot());
+    }
+
+    /** Volta todos os empréstimos ao estado inicial (ACTIVE, sem multa). */
+    private void resetStatuses() {
+        entityManager.createQuery("UPDATE Loan l SET l.status = :active, l.overdueDays = NULL, "
+                        + "l.fineAmount = NULL, l.fineStatus = NULL")
+                .setParameter("active", Loan.LoanStatus.ACTIVE)
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    /** Estado persistido de cada empréstimo, para comparação entre as execuções. */
+    private Map<Long, String> snapshot() {
+        entityManager.clear();
+        Map<Long, String> result = new HashMap<>();
+        for (Loan loan : loanRepository.findAll()) {
+            result.put(loan.getId(), loan.getStatus() + "|" + loan.getOverdueDays() + "|"
+                    + loan.getFineAmount() + "|" + loan.getFineStatus());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,172 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.LoanRequestDTO;
+import com.biblioteca.dto.LoanResponseDTO;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.EmailOutboxMessage;
+import com.biblioteca.model.LibrarySettings;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.EmailOutboxRepository;
+import com.biblioteca.repository.LibrarySettingsRepository;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para a campanha de avisos de atraso
+ * Usa páginas de 2 empréstimos para exercitar a paginação por cursor
+ */
+@SpringBootTest(properties = "biblioteca.notifications.overdue-campaign.page-size=2")
+@ActiveProfiles("test")
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class OverdueNoticeCampaignServiceTest {
+
+    @Autowired
+    private OverdueNoticeCampaignService campaignService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LibrarySettingsRepository settingsRepository;
+
+    private LoanResponseDTO overdueLoan;
+    private LoanResponseDTO lateLoanToday;
+    private LoanResponseDTO onTimeLoan;
+
+    @BeforeEach
+    public void setUp() {
+        outboxRepository.deleteAll();
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+
+        LibrarySettings settings = new LibrarySettings();
+        settings.setId(1L);
+        settings.setLoanPeriodDays(14);
+        settings.setMaxLoansPerStudent(3);
+        settings.setFinePerDay(100);
+        settingsRepository.save(settings);
+
+        studentRepository.save(student("MAT001", "12345678901"));
+        studentRepository.save(student("MAT002", "12345678902"));
+        studentRepository.save(student("MAT003", "12345678903"));
+
+        Book book = new Book();
+        book.setIsbn("978-1234567890");
+        book.setTitle("Dom Casmurro");
+        book.setAuthor("Machado de Assis");
+        book.setQuantity(10);
+        book.setActiveReservationsCount(0);
+        bookRepository.save(book);
+
+        LocalDateTime now = LocalDateTime.now();
+        // Três empréstimos com pelo menos um dia de atraso
+        overdueLoan = loanService.createLoan(new LoanRequestDTO("MAT001", "978-1234567890", now.minusDays(20)));
+        loanService.createLoan(new LoanRequestDTO("MAT001", "978-1234567890", now.minusDays(16)));
+        loanService.createLoan(new LoanRequestDTO("MAT003", "978-1234567890", now.minusDays(30)));
+
+        // Fora da campanha: vencido há menos de um dia, devolvido e dentro do prazo
+        lateLoanToday = loanService.createLoan(new LoanRequestDTO("MAT002", "978-1234567890",
+                now.minusDays(14).minusHours(2)));
+        LoanResponseDTO returned = loanService.createLoan(new LoanRequestDTO("MAT002", "978-1234567890",
+                now.minusDays(20)));
+        loanService.returnLoan(returned.getId(), null);
+        onTimeLoan = loanService.createLoan(new LoanRequestDTO("MAT003", "978-1234567890", null));
+    }
+
+    @Test
+    public void testCampaignQueuesOneNoticePerOverdueLoanInPages() {
+        Map<String, Object> result = campaignService.runCampaign();
+
+        assertEquals(2, result.get("pages"));
+        assertEquals(3, result.get("overdueLoans"));
+        assertEquals(3, result.get("queuedNotices"));
+
+        List<EmailOutboxMessage> queued = outboxRepository.findAll();
+        assertEquals(3, queued.size());
+        assertTrue(queued.stream().allMatch(m -> m.getType() == EmailOutboxMessage.NotificationType.OVERDUE_LOAN));
+        assertTrue(queued.stream().allMatch(m -> m.getStatus() == EmailOutboxMessage.OutboxStatus.PENDING));
+        assertTrue(queued.stream().anyMatch(m -> m.getToEmail().equals("mat003@test.com")));
+
+        LocalDate today = LocalDate.now();
+        assertEquals(today, loanRepository.findById(overdueLoan.getId()).orElseThrow().getLastOverdueNoticeDate());
+        assertNull(loanRepository.findById(lateLoanToday.getId()).orElseThrow().getLastOverdueNoticeDate());
+        assertNull(loanRepository.findById(onTimeLoan.getId()).orElseThrow().getLastOverdueNoticeDate());
+    }
+
+    @Test
+    public void testCampaignDoesNotRepeatNoticesOnSameDay() {
+        campaignService.runCampaign();
+        Map<String, Object> secondRun = campaignService.runCampaign();
+
+        assertEquals(0, secondRun.get("overdueLoans"));
+        assertEquals(0, secondRun.get("queuedNotices"));
+        assertEquals(3, outboxRepository.count());
+    }
+
+    @Test
+    public void testCampaignSkipsNoticeAlreadyQueuedForLoanToday() {
+        // Aviso enviado manualmente pelo endpoint de um empréstimo
+        emailService.queueOverdueLoanNotification(overdueLoan.getId(), "mat001@test.com", "Aluno MAT001",
+                "Dom Casmurro", "978-1234567890", 6);
+
+        Map<String, Object> result = campaignService.runCampaign();
+
+        assertEquals(3, result.get("overdueLoans"));
+        assertEquals(2, result.get("queuedNotices"));
+        assertEquals(3, outboxRepository.count());
+    }
+
+    @Test
+    public void testStatusReportsLastRun() {
+        assertFalse((Boolean) campaignService.getStatus().get("running"));
+
+        campaignService.runCampaign();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> lastRun = (Map<String, Object>) campaignService.getStatus().get("lastRun");
+        assertEquals(3, lastRun.get("queuedNotices"));
+    }
+
+    private Student student(String matricula, String cpf) {
+        Student student = new Student();
+        student.setMatricula(matricula);
+        student.setNome("Aluno " + matricula);
+        student.setCpf(cpf);
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail(matricula.toLowerCase() + "@test.com");
+        student.setReservationsCount(0);
+        return student;
+    }
+}
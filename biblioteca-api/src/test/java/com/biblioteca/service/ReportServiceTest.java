@@ -240,6 +240,28 @@ public class ReportServiceTest {
         assertEquals(1L, report.getTotalOverdueLoans());
     }
 
+    @Test
+    public void testLoanReportsCountOverdueByDueDateWithoutPersisting() {
+        // Empréstimo vencido ainda gravado como ACTIVE
+        Loan loan1 = new Loan();
+        loan1.setStudent(student1);
+        loan1.setBook(book1);
+        loan1.setLoanDate(LocalDateTime.now().minusDays(20));
+        loan1.setDueDate(LocalDateTime.now().minusDays(3));
+        loan1.setStatus(Loan.LoanStatus.ACTIVE);
+        loanRepository.save(loan1);
+
+        ReportStudentMetricsDTO metrics = reportService.generateStudentMetricsReport();
+        ReportLoanStatisticsDTO statistics = reportService.generateLoanStatisticsReport();
+
+        assertEquals(1L, metrics.getStudentsWithOverdueLoans());
+        assertEquals(0L, metrics.getStudentsWithActiveLoans());
+        assertEquals(1L, statistics.getOverdueLoans());
+        assertEquals(0L, statistics.getActiveLoans());
+        // Os relatórios são somente leitura
+        assertEquals(Loan.LoanStatus.ACTIVE, loanRepository.findById(loan1.getId()).orElseThrow().getStatus());
+    }
+
     // ======================== TESTES - RELATÓRIO 3: ESTATÍSTICAS DE EMPRÉSTIMOS ========================
 
     @Test
@@ -457,6 +479,29 @@ public class ReportServiceTest {
         assertEquals(1L, report.getBooksWithFullQueue());
     }
 
+    @Test
+    public void testReservationAnalyticsReportFullQueueUsesBookCapacity() {
+        // book3 tem 2 reservas ativas: cheia com capacidade própria 2
+        book3.setReservationCapacity(2);
+        bookRepository.save(book3);
+        // book1 com 5 reservas (o limite global) mas capacidade própria 10
+        book1.setActiveReservationsCount(5);
+        book1.setReservationCapacity(10);
+        bookRepository.save(book1);
+
+        Reservation res = new Reservation();
+        res.setBook(book3);
+        res.setStudent(student1);
+        res.setReservationDate(LocalDateTime.now());
+        res.setQueuePosition(1);
+        res.setStatus(Reservation.ReservationStatus.ACTIVE);
+        reservationRepository.save(res);
+
+        ReportReservationAnalyticsDTO report = reportService.generateReservationAnalyticsReport();
+
+        assertEquals(1L, report.getBooksWithFullQueue());
+    }
+
     @Test
     public void testReservationAnalyticsReportMultipleStudentsWithReservations() {
         // Criar reservas para múltiplos alunos
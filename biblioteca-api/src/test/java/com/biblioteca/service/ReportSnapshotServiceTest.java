@@ -0,0 +1,273 @@
+package com.biblioteca.service;
+
+import com.biblioteca.dto.LoanRequestDTO;
+import com.biblioteca.dto.LoanResponseDTO;
+import com.biblioteca.dto.ReservationRequestDTO;
+import com.biblioteca.dto.ReservationResponseDTO;
+import com.biblioteca.event.ReportDataChangedEvent;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.LibrarySettings;
+import com.biblioteca.model.Student;
+import com.biblioteca.repository.BookRepository;
+import com.biblioteca.repository.LibrarySettingsRepository;
+import com.biblioteca.repository.LoanRepository;
+import com.biblioteca.repository.ReservationRepository;
+import com.biblioteca.repository.StudentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para a cópia em memória dos relatórios
+ * Verifica que os totais mantidos pelos eventos continuam iguais aos
+ * calculados pelas consultas agregadas.
+ *
+ * Sem @Transactional: os eventos só são aplicados após o commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class ReportSnapshotServiceTest {
+
+    @Autowired
+    private ReportSnapshotService snapshotService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LibrarySettingsRepository settingsRepository;
+
+    @Autowired
+    private LibrarySettingsService settingsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+
+        LibrarySettings settings = new LibrarySettings();
+        settings.setId(1L);
+        settings.setLoanPeriodDays(14);
+        settings.setMaxLoansPerStudent(3);
+        settings.setFinePerDay(100);
+        settingsRepository.save(settings);
+        settingsService.invalidate();
+
+        studentRepository.save(student("MAT001", "12345678901"));
+        studentRepository.save(student("MAT002", "12345678902"));
+
+        Book book = new Book();
+        book.setIsbn("978-1234567890");
+        book.setTitle("Dom Casmurro");
+        book.setAuthor("Machado de Assis");
+        book.setQuantity(3);
+        book.setActiveReservationsCount(0);
+        bookRepository.save(book);
+
+        snapshotService.reconcile();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        reservationRepository.deleteAll();
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void testLoanCreateAndReturnUpdateSnapshotIncrementally() {
+        long reconciliations = reconciliations();
+
+        LoanResponseDTO loan = loanService.createLoan(new LoanRequestDTO("MAT001", "978-1234567890", null));
+        // Vencido há 6 dias no momento do cadastro
+        loanService.createLoan(new LoanRequestDTO("MAT002", "978-1234567890",
+                LocalDateTime.now().minusDays(20)));
+
+        assertEquals(2L, snapshotService.getLoanStatisticsReport().getTotalLoans());
+        assertEquals(1L, snapshotService.getLoanStatisticsReport().getActiveLoans());
+        assertEquals(1L, snapshotService.getStudentMetricsReport().getStudentsWithOverdueLoans());
+        assertEquals(1L, snapshotService.getAvailabilityReport().getTotalCopiesInStock());
+        assertSnapshotMatchesDatabase();
+
+        loanService.returnLoan(loan.getId(), null);
+
+        assertEquals(1L, snapshotService.getLoanStatisticsReport().getReturnedLoans());
+        assertEquals(2L, snapshotService.getAvailabilityReport().getTotalCopiesInStock());
+        assertSnapshotMatchesDatabase();
+        assertEquals(reconciliations, reconciliations());
+    }
+
+    @Test
+    public void testLoanBecomesOverdueWithoutEvent() throws InterruptedException {
+        // Vence em 2 segundos
+        loanService.createLoan(new LoanRequestDTO("MAT001", "978-1234567890",
+                LocalDateTime.now().minusDays(14).plusSeconds(2)));
+        assertEquals(1L, snapshotService.getLoanStatisticsReport().getActiveLoans());
+
+        Thread.sleep(3000);
+
+        assertEquals(0L, snapshotService.getLoanStatisticsReport().getActiveLoans());
+        assertEquals(1L, snapshotService.getLoanStatisticsReport().getOverdueLoans());
+        assertEquals(1L, snapshotService.getStudentMetricsReport().getStudentsWithOverdueLoans());
+        assertSnapshotMatchesDatabase();
+    }
+
+    @Test
+    public void testReservationTransitionsUpdateSnapshot() {
+        ReservationResponseDTO first = reservationService.createReservation(
+                new ReservationRequestDTO("978-1234567890", "MAT001", null));
+        reservationService.createReservation(new ReservationRequestDTO("978-1234567890", "MAT002", null));
+
+        assertEquals(2L, snapshotService.getReservationAnalyticsReport().getActiveReservations());
+        assertEquals(1L, snapshotService.getReservationAnalyticsReport().getBooksWithReservations());
+        assertEquals(2L, snapshotService.getReservationAnalyticsReport().getStudentsWithReservations());
+        assertSnapshotMatchesDatabase();
+
+        reservationService.cancelReservation(first.getId());
+
+        assertEquals(1L, snapshotService.getReservationAnalyticsReport().getCancelledReservations());
+        assertEquals(1L, snapshotService.getReservationAnalyticsReport().getActiveReservations());
+        assertSnapshotMatchesDatabase();
+    }
+
+    @Test
+    public void testDataChangedEventTriggersReconciliation() {
+        Book book = new Book();
+        book.setIsbn("978-0987654321");
+        book.setTitle("Quincas Borba");
+        book.setAuthor("Machado de Assis");
+        book.setQuantity(0);
+        book.setActiveReservationsCount(0);
+        bookRepository.save(book);
+
+        // Gravação direta: a cópia ainda não conhece o livro novo
+        assertEquals(1L, snapshotService.getAvailabilityReport().getTotalBooks());
+
+        eventPublisher.publishEvent(new ReportDataChangedEvent("test"));
+
+        assertEquals(2L, snapshotService.getAvailabilityReport().getTotalBooks());
+        assertEquals(1L, snapshotService.getAvailabilityReport().getUnavailableBooks());
+        assertSnapshotMatchesDatabase();
+    }
+
+    @Test
+    public void testFullQueueFollowsReservationCapacity() {
+        LibrarySettings settings = settingsService.getSettings();
+        settings.setMaxReservationsPerBook(2);
+        settingsService.updateSettings(settings);
+
+        reservationService.createReservation(new ReservationRequestDTO("978-1234567890", "MAT001", null));
+        reservationService.createReservation(new ReservationRequestDTO("978-1234567890", "MAT002", null));
+
+        // Cheia pelo limite global, aplicado pelo evento incremental
+        assertEquals(1L, snapshotService.getReservationAnalyticsReport().getBooksWithFullQueue());
+        assertSnapshotMatchesDatabase();
+
+        // Limite global maior: a cópia é marcada para recálculo
+        settings.setMaxReservationsPerBook(3);
+        settingsService.updateSettings(settings);
+
+        assertEquals(0L, snapshotService.getReservationAnalyticsReport().getBooksWithFullQueue());
+        assertSnapshotMatchesDatabase();
+
+        // Capacidade própria do livro prevalece sobre o limite global
+        Book book = bookRepository.findById("978-1234567890").orElseThrow();
+        book.setReservationCapacity(2);
+        bookRepository.save(book);
+        eventPublisher.publishEvent(ReportDataChangedEvent.forBook("test", book.getIsbn()));
+
+        assertEquals(1L, snapshotService.getReservationAnalyticsReport().getBooksWithFullQueue());
+        assertSnapshotMatchesDatabase();
+    }
+
+    @Test
+    public void testConcurrentReadersReconcileOnce() throws Exception {
+        long reconciliations = reconciliations();
+        eventPublisher.publishEvent(new ReportDataChangedEvent("test"));
+
+        List<Callable<Long>> readers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            readers.add(() -> snapshotService.getAvailabilityReport().getTotalBooks());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Long> future : executor.invokeAll(readers)) {
+                assertEquals(1L, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(reconciliations + 1, reconciliations());
+        assertEquals(false, snapshotService.getStatus().get("stale"));
+    }
+
+    private void assertSnapshotMatchesDatabase() {
+        assertEquals(objectMapper.valueToTree(reportService.generateAvailabilityReport()),
+                objectMapper.valueToTree(snapshotService.getAvailabilityReport()));
+        assertEquals(objectMapper.valueToTree(reportService.generateStudentMetricsReport()),
+                objectMapper.valueToTree(snapshotService.getStudentMetricsReport()));
+        assertEquals(objectMapper.valueToTree(reportService.generateLoanStatisticsReport()),
+                objectMapper.valueToTree(snapshotService.getLoanStatisticsReport()));
+        assertEquals(objectMapper.valueToTree(reportService.generateReservationAnalyticsReport()),
+                objectMapper.valueToTree(snapshotService.getReservationAnalyticsReport()));
+    }
+
+    private long reconciliations() {
+        return (Long) snapshotService.getStatus().get("reconciliations");
+    }
+
+    private Student student(String matricula, String cpf) {
+        Student student = new Student();
+        student.setMatricula(matricula);
+        student.setNome("Aluno " + matricula);
+        student.setCpf(cpf);
+        student.setDataNascimento(LocalDate.of(2000, 1, 1));
+        student.setEmail(matricula.toLowerCase() + "@test.com");
+        student.setReservationsCount(0);
+        return student;
+    }
+}
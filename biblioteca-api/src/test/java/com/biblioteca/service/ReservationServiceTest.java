@@ -1,13 +1,18 @@
 package com.biblioteca.service;
 
+import com.biblioteca.controller.BookManagementController;
 import com.biblioteca.dto.ReservationRequestDTO;
 import com.biblioteca.dto.ReservationResponseDTO;
 import com.biblioteca.model.Book;
+import com.biblioteca.model.LibrarySettings;
 import com.biblioteca.model.Reservation;
 import com.biblioteca.model.Student;
 import com.biblioteca.repository.BookRepository;
 import com.biblioteca.repository.ReservationRepository;
 import com.biblioteca.repository.StudentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,7 +23,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -44,6 +51,15 @@ public class ReservationServiceTest {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LibrarySettingsService settingsService;
+
+    @Autowired
+    private BookManagementController bookController;
+
     private Book testBook;
     private Student student1, student2, student3;
 
@@ -167,6 +183,59 @@ public class ReservationServiceTest {
         });
     }
 
+    @Test
+    public void testBookReservationCapacityOverridesGlobalLimit() {
+        // Arrange
+        Book book = bookRepository.findById(testBook.getIsbn()).orElseThrow();
+        book.setReservationCapacity(2);
+        bookRepository.save(book);
+
+        reservationService.createReservation(new ReservationRequestDTO(testBook.getIsbn(), student1.getMatricula(), null));
+        reservationService.createReservation(new ReservationRequestDTO(testBook.getIsbn(), student2.getMatricula(), null));
+
+        // Act & Assert
+        RuntimeException e = assertThrows(RuntimeException.class, () -> reservationService.createReservation(
+                new ReservationRequestDTO(testBook.getIsbn(), student3.getMatricula(), null)));
+        assertTrue(e.getMessage().contains("(2)"));
+    }
+
+    @Test
+    public void testBookUpdateWithoutCapacityKeepsIt() {
+        // Arrange
+        Book book = bookRepository.findById(testBook.getIsbn()).orElseThrow();
+        book.setReservationCapacity(2);
+        bookRepository.save(book);
+
+        // Act - edição sem o campo (como a tela de edição do acervo)
+        Book details = new Book();
+        details.setIsbn(testBook.getIsbn());
+        details.setTitle("Test Book (2ª edição)");
+        details.setAuthor("Test Author");
+        details.setQuantity(5);
+        bookController.updateBook(testBook.getIsbn(), details);
+
+        // Assert
+        Book stored = bookRepository.findById(testBook.getIsbn()).orElseThrow();
+        assertEquals("Test Book (2ª edição)", stored.getTitle());
+        assertEquals(2, stored.getReservationCapacity());
+        assertEquals(2, reservationService.getReservationCapacity(stored));
+    }
+
+    @Test
+    public void testGlobalReservationCapacityFromSettings() {
+        // Arrange
+        LibrarySettings settings = settingsService.getSettings();
+        settings.setMaxReservationsPerBook(2);
+        settingsService.updateSettings(settings);
+
+        reservationService.createReservation(new ReservationRequestDTO(testBook.getIsbn(), student1.getMatricula(), null));
+        reservationService.createReservation(new ReservationRequestDTO(testBook.getIsbn(), student2.getMatricula(), null));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> reservationService.createReservation(
+                new ReservationRequestDTO(testBook.getIsbn(), student3.getMatricula(), null)));
+    }
+
     @Test
     public void testPreventDuplicateReservationForSameStudent() {
         // Arrange
@@ -315,6 +384,39 @@ public class ReservationServiceTest {
         assertEquals(2, res3Db.getQueuePosition());
     }
 
+    @Test
+    public void testCancelHeadOfFullQueueShiftsQueueWithSingleUpdate() {
+        // Arrange - Fila cheia (5 reservas)
+        Student student4 = createStudent("MAT004", "Ana Lima", "12345678904", "ana@test.com");
+        Student student5 = createStudent("MAT005", "Lucas Rocha", "12345678905", "lucas@test.com");
+        List<ReservationResponseDTO> created = new ArrayList<>();
+        for (Student student : List.of(student1, student2, student3, student4, student5)) {
+            ReservationRequestDTO request = new ReservationRequestDTO();
+            request.setBookIsbn(testBook.getIsbn());
+            request.setStudentMatricula(student.getMatricula());
+            created.add(reservationService.createReservation(request));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act - Cancelar a primeira da fila
+        reservationService.cancelReservation(created.get(0).getId());
+
+        // Assert - Só a reserva cancelada é atualizada como entidade; as demais
+        // avançam no UPDATE em bloco
+        assertEquals(1, statistics.getEntityStatistics(Reservation.class.getName()).getUpdateCount());
+
+        List<ReservationResponseDTO> remaining = reservationService
+                .getActiveReservationsByBook(testBook.getIsbn());
+        assertEquals(4, remaining.size());
+        for (int i = 0; i < remaining.size(); i++) {
+            assertEquals(created.get(i + 1).getId(), remaining.get(i).getId());
+            assertEquals(i + 1, remaining.get(i).getQueuePosition());
+        }
+        assertEquals(4, reservationRepository.findById(created.get(4).getId()).orElseThrow().getQueuePosition());
+    }
+
     // ======================== TESTES DE CONSULTAS ========================
 
     @Test
@@ -506,4 +608,99 @@ public class ReservationServiceTest {
         assertNotNull(updatedStudent);
         assertEquals(1, updatedStudent.getReservationsCount());
     }
+
+    @Test
+    public void testReconcileReservationCountersRepairsDrift() {
+        // Arrange
+        ReservationRequestDTO req1 = new ReservationRequestDTO();
+        req1.setBookIsbn(testBook.getIsbn());
+        req1.setStudentMatricula(student1.getMatricula());
+        ReservationResponseDTO res1 = reservationService.createReservation(req1);
+        reservationService.cancelReservation(res1.getId());
+
+        ReservationRequestDTO req2 = new ReservationRequestDTO();
+        req2.setBookIsbn(testBook.getIsbn());
+        req2.setStudentMatricula(student2.getMatricula());
+        reservationService.createReservation(req2);
+
+        // Contadores alterados fora do serviço
+        Book driftedBook = bookRepository.findById(testBook.getIsbn()).orElseThrow();
+        driftedBook.setActiveReservationsCount(4);
+        bookRepository.save(driftedBook);
+        Student driftedStudent = studentRepository.findById(student1.getMatricula()).orElseThrow();
+        driftedStudent.setReservationsCount(0);
+        studentRepository.save(driftedStudent);
+
+        // Act
+        Map<String, Integer> repaired = reservationService.reconcileReservationCounters();
+
+        // Assert
+        assertEquals(1, repaired.get("books"));
+        assertEquals(1, repaired.get("students"));
+        assertEquals(1, bookRepository.findById(testBook.getIsbn()).orElseThrow().getActiveReservationsCount());
+        assertEquals(1, studentRepository.findById(student1.getMatricula()).orElseThrow().getReservationsCount());
+        assertEquals(1, studentRepository.findById(student2.getMatricula()).orElseThrow().getReservationsCount());
+
+        // Nada mais a corrigir
+        Map<String, Integer> again = reservationService.reconcileReservationCounters();
+        assertEquals(0, again.get("books"));
+        assertEquals(0, again.get("students"));
+    }
+
+    // ======================== TESTES DE PRIORIDADE ========================
+
+    @Test
+    public void testCourseReserveIsServedBeforeStandardReservations() {
+        // Arrange
+        ReservationResponseDTO standard1 = reservationService.createReservation(
+                new ReservationRequestDTO(testBook.getIsbn(), student1.getMatricula(), null));
+        ReservationResponseDTO standard2 = reservationService.createReservation(
+                new ReservationRequestDTO(testBook.getIsbn(), student2.getMatricula(), null));
+        ReservationRequestDTO courseRequest = new ReservationRequestDTO(testBook.getIsbn(), student3.getMatricula(), null);
+        courseRequest.setPriority(Reservation.ReservationPriority.COURSE_RESERVE);
+        ReservationResponseDTO course = reservationService.createReservation(courseRequest);
+
+        // Assert - posição contada dentro da classe de prioridade
+        assertEquals(Reservation.ReservationPriority.STANDARD, standard1.getPriority());
+        assertEquals(1, course.getQueuePosition());
+        List<ReservationResponseDTO> queue = reservationService.getActiveReservationsByBook(testBook.getIsbn());
+        assertEquals(List.of(course.getId(), standard1.getId(), standard2.getId()),
+                queue.stream().map(ReservationResponseDTO::getId).toList());
+
+        // Act - atender a fila pela cabeça
+        ReservationResponseDTO first = reservationService.fulfillNextReservation(testBook.getIsbn());
+        ReservationResponseDTO second = reservationService.fulfillNextReservation(testBook.getIsbn());
+
+        // Assert
+        assertEquals(course.getId(), first.getId());
+        assertEquals(standard1.getId(), second.getId());
+        assertEquals(1, reservationRepository.findById(standard2.getId()).orElseThrow().getQueuePosition());
+    }
+
+    @Test
+    public void testCancelOnlyShiftsReservationsOfSamePriority() {
+        // Arrange
+        ReservationResponseDTO standard1 = reservationService.createReservation(
+                new ReservationRequestDTO(testBook.getIsbn(), student1.getMatricula(), null));
+        ReservationResponseDTO standard2 = reservationService.createReservation(
+                new ReservationRequestDTO(testBook.getIsbn(), student2.getMatricula(), null));
+        ReservationRequestDTO courseRequest = new ReservationRequestDTO(testBook.getIsbn(), student3.getMatricula(), null);
+        courseRequest.setPriority(Reservation.ReservationPriority.COURSE_RESERVE);
+        ReservationResponseDTO course = reservationService.createReservation(courseRequest);
+
+        // Act
+        reservationService.cancelReservation(standard1.getId());
+
+        // Assert
+        assertEquals(1, reservationRepository.findById(standard2.getId()).orElseThrow().getQueuePosition());
+        assertEquals(1, reservationRepository.findById(course.getId()).orElseThrow().getQueuePosition());
+        assertEquals(2, bookRepository.findById(testBook.getIsbn()).orElseThrow().getActiveReservationsCount());
+    }
+
+    @Test
+    public void testFulfillNextReservationWithEmptyQueueFails() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> reservationService.fulfillNextReservation(testBook.getIsbn()));
+        assertEquals("Livro não possui reservas ativas", e.getMessage());
+    }
 }
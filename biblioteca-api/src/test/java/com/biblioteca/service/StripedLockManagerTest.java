@@ -0,0 +1,135 @@
+package com.biblioteca.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes para os bloqueios em memória por livro/aluno
+ * Usa poucas faixas e tempo de espera curto para exercitar disputa e timeout.
+ */
+@SpringBootTest(properties = {"biblioteca.locks.stripes=8", "biblioteca.locks.timeout=PT0.5S"})
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class StripedLockManagerTest {
+
+    @Autowired
+    private StripedLockManager lockManager;
+
+    @Test
+    public void testSameKeySerializesAndRecordsWait() throws Exception {
+        String key = StripedLockManager.bookKey("978-6000000001");
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = executor.invokeAll(List.of(
+                    () -> hold(key, inside, maxInside),
+                    () -> hold(key, inside, maxInside),
+                    () -> hold(key, inside, maxInside),
+                    () -> hold(key, inside, maxInside)));
+            for (Future<Integer> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, maxInside.get());
+        Map<String, Object> stripe = lockManager.getStripeMetrics().stream()
+                .filter(m -> key.equals(m.get("lastKey")))
+                .findFirst()
+                .orElseThrow();
+        assertTrue((Long) stripe.get("acquisitions") >= 4);
+        assertTrue((Long) stripe.get("contended") > 0);
+        assertTrue((Double) stripe.get("totalWaitMillis") > 0);
+        assertEquals(0, stripe.get("queueDepth"));
+        assertEquals(false, stripe.get("held"));
+    }
+
+    @Test
+    public void testOppositeKeyOrderDoesNotDeadlock() throws Exception {
+        String book = StripedLockManager.bookKey("978-6000000002");
+        String student = StripedLockManager.studentKey("MAT-LOCK");
+        AtomicInteger done = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    lockManager.withLocks(done::incrementAndGet, book, student);
+                }
+            });
+            Future<?> second = executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    lockManager.withLocks(done::incrementAndGet, student, book);
+                }
+            });
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1000, done.get());
+    }
+
+    @Test
+    public void testTimeoutWhenStripeIsHeld() throws Exception {
+        String key = StripedLockManager.studentKey("MAT-TIMEOUT");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> lockManager.withLocks(() -> {
+                locked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }, key));
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            long timeoutsBefore = (Long) lockManager.getMetrics().get("timeouts");
+            RuntimeException e = assertThrows(RuntimeException.class,
+                    () -> lockManager.withLocks(() -> "nunca executa", key));
+            assertTrue(e.getMessage().contains("tente novamente"));
+            assertEquals(timeoutsBefore + 1, lockManager.getMetrics().get("timeouts"));
+
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Liberada a faixa, a chave volta a ser adquirida normalmente
+        assertEquals("ok", lockManager.withLocks(() -> "ok", key));
+    }
+
+    private Integer hold(String key, AtomicInteger inside, AtomicInteger maxInside) {
+        return lockManager.withLocks(() -> {
+            int now = inside.incrementAndGet();
+            maxInside.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inside.decrementAndGet();
+            return now;
+        }, key);
+    }
+}
@@ -15,9 +15,43 @@ export default function Acervo() {
     fetchLivros();
   }, []);
 
-  const fetchLivros = async () => {
+  // Estoque atualizado pelo canal de eventos (sem consultar a lista de novo)
+  useEffect(() => {
+    const source = new EventSource(`${API_BASE_URL}/events/stream`);
+
+    source.addEventListener("book", (event) => {
+      const data = JSON.parse(event.data);
+      setLivros((prev) => {
+        if (!prev.some((livro) => livro.isbn === data.isbn)) {
+          fetchLivros({ silent: true });
+          return prev;
+        }
+        return prev.map((livro) =>
+          livro.isbn === data.isbn
+            ? {
+                ...livro,
+                quantity: data.quantity,
+                activeReservationsCount: data.activeReservationsCount,
+                ...(data.title ? { title: data.title, author: data.author } : {}),
+              }
+            : livro
+        );
+      });
+    });
+
+    source.addEventListener("book-deleted", (event) => {
+      const data = JSON.parse(event.data);
+      setLivros((prev) => prev.filter((livro) => livro.isbn !== data.isbn));
+    });
+
+    source.addEventListener("resync", () => fetchLivros({ silent: true }));
+
+    return () => source.close();
+  }, []);
+
+  const fetchLivros = async ({ silent = false } = {}) => {
     try {
-      setLoading(true);
+      if (!silent) setLoading(true);
       const response = await fetch(`${API_BASE_URL}/books`);
       if (response.ok) {
         const data = await response.json();
@@ -26,7 +60,7 @@ export default function Acervo() {
     } catch (error) {
       console.error("Erro ao buscar livros:", error);
     } finally {
-      setLoading(false);
+      if (!silent) setLoading(false);
     }
   };
 
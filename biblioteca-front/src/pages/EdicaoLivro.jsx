@@ -38,6 +38,7 @@ export default function EdicaoLivro() {
     keywords: "",
     synopsis: "",
     quantity: 0,
+    reservationCapacity: "",
   });
 
   const fetchLivro = useCallback(async () => {
@@ -54,6 +55,7 @@ export default function EdicaoLivro() {
           keywords: data.keywords || "",
           synopsis: data.synopsis || "",
           quantity: data.quantity || 0,
+          reservationCapacity: data.reservationCapacity ?? "",
         });
       } else {
         alert("Livro não encontrado");
@@ -123,7 +125,14 @@ export default function EdicaoLivro() {
         headers: {
           "Content-Type": "application/json",
         },
-        body: JSON.stringify(formData),
+        body: JSON.stringify({
+          ...formData,
+          // Vazio não é enviado: a API mantém a capacidade atual
+          reservationCapacity:
+            formData.reservationCapacity === ""
+              ? null
+              : parseInt(formData.reservationCapacity),
+        }),
       });
 
       if (response.ok) {
@@ -233,6 +242,22 @@ export default function EdicaoLivro() {
               />
             </div>
 
+            <div className="space-y-2">
+              <Label htmlFor="reservationCapacity">
+                Capacidade da fila de reservas
+              </Label>
+              <Input
+                id="reservationCapacity"
+                name="reservationCapacity"
+                type="number"
+                min="1"
+                value={formData.reservationCapacity}
+                onChange={handleChange}
+                placeholder="Limite padrão da biblioteca"
+                className="rounded-md"
+              />
+            </div>
+
             <div className="space-y-2">
               <Label htmlFor="keywords">Palavras-chave</Label>
               <Input
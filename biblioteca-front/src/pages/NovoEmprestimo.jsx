@@ -37,57 +37,35 @@ export default function NovoEmprestimo() {
     return !!(selectedBook && selectedStudent);
   }, [selectedBook, selectedStudent]);
 
-  const allBooksRef = useRef([]);
-  const allStudentsRef = useRef([]);
-  const [loaded, setLoaded] = useState({ books: false, students: false });
-
+  // Pré-selecionar livro e aluno se vierem via URL params
   useEffect(() => {
     let aborted = false;
-    (async () => {
-      try {
-        const [booksRes, studentsRes] = await Promise.all([
-          fetch(`${API_BASE_URL}/books`),
-          fetch(`${API_BASE_URL}/students`),
-        ]);
-        if (!booksRes.ok || !studentsRes.ok) return;
-        const [books, students] = await Promise.all([
-          booksRes.json(),
-          studentsRes.json(),
-        ]);
-        if (aborted) return;
-        allBooksRef.current = (books || []).map((b) => ({
-          isbn: b.isbn || b.ISBN || b.id || "",
-          title: b.title || b.titulo || b.name || "",
-          author: b.author || b.autor || "",
-        }));
-        allStudentsRef.current = (students || []).map((s) => ({
-          matricula: s.matricula || s.id || "",
-          nome: s.nome || s.name || "",
-          email: s.email || "",
-        }));
-        setLoaded({ books: true, students: true });
+    const urlBookIsbn = searchParams.get("bookIsbn");
+    const urlStudentMatricula = searchParams.get("studentMatricula");
+    const urlReservationId = searchParams.get("reservationId");
 
-        // Pré-selecionar livro e aluno se vierem via URL params
-        const urlBookIsbn = searchParams.get("bookIsbn");
-        const urlStudentMatricula = searchParams.get("studentMatricula");
-        const urlReservationId = searchParams.get("reservationId");
-
-        if (urlReservationId) {
-          setReservationId(Number(urlReservationId));
-        }
+    if (urlReservationId) {
+      setReservationId(Number(urlReservationId));
+    }
 
-        if (urlBookIsbn && allBooksRef.current.length > 0) {
-          const book = allBooksRef.current.find((b) => b.isbn === urlBookIsbn);
-          if (book) {
+    (async () => {
+      try {
+        if (urlBookIsbn) {
+          const res = await fetch(
+            `${API_BASE_URL}/books/${encodeURIComponent(urlBookIsbn)}`
+          );
+          if (res.ok && !aborted) {
+            const book = await res.json();
             setSelectedBook({ isbn: book.isbn, title: book.title });
           }
         }
 
-        if (urlStudentMatricula && allStudentsRef.current.length > 0) {
-          const student = allStudentsRef.current.find(
-            (s) => s.matricula === urlStudentMatricula
+        if (urlStudentMatricula) {
+          const res = await fetch(
+            `${API_BASE_URL}/students/${encodeURIComponent(urlStudentMatricula)}`
           );
-          if (student) {
+          if (res.ok && !aborted) {
+            const student = await res.json();
             setSelectedStudent({
               matricula: student.matricula,
               nome: student.nome,
@@ -101,37 +79,59 @@ export default function NovoEmprestimo() {
     };
   }, [searchParams]);
 
-  // Filter helpers
+  // Sugestões do servidor a cada tecla (a resposta anterior é descartada)
   useEffect(() => {
-    const q = bookQuery.trim().toLowerCase();
+    const q = bookQuery.trim();
     if (!q) {
       setBookResults([]);
       return;
     }
-    const results = allBooksRef.current
-      .filter(
-        (b) =>
-          (b.title || "").toLowerCase().includes(q) ||
-          (b.author || "").toLowerCase().includes(q)
-      )
-      .slice(0, 8);
-    setBookResults(results);
+    const controller = new AbortController();
+    (async () => {
+      try {
+        const res = await fetch(
+          `${API_BASE_URL}/books/autocomplete?q=${encodeURIComponent(q)}&limit=8`,
+          { signal: controller.signal }
+        );
+        if (!res.ok) return;
+        const suggestions = await res.json();
+        setBookResults(
+          (suggestions || []).map((s) => ({
+            isbn: s.id,
+            title: s.label || "",
+            author: s.detail || "",
+          }))
+        );
+      } catch {}
+    })();
+    return () => controller.abort();
   }, [bookQuery]);
 
   useEffect(() => {
-    const q = studentQuery.trim().toLowerCase();
+    const q = studentQuery.trim();
     if (!q) {
       setStudentResults([]);
       return;
     }
-    const results = allStudentsRef.current
-      .filter(
-        (s) =>
-          (s.nome || "").toLowerCase().includes(q) ||
-          (s.email || "").toLowerCase().includes(q)
-      )
-      .slice(0, 8);
-    setStudentResults(results);
+    const controller = new AbortController();
+    (async () => {
+      try {
+        const res = await fetch(
+          `${API_BASE_URL}/students/autocomplete?q=${encodeURIComponent(q)}&limit=8`,
+          { signal: controller.signal }
+        );
+        if (!res.ok) return;
+        const suggestions = await res.json();
+        setStudentResults(
+          (suggestions || []).map((s) => ({
+            matricula: s.id,
+            nome: s.label || "",
+            email: s.detail || "",
+          }))
+        );
+      } catch {}
+    })();
+    return () => controller.abort();
   }, [studentQuery]);
 
   const checkAvailability = useCallback(async () => {
@@ -289,11 +289,7 @@ export default function NovoEmprestimo() {
                     <Search className="absolute left-2 top-1/2 -translate-y-1/2 h-4 w-4 text-foreground/60" />
                     <input
                       className="w-full h-10 rounded-md border bg-background pl-8 pr-3 text-sm"
-                      placeholder={
-                        loaded.books
-                          ? "Busque por título ou autor"
-                          : "Carregando livros..."
-                      }
+                      placeholder="Busque por título ou autor"
                       value={selectedBook ? `${selectedBook.title}` : bookQuery}
                       onChange={(e) => {
                         setSelectedBook(null);
@@ -355,11 +351,7 @@ export default function NovoEmprestimo() {
                     <Search className="absolute left-2 top-1/2 -translate-y-1/2 h-4 w-4 text-foreground/60" />
                     <input
                       className="w-full h-10 rounded-md border bg-background pl-8 pr-3 text-sm"
-                      placeholder={
-                        loaded.students
-                          ? "Busque por nome ou e-mail"
-                          : "Carregando alunos..."
-                      }
+                      placeholder="Busque por nome ou matrícula"
                       value={
                         selectedStudent
                           ? `${selectedStudent.nome}`
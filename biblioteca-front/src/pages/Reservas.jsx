@@ -19,9 +19,9 @@ export default function Reservas() {
 
   const [sortOrder, setSortOrder] = useState("TITLE_ASC");
 
-  const fetchReservations = useCallback(async () => {
+  const fetchReservations = useCallback(async ({ silent = false } = {}) => {
     try {
-      setLoading(true);
+      if (!silent) setLoading(true);
       setError("");
       const res = await fetch(`${API_BASE_URL}/reservations`, {
         headers: { "Content-Type": "application/json" },
@@ -32,7 +32,7 @@ export default function Reservas() {
     } catch (e) {
       setError(e.message || "Erro ao carregar reservas");
     } finally {
-      setLoading(false);
+      if (!silent) setLoading(false);
     }
   }, []);
 
@@ -54,6 +54,46 @@ export default function Reservas() {
     fetchBooks();
   }, [fetchReservations, fetchBooks]);
 
+  // Posições da fila atualizadas pelo canal de eventos
+  useEffect(() => {
+    const source = new EventSource(`${API_BASE_URL}/events/stream`);
+
+    source.addEventListener("queue", (event) => {
+      const data = JSON.parse(event.data);
+      const positions = new Map(data.queue.map((entry) => [entry.reservationId, entry]));
+      setReservations((prev) => {
+        const known = new Set(prev.map((r) => r.id));
+        const missing = data.queue.some((entry) => !known.has(entry.reservationId));
+        const stale = prev.some(
+          (r) =>
+            r.bookIsbn === data.isbn &&
+            r.status === "ACTIVE" &&
+            !positions.has(r.id) &&
+            r.id !== data.reservationId
+        );
+        if (missing || stale) {
+          fetchReservations({ silent: true });
+          return prev;
+        }
+        return prev.map((r) => {
+          if (r.bookIsbn !== data.isbn) return r;
+          const entry = positions.get(r.id);
+          if (entry) {
+            return { ...r, queuePosition: entry.queuePosition, priority: entry.priority };
+          }
+          return r.id === data.reservationId ? { ...r, status: data.status } : r;
+        });
+      });
+    });
+
+    source.addEventListener("resync", () => {
+      fetchReservations({ silent: true });
+      fetchBooks();
+    });
+
+    return () => source.close();
+  }, [fetchReservations, fetchBooks]);
+
   const groupedReservations = useMemo(() => {
     const filtered = reservations.filter((r) => r.status === "ACTIVE");
 